@@ -0,0 +1,44 @@
+package com.accounting.app.cache;
+
+/**
+ * キャッシュの統計情報
+ */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final int size;
+    private final int maxEntries;
+
+    public CacheStats(long hits, long misses, long evictions, long expirations, int size, int maxEntries) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.size = size;
+        this.maxEntries = maxEntries;
+    }
+
+    public long getHits() { return hits; }
+
+    public long getMisses() { return misses; }
+
+    /** 件数上限による追い出し件数 */
+    public long getEvictions() { return evictions; }
+
+    /** 有効期限切れによる削除件数 */
+    public long getExpirations() { return expirations; }
+
+    public int getSize() { return size; }
+
+    public int getMaxEntries() { return maxEntries; }
+
+    /**
+     * ヒット率（0〜1、参照が無い場合は0）
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
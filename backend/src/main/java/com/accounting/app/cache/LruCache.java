@@ -0,0 +1,120 @@
+package com.accounting.app.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 件数上限（LRU）と有効期限（TTL）付きのインメモリキャッシュ
+ * 全操作をこのインスタンスで同期する。ヒット・ミス・追い出し件数を記録する。
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+public class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * @param maxEntries 最大件数（超えた場合は最も古く参照されたエントリを追い出す）
+     * @param ttl 有効期限（登録からの経過時間）
+     */
+    public LruCache(int maxEntries, Duration ttl) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > LruCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 値を取得（存在しない・期限切れの場合はnull）
+     */
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAt > ttlNanos) {
+            entries.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * 値を登録（既存の値は置き換える）
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new CacheEntry<>(value, System.nanoTime()));
+    }
+
+    /**
+     * 値を削除
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 条件に一致するキーの値をすべて削除
+     * @return 削除件数
+     */
+    public synchronized int removeIf(Predicate<? super K> predicate) {
+        int removed = 0;
+        Iterator<K> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (predicate.test(iterator.next())) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 全件削除
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 統計情報を取得
+     */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, expirations, entries.size(), maxEntries);
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private CacheEntry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.accounting.app.config;
+
+import com.accounting.app.service.AccountBalanceRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 起動時の勘定科目期間残高バックフィル
+ *
+ * 仕訳があるのにロールアップが未作成の会社（本機能導入前のデータ）を検出し再構築する。
+ * 会社ごとに元帳バージョンの行ロックを取得してから再確認するため、複数ノードの同時起動でも重複しない。
+ */
+@Component
+public class AccountBalanceRollupInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountBalanceRollupInitializer.class);
+
+    @Value("${app.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    private final AccountBalanceRollupService accountBalanceRollupService;
+
+    public AccountBalanceRollupInitializer(AccountBalanceRollupService accountBalanceRollupService) {
+        this.accountBalanceRollupService = accountBalanceRollupService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!backfillOnStartup) {
+            return;
+        }
+
+        List<Long> companyIds = accountBalanceRollupService.findCompaniesWithoutBalances();
+        for (Long companyId : companyIds) {
+            if (accountBalanceRollupService.backfill(companyId)) {
+                logger.info("勘定科目期間残高をバックフィルしました: companyId={}", companyId);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.accounting.app.config;
+
+import com.accounting.app.entity.IdSequences;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 起動時の採番テーブル初期化
+ *
+ * IDENTITY で採番していた既存データと重複しないよう、採番テーブルの次の値を各テーブルの最大ID＋1以上に合わせる。
+ * リクエストの受付開始前に完了させるため、Webサーバー起動前（全シングルトン生成後）に実行する。
+ * 既存データに合わせるのは起動時の1回のみのため、IDENTITY で登録する旧バージョンのノードと同時に稼働させないこと
+ * （本方式への更新時はローリングデプロイを行わず、全ノードを停止してから起動する。README参照）。
+ */
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    /** 採番セグメント名 → 採番対象テーブル */
+    private static final Map<String, String> SEGMENTS = new LinkedHashMap<>();
+
+    static {
+        SEGMENTS.put("journals", "journals");
+        SEGMENTS.put("journal_details", "journal_details");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        SEGMENTS.forEach(this::synchronize);
+    }
+
+    private void synchronize(String segment, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        long nextValue = (maxId != null ? maxId : 0L) + 1;
+
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT " + IdSequences.VALUE_COLUMN + " FROM " + IdSequences.TABLE_NAME +
+                " WHERE " + IdSequences.SEGMENT_COLUMN + " = ?", Long.class, segment);
+        if (current.isEmpty()) {
+            try {
+                jdbcTemplate.update(
+                        "INSERT INTO " + IdSequences.TABLE_NAME +
+                        " (" + IdSequences.SEGMENT_COLUMN + ", " + IdSequences.VALUE_COLUMN + ") VALUES (?, ?)",
+                        segment, nextValue);
+                logger.info("採番テーブルを初期化しました: {}={}", segment, nextValue);
+                return;
+            } catch (DuplicateKeyException e) {
+                // 他のインスタンスが同時に作成した場合は下の更新で合わせる
+            }
+        }
+
+        int updated = jdbcTemplate.update(
+                "UPDATE " + IdSequences.TABLE_NAME + " SET " + IdSequences.VALUE_COLUMN + " = ?" +
+                " WHERE " + IdSequences.SEGMENT_COLUMN + " = ? AND " + IdSequences.VALUE_COLUMN + " < ?",
+                nextValue, segment, nextValue);
+        if (updated > 0) {
+            logger.info("採番テーブルを既存データに合わせました: {}={}", segment, nextValue);
+        }
+    }
+}
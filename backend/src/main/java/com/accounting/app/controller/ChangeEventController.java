@@ -0,0 +1,44 @@
+package com.accounting.app.controller;
+
+import com.accounting.app.dto.common.ApiResponse;
+import com.accounting.app.dto.response.ChangeEventResponse;
+import com.accounting.app.security.JwtTokenProvider.UserPrincipal;
+import com.accounting.app.service.CompanyAccessService;
+import com.accounting.app.service.OutboxService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 変更イベント（仕訳・請求書・入金）の差分取得
+ * 外部の連携処理は最後に処理した連番を after に指定して、以降の変更のみを取得する
+ */
+@RestController
+@RequestMapping("/companies/{companyId}/change-events")
+public class ChangeEventController {
+
+    private final OutboxService outboxService;
+    private final CompanyAccessService companyAccessService;
+
+    public ChangeEventController(OutboxService outboxService,
+                                 CompanyAccessService companyAccessService) {
+        this.outboxService = outboxService;
+        this.companyAccessService = companyAccessService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ChangeEventResponse>>> findAfter(
+            @PathVariable Long companyId,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "500") int limit,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        List<ChangeEventResponse> events = outboxService.findAfter(companyId, after, limit);
+        return ResponseEntity.ok(ApiResponse.success(events));
+    }
+}
@@ -3,6 +3,7 @@ package com.accounting.app.controller;
 import com.accounting.app.dto.common.ApiResponse;
 import com.accounting.app.dto.request.InvoiceRequest;
 import com.accounting.app.dto.response.InvoiceResponse;
+import com.accounting.app.service.IdempotencyService;
 import com.accounting.app.service.InvoiceService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,9 +18,11 @@ import javax.validation.Valid;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final IdempotencyService idempotencyService;
 
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService, IdempotencyService idempotencyService) {
         this.invoiceService = invoiceService;
+        this.idempotencyService = idempotencyService;
     }
 
     @GetMapping
@@ -41,9 +44,10 @@ public class InvoiceController {
     @PostMapping
     public ResponseEntity<ApiResponse<InvoiceResponse>> create(
             @PathVariable Long companyId,
-            @Valid @RequestBody InvoiceRequest request) {
-        InvoiceResponse invoice = invoiceService.create(companyId, request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(invoice));
+            @Valid @RequestBody InvoiceRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(companyId, IdempotencyService.INVOICE_CREATE, idempotencyKey, request,
+                InvoiceResponse.class, HttpStatus.CREATED, () -> invoiceService.create(companyId, request));
     }
 
     @PutMapping("/{id}")
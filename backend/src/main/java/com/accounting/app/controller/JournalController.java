@@ -2,17 +2,30 @@ package com.accounting.app.controller;
 
 import com.accounting.app.dto.common.ApiResponse;
 import com.accounting.app.dto.request.JournalRequest;
+import com.accounting.app.dto.response.JournalImportResponse;
+import com.accounting.app.dto.response.JournalPostingResponse;
 import com.accounting.app.dto.response.JournalResponse;
+import com.accounting.app.dto.response.JournalSearchHit;
+import com.accounting.app.dto.response.JournalSearchRebuildResponse;
 import com.accounting.app.security.JwtTokenProvider.UserPrincipal;
 import com.accounting.app.service.CompanyAccessService;
+import com.accounting.app.service.IdempotencyService;
+import com.accounting.app.service.JournalImportService;
+import com.accounting.app.service.JournalPostingService;
+import com.accounting.app.service.JournalSearchService;
 import com.accounting.app.service.JournalService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -21,12 +34,24 @@ import java.util.List;
 public class JournalController {
 
     private final JournalService journalService;
+    private final JournalImportService journalImportService;
     private final CompanyAccessService companyAccessService;
+    private final IdempotencyService idempotencyService;
+    private final JournalPostingService journalPostingService;
+    private final JournalSearchService journalSearchService;
 
     public JournalController(JournalService journalService,
-                            CompanyAccessService companyAccessService) {
+                            JournalImportService journalImportService,
+                            CompanyAccessService companyAccessService,
+                            IdempotencyService idempotencyService,
+                            JournalPostingService journalPostingService,
+                            JournalSearchService journalSearchService) {
         this.journalService = journalService;
+        this.journalImportService = journalImportService;
         this.companyAccessService = companyAccessService;
+        this.idempotencyService = idempotencyService;
+        this.journalPostingService = journalPostingService;
+        this.journalSearchService = journalSearchService;
     }
 
     @GetMapping
@@ -48,6 +73,36 @@ public class JournalController {
         return ResponseEntity.ok(ApiResponse.success(journals));
     }
 
+    /**
+     * 仕訳ヘッダー・明細の摘要を検索（関連度の高い順、1ページの最大件数は100）
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<Page<JournalSearchHit>>> search(
+            @PathVariable Long companyId,
+            @RequestParam String q,
+            Pageable pageable,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return ResponseEntity.ok(ApiResponse.success(journalSearchService.search(companyId, q, pageable)));
+    }
+
+    /**
+     * 摘要検索のインデックスをDBから作り直す
+     */
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<ApiResponse<JournalSearchRebuildResponse>> rebuildSearchIndex(
+            @PathVariable Long companyId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return ResponseEntity.ok(ApiResponse.success(journalSearchService.rebuild(companyId)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<JournalResponse>> findById(
             @PathVariable Long companyId,
@@ -65,13 +120,49 @@ public class JournalController {
     public ResponseEntity<ApiResponse<JournalResponse>> create(
             @PathVariable Long companyId,
             @Valid @RequestBody JournalRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserPrincipal currentUser) {
 
         // アクセス権限チェック
         companyAccessService.validateAccess(currentUser.getUserId(), companyId);
 
-        JournalResponse journal = journalService.create(companyId, request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(journal));
+        return idempotencyService.execute(companyId, IdempotencyService.JOURNAL_CREATE, idempotencyKey, request,
+                JournalResponse.class, HttpStatus.CREATED, () -> journalService.create(companyId, request));
+    }
+
+    /**
+     * 仕訳の非同期登録（検証と仕訳番号の確定のみ行い、登録は後でまとめて行う）
+     * 結果は返却したチケットIDで照会する。同じ Idempotency-Key での再送には最初のチケットを返す
+     */
+    @PostMapping("/async")
+    public ResponseEntity<ApiResponse<JournalPostingResponse>> submitAsync(
+            @PathVariable Long companyId,
+            @Valid @RequestBody JournalRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return idempotencyService.execute(companyId, IdempotencyService.JOURNAL_CREATE_ASYNC, idempotencyKey,
+                request, JournalPostingResponse.class, HttpStatus.ACCEPTED,
+                () -> journalPostingService.submit(companyId, request));
+    }
+
+    /**
+     * 非同期登録の状態（waitSeconds を指定した場合は登録完了まで待つ）
+     */
+    @GetMapping("/async/{ticketId}")
+    public ResponseEntity<ApiResponse<JournalPostingResponse>> getAsync(
+            @PathVariable Long companyId,
+            @PathVariable String ticketId,
+            @RequestParam(defaultValue = "0") long waitSeconds,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return ResponseEntity.ok(ApiResponse.success(journalPostingService.get(companyId, ticketId, waitSeconds)));
     }
 
     @PutMapping("/{id}")
@@ -100,4 +191,27 @@ public class JournalController {
         journalService.delete(id);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).body(ApiResponse.success(null));
     }
+
+    /**
+     * 仕訳CSVの一括取込（リクエストボディにCSVをそのまま送信）
+     * エラーがある場合は1件も登録せず、行ごとのエラーを返す。dryRun=true の場合は検証のみ行う
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ApiResponse<JournalImportResponse>> importCsv(
+            @PathVariable Long companyId,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @RequestParam(defaultValue = "UTF-8") String charset,
+            InputStream body,
+            @AuthenticationPrincipal UserPrincipal currentUser) throws IOException {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        JournalImportResponse result = journalImportService.importCsv(companyId, body, charset, dryRun);
+        if (result.getErrorCount() > 0) {
+            return ResponseEntity.badRequest().body(
+                    ApiResponse.error("JOURNAL_IMPORT_FAILED", "取込データにエラーがあります", result));
+        }
+        return ResponseEntity.status(dryRun ? HttpStatus.OK : HttpStatus.CREATED).body(ApiResponse.success(result));
+    }
 }
@@ -3,6 +3,7 @@ package com.accounting.app.controller;
 import com.accounting.app.dto.common.ApiResponse;
 import com.accounting.app.dto.request.PaymentRequest;
 import com.accounting.app.dto.response.PaymentResponse;
+import com.accounting.app.service.IdempotencyService;
 import com.accounting.app.service.PaymentService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,9 +19,11 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
     }
 
     @GetMapping
@@ -50,9 +53,10 @@ public class PaymentController {
     @PostMapping
     public ResponseEntity<ApiResponse<PaymentResponse>> create(
             @PathVariable Long companyId,
-            @Valid @RequestBody PaymentRequest request) {
-        PaymentResponse payment = paymentService.create(companyId, request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(payment));
+            @Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(companyId, IdempotencyService.PAYMENT_CREATE, idempotencyKey, request,
+                PaymentResponse.class, HttpStatus.CREATED, () -> paymentService.create(companyId, request));
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,112 @@
+package com.accounting.app.controller;
+
+import com.accounting.app.dto.common.ApiResponse;
+import com.accounting.app.dto.request.RecurringJournalRequest;
+import com.accounting.app.dto.response.RecurringJournalGenerateResponse;
+import com.accounting.app.dto.response.RecurringJournalResponse;
+import com.accounting.app.security.JwtTokenProvider.UserPrincipal;
+import com.accounting.app.service.CompanyAccessService;
+import com.accounting.app.service.RecurringJournalService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/companies/{companyId}/recurring-journals")
+public class RecurringJournalController {
+
+    private final RecurringJournalService recurringJournalService;
+    private final CompanyAccessService companyAccessService;
+
+    public RecurringJournalController(RecurringJournalService recurringJournalService,
+                                      CompanyAccessService companyAccessService) {
+        this.recurringJournalService = recurringJournalService;
+        this.companyAccessService = companyAccessService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<RecurringJournalResponse>>> findAll(
+            @PathVariable Long companyId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return ResponseEntity.ok(ApiResponse.success(recurringJournalService.findAll(companyId)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<RecurringJournalResponse>> findById(
+            @PathVariable Long companyId,
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return ResponseEntity.ok(ApiResponse.success(recurringJournalService.findById(companyId, id)));
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<RecurringJournalResponse>> create(
+            @PathVariable Long companyId,
+            @Valid @RequestBody RecurringJournalRequest request,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        RecurringJournalResponse template = recurringJournalService.create(companyId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(template));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<RecurringJournalResponse>> update(
+            @PathVariable Long companyId,
+            @PathVariable Long id,
+            @Valid @RequestBody RecurringJournalRequest request,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return ResponseEntity.ok(ApiResponse.success(recurringJournalService.update(companyId, id, request)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> delete(
+            @PathVariable Long companyId,
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        recurringJournalService.delete(companyId, id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).body(ApiResponse.success(null));
+    }
+
+    /**
+     * 会計期間内で登録日を迎えた定期仕訳をまとめて作成（asOfDate 未指定の場合は当日まで）
+     */
+    @PostMapping("/generate")
+    public ResponseEntity<ApiResponse<RecurringJournalGenerateResponse>> generate(
+            @PathVariable Long companyId,
+            @RequestParam Long fiscalPeriodId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        RecurringJournalGenerateResponse result = recurringJournalService.generate(
+                companyId, fiscalPeriodId, asOfDate != null ? asOfDate : LocalDate.now());
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+}
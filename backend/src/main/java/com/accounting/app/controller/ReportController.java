@@ -1,13 +1,27 @@
 package com.accounting.app.controller;
 
+import com.accounting.app.cache.CacheStats;
 import com.accounting.app.dto.common.ApiResponse;
 import com.accounting.app.dto.response.*;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.security.JwtTokenProvider.UserPrincipal;
 import com.accounting.app.service.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
 
 /**
  * レポート生成API
@@ -16,20 +30,41 @@ import java.time.LocalDate;
 @RequestMapping("/companies/{companyId}/reports")
 public class ReportController {
 
+    private static final int DEFAULT_LEDGER_PAGE_SIZE = 100;
+    private static final int MAX_LEDGER_PAGE_SIZE = 1000;
+    private static final MediaType NDJSON_MEDIA_TYPE = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType XLSX_MEDIA_TYPE =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
     private final GeneralLedgerService generalLedgerService;
+    private final GeneralLedgerExportService generalLedgerExportService;
     private final TrialBalanceService trialBalanceService;
     private final ProfitLossService profitLossService;
     private final BalanceSheetService balanceSheetService;
+    private final TrendService trendService;
+    private final AccountBalanceRollupService accountBalanceRollupService;
+    private final CompanyAccessService companyAccessService;
+    private final ReportCacheService reportCacheService;
 
     public ReportController(
             GeneralLedgerService generalLedgerService,
+            GeneralLedgerExportService generalLedgerExportService,
             TrialBalanceService trialBalanceService,
             ProfitLossService profitLossService,
-            BalanceSheetService balanceSheetService) {
+            BalanceSheetService balanceSheetService,
+            TrendService trendService,
+            AccountBalanceRollupService accountBalanceRollupService,
+            CompanyAccessService companyAccessService,
+            ReportCacheService reportCacheService) {
         this.generalLedgerService = generalLedgerService;
+        this.generalLedgerExportService = generalLedgerExportService;
         this.trialBalanceService = trialBalanceService;
         this.profitLossService = profitLossService;
         this.balanceSheetService = balanceSheetService;
+        this.trendService = trendService;
+        this.accountBalanceRollupService = accountBalanceRollupService;
+        this.companyAccessService = companyAccessService;
+        this.reportCacheService = reportCacheService;
     }
 
     /**
@@ -40,12 +75,64 @@ public class ReportController {
             @PathVariable Long companyId,
             @RequestParam Long accountId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
 
-        GeneralLedgerReport report = generalLedgerService.generate(companyId, accountId, startDate, endDate);
+        Pageable pageable = toLedgerPageable(page, size);
+        GeneralLedgerReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.GENERAL_LEDGER,
+                () -> generalLedgerService.generate(companyId, accountId, startDate, endDate, pageable),
+                accountId, startDate, endDate, pageable);
         return ResponseEntity.ok(ApiResponse.success(report));
     }
 
+    /**
+     * 総勘定元帳（ストリーミング出力）
+     * 明細をDBカーソルから1行ずつ書き出すため、長期間・大量明細でもメモリ使用量は一定
+     * format=ndjson の場合は1行1オブジェクト（header → entry... → footer）、format=pdf・xlsx の場合は帳票PDF・Excelで出力
+     */
+    @GetMapping("/general-ledger/stream")
+    public ResponseEntity<StreamingResponseBody> streamGeneralLedger(
+            @PathVariable Long companyId,
+            @RequestParam Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "json") String format) {
+
+        GeneralLedgerExportService.Format exportFormat = GeneralLedgerExportService.Format.of(format);
+
+        // 勘定科目の存在確認と期首残高の計算は書き出し前に行う（エラー時は通常のエラーレスポンス）
+        GeneralLedgerReport header = generalLedgerService.generateHeader(companyId, accountId, startDate, endDate);
+
+        StreamingResponseBody body = out -> generalLedgerExportService.write(companyId, header, accountId, exportFormat, out);
+        return ResponseEntity.ok().contentType(mediaType(exportFormat)).body(body);
+    }
+
+    /**
+     * 総勘定元帳（複数勘定科目の一括ストリーミング出力）
+     * accountIds を省略した場合は全勘定科目を勘定科目コード順に出力
+     * 期首残高は1回の集計、明細は1回の並び順付きクエリで読み出す
+     */
+    @GetMapping("/general-ledger/batch/stream")
+    public ResponseEntity<StreamingResponseBody> streamGeneralLedgerBatch(
+            @PathVariable Long companyId,
+            @RequestParam(required = false) List<Long> accountIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        GeneralLedgerExportService.Format exportFormat = GeneralLedgerExportService.Format.of(format);
+        List<Long> selectedIds = accountIds != null && !accountIds.isEmpty() ? accountIds : null;
+
+        // 勘定科目の存在確認と期首残高の計算は書き出し前に行う（エラー時は通常のエラーレスポンス）
+        List<GeneralLedgerReport> headers = generalLedgerService.generateBatchHeaders(
+                companyId, selectedIds, startDate, endDate);
+
+        StreamingResponseBody body = out -> generalLedgerExportService.writeBatch(
+                companyId, headers, selectedIds, exportFormat, out);
+        return ResponseEntity.ok().contentType(mediaType(exportFormat)).body(body);
+    }
+
     /**
      * 試算表
      */
@@ -54,7 +141,55 @@ public class ReportController {
             @PathVariable Long companyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
 
-        TrialBalanceReport report = trialBalanceService.generate(companyId, asOfDate);
+        TrialBalanceReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.TRIAL_BALANCE,
+                () -> trialBalanceService.generate(companyId, asOfDate), asOfDate);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
+    /**
+     * 試算表（PDF）
+     */
+    @GetMapping("/trial-balance/pdf")
+    public ResponseEntity<byte[]> getTrialBalancePdf(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+
+        TrialBalanceReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.TRIAL_BALANCE,
+                () -> trialBalanceService.generate(companyId, asOfDate), asOfDate);
+        return pdf(trialBalanceService.exportPdf(report), "trial-balance-" + asOfDate + ".pdf");
+    }
+
+    /**
+     * 試算表（Excel）
+     */
+    @GetMapping("/trial-balance/xlsx")
+    public ResponseEntity<StreamingResponseBody> getTrialBalanceExcel(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+
+        TrialBalanceReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.TRIAL_BALANCE,
+                () -> trialBalanceService.generate(companyId, asOfDate), asOfDate);
+        return xlsx(out -> trialBalanceService.writeExcel(report, out), "trial-balance-" + asOfDate + ".xlsx");
+    }
+
+    /**
+     * 試算表（補助科目・取引先別）
+     * groupBy に subAccount・partner の一方または両方をカンマ区切りで指定
+     */
+    @GetMapping("/trial-balance/drill-down")
+    public ResponseEntity<ApiResponse<TrialBalanceDrillDownReport>> getTrialBalanceDrillDown(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam List<String> groupBy,
+            @RequestParam(defaultValue = "true") boolean subtotals) {
+
+        Set<TrialBalanceService.DrillDownGroup> groups = TrialBalanceService.DrillDownGroup.parse(groupBy);
+        boolean groupBySubAccount = groups.contains(TrialBalanceService.DrillDownGroup.SUB_ACCOUNT);
+        boolean groupByPartner = groups.contains(TrialBalanceService.DrillDownGroup.PARTNER);
+        TrialBalanceDrillDownReport report = reportCacheService.get(companyId,
+                ReportCacheService.ReportType.TRIAL_BALANCE_DRILL_DOWN,
+                () -> trialBalanceService.generateDrillDown(companyId, asOfDate, groupBySubAccount, groupByPartner, subtotals),
+                asOfDate, groupBySubAccount, groupByPartner, subtotals);
         return ResponseEntity.ok(ApiResponse.success(report));
     }
 
@@ -67,10 +202,40 @@ public class ReportController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        ProfitLossReport report = profitLossService.generate(companyId, startDate, endDate);
+        ProfitLossReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.PROFIT_LOSS,
+                () -> profitLossService.generate(companyId, startDate, endDate), startDate, endDate);
         return ResponseEntity.ok(ApiResponse.success(report));
     }
 
+    /**
+     * 損益計算書（PDF）
+     */
+    @GetMapping("/profit-loss/pdf")
+    public ResponseEntity<byte[]> getProfitLossPdf(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        ProfitLossReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.PROFIT_LOSS,
+                () -> profitLossService.generate(companyId, startDate, endDate), startDate, endDate);
+        return pdf(profitLossService.exportPdf(report), "profit-loss-" + startDate + "-" + endDate + ".pdf");
+    }
+
+    /**
+     * 損益計算書（Excel）
+     */
+    @GetMapping("/profit-loss/xlsx")
+    public ResponseEntity<StreamingResponseBody> getProfitLossExcel(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        ProfitLossReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.PROFIT_LOSS,
+                () -> profitLossService.generate(companyId, startDate, endDate), startDate, endDate);
+        return xlsx(out -> profitLossService.writeExcel(report, out),
+                "profit-loss-" + startDate + "-" + endDate + ".xlsx");
+    }
+
     /**
      * 貸借対照表
      */
@@ -79,7 +244,147 @@ public class ReportController {
             @PathVariable Long companyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
 
-        BalanceSheetReport report = balanceSheetService.generate(companyId, asOfDate);
+        BalanceSheetReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.BALANCE_SHEET,
+                () -> balanceSheetService.generate(companyId, asOfDate), asOfDate);
         return ResponseEntity.ok(ApiResponse.success(report));
     }
+
+    /**
+     * 貸借対照表（PDF）
+     */
+    @GetMapping("/balance-sheet/pdf")
+    public ResponseEntity<byte[]> getBalanceSheetPdf(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+
+        BalanceSheetReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.BALANCE_SHEET,
+                () -> balanceSheetService.generate(companyId, asOfDate), asOfDate);
+        return pdf(balanceSheetService.exportPdf(report), "balance-sheet-" + asOfDate + ".pdf");
+    }
+
+    /**
+     * 貸借対照表（Excel）
+     */
+    @GetMapping("/balance-sheet/xlsx")
+    public ResponseEntity<StreamingResponseBody> getBalanceSheetExcel(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+
+        BalanceSheetReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.BALANCE_SHEET,
+                () -> balanceSheetService.generate(companyId, asOfDate), asOfDate);
+        return xlsx(out -> balanceSheetService.writeExcel(report, out), "balance-sheet-" + asOfDate + ".xlsx");
+    }
+
+    /**
+     * 月次推移（月ごとの損益と月末残高）
+     */
+    @GetMapping("/trend")
+    public ResponseEntity<ApiResponse<TrendReport>> getTrend(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth fromMonth,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth toMonth,
+            @RequestParam(defaultValue = "false") boolean includePriorYear) {
+
+        TrendReport report = reportCacheService.get(companyId, ReportCacheService.ReportType.TREND,
+                () -> trendService.generate(companyId, fromMonth, toMonth, includePriorYear),
+                fromMonth, toMonth, includePriorYear);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
+    /**
+     * 勘定科目期間残高の再構築（既存データのバックフィル用）
+     */
+    @PostMapping("/balances/rebuild")
+    public ResponseEntity<ApiResponse<BalanceRebuildResponse>> rebuildBalances(
+            @PathVariable Long companyId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        BalanceRebuildResponse result = accountBalanceRollupService.rebuild(companyId);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    /**
+     * レポートキャッシュの統計情報（キャッシュ全体）
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<CacheStats>> getCacheStats(
+            @PathVariable Long companyId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return ResponseEntity.ok(ApiResponse.success(reportCacheService.getStats()));
+    }
+
+    /**
+     * 会社のレポートキャッシュを削除
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<ApiResponse<Void>> invalidateCache(
+            @PathVariable Long companyId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        reportCacheService.invalidateCompany(companyId);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).body(ApiResponse.success(null));
+    }
+
+    /**
+     * 総勘定元帳の出力形式に対応するContent-Type
+     */
+    private static MediaType mediaType(GeneralLedgerExportService.Format format) {
+        switch (format) {
+            case NDJSON:
+                return NDJSON_MEDIA_TYPE;
+            case PDF:
+                return MediaType.APPLICATION_PDF;
+            case XLSX:
+                return XLSX_MEDIA_TYPE;
+            default:
+                return MediaType.APPLICATION_JSON;
+        }
+    }
+
+    /**
+     * PDFのダウンロードレスポンス
+     */
+    private static ResponseEntity<byte[]> pdf(byte[] content, String fileName) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(content);
+    }
+
+    /**
+     * Excelのダウンロードレスポンス（出力ストリームへ直接書き込む）
+     */
+    private static ResponseEntity<StreamingResponseBody> xlsx(StreamingResponseBody body, String fileName) {
+        return ResponseEntity.ok()
+                .contentType(XLSX_MEDIA_TYPE)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    /**
+     * 総勘定元帳のページ指定を作成（page・size のどちらかが指定された場合のみページング）
+     */
+    private Pageable toLedgerPageable(Integer page, Integer size) {
+        if (page == null && size == null) {
+            return Pageable.unpaged();
+        }
+        int pageNumber = page != null ? page : 0;
+        int pageSize = size != null ? size : DEFAULT_LEDGER_PAGE_SIZE;
+        if (pageNumber < 0 || pageSize < 1 || pageSize > MAX_LEDGER_PAGE_SIZE) {
+            throw new BadRequestException("page は0以上、size は1〜" + MAX_LEDGER_PAGE_SIZE + "で指定してください");
+        }
+        return PageRequest.of(pageNumber, pageSize);
+    }
 }
@@ -0,0 +1,121 @@
+package com.accounting.app.controller;
+
+import com.accounting.app.dto.common.ApiResponse;
+import com.accounting.app.dto.request.ReportJobRequest;
+import com.accounting.app.dto.response.ReportJobResponse;
+import com.accounting.app.security.JwtTokenProvider.UserPrincipal;
+import com.accounting.app.service.CompanyAccessService;
+import com.accounting.app.service.ReportJobService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.validation.Valid;
+
+/**
+ * レポートジョブAPI
+ * 時間のかかるレポートを非同期に作成し、完了後に結果をダウンロードする
+ */
+@RestController
+@RequestMapping("/companies/{companyId}/report-jobs")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+    private final CompanyAccessService companyAccessService;
+
+    public ReportJobController(ReportJobService reportJobService,
+                               CompanyAccessService companyAccessService) {
+        this.reportJobService = reportJobService;
+        this.companyAccessService = companyAccessService;
+    }
+
+    /**
+     * レポートジョブを登録
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submit(
+            @PathVariable Long companyId,
+            @Valid @RequestBody ReportJobRequest request,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        ReportJobResponse job = reportJobService.submit(companyId, currentUser.getUserId(), request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(job));
+    }
+
+    /**
+     * ジョブの状態
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> get(
+            @PathVariable Long companyId,
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return ResponseEntity.ok(ApiResponse.success(reportJobService.get(companyId, jobId)));
+    }
+
+    /**
+     * ジョブの進捗（Server-Sent Events、終了時に切断）
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            @PathVariable Long companyId,
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        return reportJobService.subscribe(companyId, jobId);
+    }
+
+    /**
+     * ジョブ結果のダウンロード
+     */
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<Resource> download(
+            @PathVariable Long companyId,
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        ReportJobService.Result result = reportJobService.getResult(companyId, jobId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(result.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(result.getFileName()).build().toString())
+                .body(new FileSystemResource(result.getFile()));
+    }
+
+    /**
+     * ジョブの取消・結果の削除
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<Void>> cancel(
+            @PathVariable Long companyId,
+            @PathVariable String jobId,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        // アクセス権限チェック
+        companyAccessService.validateAccess(currentUser.getUserId(), companyId);
+
+        reportJobService.cancel(companyId, jobId);
+        // 204 はレスポンス本文を持たない
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.accounting.app.csv;
+
+import java.io.IOException;
+
+/**
+ * CSVの形式エラー
+ */
+public class CsvFormatException extends IOException {
+
+    private final long lineNumber;
+
+    public CsvFormatException(long lineNumber, String message) {
+        super(message);
+        this.lineNumber = lineNumber;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+}
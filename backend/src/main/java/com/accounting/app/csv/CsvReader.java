@@ -0,0 +1,138 @@
+package com.accounting.app.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSVの逐次読み込み（RFC 4180）
+ *
+ * 1レコードずつ読み出すため、ファイル全体をメモリに展開しない。
+ * ダブルクォートで囲んだ項目内のカンマ・改行・二重のダブルクォート（""）に対応する。
+ * 改行は CRLF・LF のどちらでもよく、先頭のBOMは読み飛ばす。
+ */
+public class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean started;
+
+    private long lineNumber = 1;
+    private long recordLineNumber;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 次のレコードを読み込む
+     * @return 項目のリスト（ファイル終端の場合null）
+     * @throws CsvFormatException 閉じられていないダブルクォートがある場合
+     */
+    public List<String> next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') {
+                position++;
+            }
+        }
+
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        recordLineNumber = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (true) {
+            if (c < 0) {
+                if (quoted) {
+                    throw new CsvFormatException(recordLineNumber, "ダブルクォートが閉じられていません");
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                    }
+                } else {
+                    if (ch == '\n') {
+                        lineNumber++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (ch == '\r' || ch == '\n') {
+                if (ch == '\r' && peek() == '\n') {
+                    position++;
+                }
+                lineNumber++;
+                fields.add(field.toString());
+                return fields;
+            } else if (ch == '"' && field.length() == 0 && !afterQuote) {
+                quoted = true;
+            } else {
+                field.append(ch);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * 直前に読み込んだレコードの開始行番号（1始まり）
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count;
+        do {
+            count = reader.read(buffer, 0, buffer.length);
+        } while (count == 0);
+        if (count < 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+}
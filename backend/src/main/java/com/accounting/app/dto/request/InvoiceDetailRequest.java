@@ -4,6 +4,8 @@ import javax.validation.constraints.*;
 import java.math.BigDecimal;
 
 public class InvoiceDetailRequest {
+    // 更新時に既存の明細を指定する場合のID（省略時は行番号で対応付ける）
+    private Long id;
     @NotNull @Positive
     private Integer lineNumber;
     private Long itemId;
@@ -15,6 +17,8 @@ public class InvoiceDetailRequest {
     private BigDecimal unitPrice;
     private Long taxTypeId;
 
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
     public Integer getLineNumber() { return lineNumber; }
     public void setLineNumber(Integer lineNumber) { this.lineNumber = lineNumber; }
     public Long getItemId() { return itemId; }
@@ -6,7 +6,8 @@ import java.time.LocalDate;
 import java.util.List;
 
 public class InvoiceRequest {
-    @NotBlank @Size(max = 50)
+    /** 未指定の場合は請求日の会計期間で採番する */
+    @Size(max = 50)
     private String invoiceNumber;
     @NotNull
     private Long partnerId;
@@ -10,6 +10,9 @@ import java.math.BigDecimal;
  */
 public class JournalDetailRequest {
 
+    // 更新時に既存の明細を指定する場合のID（省略時は行番号で対応付ける）
+    private Long id;
+
     @NotNull(message = "行番号は必須です")
     @Positive(message = "行番号は正の整数である必要があります")
     private Integer lineNumber;
@@ -36,6 +39,14 @@ public class JournalDetailRequest {
     private String description;
 
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Integer getLineNumber() {
         return lineNumber;
     }
@@ -1,7 +1,6 @@
 package com.accounting.app.dto.request;
 
 import javax.validation.Valid;
-import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -16,7 +15,7 @@ public class JournalRequest {
     @NotNull(message = "仕訳日は必須です")
     private LocalDate journalDate;
 
-    @NotBlank(message = "仕訳番号は必須です")
+    /** 未指定の場合は仕訳日の会計期間で採番する */
     @Size(max = 50, message = "仕訳番号は50文字以内で入力してください")
     private String journalNumber;
 
@@ -0,0 +1,115 @@
+package com.accounting.app.dto.request;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 定期仕訳テンプレートリクエストDTO
+ */
+public class RecurringJournalRequest {
+
+    @NotBlank(message = "テンプレート名は必須です")
+    @Size(max = 100, message = "テンプレート名は100文字以内で入力してください")
+    private String name;
+
+    /** 作成する仕訳の摘要 */
+    @Size(max = 500, message = "摘要は500文字以内で入力してください")
+    private String description;
+
+    /** 登録間隔（月数、1: 毎月、3: 四半期ごと、12: 毎年） */
+    @NotNull(message = "登録間隔は必須です")
+    @Min(value = 1, message = "登録間隔は1〜12ヶ月で指定してください")
+    @Max(value = 12, message = "登録間隔は1〜12ヶ月で指定してください")
+    private Integer intervalMonths;
+
+    /** 登録日（月末より後の日を指定した場合はその月の末日） */
+    @NotNull(message = "登録日は必須です")
+    @Min(value = 1, message = "登録日は1〜31で指定してください")
+    @Max(value = 31, message = "登録日は1〜31で指定してください")
+    private Integer dayOfMonth;
+
+    @NotNull(message = "開始日は必須です")
+    private LocalDate startDate;
+
+    /** 未指定の場合は終了しない */
+    private LocalDate endDate;
+
+    /** 未指定の場合は有効 */
+    private Boolean active;
+
+    @NotEmpty(message = "仕訳明細は最低1行必要です")
+    @Valid
+    private List<JournalDetailRequest> details;
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getIntervalMonths() {
+        return intervalMonths;
+    }
+
+    public void setIntervalMonths(Integer intervalMonths) {
+        this.intervalMonths = intervalMonths;
+    }
+
+    public Integer getDayOfMonth() {
+        return dayOfMonth;
+    }
+
+    public void setDayOfMonth(Integer dayOfMonth) {
+        this.dayOfMonth = dayOfMonth;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public List<JournalDetailRequest> getDetails() {
+        return details;
+    }
+
+    public void setDetails(List<JournalDetailRequest> details) {
+        this.details = details;
+    }
+}
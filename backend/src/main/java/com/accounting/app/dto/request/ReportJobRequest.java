@@ -0,0 +1,135 @@
+package com.accounting.app.dto.request;
+
+import javax.validation.constraints.NotBlank;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * レポートジョブ登録リクエストDTO
+ * 指定する項目はレポート種別ごとに同期APIのリクエストパラメータと同じ
+ */
+public class ReportJobRequest {
+
+    @NotBlank(message = "レポート種別は必須です")
+    private String reportType;
+
+    private String format;
+
+    private Long accountId;
+
+    private List<Long> accountIds;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private LocalDate asOfDate;
+
+    private YearMonth fromMonth;
+
+    private YearMonth toMonth;
+
+    private Boolean includePriorYear;
+
+    private List<String> groupBy;
+
+    private Boolean subtotals;
+
+    // Getters and Setters
+    public String getReportType() {
+        return reportType;
+    }
+
+    public void setReportType(String reportType) {
+        this.reportType = reportType;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public List<Long> getAccountIds() {
+        return accountIds;
+    }
+
+    public void setAccountIds(List<Long> accountIds) {
+        this.accountIds = accountIds;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public LocalDate getAsOfDate() {
+        return asOfDate;
+    }
+
+    public void setAsOfDate(LocalDate asOfDate) {
+        this.asOfDate = asOfDate;
+    }
+
+    public YearMonth getFromMonth() {
+        return fromMonth;
+    }
+
+    public void setFromMonth(YearMonth fromMonth) {
+        this.fromMonth = fromMonth;
+    }
+
+    public YearMonth getToMonth() {
+        return toMonth;
+    }
+
+    public void setToMonth(YearMonth toMonth) {
+        this.toMonth = toMonth;
+    }
+
+    public Boolean getIncludePriorYear() {
+        return includePriorYear;
+    }
+
+    public void setIncludePriorYear(Boolean includePriorYear) {
+        this.includePriorYear = includePriorYear;
+    }
+
+    public List<String> getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(List<String> groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public Boolean getSubtotals() {
+        return subtotals;
+    }
+
+    public void setSubtotals(Boolean subtotals) {
+        this.subtotals = subtotals;
+    }
+}
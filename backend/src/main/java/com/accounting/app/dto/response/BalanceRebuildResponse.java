@@ -0,0 +1,19 @@
+package com.accounting.app.dto.response;
+
+/**
+ * 勘定科目期間残高の再構築結果
+ */
+public class BalanceRebuildResponse {
+    private Long companyId;
+    private int dayRows;
+    private int monthRows;
+
+    public Long getCompanyId() { return companyId; }
+    public void setCompanyId(Long companyId) { this.companyId = companyId; }
+
+    public int getDayRows() { return dayRows; }
+    public void setDayRows(int dayRows) { this.dayRows = dayRows; }
+
+    public int getMonthRows() { return monthRows; }
+    public void setMonthRows(int monthRows) { this.monthRows = monthRows; }
+}
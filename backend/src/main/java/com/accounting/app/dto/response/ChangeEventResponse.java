@@ -0,0 +1,45 @@
+package com.accounting.app.dto.response;
+
+import com.accounting.app.entity.OutboxEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * 変更イベント
+ * 利用側は最後に処理した sequenceNumber を保存し、次回はその値より後を取得する
+ */
+public class ChangeEventResponse {
+    private Long sequenceNumber;
+    private String aggregateType;
+    private Long aggregateId;
+    private String eventType;
+    private String payload;
+    private LocalDateTime createdAt;
+
+    public static ChangeEventResponse from(OutboxEvent event) {
+        ChangeEventResponse response = new ChangeEventResponse();
+        response.setSequenceNumber(event.getSequenceNumber());
+        response.setAggregateType(event.getAggregateType().name());
+        response.setAggregateId(event.getAggregateId());
+        response.setEventType(event.getEventType().name());
+        response.setPayload(event.getPayload());
+        response.setCreatedAt(event.getCreatedAt());
+        return response;
+    }
+
+    // Getters and Setters
+    public Long getSequenceNumber() { return sequenceNumber; }
+    public void setSequenceNumber(Long sequenceNumber) { this.sequenceNumber = sequenceNumber; }
+    public String getAggregateType() { return aggregateType; }
+    public void setAggregateType(String aggregateType) { this.aggregateType = aggregateType; }
+    public Long getAggregateId() { return aggregateId; }
+    public void setAggregateId(Long aggregateId) { this.aggregateId = aggregateId; }
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+    @JsonRawValue
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
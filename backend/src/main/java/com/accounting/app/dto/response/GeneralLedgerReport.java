@@ -9,6 +9,7 @@ import java.util.List;
  * 総勘定元帳レポート
  */
 public class GeneralLedgerReport {
+    private Long accountId;
     private String accountCode;
     private String accountName;
     private String accountType;
@@ -17,6 +18,14 @@ public class GeneralLedgerReport {
     private BigDecimal openingBalance;
     private BigDecimal closingBalance;
     private List<GeneralLedgerEntry> entries = new ArrayList<>();
+    // ページ指定時のみ設定
+    private Integer page;
+    private Integer size;
+    private Long totalEntries;
+    private Integer totalPages;
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
 
     public String getAccountCode() { return accountCode; }
     public void setAccountCode(String accountCode) { this.accountCode = accountCode; }
@@ -41,4 +50,16 @@ public class GeneralLedgerReport {
 
     public List<GeneralLedgerEntry> getEntries() { return entries; }
     public void setEntries(List<GeneralLedgerEntry> entries) { this.entries = entries; }
+
+    public Integer getPage() { return page; }
+    public void setPage(Integer page) { this.page = page; }
+
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+
+    public Long getTotalEntries() { return totalEntries; }
+    public void setTotalEntries(Long totalEntries) { this.totalEntries = totalEntries; }
+
+    public Integer getTotalPages() { return totalPages; }
+    public void setTotalPages(Integer totalPages) { this.totalPages = totalPages; }
 }
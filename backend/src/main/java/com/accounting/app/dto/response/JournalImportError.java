@@ -0,0 +1,28 @@
+package com.accounting.app.dto.response;
+
+/**
+ * 仕訳CSV一括取込のエラー（行単位）
+ */
+public class JournalImportError {
+    private long lineNumber;
+    private String journalNumber;
+    private String message;
+
+    public JournalImportError() {
+    }
+
+    public JournalImportError(long lineNumber, String journalNumber, String message) {
+        this.lineNumber = lineNumber;
+        this.journalNumber = journalNumber;
+        this.message = message;
+    }
+
+    public long getLineNumber() { return lineNumber; }
+    public void setLineNumber(long lineNumber) { this.lineNumber = lineNumber; }
+
+    public String getJournalNumber() { return journalNumber; }
+    public void setJournalNumber(String journalNumber) { this.journalNumber = journalNumber; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,39 @@
+package com.accounting.app.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 仕訳CSV一括取込の結果
+ * エラーが1件でもある場合は1件も登録しない
+ */
+public class JournalImportResponse {
+    private boolean dryRun;
+    private long rowCount;
+    private long journalCount;
+    private long importedJournalCount;
+    private long errorCount;
+    private boolean errorsTruncated;
+    private List<JournalImportError> errors = new ArrayList<>();
+
+    public boolean isDryRun() { return dryRun; }
+    public void setDryRun(boolean dryRun) { this.dryRun = dryRun; }
+
+    public long getRowCount() { return rowCount; }
+    public void setRowCount(long rowCount) { this.rowCount = rowCount; }
+
+    public long getJournalCount() { return journalCount; }
+    public void setJournalCount(long journalCount) { this.journalCount = journalCount; }
+
+    public long getImportedJournalCount() { return importedJournalCount; }
+    public void setImportedJournalCount(long importedJournalCount) { this.importedJournalCount = importedJournalCount; }
+
+    public long getErrorCount() { return errorCount; }
+    public void setErrorCount(long errorCount) { this.errorCount = errorCount; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public List<JournalImportError> getErrors() { return errors; }
+    public void setErrors(List<JournalImportError> errors) { this.errors = errors; }
+}
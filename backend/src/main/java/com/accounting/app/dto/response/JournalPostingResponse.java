@@ -0,0 +1,38 @@
+package com.accounting.app.dto.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * 仕訳の非同期登録の状態
+ * journalNumber は受付時に確定した仕訳番号、journalId は登録後に設定される
+ */
+public class JournalPostingResponse {
+    private String ticketId;
+    private String status;
+    private String journalNumber;
+    private Long journalId;
+    private LocalDateTime queuedAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+
+    public String getTicketId() { return ticketId; }
+    public void setTicketId(String ticketId) { this.ticketId = ticketId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getJournalNumber() { return journalNumber; }
+    public void setJournalNumber(String journalNumber) { this.journalNumber = journalNumber; }
+
+    public Long getJournalId() { return journalId; }
+    public void setJournalId(Long journalId) { this.journalId = journalId; }
+
+    public LocalDateTime getQueuedAt() { return queuedAt; }
+    public void setQueuedAt(LocalDateTime queuedAt) { this.queuedAt = queuedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
@@ -0,0 +1,42 @@
+package com.accounting.app.dto.response;
+
+import java.time.LocalDate;
+
+/**
+ * 仕訳の摘要検索の結果（1件分）
+ */
+public class JournalSearchHit {
+    private Long journalId;
+    private String journalNumber;
+    private LocalDate journalDate;
+    private String description;
+    /** 関連度（大きいほど検索語に近い） */
+    private double score;
+
+    public JournalSearchHit() {
+    }
+
+    public JournalSearchHit(Long journalId, String journalNumber, LocalDate journalDate,
+                            String description, double score) {
+        this.journalId = journalId;
+        this.journalNumber = journalNumber;
+        this.journalDate = journalDate;
+        this.description = description;
+        this.score = score;
+    }
+
+    public Long getJournalId() { return journalId; }
+    public void setJournalId(Long journalId) { this.journalId = journalId; }
+
+    public String getJournalNumber() { return journalNumber; }
+    public void setJournalNumber(String journalNumber) { this.journalNumber = journalNumber; }
+
+    public LocalDate getJournalDate() { return journalDate; }
+    public void setJournalDate(LocalDate journalDate) { this.journalDate = journalDate; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+}
@@ -0,0 +1,23 @@
+package com.accounting.app.dto.response;
+
+/**
+ * 仕訳の摘要検索インデックスの作成結果
+ */
+public class JournalSearchRebuildResponse {
+    private Long companyId;
+    private int journalCount;
+
+    public JournalSearchRebuildResponse() {
+    }
+
+    public JournalSearchRebuildResponse(Long companyId, int journalCount) {
+        this.companyId = companyId;
+        this.journalCount = journalCount;
+    }
+
+    public Long getCompanyId() { return companyId; }
+    public void setCompanyId(Long companyId) { this.companyId = companyId; }
+
+    public int getJournalCount() { return journalCount; }
+    public void setJournalCount(int journalCount) { this.journalCount = journalCount; }
+}
@@ -0,0 +1,36 @@
+package com.accounting.app.dto.response;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 定期仕訳の一括作成の結果
+ */
+public class RecurringJournalGenerateResponse {
+    private Long fiscalPeriodId;
+    private LocalDate asOfDate;
+    private long templateCount;
+    private long generatedJournalCount;
+    private List<Long> journalIds = new ArrayList<>();
+    /** 次回登録日が会計期間の開始日より前のため作成しなかったテンプレート（先に前の期間を作成すること） */
+    private List<Long> skippedTemplateIds = new ArrayList<>();
+
+    public Long getFiscalPeriodId() { return fiscalPeriodId; }
+    public void setFiscalPeriodId(Long fiscalPeriodId) { this.fiscalPeriodId = fiscalPeriodId; }
+
+    public LocalDate getAsOfDate() { return asOfDate; }
+    public void setAsOfDate(LocalDate asOfDate) { this.asOfDate = asOfDate; }
+
+    public long getTemplateCount() { return templateCount; }
+    public void setTemplateCount(long templateCount) { this.templateCount = templateCount; }
+
+    public long getGeneratedJournalCount() { return generatedJournalCount; }
+    public void setGeneratedJournalCount(long generatedJournalCount) { this.generatedJournalCount = generatedJournalCount; }
+
+    public List<Long> getJournalIds() { return journalIds; }
+    public void setJournalIds(List<Long> journalIds) { this.journalIds = journalIds; }
+
+    public List<Long> getSkippedTemplateIds() { return skippedTemplateIds; }
+    public void setSkippedTemplateIds(List<Long> skippedTemplateIds) { this.skippedTemplateIds = skippedTemplateIds; }
+}
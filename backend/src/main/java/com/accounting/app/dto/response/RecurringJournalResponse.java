@@ -0,0 +1,134 @@
+package com.accounting.app.dto.response;
+
+import com.accounting.app.entity.RecurringJournal;
+import com.accounting.app.entity.RecurringJournalDetail;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 定期仕訳テンプレートレスポンスDTO
+ */
+public class RecurringJournalResponse {
+    private Long id;
+    private String name;
+    private String description;
+    private Integer intervalMonths;
+    private Integer dayOfMonth;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDate nextRunDate;
+    private LocalDate lastRunDate;
+    private Boolean active;
+    private List<Detail> details;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static RecurringJournalResponse from(RecurringJournal template) {
+        RecurringJournalResponse response = new RecurringJournalResponse();
+        response.setId(template.getId());
+        response.setName(template.getName());
+        response.setDescription(template.getDescription());
+        response.setIntervalMonths(template.getIntervalMonths());
+        response.setDayOfMonth(template.getDayOfMonth());
+        response.setStartDate(template.getStartDate());
+        response.setEndDate(template.getEndDate());
+        response.setNextRunDate(template.getNextRunDate());
+        response.setLastRunDate(template.getLastRunDate());
+        response.setActive(template.getActive());
+        response.setDetails(template.getDetails().stream()
+                .map(Detail::from)
+                .collect(Collectors.toList()));
+        response.setCreatedAt(template.getCreatedAt());
+        response.setUpdatedAt(template.getUpdatedAt());
+        return response;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Integer getIntervalMonths() { return intervalMonths; }
+    public void setIntervalMonths(Integer intervalMonths) { this.intervalMonths = intervalMonths; }
+    public Integer getDayOfMonth() { return dayOfMonth; }
+    public void setDayOfMonth(Integer dayOfMonth) { this.dayOfMonth = dayOfMonth; }
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+    public LocalDate getNextRunDate() { return nextRunDate; }
+    public void setNextRunDate(LocalDate nextRunDate) { this.nextRunDate = nextRunDate; }
+    public LocalDate getLastRunDate() { return lastRunDate; }
+    public void setLastRunDate(LocalDate lastRunDate) { this.lastRunDate = lastRunDate; }
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+    public List<Detail> getDetails() { return details; }
+    public void setDetails(List<Detail> details) { this.details = details; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    /**
+     * テンプレート明細
+     */
+    public static class Detail {
+        private Long id;
+        private Integer lineNumber;
+        private String entryType;
+        private Long accountId;
+        private Long subAccountId;
+        private Long taxTypeId;
+        private Long partnerId;
+        private BigDecimal amount;
+        private BigDecimal taxAmount;
+        private String description;
+
+        public static Detail from(RecurringJournalDetail detail) {
+            Detail response = new Detail();
+            response.setId(detail.getId());
+            response.setLineNumber(detail.getLineNumber());
+            response.setEntryType(detail.getEntryType().name());
+            response.setAccountId(detail.getAccount().getId());
+            if (detail.getSubAccount() != null) {
+                response.setSubAccountId(detail.getSubAccount().getId());
+            }
+            if (detail.getTaxType() != null) {
+                response.setTaxTypeId(detail.getTaxType().getId());
+            }
+            if (detail.getPartner() != null) {
+                response.setPartnerId(detail.getPartner().getId());
+            }
+            response.setAmount(detail.getAmount());
+            response.setTaxAmount(detail.getTaxAmount());
+            response.setDescription(detail.getDescription());
+            return response;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public Integer getLineNumber() { return lineNumber; }
+        public void setLineNumber(Integer lineNumber) { this.lineNumber = lineNumber; }
+        public String getEntryType() { return entryType; }
+        public void setEntryType(String entryType) { this.entryType = entryType; }
+        public Long getAccountId() { return accountId; }
+        public void setAccountId(Long accountId) { this.accountId = accountId; }
+        public Long getSubAccountId() { return subAccountId; }
+        public void setSubAccountId(Long subAccountId) { this.subAccountId = subAccountId; }
+        public Long getTaxTypeId() { return taxTypeId; }
+        public void setTaxTypeId(Long taxTypeId) { this.taxTypeId = taxTypeId; }
+        public Long getPartnerId() { return partnerId; }
+        public void setPartnerId(Long partnerId) { this.partnerId = partnerId; }
+        public BigDecimal getAmount() { return amount; }
+        public void setAmount(BigDecimal amount) { this.amount = amount; }
+        public BigDecimal getTaxAmount() { return taxAmount; }
+        public void setTaxAmount(BigDecimal taxAmount) { this.taxAmount = taxAmount; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+    }
+}
@@ -0,0 +1,53 @@
+package com.accounting.app.dto.response;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * 月次推移エントリ
+ * 収益・費用・純利益はその月の発生額、資産・負債・純資産は月末時点の残高
+ */
+public class TrendEntry {
+    private YearMonth month;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private BigDecimal expense = BigDecimal.ZERO;
+    private BigDecimal netProfit = BigDecimal.ZERO;
+    private BigDecimal assets = BigDecimal.ZERO;
+    private BigDecimal liabilities = BigDecimal.ZERO;
+    private BigDecimal equity = BigDecimal.ZERO;
+
+    // 前年同月（includePriorYear 指定時のみ設定）
+    private BigDecimal priorRevenue;
+    private BigDecimal priorExpense;
+    private BigDecimal priorNetProfit;
+
+    public YearMonth getMonth() { return month; }
+    public void setMonth(YearMonth month) { this.month = month; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+    public BigDecimal getExpense() { return expense; }
+    public void setExpense(BigDecimal expense) { this.expense = expense; }
+
+    public BigDecimal getNetProfit() { return netProfit; }
+    public void setNetProfit(BigDecimal netProfit) { this.netProfit = netProfit; }
+
+    public BigDecimal getAssets() { return assets; }
+    public void setAssets(BigDecimal assets) { this.assets = assets; }
+
+    public BigDecimal getLiabilities() { return liabilities; }
+    public void setLiabilities(BigDecimal liabilities) { this.liabilities = liabilities; }
+
+    public BigDecimal getEquity() { return equity; }
+    public void setEquity(BigDecimal equity) { this.equity = equity; }
+
+    public BigDecimal getPriorRevenue() { return priorRevenue; }
+    public void setPriorRevenue(BigDecimal priorRevenue) { this.priorRevenue = priorRevenue; }
+
+    public BigDecimal getPriorExpense() { return priorExpense; }
+    public void setPriorExpense(BigDecimal priorExpense) { this.priorExpense = priorExpense; }
+
+    public BigDecimal getPriorNetProfit() { return priorNetProfit; }
+    public void setPriorNetProfit(BigDecimal priorNetProfit) { this.priorNetProfit = priorNetProfit; }
+}
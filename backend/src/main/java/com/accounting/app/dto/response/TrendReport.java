@@ -0,0 +1,27 @@
+package com.accounting.app.dto.response;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 月次推移レポート
+ */
+public class TrendReport {
+    private YearMonth fromMonth;
+    private YearMonth toMonth;
+    private boolean includePriorYear;
+    private List<TrendEntry> entries = new ArrayList<>();
+
+    public YearMonth getFromMonth() { return fromMonth; }
+    public void setFromMonth(YearMonth fromMonth) { this.fromMonth = fromMonth; }
+
+    public YearMonth getToMonth() { return toMonth; }
+    public void setToMonth(YearMonth toMonth) { this.toMonth = toMonth; }
+
+    public boolean isIncludePriorYear() { return includePriorYear; }
+    public void setIncludePriorYear(boolean includePriorYear) { this.includePriorYear = includePriorYear; }
+
+    public List<TrendEntry> getEntries() { return entries; }
+    public void setEntries(List<TrendEntry> entries) { this.entries = entries; }
+}
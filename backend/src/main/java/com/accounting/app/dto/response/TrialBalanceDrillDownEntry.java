@@ -0,0 +1,58 @@
+package com.accounting.app.dto.response;
+
+import java.math.BigDecimal;
+
+/**
+ * 試算表エントリ（補助科目・取引先別）
+ * subtotal が true の行は勘定科目の小計（補助科目・取引先はnull）
+ */
+public class TrialBalanceDrillDownEntry {
+    private String accountCode;
+    private String accountName;
+    private String accountType;
+    private Long subAccountId;
+    private String subAccountCode;
+    private String subAccountName;
+    private Long partnerId;
+    private String partnerCode;
+    private String partnerName;
+    private boolean subtotal;
+    private BigDecimal debitBalance;
+    private BigDecimal creditBalance;
+
+    public String getAccountCode() { return accountCode; }
+    public void setAccountCode(String accountCode) { this.accountCode = accountCode; }
+
+    public String getAccountName() { return accountName; }
+    public void setAccountName(String accountName) { this.accountName = accountName; }
+
+    public String getAccountType() { return accountType; }
+    public void setAccountType(String accountType) { this.accountType = accountType; }
+
+    public Long getSubAccountId() { return subAccountId; }
+    public void setSubAccountId(Long subAccountId) { this.subAccountId = subAccountId; }
+
+    public String getSubAccountCode() { return subAccountCode; }
+    public void setSubAccountCode(String subAccountCode) { this.subAccountCode = subAccountCode; }
+
+    public String getSubAccountName() { return subAccountName; }
+    public void setSubAccountName(String subAccountName) { this.subAccountName = subAccountName; }
+
+    public Long getPartnerId() { return partnerId; }
+    public void setPartnerId(Long partnerId) { this.partnerId = partnerId; }
+
+    public String getPartnerCode() { return partnerCode; }
+    public void setPartnerCode(String partnerCode) { this.partnerCode = partnerCode; }
+
+    public String getPartnerName() { return partnerName; }
+    public void setPartnerName(String partnerName) { this.partnerName = partnerName; }
+
+    public boolean isSubtotal() { return subtotal; }
+    public void setSubtotal(boolean subtotal) { this.subtotal = subtotal; }
+
+    public BigDecimal getDebitBalance() { return debitBalance; }
+    public void setDebitBalance(BigDecimal debitBalance) { this.debitBalance = debitBalance; }
+
+    public BigDecimal getCreditBalance() { return creditBalance; }
+    public void setCreditBalance(BigDecimal creditBalance) { this.creditBalance = creditBalance; }
+}
@@ -0,0 +1,41 @@
+package com.accounting.app.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 試算表レポート（補助科目・取引先別）
+ * 合計は勘定科目単位の残高で集計するため、通常の試算表と一致する
+ */
+public class TrialBalanceDrillDownReport {
+    private LocalDate asOfDate;
+    private boolean bySubAccount;
+    private boolean byPartner;
+    private List<TrialBalanceDrillDownEntry> entries = new ArrayList<>();
+    private BigDecimal totalDebit;
+    private BigDecimal totalCredit;
+    private BigDecimal difference;
+
+    public LocalDate getAsOfDate() { return asOfDate; }
+    public void setAsOfDate(LocalDate asOfDate) { this.asOfDate = asOfDate; }
+
+    public boolean isBySubAccount() { return bySubAccount; }
+    public void setBySubAccount(boolean bySubAccount) { this.bySubAccount = bySubAccount; }
+
+    public boolean isByPartner() { return byPartner; }
+    public void setByPartner(boolean byPartner) { this.byPartner = byPartner; }
+
+    public List<TrialBalanceDrillDownEntry> getEntries() { return entries; }
+    public void setEntries(List<TrialBalanceDrillDownEntry> entries) { this.entries = entries; }
+
+    public BigDecimal getTotalDebit() { return totalDebit; }
+    public void setTotalDebit(BigDecimal totalDebit) { this.totalDebit = totalDebit; }
+
+    public BigDecimal getTotalCredit() { return totalCredit; }
+    public void setTotalCredit(BigDecimal totalCredit) { this.totalCredit = totalCredit; }
+
+    public BigDecimal getDifference() { return difference; }
+    public void setDifference(BigDecimal difference) { this.difference = difference; }
+}
@@ -0,0 +1,129 @@
+package com.accounting.app.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 勘定科目締め残高エンティティ（会計期間締め時のスナップショット）
+ * 会計期間の終了日までの勘定科目・補助科目ごとの借方・貸方累計を保持する。
+ * レポートは基準日以前の最新のスナップショットを起点に、それ以降の期間のみを集計する。
+ * 補助科目が無い場合は0を格納する。
+ */
+@Entity
+@Table(name = "account_closing_balances",
+       uniqueConstraints = @UniqueConstraint(
+               name = "uk_account_closing_balances",
+               columnNames = {"fiscal_period_id", "account_id", "sub_account_id"}),
+       indexes = @Index(name = "idx_account_closing_balances_date",
+                        columnList = "company_id, closing_date"))
+public class AccountClosingBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Column(name = "fiscal_period_id", nullable = false)
+    private Long fiscalPeriodId;
+
+    /** 会計期間の終了日 */
+    @Column(name = "closing_date", nullable = false)
+    private LocalDate closingDate;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "sub_account_id", nullable = false)
+    private Long subAccountId = 0L;
+
+    @Column(name = "debit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+
+    @Column(name = "credit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getFiscalPeriodId() {
+        return fiscalPeriodId;
+    }
+
+    public void setFiscalPeriodId(Long fiscalPeriodId) {
+        this.fiscalPeriodId = fiscalPeriodId;
+    }
+
+    public LocalDate getClosingDate() {
+        return closingDate;
+    }
+
+    public void setClosingDate(LocalDate closingDate) {
+        this.closingDate = closingDate;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getSubAccountId() {
+        return subAccountId;
+    }
+
+    public void setSubAccountId(Long subAccountId) {
+        this.subAccountId = subAccountId;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,179 @@
+package com.accounting.app.entity;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 勘定科目期間残高エンティティ（ロールアップ）
+ * 会社・勘定科目・補助科目・取引先ごとの借方・貸方合計を日次／月次で保持する。
+ * 仕訳の登録・更新・削除と同一トランザクションで増分更新される。
+ * 補助科目・取引先が無い場合は0を格納する（一意制約にNULLを含めないため）。
+ */
+@Entity
+@Table(name = "account_period_balances",
+       uniqueConstraints = @UniqueConstraint(
+               name = "uk_account_period_balances",
+               columnNames = {"company_id", "grain", "period_date", "account_id", "sub_account_id", "partner_id"}),
+       indexes = {
+               @Index(name = "idx_account_period_balances_month",
+                      columnList = "company_id, grain, period_month"),
+               @Index(name = "idx_account_period_balances_account",
+                      columnList = "company_id, account_id, grain, period_month")
+       })
+public class AccountPeriodBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "sub_account_id", nullable = false)
+    private Long subAccountId = 0L;
+
+    @Column(name = "partner_id", nullable = false)
+    private Long partnerId = 0L;
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private Grain grain;
+
+    /** 日次: 仕訳日、月次: 月初日 */
+    @Column(name = "period_date", nullable = false)
+    private LocalDate periodDate;
+
+    /** 対象月の月初日 */
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+
+    @Column(name = "debit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+
+    @Column(name = "credit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Grain {
+        DAY,    // 日次
+        MONTH   // 月次
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getSubAccountId() {
+        return subAccountId;
+    }
+
+    public void setSubAccountId(Long subAccountId) {
+        this.subAccountId = subAccountId;
+    }
+
+    public Long getPartnerId() {
+        return partnerId;
+    }
+
+    public void setPartnerId(Long partnerId) {
+        this.partnerId = partnerId;
+    }
+
+    public Grain getGrain() {
+        return grain;
+    }
+
+    public void setGrain(Grain grain) {
+        this.grain = grain;
+    }
+
+    public LocalDate getPeriodDate() {
+        return periodDate;
+    }
+
+    public void setPeriodDate(LocalDate periodDate) {
+        this.periodDate = periodDate;
+    }
+
+    public LocalDate getPeriodMonth() {
+        return periodMonth;
+    }
+
+    public void setPeriodMonth(LocalDate periodMonth) {
+        this.periodMonth = periodMonth;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.accounting.app.entity;
+
+/**
+ * 採番テーブル（id_sequences）の定義
+ *
+ * 仕訳・仕訳明細のIDは Hibernate の TableGenerator（pooled-lo）で採番する。
+ * 1回の採番で INCREMENT_SIZE 件分の範囲を確保し、範囲内はメモリ上で払い出すため、
+ * IDENTITY と異なり INSERT をJDBCバッチにまとめられる。
+ */
+public final class IdSequences {
+
+    public static final String TABLE_NAME = "id_sequences";
+    public static final String SEGMENT_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    /** 1回の採番で確保するID数 */
+    public static final String INCREMENT_SIZE = "100";
+
+    private IdSequences() {
+    }
+}
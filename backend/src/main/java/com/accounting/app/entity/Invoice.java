@@ -12,7 +12,10 @@ import java.util.List;
  * 請求書のヘッダー情報を管理
  */
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices",
+       uniqueConstraints = @UniqueConstraint(
+               name = "uk_invoices_company_number",
+               columnNames = {"company_id", "invoice_number"}))
 public class Invoice {
 
     @Id
@@ -1,5 +1,8 @@
 package com.accounting.app.entity;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,11 +14,24 @@ import java.util.List;
  * 仕訳伝票のヘッダー情報を管理
  */
 @Entity
-@Table(name = "journals")
+@Table(name = "journals",
+       uniqueConstraints = @UniqueConstraint(
+               name = "uk_journals_company_number",
+               columnNames = {"company_id", "journal_number"}),
+       indexes = @Index(name = "idx_journals_company_date", columnList = "company_id, journal_date"))
 public class Journal {
 
+    // IDENTITY では INSERT のバッチ化が無効になるため、採番テーブルからまとめて払い出す（一括取込用）
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "journal_id")
+    @GenericGenerator(name = "journal_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = IdSequences.TABLE_NAME),
+            @Parameter(name = "segment_column_name", value = IdSequences.SEGMENT_COLUMN),
+            @Parameter(name = "value_column_name", value = IdSequences.VALUE_COLUMN),
+            @Parameter(name = "segment_value", value = "journals"),
+            @Parameter(name = "increment_size", value = IdSequences.INCREMENT_SIZE),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,8 @@
 package com.accounting.app.entity;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,8 +15,17 @@ import java.time.LocalDateTime;
 @Table(name = "journal_details")
 public class JournalDetail {
 
+    // 仕訳ヘッダーと同じく採番テーブルから払い出す（INSERT をバッチ化できるようにする）
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "journal_detail_id")
+    @GenericGenerator(name = "journal_detail_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = IdSequences.TABLE_NAME),
+            @Parameter(name = "segment_column_name", value = IdSequences.SEGMENT_COLUMN),
+            @Parameter(name = "value_column_name", value = IdSequences.VALUE_COLUMN),
+            @Parameter(name = "segment_value", value = "journal_details"),
+            @Parameter(name = "increment_size", value = IdSequences.INCREMENT_SIZE),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
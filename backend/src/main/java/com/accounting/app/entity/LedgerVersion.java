@@ -0,0 +1,68 @@
+package com.accounting.app.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 元帳バージョンエンティティ
+ * 会社ごとに、レポート結果に影響する更新（仕訳・勘定科目・会計期間）のたびに加算される。
+ * レポートキャッシュの有効性判定に使用する。
+ * 会計期間の変更（作成・更新・締め・再開）では期間バージョンも加算し、会計期間インデックスの有効性判定に使用する。
+ */
+@Entity
+@Table(name = "ledger_versions")
+public class LedgerVersion {
+
+    @Id
+    @Column(name = "company_id")
+    private Long companyId;
+
+    @Column(nullable = false)
+    private Long version = 0L;
+
+    /** 会計期間バージョン（既存の行に列を追加できるよう null を許容し、null は0として扱う） */
+    @Column(name = "period_version")
+    private Long periodVersion;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getPeriodVersion() {
+        return periodVersion;
+    }
+
+    public void setPeriodVersion(Long periodVersion) {
+        this.periodVersion = periodVersion;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
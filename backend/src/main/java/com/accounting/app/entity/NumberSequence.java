@@ -0,0 +1,93 @@
+package com.accounting.app.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 採番エンティティ
+ * 会社・番号種別・会計期間ごとに、次に予約する連番を保持する。
+ * 各アプリケーションはこの行を1回更新して連番のブロックを予約し、ブロック内の番号はメモリ上で払い出す。
+ */
+@Entity
+@Table(name = "number_sequences",
+       uniqueConstraints = @UniqueConstraint(
+               name = "uk_number_sequences",
+               columnNames = {"company_id", "sequence_type", "fiscal_period_id"}))
+public class NumberSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    /** 番号種別（JOURNAL / INVOICE） */
+    @Column(name = "sequence_type", nullable = false, length = 20)
+    private String sequenceType;
+
+    @Column(name = "fiscal_period_id", nullable = false)
+    private Long fiscalPeriodId;
+
+    /** 次に予約する連番（これ未満は予約済み） */
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public String getSequenceType() {
+        return sequenceType;
+    }
+
+    public void setSequenceType(String sequenceType) {
+        this.sequenceType = sequenceType;
+    }
+
+    public Long getFiscalPeriodId() {
+        return fiscalPeriodId;
+    }
+
+    public void setFiscalPeriodId(Long fiscalPeriodId) {
+        this.fiscalPeriodId = fiscalPeriodId;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,80 @@
+package com.accounting.app.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 変更イベントの配信位置エンティティ
+ * リスナー・会社ごとに、配信を完了した変更イベントの連番を保持する。
+ */
+@Entity
+@Table(name = "outbox_cursors",
+       uniqueConstraints = @UniqueConstraint(
+               name = "uk_outbox_cursors",
+               columnNames = {"listener_name", "company_id"}))
+public class OutboxCursor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "listener_name", nullable = false, length = 100)
+    private String listenerName;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    /** 配信済みの連番（これ以下は配信済み） */
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getListenerName() {
+        return listenerName;
+    }
+
+    public void setListenerName(String listenerName) {
+        this.listenerName = listenerName;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(Long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,126 @@
+package com.accounting.app.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 変更イベント（アウトボックス）エンティティ
+ * 仕訳・請求書・入金の登録・更新・削除と同一トランザクションで書き込む。
+ * 会社ごとの連番（sequence_number）はコミット順に欠番なく付与されるため、
+ * 利用側は処理済みの連番より後のイベントを読むだけで差分を取得できる。
+ */
+@Entity
+@Table(name = "outbox_events",
+       uniqueConstraints = @UniqueConstraint(
+               name = "uk_outbox_events_company_sequence",
+               columnNames = {"company_id", "sequence_number"}),
+       indexes = @Index(name = "idx_outbox_events_created_at", columnList = "created_at"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    /** 会社ごとの連番（1から開始） */
+    @Column(name = "sequence_number", nullable = false)
+    private Long sequenceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 20)
+    private AggregateType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private EventType eventType;
+
+    /** 主要項目（番号・日付など）のJSON。詳細は aggregate_id で取得する */
+    @Column(length = 1000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum AggregateType {
+        JOURNAL, // 仕訳
+        INVOICE, // 請求書
+        PAYMENT  // 入金
+    }
+
+    public enum EventType {
+        CREATED,        // 登録
+        UPDATED,        // 更新
+        STATUS_CHANGED, // ステータス変更（請求書）
+        DELETED         // 削除
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(Long sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public AggregateType getAggregateType() {
+        return aggregateType;
+    }
+
+    public void setAggregateType(AggregateType aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public EventType getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(EventType eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,55 @@
+package com.accounting.app.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 変更イベントの連番エンティティ
+ * 会社ごとに、最後に付与した変更イベントの連番を保持する。
+ * 行ロックをコミットまで保持するため、連番の順序とコミットの順序が一致する。
+ */
+@Entity
+@Table(name = "outbox_sequences")
+public class OutboxSequence {
+
+    @Id
+    @Column(name = "company_id")
+    private Long companyId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(Long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,201 @@
+package com.accounting.app.entity;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 定期仕訳テンプレートエンティティ（ヘッダー）
+ * 家賃・減価償却・給与の未払計上など、毎月同じ内容で登録する仕訳と登録スケジュールを管理
+ *
+ * スケジュールは開始日の月から intervalMonths ヶ月ごとの dayOfMonth 日
+ * （月末より後の日を指定した場合はその月の末日）。
+ * 次回登録日（nextRunDate）は仕訳を作成するたびに進め、終了日を過ぎた場合は null とする。
+ */
+@Entity
+@Table(name = "recurring_journals")
+public class RecurringJournal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    private Company company;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    /** 作成する仕訳の摘要 */
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "interval_months", nullable = false)
+    private Integer intervalMonths;
+
+    @Column(name = "day_of_month", nullable = false)
+    private Integer dayOfMonth;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "next_run_date")
+    private LocalDate nextRunDate;
+
+    @Column(name = "last_run_date")
+    private LocalDate lastRunDate;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @OneToMany(mappedBy = "recurringJournal", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("lineNumber")
+    private List<RecurringJournalDetail> details = new ArrayList<>();
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Helper methods for bidirectional relationship
+    public void addDetail(RecurringJournalDetail detail) {
+        details.add(detail);
+        detail.setRecurringJournal(this);
+    }
+
+    public void removeDetail(RecurringJournalDetail detail) {
+        details.remove(detail);
+        detail.setRecurringJournal(null);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Company getCompany() {
+        return company;
+    }
+
+    public void setCompany(Company company) {
+        this.company = company;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Integer getIntervalMonths() {
+        return intervalMonths;
+    }
+
+    public void setIntervalMonths(Integer intervalMonths) {
+        this.intervalMonths = intervalMonths;
+    }
+
+    public Integer getDayOfMonth() {
+        return dayOfMonth;
+    }
+
+    public void setDayOfMonth(Integer dayOfMonth) {
+        this.dayOfMonth = dayOfMonth;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public LocalDate getNextRunDate() {
+        return nextRunDate;
+    }
+
+    public void setNextRunDate(LocalDate nextRunDate) {
+        this.nextRunDate = nextRunDate;
+    }
+
+    public LocalDate getLastRunDate() {
+        return lastRunDate;
+    }
+
+    public void setLastRunDate(LocalDate lastRunDate) {
+        this.lastRunDate = lastRunDate;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public List<RecurringJournalDetail> getDetails() {
+        return details;
+    }
+
+    public void setDetails(List<RecurringJournalDetail> details) {
+        this.details = details;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,15 @@
+package com.accounting.app.exception;
+
+/**
+ * 競合の例外（同じリクエストを処理中の場合など）
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
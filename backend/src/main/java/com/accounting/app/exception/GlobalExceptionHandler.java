@@ -84,6 +84,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * 競合例外のハンドリング
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponse<Void>> handleConflictException(
+            ConflictException ex, WebRequest request) {
+        ApiResponse<Void> response = ApiResponse.error(
+                "CONFLICT",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     /**
      * バリデーションエラーのハンドリング
      */
@@ -0,0 +1,89 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.AccountClosingBalance;
+import com.accounting.app.repository.projection.AccountBalanceSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 勘定科目締め残高リポジトリ
+ */
+@Repository
+public interface AccountClosingBalanceRepository extends JpaRepository<AccountClosingBalance, Long> {
+
+    /**
+     * 指定日以前で最新の締め日を取得
+     * @param companyId 会社ID
+     * @param date 基準日
+     * @return 締め日（スナップショットが無い場合はnull）
+     */
+    @Query("SELECT MAX(s.closingDate) FROM AccountClosingBalance s " +
+           "WHERE s.companyId = :companyId AND s.closingDate <= :date")
+    LocalDate findLatestClosingDate(@Param("companyId") Long companyId, @Param("date") LocalDate date);
+
+    /**
+     * 締め日の勘定科目・補助科目別残高を取得
+     * @param companyId 会社ID
+     * @param closingDate 締め日
+     * @return 締め残高リスト
+     */
+    List<AccountClosingBalance> findByCompanyIdAndClosingDate(Long companyId, LocalDate closingDate);
+
+    /**
+     * 締め日の残高を勘定科目別に集計
+     * @param companyId 会社ID
+     * @param closingDate 締め日
+     * @return 勘定科目別集計リスト
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.AccountBalanceSummary(" +
+           "a.id, a.code, a.name, a.accountType, SUM(s.debitTotal), SUM(s.creditTotal)) " +
+           "FROM AccountClosingBalance s, Account a " +
+           "WHERE a.id = s.accountId AND s.companyId = :companyId AND s.closingDate = :closingDate " +
+           "GROUP BY a.id, a.code, a.name, a.accountType")
+    List<AccountBalanceSummary> sumByAccount(
+            @Param("companyId") Long companyId,
+            @Param("closingDate") LocalDate closingDate);
+
+    /**
+     * 締め日の勘定科目の残高を集計
+     * @param companyId 会社ID
+     * @param accountId 勘定科目ID
+     * @param closingDate 締め日
+     * @return 勘定科目別集計リスト（該当なしの場合は空）
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.AccountBalanceSummary(" +
+           "a.id, a.code, a.name, a.accountType, SUM(s.debitTotal), SUM(s.creditTotal)) " +
+           "FROM AccountClosingBalance s, Account a " +
+           "WHERE a.id = s.accountId AND s.companyId = :companyId AND s.accountId = :accountId " +
+           "AND s.closingDate = :closingDate " +
+           "GROUP BY a.id, a.code, a.name, a.accountType")
+    List<AccountBalanceSummary> sumForAccount(
+            @Param("companyId") Long companyId,
+            @Param("accountId") Long accountId,
+            @Param("closingDate") LocalDate closingDate);
+
+    /**
+     * 会計期間のスナップショットを削除
+     * @param fiscalPeriodId 会計期間ID
+     * @return 削除件数
+     */
+    @Modifying
+    @Query("DELETE FROM AccountClosingBalance s WHERE s.fiscalPeriodId = :fiscalPeriodId")
+    int deleteByFiscalPeriodId(@Param("fiscalPeriodId") Long fiscalPeriodId);
+
+    /**
+     * 指定日以降の締め日のスナップショットを削除
+     * @param companyId 会社ID
+     * @param date 基準日
+     * @return 削除件数
+     */
+    @Modifying
+    @Query("DELETE FROM AccountClosingBalance s WHERE s.companyId = :companyId AND s.closingDate >= :date")
+    int deleteByCompanyIdAndClosingDateOnOrAfter(@Param("companyId") Long companyId, @Param("date") LocalDate date);
+}
@@ -0,0 +1,186 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.AccountPeriodBalance;
+import com.accounting.app.repository.projection.AccountBalanceSummary;
+import com.accounting.app.repository.projection.AccountSubAccountTotal;
+import com.accounting.app.repository.projection.AccountTypeTotals;
+import com.accounting.app.repository.projection.MonthlyTypeTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 勘定科目期間残高リポジトリ
+ *
+ * 集計クエリは月次行と日次行を組み合わせて期間を表現する。
+ * splitMonths に含まれる月は日次行で、それ以外の月は月次行で集計する
+ * （開始月・終了月は必ず splitMonths に含めること）。
+ */
+@Repository
+public interface AccountPeriodBalanceRepository
+        extends JpaRepository<AccountPeriodBalance, Long>, AccountPeriodBalanceRepositoryCustom {
+
+    /**
+     * 会社IDと期間で勘定科目別に借方・貸方を集計
+     * @param companyId 会社ID
+     * @param fromDate 開始日
+     * @param toDate 終了日
+     * @param fromMonth 開始月の月初日
+     * @param toMonth 終了月の月初日
+     * @param splitMonths 日次行で集計する月の月初日
+     * @return 勘定科目別集計リスト
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.AccountBalanceSummary(" +
+           "a.id, a.code, a.name, a.accountType, SUM(b.debitTotal), SUM(b.creditTotal)) " +
+           "FROM AccountPeriodBalance b, Account a " +
+           "WHERE a.id = b.accountId AND b.companyId = :companyId AND (" +
+           "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.MONTH " +
+           " AND b.periodMonth BETWEEN :fromMonth AND :toMonth AND b.periodMonth NOT IN :splitMonths) OR " +
+           "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.DAY " +
+           " AND b.periodMonth IN :splitMonths AND b.periodDate BETWEEN :fromDate AND :toDate)) " +
+           "GROUP BY a.id, a.code, a.name, a.accountType")
+    List<AccountBalanceSummary> sumByAccount(
+            @Param("companyId") Long companyId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth,
+            @Param("splitMonths") Collection<LocalDate> splitMonths);
+
+    /**
+     * 会社ID・勘定科目IDと期間で借方・貸方を集計
+     * @param companyId 会社ID
+     * @param accountId 勘定科目ID
+     * @param fromDate 開始日
+     * @param toDate 終了日
+     * @param fromMonth 開始月の月初日
+     * @param toMonth 終了月の月初日
+     * @param splitMonths 日次行で集計する月の月初日
+     * @return 勘定科目別集計リスト（該当なしの場合は空）
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.AccountBalanceSummary(" +
+           "a.id, a.code, a.name, a.accountType, SUM(b.debitTotal), SUM(b.creditTotal)) " +
+           "FROM AccountPeriodBalance b, Account a " +
+           "WHERE a.id = b.accountId AND b.companyId = :companyId AND b.accountId = :accountId AND (" +
+           "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.MONTH " +
+           " AND b.periodMonth BETWEEN :fromMonth AND :toMonth AND b.periodMonth NOT IN :splitMonths) OR " +
+           "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.DAY " +
+           " AND b.periodMonth IN :splitMonths AND b.periodDate BETWEEN :fromDate AND :toDate)) " +
+           "GROUP BY a.id, a.code, a.name, a.accountType")
+    List<AccountBalanceSummary> sumForAccount(
+            @Param("companyId") Long companyId,
+            @Param("accountId") Long accountId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth,
+            @Param("splitMonths") Collection<LocalDate> splitMonths);
+
+    /**
+     * 会社IDと期間で勘定科目タイプ別に借方・貸方を集計
+     * 期間全体の合計に加え、当期開始日以降の合計を同じ走査で求める
+     * （当期開始日の月は splitMonths に含めること）。
+     * @param companyId 会社ID
+     * @param fromDate 開始日
+     * @param toDate 終了日
+     * @param fromMonth 開始月の月初日
+     * @param toMonth 終了月の月初日
+     * @param splitMonths 日次行で集計する月の月初日
+     * @param periodStartDate 当期開始日
+     * @return 勘定科目タイプ別集計リスト
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.AccountTypeTotals(" +
+           "a.accountType, SUM(b.debitTotal), SUM(b.creditTotal), " +
+           "SUM(CASE WHEN b.periodDate >= :periodStartDate THEN b.debitTotal ELSE 0 END), " +
+           "SUM(CASE WHEN b.periodDate >= :periodStartDate THEN b.creditTotal ELSE 0 END)) " +
+           "FROM AccountPeriodBalance b, Account a " +
+           "WHERE a.id = b.accountId AND b.companyId = :companyId AND (" +
+           "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.MONTH " +
+           " AND b.periodMonth BETWEEN :fromMonth AND :toMonth AND b.periodMonth NOT IN :splitMonths) OR " +
+           "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.DAY " +
+           " AND b.periodMonth IN :splitMonths AND b.periodDate BETWEEN :fromDate AND :toDate)) " +
+           "GROUP BY a.accountType")
+    List<AccountTypeTotals> sumByAccountType(
+            @Param("companyId") Long companyId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth,
+            @Param("splitMonths") Collection<LocalDate> splitMonths,
+            @Param("periodStartDate") LocalDate periodStartDate);
+
+    /**
+     * 会社IDと期間で勘定科目・補助科目別に借方・貸方を集計（締め残高の作成用）
+     * @param companyId 会社ID
+     * @param fromDate 開始日
+     * @param toDate 終了日
+     * @param fromMonth 開始月の月初日
+     * @param toMonth 終了月の月初日
+     * @param splitMonths 日次行で集計する月の月初日
+     * @return 勘定科目・補助科目別集計リスト
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.AccountSubAccountTotal(" +
+           "b.accountId, b.subAccountId, SUM(b.debitTotal), SUM(b.creditTotal)) " +
+           "FROM AccountPeriodBalance b " +
+           "WHERE b.companyId = :companyId AND (" +
+           "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.MONTH " +
+           " AND b.periodMonth BETWEEN :fromMonth AND :toMonth AND b.periodMonth NOT IN :splitMonths) OR " +
+           "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.DAY " +
+           " AND b.periodMonth IN :splitMonths AND b.periodDate BETWEEN :fromDate AND :toDate)) " +
+           "GROUP BY b.accountId, b.subAccountId")
+    List<AccountSubAccountTotal> sumByAccountAndSubAccount(
+            @Param("companyId") Long companyId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth,
+            @Param("splitMonths") Collection<LocalDate> splitMonths);
+
+    /**
+     * 会社IDと月の範囲で月・勘定科目タイプ別に借方・貸方を集計（月次行のみ使用）
+     * @param companyId 会社ID
+     * @param fromMonth 開始月の月初日
+     * @param toMonth 終了月の月初日
+     * @return 月・勘定科目タイプ別集計リスト（月順）
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.MonthlyTypeTotals(" +
+           "b.periodMonth, a.accountType, SUM(b.debitTotal), SUM(b.creditTotal)) " +
+           "FROM AccountPeriodBalance b, Account a " +
+           "WHERE a.id = b.accountId AND b.companyId = :companyId " +
+           "AND b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.MONTH " +
+           "AND b.periodMonth BETWEEN :fromMonth AND :toMonth " +
+           "GROUP BY b.periodMonth, a.accountType " +
+           "ORDER BY b.periodMonth")
+    List<MonthlyTypeTotals> sumMonthlyByAccountType(
+            @Param("companyId") Long companyId,
+            @Param("fromMonth") LocalDate fromMonth,
+            @Param("toMonth") LocalDate toMonth);
+
+    /**
+     * 会社IDで削除
+     * @param companyId 会社ID
+     * @return 削除件数
+     */
+    @Modifying
+    @Query("DELETE FROM AccountPeriodBalance b WHERE b.companyId = :companyId")
+    int deleteByCompanyId(@Param("companyId") Long companyId);
+
+    /**
+     * 会社の残高行が存在するか
+     */
+    boolean existsByCompanyId(Long companyId);
+
+    /**
+     * ロールアップ未作成の会社IDを取得（仕訳があるのに残高行が1件もない会社）
+     * @return 会社IDリスト
+     */
+    @Query("SELECT DISTINCT j.company.id FROM Journal j WHERE NOT EXISTS " +
+           "(SELECT b.id FROM AccountPeriodBalance b WHERE b.companyId = j.company.id)")
+    List<Long> findCompanyIdsWithoutBalances();
+}
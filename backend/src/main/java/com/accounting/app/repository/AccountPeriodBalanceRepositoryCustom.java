@@ -0,0 +1,37 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.AccountPeriodBalance;
+import com.accounting.app.repository.projection.AccountDrillDownTotal;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 勘定科目期間残高リポジトリ（カスタム操作）
+ */
+public interface AccountPeriodBalanceRepositoryCustom {
+
+    /**
+     * 増分を加算（行が存在しない場合は作成）
+     * @param increments 加算する増分（debitTotal / creditTotal が増減額）
+     */
+    void addTotals(Collection<AccountPeriodBalance> increments);
+
+    /**
+     * 会社IDと期間で勘定科目・補助科目・取引先別に借方・貸方を集計
+     * @param companyId 会社ID
+     * @param fromDate 開始日
+     * @param toDate 終了日
+     * @param fromMonth 開始月の月初日
+     * @param toMonth 終了月の月初日
+     * @param splitMonths 日次行で集計する月の月初日
+     * @param bySubAccount 補助科目別に集計する場合true
+     * @param byPartner 取引先別に集計する場合true
+     * @return 勘定科目・補助科目・取引先別集計リスト
+     */
+    List<AccountDrillDownTotal> sumByAccountDrillDown(Long companyId, LocalDate fromDate, LocalDate toDate,
+                                                      LocalDate fromMonth, LocalDate toMonth,
+                                                      Collection<LocalDate> splitMonths,
+                                                      boolean bySubAccount, boolean byPartner);
+}
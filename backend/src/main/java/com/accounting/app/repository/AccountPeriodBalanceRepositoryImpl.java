@@ -0,0 +1,139 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.Account;
+import com.accounting.app.entity.AccountPeriodBalance;
+import com.accounting.app.repository.projection.AccountDrillDownTotal;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 勘定科目期間残高リポジトリ（カスタム操作の実装）
+ *
+ * 同一キーへの同時加算でも行が重複しないよう、DBのUPSERT構文でまとめて更新する。
+ * 補助科目・取引先別の集計は集計区分に応じてJPQLを組み立てる。
+ */
+public class AccountPeriodBalanceRepositoryImpl implements AccountPeriodBalanceRepositoryCustom {
+
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO account_period_balances " +
+            "(company_id, account_id, sub_account_id, partner_id, grain, period_date, period_month, " +
+            "debit_total, credit_total, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ";
+
+    private static final String MYSQL_UPSERT = INSERT_COLUMNS +
+            "ON DUPLICATE KEY UPDATE " +
+            "debit_total = debit_total + VALUES(debit_total), " +
+            "credit_total = credit_total + VALUES(credit_total), " +
+            "updated_at = VALUES(updated_at)";
+
+    private static final String POSTGRES_UPSERT = INSERT_COLUMNS +
+            "ON CONFLICT (company_id, grain, period_date, account_id, sub_account_id, partner_id) DO UPDATE SET " +
+            "debit_total = account_period_balances.debit_total + EXCLUDED.debit_total, " +
+            "credit_total = account_period_balances.credit_total + EXCLUDED.credit_total, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String upsertSql;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AccountPeriodBalanceRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addTotals(Collection<AccountPeriodBalance> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(increments.size());
+        for (AccountPeriodBalance increment : increments) {
+            batchArgs.add(new Object[]{
+                    increment.getCompanyId(),
+                    increment.getAccountId(),
+                    increment.getSubAccountId(),
+                    increment.getPartnerId(),
+                    increment.getGrain().name(),
+                    Date.valueOf(increment.getPeriodDate()),
+                    Date.valueOf(increment.getPeriodMonth()),
+                    increment.getDebitTotal(),
+                    increment.getCreditTotal(),
+                    now,
+                    now
+            });
+        }
+
+        jdbcTemplate.batchUpdate(getUpsertSql(), batchArgs);
+    }
+
+    private String getUpsertSql() {
+        if (upsertSql == null) {
+            upsertSql = SqlDialects.isPostgres(jdbcTemplate) ? POSTGRES_UPSERT : MYSQL_UPSERT;
+        }
+        return upsertSql;
+    }
+
+    @Override
+    public List<AccountDrillDownTotal> sumByAccountDrillDown(Long companyId, LocalDate fromDate, LocalDate toDate,
+                                                             LocalDate fromMonth, LocalDate toMonth,
+                                                             Collection<LocalDate> splitMonths,
+                                                             boolean bySubAccount, boolean byPartner) {
+        StringBuilder select = new StringBuilder("SELECT a.id, a.code, a.name, a.accountType");
+        StringBuilder from = new StringBuilder(" FROM AccountPeriodBalance b JOIN Account a ON a.id = b.accountId");
+        StringBuilder groupBy = new StringBuilder(" GROUP BY a.id, a.code, a.name, a.accountType");
+        if (bySubAccount) {
+            select.append(", sa.id, sa.code, sa.name");
+            from.append(" LEFT JOIN SubAccount sa ON sa.id = b.subAccountId");
+            groupBy.append(", sa.id, sa.code, sa.name");
+        }
+        if (byPartner) {
+            select.append(", p.id, p.code, p.name");
+            from.append(" LEFT JOIN Partner p ON p.id = b.partnerId");
+            groupBy.append(", p.id, p.code, p.name");
+        }
+        select.append(", SUM(b.debitTotal), SUM(b.creditTotal)");
+
+        String jpql = select.toString() + from +
+                " WHERE b.companyId = :companyId AND (" +
+                "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.MONTH " +
+                " AND b.periodMonth BETWEEN :fromMonth AND :toMonth AND b.periodMonth NOT IN :splitMonths) OR " +
+                "(b.grain = com.accounting.app.entity.AccountPeriodBalance$Grain.DAY " +
+                " AND b.periodMonth IN :splitMonths AND b.periodDate BETWEEN :fromDate AND :toDate))" +
+                groupBy;
+
+        List<Object[]> rows = entityManager.createQuery(jpql, Object[].class)
+                .setParameter("companyId", companyId)
+                .setParameter("fromDate", fromDate)
+                .setParameter("toDate", toDate)
+                .setParameter("fromMonth", fromMonth)
+                .setParameter("toMonth", toMonth)
+                .setParameter("splitMonths", splitMonths)
+                .getResultList();
+
+        List<AccountDrillDownTotal> totals = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            int index = 4;
+            Object[] subAccount = bySubAccount ? new Object[]{row[index++], row[index++], row[index++]} : new Object[3];
+            Object[] partner = byPartner ? new Object[]{row[index++], row[index++], row[index++]} : new Object[3];
+            totals.add(new AccountDrillDownTotal(
+                    (Long) row[0], (String) row[1], (String) row[2], (Account.AccountType) row[3],
+                    (Long) subAccount[0], (String) subAccount[1], (String) subAccount[2],
+                    (Long) partner[0], (String) partner[1], (String) partner[2],
+                    (BigDecimal) row[index++], (BigDecimal) row[index]));
+        }
+        return totals;
+    }
+}
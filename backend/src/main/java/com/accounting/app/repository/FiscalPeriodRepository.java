@@ -2,10 +2,12 @@ package com.accounting.app.repository;
 
 import com.accounting.app.entity.FiscalPeriod;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -49,6 +51,24 @@ public interface FiscalPeriodRepository extends JpaRepository<FiscalPeriod, Long
      */
     List<FiscalPeriod> findByCompanyIdOrderByStartDate(Long companyId);
 
+    /**
+     * 会計期間の会社IDを取得
+     * @param id 会計期間ID
+     * @return 会社ID
+     */
+    @Query("SELECT fp.company.id FROM FiscalPeriod fp WHERE fp.id = :id")
+    Optional<Long> findCompanyIdById(@Param("id") Long id);
+
+    /**
+     * 会社IDで検索（開始日順、共有ロック付き）
+     * ロック付きの読み取りはトランザクション開始後にコミットされた変更も読むため、最新の状態を確認する場合に使用する
+     * @param companyId 会社ID
+     * @return 会計期間リスト
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT fp FROM FiscalPeriod fp WHERE fp.company.id = :companyId ORDER BY fp.startDate")
+    List<FiscalPeriod> findByCompanyIdForShare(@Param("companyId") Long companyId);
+
     /**
      * 期間重複チェック用クエリ
      * @param companyId 会社ID
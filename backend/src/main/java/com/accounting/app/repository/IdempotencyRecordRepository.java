@@ -0,0 +1,41 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 冪等キーリポジトリ
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByCompanyIdAndOperationAndIdempotencyKey(
+            Long companyId, String operation, String idempotencyKey);
+
+    /**
+     * 読み込んだ時点から状態が変わっていないレコードを削除
+     * （処理中のリクエストが先に完了させたレコードは削除しない）
+     * @return 削除件数
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r " +
+           "WHERE r.id = :id AND r.status = :status AND r.createdAt = :createdAt")
+    int deleteIfUnchanged(@Param("id") Long id,
+                          @Param("status") IdempotencyRecord.Status status,
+                          @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 有効期限を過ぎたレコードを削除
+     * @return 削除件数
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,19 +1,26 @@
 package com.accounting.app.repository;
 
 import com.accounting.app.entity.JournalDetail;
+import com.accounting.app.repository.projection.AccountDailyTotal;
+import com.accounting.app.repository.projection.GeneralLedgerRow;
+import com.accounting.app.repository.projection.JournalDetailDescription;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * 仕訳明細リポジトリ
  */
 @Repository
-public interface JournalDetailRepository extends JpaRepository<JournalDetail, Long> {
+public interface JournalDetailRepository
+        extends JpaRepository<JournalDetail, Long>, JournalDetailRepositoryCustom {
 
     /**
      * 仕訳IDで検索
@@ -30,56 +37,78 @@ public interface JournalDetailRepository extends JpaRepository<JournalDetail, Lo
     List<JournalDetail> findByAccountId(Long accountId);
 
     /**
-     * 勘定科目IDと日付範囲で検索（仕訳日でソート）
+     * 勘定科目IDと日付範囲で総勘定元帳の明細行を取得（仕訳日・仕訳ID・行番号でソート）
+     * 期間内の累計借方残高はウィンドウ関数で計算するため、ページングしても各行の累計は期間開始からの値となる
+     * @param companyId 会社ID
      * @param accountId 勘定科目ID
      * @param startDate 開始日
      * @param endDate 終了日
-     * @return 仕訳明細リスト
+     * @param pageable ページ情報（全件の場合は Pageable.unpaged()）
+     * @return 明細行ページ
      */
-    @Query("SELECT jd FROM JournalDetail jd JOIN FETCH jd.journal j " +
-           "WHERE jd.account.id = :accountId AND j.journalDate BETWEEN :startDate AND :endDate " +
-           "ORDER BY j.journalDate, j.id, jd.lineNumber")
-    List<JournalDetail> findByAccountIdAndJournalDateBetweenOrderByJournalDate(
+    @Query(value = "SELECT t.journalDate, t.journalNumber, t.description, " +
+                   "t.debitAmount, t.creditAmount, t.runningDebitBalance FROM (" +
+                   "SELECT j.journal_date AS journalDate, j.journal_number AS journalNumber, " +
+                   "COALESCE(jd.description, j.description) AS description, " +
+                   "CASE WHEN jd.entry_type = 'DEBIT' THEN jd.amount ELSE 0 END AS debitAmount, " +
+                   "CASE WHEN jd.entry_type = 'CREDIT' THEN jd.amount ELSE 0 END AS creditAmount, " +
+                   "SUM(CASE WHEN jd.entry_type = 'DEBIT' THEN jd.amount ELSE -jd.amount END) " +
+                   "OVER (ORDER BY j.journal_date, j.id, jd.line_number " +
+                   "ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW) AS runningDebitBalance, " +
+                   "j.id AS journalId, jd.line_number AS lineNumber " +
+                   "FROM journal_details jd JOIN journals j ON j.id = jd.journal_id " +
+                   "WHERE j.company_id = :companyId AND jd.account_id = :accountId " +
+                   "AND j.journal_date BETWEEN :startDate AND :endDate" +
+                   ") t ORDER BY t.journalDate, t.journalId, t.lineNumber",
+           countQuery = "SELECT COUNT(*) FROM journal_details jd JOIN journals j ON j.id = jd.journal_id " +
+                        "WHERE j.company_id = :companyId AND jd.account_id = :accountId " +
+                        "AND j.journal_date BETWEEN :startDate AND :endDate",
+           nativeQuery = true)
+    Page<GeneralLedgerRow> findLedgerRows(
+            @Param("companyId") Long companyId,
             @Param("accountId") Long accountId,
             @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable);
 
     /**
-     * 勘定科目IDと日付（より前）で検索（仕訳日でソート）
-     * @param accountId 勘定科目ID
-     * @param beforeDate 基準日（この日より前）
-     * @return 仕訳明細リスト
+     * 会社IDと日付範囲で日付・勘定科目・補助科目・取引先別に借方・貸方を集計
+     * @param companyId 会社ID
+     * @param startDate 開始日
+     * @param endDate 終了日
+     * @return 日別集計リスト
      */
-    @Query("SELECT jd FROM JournalDetail jd JOIN FETCH jd.journal j " +
-           "WHERE jd.account.id = :accountId AND j.journalDate < :beforeDate " +
-           "ORDER BY j.journalDate, j.id, jd.lineNumber")
-    List<JournalDetail> findByAccountIdAndJournalDateBeforeOrderByJournalDate(
-            @Param("accountId") Long accountId,
-            @Param("beforeDate") LocalDate beforeDate);
+    @Query("SELECT new com.accounting.app.repository.projection.AccountDailyTotal(" +
+           "j.journalDate, jd.account.id, sa.id, p.id, " +
+           "SUM(CASE WHEN jd.entryType = com.accounting.app.entity.JournalDetail$EntryType.DEBIT THEN jd.amount ELSE 0 END), " +
+           "SUM(CASE WHEN jd.entryType = com.accounting.app.entity.JournalDetail$EntryType.CREDIT THEN jd.amount ELSE 0 END)) " +
+           "FROM JournalDetail jd JOIN jd.journal j LEFT JOIN jd.subAccount sa LEFT JOIN jd.partner p " +
+           "WHERE j.company.id = :companyId AND j.journalDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY j.journalDate, jd.account.id, sa.id, p.id")
+    List<AccountDailyTotal> sumDailyByCompanyIdAndJournalDateBetween(
+            @Param("companyId") Long companyId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 
     /**
-     * 会社IDと日付（以前）で検索
+     * 会社の全仕訳明細の摘要を取得（摘要検索のインデックス作成用、摘要の無い明細は含まない）
      * @param companyId 会社ID
-     * @param asOfDate 基準日
-     * @return 仕訳明細リスト
+     * @return 摘要リスト（仕訳ID・行番号順）
      */
-    @Query("SELECT jd FROM JournalDetail jd JOIN FETCH jd.journal j JOIN FETCH jd.account a " +
-           "WHERE j.company.id = :companyId AND j.journalDate <= :asOfDate")
-    List<JournalDetail> findByCompanyIdAndJournalDateBeforeOrEqual(
-            @Param("companyId") Long companyId,
-            @Param("asOfDate") LocalDate asOfDate);
+    @Query("SELECT new com.accounting.app.repository.projection.JournalDetailDescription(j.id, jd.description) " +
+           "FROM JournalDetail jd JOIN jd.journal j " +
+           "WHERE j.company.id = :companyId AND jd.description IS NOT NULL " +
+           "ORDER BY j.id, jd.lineNumber")
+    List<JournalDetailDescription> findDescriptionsByCompanyId(@Param("companyId") Long companyId);
 
     /**
-     * 会社IDと日付範囲で検索
-     * @param companyId 会社ID
-     * @param startDate 開始日
-     * @param endDate 終了日
-     * @return 仕訳明細リスト
+     * 指定した仕訳の明細の摘要を取得（摘要検索のインデックス更新用、摘要の無い明細は含まない）
+     * @param journalIds 仕訳IDリスト
+     * @return 摘要リスト（仕訳ID・行番号順）
      */
-    @Query("SELECT jd FROM JournalDetail jd JOIN FETCH jd.journal j JOIN FETCH jd.account a " +
-           "WHERE j.company.id = :companyId AND j.journalDate BETWEEN :startDate AND :endDate")
-    List<JournalDetail> findByCompanyIdAndJournalDateBetween(
-            @Param("companyId") Long companyId,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+    @Query("SELECT new com.accounting.app.repository.projection.JournalDetailDescription(jd.journal.id, jd.description) " +
+           "FROM JournalDetail jd " +
+           "WHERE jd.journal.id IN :journalIds AND jd.description IS NOT NULL " +
+           "ORDER BY jd.journal.id, jd.lineNumber")
+    List<JournalDetailDescription> findDescriptionsByJournalIds(@Param("journalIds") Collection<Long> journalIds);
 }
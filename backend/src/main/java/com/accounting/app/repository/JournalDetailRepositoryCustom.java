@@ -0,0 +1,40 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.repository.projection.GeneralLedgerLine;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * 仕訳明細リポジトリ（カスタム操作）
+ */
+public interface JournalDetailRepositoryCustom {
+
+    /**
+     * 勘定科目IDと日付範囲で総勘定元帳の明細行を前方カーソルで読み出す（仕訳日・仕訳ID・行番号でソート）
+     * トランザクション内で使用し、読み終えたら必ず close すること
+     * @param companyId 会社ID
+     * @param accountId 勘定科目ID
+     * @param startDate 開始日
+     * @param endDate 終了日
+     * @param fetchSize JDBCフェッチサイズ
+     * @return 明細行ストリーム
+     */
+    Stream<GeneralLedgerLine> streamLedgerLines(Long companyId, Long accountId, LocalDate startDate, LocalDate endDate,
+                                                int fetchSize);
+
+    /**
+     * 会社の全勘定科目（または指定した勘定科目）の明細行を前方カーソルで読み出す
+     * 勘定科目コード・勘定科目ID・仕訳日・仕訳ID・行番号でソートする
+     * トランザクション内で使用し、読み終えたら必ず close すること
+     * @param companyId 会社ID
+     * @param accountIds 勘定科目IDリスト（全勘定科目の場合はnull）
+     * @param startDate 開始日
+     * @param endDate 終了日
+     * @param fetchSize JDBCフェッチサイズ
+     * @return 明細行ストリーム
+     */
+    Stream<GeneralLedgerLine> streamCompanyLedgerLines(Long companyId, Collection<Long> accountIds,
+                                                       LocalDate startDate, LocalDate endDate, int fetchSize);
+}
@@ -0,0 +1,77 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.repository.projection.GeneralLedgerLine;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * 仕訳明細リポジトリ（カスタム操作の実装）
+ *
+ * 明細はエンティティではなくDTOとして読み出すため、永続化コンテキストに蓄積されない。
+ * MySQLでフェッチサイズを有効にするには接続URLに useCursorFetch=true が必要。
+ */
+public class JournalDetailRepositoryImpl implements JournalDetailRepositoryCustom {
+
+    private static final String LEDGER_LINES_SELECT =
+            "SELECT new com.accounting.app.repository.projection.GeneralLedgerLine(" +
+            "a.id, j.journalDate, j.journalNumber, COALESCE(jd.description, j.description), " +
+            "CASE WHEN jd.entryType = com.accounting.app.entity.JournalDetail$EntryType.DEBIT THEN jd.amount ELSE 0 END, " +
+            "CASE WHEN jd.entryType = com.accounting.app.entity.JournalDetail$EntryType.CREDIT THEN jd.amount ELSE 0 END) " +
+            "FROM JournalDetail jd JOIN jd.journal j JOIN jd.account a ";
+
+    private static final String LEDGER_LINES_QUERY = LEDGER_LINES_SELECT +
+            "WHERE j.company.id = :companyId AND a.id = :accountId " +
+            "AND j.journalDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY j.journalDate, j.id, jd.lineNumber";
+
+    /** 勘定科目の並びは AccountRepository.findByCompanyIdOrderByCode と一致させる */
+    private static final String COMPANY_LEDGER_LINES_QUERY = LEDGER_LINES_SELECT +
+            "WHERE j.company.id = :companyId AND j.journalDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY a.code, a.id, j.journalDate, j.id, jd.lineNumber";
+
+    private static final String SELECTED_LEDGER_LINES_QUERY = LEDGER_LINES_SELECT +
+            "WHERE j.company.id = :companyId AND a.id IN :accountIds " +
+            "AND j.journalDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY a.code, a.id, j.journalDate, j.id, jd.lineNumber";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<GeneralLedgerLine> streamLedgerLines(Long companyId, Long accountId, LocalDate startDate, LocalDate endDate,
+                                                       int fetchSize) {
+        return entityManager.createQuery(LEDGER_LINES_QUERY, GeneralLedgerLine.class)
+                .setParameter("companyId", companyId)
+                .setParameter("accountId", accountId)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public Stream<GeneralLedgerLine> streamCompanyLedgerLines(Long companyId, Collection<Long> accountIds,
+                                                              LocalDate startDate, LocalDate endDate, int fetchSize) {
+        TypedQuery<GeneralLedgerLine> query;
+        if (accountIds == null) {
+            query = entityManager.createQuery(COMPANY_LEDGER_LINES_QUERY, GeneralLedgerLine.class);
+        } else {
+            query = entityManager.createQuery(SELECTED_LEDGER_LINES_QUERY, GeneralLedgerLine.class)
+                    .setParameter("accountIds", accountIds);
+        }
+        return query
+                .setParameter("companyId", companyId)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+}
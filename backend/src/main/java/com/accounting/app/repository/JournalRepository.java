@@ -1,10 +1,14 @@
 package com.accounting.app.repository;
 
 import com.accounting.app.entity.Journal;
+import com.accounting.app.repository.projection.JournalDescription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,4 +59,52 @@ public interface JournalRepository extends JpaRepository<Journal, Long> {
      * @return 存在する場合true
      */
     boolean existsByCompanyIdAndJournalNumber(Long companyId, String journalNumber);
+
+    /**
+     * 指定した仕訳番号のうち使用済みのものを取得（一括取込時の重複チェック用）
+     * @param companyId 会社ID
+     * @param journalNumbers 仕訳番号リスト
+     * @return 使用済みの仕訳番号リスト
+     */
+    @Query("SELECT j.journalNumber FROM Journal j WHERE j.company.id = :companyId AND j.journalNumber IN :journalNumbers")
+    List<String> findExistingJournalNumbers(@Param("companyId") Long companyId,
+                                            @Param("journalNumbers") Collection<String> journalNumbers);
+
+    /**
+     * 会社の最古の仕訳日を取得
+     * @param companyId 会社ID
+     * @return 最古の仕訳日（仕訳がない場合null）
+     */
+    @Query("SELECT MIN(j.journalDate) FROM Journal j WHERE j.company.id = :companyId")
+    LocalDate findMinJournalDateByCompanyId(@Param("companyId") Long companyId);
+
+    /**
+     * 会社の最新の仕訳日を取得
+     * @param companyId 会社ID
+     * @return 最新の仕訳日（仕訳がない場合null）
+     */
+    @Query("SELECT MAX(j.journalDate) FROM Journal j WHERE j.company.id = :companyId")
+    LocalDate findMaxJournalDateByCompanyId(@Param("companyId") Long companyId);
+
+    /**
+     * 会社の全仕訳の摘要を取得（摘要検索のインデックス作成用）
+     * @param companyId 会社ID
+     * @return 摘要リスト
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.JournalDescription(" +
+           "j.id, j.journalDate, j.journalNumber, j.description) " +
+           "FROM Journal j WHERE j.company.id = :companyId")
+    List<JournalDescription> findDescriptionsByCompanyId(@Param("companyId") Long companyId);
+
+    /**
+     * 指定した仕訳の摘要を取得（摘要検索のインデックス更新用）
+     * @param companyId 会社ID
+     * @param ids 仕訳IDリスト
+     * @return 摘要リスト（存在しない仕訳は含まない）
+     */
+    @Query("SELECT new com.accounting.app.repository.projection.JournalDescription(" +
+           "j.id, j.journalDate, j.journalNumber, j.description) " +
+           "FROM Journal j WHERE j.company.id = :companyId AND j.id IN :ids")
+    List<JournalDescription> findDescriptionsByIds(@Param("companyId") Long companyId,
+                                                   @Param("ids") Collection<Long> ids);
 }
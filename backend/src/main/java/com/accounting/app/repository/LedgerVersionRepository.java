@@ -0,0 +1,23 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.LedgerVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 元帳バージョンリポジトリ
+ */
+@Repository
+public interface LedgerVersionRepository
+        extends JpaRepository<LedgerVersion, Long>, LedgerVersionRepositoryCustom {
+
+    /**
+     * 会社の元帳バージョンを取得
+     * @param companyId 会社ID
+     * @return 元帳バージョン（未作成の場合はnull）
+     */
+    @Query("SELECT v.version FROM LedgerVersion v WHERE v.companyId = :companyId")
+    Long findVersionByCompanyId(@Param("companyId") Long companyId);
+}
@@ -0,0 +1,37 @@
+package com.accounting.app.repository;
+
+/**
+ * 元帳バージョンリポジトリ（カスタム操作）
+ */
+public interface LedgerVersionRepositoryCustom {
+
+    /**
+     * 会社の元帳バージョンを1加算（行が存在しない場合は作成）
+     * 行ロックはトランザクション終了まで保持される
+     * @param companyId 会社ID
+     */
+    void increment(Long companyId);
+
+    /**
+     * 会計期間バージョンが指定した値の場合のみ元帳バージョンを1加算
+     * 加算した場合、行ロックはトランザクション終了まで保持される
+     * @param companyId 会社ID
+     * @param periodVersion 会計期間バージョン
+     * @return 加算した場合はtrue（行が無い、または会計期間バージョンが異なる場合はfalse）
+     */
+    boolean incrementIfPeriodVersion(Long companyId, long periodVersion);
+
+    /**
+     * 元帳バージョンと会計期間バージョンを1加算（行が存在しない場合は作成）
+     * 行ロックはトランザクション終了まで保持される
+     * @param companyId 会社ID
+     */
+    void incrementWithPeriodVersion(Long companyId);
+
+    /**
+     * 会計期間バージョンを取得
+     * @param companyId 会社ID
+     * @return 会計期間バージョン（行が無い場合は0）
+     */
+    long findPeriodVersion(Long companyId);
+}
@@ -0,0 +1,83 @@
+package com.accounting.app.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 元帳バージョンリポジトリ（カスタム操作の実装）
+ *
+ * 初回の同時加算でも行が重複しないよう、DBのUPSERT構文で加算する。
+ */
+public class LedgerVersionRepositoryImpl implements LedgerVersionRepositoryCustom {
+
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO ledger_versions (company_id, version, updated_at) VALUES (?, 1, ?) ";
+
+    private static final String MYSQL_UPSERT = INSERT_COLUMNS +
+            "ON DUPLICATE KEY UPDATE version = version + 1, updated_at = VALUES(updated_at)";
+
+    private static final String POSTGRES_UPSERT = INSERT_COLUMNS +
+            "ON CONFLICT (company_id) DO UPDATE SET " +
+            "version = ledger_versions.version + 1, updated_at = EXCLUDED.updated_at";
+
+    private static final String INSERT_WITH_PERIOD_COLUMNS =
+            "INSERT INTO ledger_versions (company_id, version, period_version, updated_at) VALUES (?, 1, 1, ?) ";
+
+    private static final String MYSQL_PERIOD_UPSERT = INSERT_WITH_PERIOD_COLUMNS +
+            "ON DUPLICATE KEY UPDATE version = version + 1, " +
+            "period_version = COALESCE(period_version, 0) + 1, updated_at = VALUES(updated_at)";
+
+    private static final String POSTGRES_PERIOD_UPSERT = INSERT_WITH_PERIOD_COLUMNS +
+            "ON CONFLICT (company_id) DO UPDATE SET version = ledger_versions.version + 1, " +
+            "period_version = COALESCE(ledger_versions.period_version, 0) + 1, updated_at = EXCLUDED.updated_at";
+
+    private static final String INCREMENT_IF_PERIOD_VERSION =
+            "UPDATE ledger_versions SET version = version + 1, updated_at = ? " +
+            "WHERE company_id = ? AND COALESCE(period_version, 0) = ?";
+
+    private static final String SELECT_PERIOD_VERSION =
+            "SELECT COALESCE(period_version, 0) FROM ledger_versions WHERE company_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String upsertSql;
+    private volatile String periodUpsertSql;
+
+    public LedgerVersionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void increment(Long companyId) {
+        jdbcTemplate.update(getUpsertSql(), companyId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public boolean incrementIfPeriodVersion(Long companyId, long periodVersion) {
+        return jdbcTemplate.update(INCREMENT_IF_PERIOD_VERSION,
+                Timestamp.valueOf(LocalDateTime.now()), companyId, periodVersion) > 0;
+    }
+
+    @Override
+    public void incrementWithPeriodVersion(Long companyId) {
+        if (periodUpsertSql == null) {
+            periodUpsertSql = SqlDialects.isPostgres(jdbcTemplate) ? POSTGRES_PERIOD_UPSERT : MYSQL_PERIOD_UPSERT;
+        }
+        jdbcTemplate.update(periodUpsertSql, companyId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public long findPeriodVersion(Long companyId) {
+        List<Long> versions = jdbcTemplate.queryForList(SELECT_PERIOD_VERSION, Long.class, companyId);
+        return versions.isEmpty() ? 0L : versions.get(0);
+    }
+
+    private String getUpsertSql() {
+        if (upsertSql == null) {
+            upsertSql = SqlDialects.isPostgres(jdbcTemplate) ? POSTGRES_UPSERT : MYSQL_UPSERT;
+        }
+        return upsertSql;
+    }
+}
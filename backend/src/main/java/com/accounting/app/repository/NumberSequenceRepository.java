@@ -0,0 +1,13 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.NumberSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 採番リポジトリ
+ */
+@Repository
+public interface NumberSequenceRepository
+        extends JpaRepository<NumberSequence, Long>, NumberSequenceRepositoryCustom {
+}
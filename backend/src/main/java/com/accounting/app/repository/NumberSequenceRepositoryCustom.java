@@ -0,0 +1,18 @@
+package com.accounting.app.repository;
+
+/**
+ * 採番リポジトリ（カスタム操作）
+ */
+public interface NumberSequenceRepositoryCustom {
+
+    /**
+     * 連番のブロックを予約（行が存在しない場合は1から開始）
+     * 行ロックはトランザクション終了まで保持されるため、短いトランザクションで呼び出すこと
+     * @param companyId 会社ID
+     * @param sequenceType 番号種別
+     * @param fiscalPeriodId 会計期間ID
+     * @param blockSize 予約する連番の数
+     * @return 予約後の次の連番（予約したブロックは [戻り値 - blockSize, 戻り値)）
+     */
+    long reserve(Long companyId, String sequenceType, Long fiscalPeriodId, int blockSize);
+}
@@ -0,0 +1,58 @@
+package com.accounting.app.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 採番リポジトリ（カスタム操作の実装）
+ *
+ * 初回の同時予約でも行が重複しないよう、DBのUPSERT構文で加算する。
+ * 予約は1行の更新のみのため、複数のアプリケーションから同時に予約しても重複しない。
+ */
+public class NumberSequenceRepositoryImpl implements NumberSequenceRepositoryCustom {
+
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO number_sequences (company_id, sequence_type, fiscal_period_id, next_value, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?) ";
+
+    private static final String MYSQL_UPSERT = INSERT_COLUMNS +
+            "ON DUPLICATE KEY UPDATE next_value = next_value + ?, updated_at = VALUES(updated_at)";
+
+    private static final String POSTGRES_UPSERT = INSERT_COLUMNS +
+            "ON CONFLICT (company_id, sequence_type, fiscal_period_id) DO UPDATE SET " +
+            "next_value = number_sequences.next_value + ?, updated_at = EXCLUDED.updated_at " +
+            "RETURNING next_value";
+
+    private static final String SELECT_NEXT_VALUE =
+            "SELECT next_value FROM number_sequences " +
+            "WHERE company_id = ? AND sequence_type = ? AND fiscal_period_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public NumberSequenceRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long reserve(Long companyId, String sequenceType, Long fiscalPeriodId, int blockSize) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long initialNextValue = 1L + blockSize;
+        if (isPostgres()) {
+            return jdbcTemplate.queryForObject(POSTGRES_UPSERT, Long.class,
+                    companyId, sequenceType, fiscalPeriodId, initialNextValue, now, blockSize);
+        }
+        // MySQL は RETURNING が無いため、行ロックを保持したまま同じトランザクションで読み直す
+        jdbcTemplate.update(MYSQL_UPSERT, companyId, sequenceType, fiscalPeriodId, initialNextValue, now, blockSize);
+        return jdbcTemplate.queryForObject(SELECT_NEXT_VALUE, Long.class, companyId, sequenceType, fiscalPeriodId);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = SqlDialects.isPostgres(jdbcTemplate);
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,16 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.OutboxCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 変更イベントの配信位置リポジトリ
+ */
+@Repository
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, Long>, OutboxCursorRepositoryCustom {
+
+    List<OutboxCursor> findByListenerName(String listenerName);
+}
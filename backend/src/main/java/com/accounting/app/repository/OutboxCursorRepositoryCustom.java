@@ -0,0 +1,24 @@
+package com.accounting.app.repository;
+
+/**
+ * 変更イベントの配信位置リポジトリ（カスタム操作）
+ */
+public interface OutboxCursorRepositoryCustom {
+
+    /**
+     * 配信位置の行をロックして配信済みの連番を取得（行が存在しない場合は0で作成）
+     * 行ロックはトランザクション終了まで保持されるため、同じリスナー・会社への配信は同時に行われない
+     * @param listenerName リスナー名
+     * @param companyId 会社ID
+     * @return 配信済みの連番
+     */
+    long lock(String listenerName, Long companyId);
+
+    /**
+     * 配信済みの連番を更新
+     * @param listenerName リスナー名
+     * @param companyId 会社ID
+     * @param lastSequence 配信済みの連番
+     */
+    void advance(String listenerName, Long companyId, long lastSequence);
+}
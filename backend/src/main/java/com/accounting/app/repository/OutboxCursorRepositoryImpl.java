@@ -0,0 +1,55 @@
+package com.accounting.app.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 変更イベントの配信位置リポジトリ（カスタム操作の実装）
+ *
+ * 初回の同時配信でも行が重複しないよう、DBのUPSERT構文で行を作成してからロックする。
+ */
+public class OutboxCursorRepositoryImpl implements OutboxCursorRepositoryCustom {
+
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO outbox_cursors (listener_name, company_id, last_sequence, updated_at) VALUES (?, ?, 0, ?) ";
+
+    private static final String MYSQL_INSERT_IGNORE = INSERT_COLUMNS +
+            "ON DUPLICATE KEY UPDATE last_sequence = last_sequence";
+
+    private static final String POSTGRES_INSERT_IGNORE = INSERT_COLUMNS +
+            "ON CONFLICT (listener_name, company_id) DO NOTHING";
+
+    private static final String SELECT_FOR_UPDATE =
+            "SELECT last_sequence FROM outbox_cursors WHERE listener_name = ? AND company_id = ? FOR UPDATE";
+
+    private static final String UPDATE_LAST_SEQUENCE =
+            "UPDATE outbox_cursors SET last_sequence = ?, updated_at = ? WHERE listener_name = ? AND company_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String insertSql;
+
+    public OutboxCursorRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long lock(String listenerName, Long companyId) {
+        jdbcTemplate.update(getInsertSql(), listenerName, companyId, Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.queryForObject(SELECT_FOR_UPDATE, Long.class, listenerName, companyId);
+    }
+
+    @Override
+    public void advance(String listenerName, Long companyId, long lastSequence) {
+        jdbcTemplate.update(UPDATE_LAST_SEQUENCE,
+                lastSequence, Timestamp.valueOf(LocalDateTime.now()), listenerName, companyId);
+    }
+
+    private String getInsertSql() {
+        if (insertSql == null) {
+            insertSql = SqlDialects.isPostgres(jdbcTemplate) ? POSTGRES_INSERT_IGNORE : MYSQL_INSERT_IGNORE;
+        }
+        return insertSql;
+    }
+}
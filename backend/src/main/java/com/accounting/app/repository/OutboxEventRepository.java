@@ -0,0 +1,33 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 変更イベント（アウトボックス）リポジトリ
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    /**
+     * 指定した連番より後の変更イベントを連番順に取得
+     */
+    List<OutboxEvent> findByCompanyIdAndSequenceNumberGreaterThanOrderBySequenceNumber(
+            Long companyId, Long sequenceNumber, Pageable pageable);
+
+    /**
+     * 保持期間を過ぎた変更イベントを削除
+     * @return 削除件数
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
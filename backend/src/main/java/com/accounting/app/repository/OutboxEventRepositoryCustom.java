@@ -0,0 +1,17 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.OutboxEvent;
+
+import java.util.Collection;
+
+/**
+ * 変更イベント（アウトボックス）リポジトリ（カスタム操作）
+ */
+public interface OutboxEventRepositoryCustom {
+
+    /**
+     * 変更イベントをまとめて登録（JDBCバッチ）
+     * @param events 連番・作成日時を設定済みの変更イベント
+     */
+    void insertAll(Collection<OutboxEvent> events);
+}
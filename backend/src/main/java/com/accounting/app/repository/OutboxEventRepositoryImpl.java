@@ -0,0 +1,51 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 変更イベント（アウトボックス）リポジトリ（カスタム操作の実装）
+ *
+ * 仕訳の一括取込などでは1トランザクションのイベントが多くなるため、
+ * IDENTITY採番のエンティティを1件ずつ保存せず、JDBCバッチでまとめて登録する。
+ */
+public class OutboxEventRepositoryImpl implements OutboxEventRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events " +
+            "(company_id, sequence_number, aggregate_type, aggregate_id, event_type, payload, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxEventRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(Collection<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            batchArgs.add(new Object[]{
+                    event.getCompanyId(),
+                    event.getSequenceNumber(),
+                    event.getAggregateType().name(),
+                    event.getAggregateId(),
+                    event.getEventType().name(),
+                    event.getPayload(),
+                    Timestamp.valueOf(event.getCreatedAt())
+            });
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+}
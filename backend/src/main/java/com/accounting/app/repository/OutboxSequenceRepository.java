@@ -0,0 +1,13 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.OutboxSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 変更イベントの連番リポジトリ
+ */
+@Repository
+public interface OutboxSequenceRepository
+        extends JpaRepository<OutboxSequence, Long>, OutboxSequenceRepositoryCustom {
+}
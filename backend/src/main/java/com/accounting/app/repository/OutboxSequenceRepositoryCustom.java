@@ -0,0 +1,16 @@
+package com.accounting.app.repository;
+
+/**
+ * 変更イベントの連番リポジトリ（カスタム操作）
+ */
+public interface OutboxSequenceRepositoryCustom {
+
+    /**
+     * 会社の連番を count 個進める（行が存在しない場合は作成）
+     * 行ロックはトランザクション終了まで保持されるため、コミット直前に呼び出すこと
+     * @param companyId 会社ID
+     * @param count 付与する連番の数
+     * @return 付与した最後の連番（付与した連番は [戻り値 - count + 1, 戻り値]）
+     */
+    long advance(Long companyId, int count);
+}
@@ -0,0 +1,53 @@
+package com.accounting.app.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 変更イベントの連番リポジトリ（カスタム操作の実装）
+ *
+ * 初回の同時加算でも行が重複しないよう、DBのUPSERT構文で加算する。
+ */
+public class OutboxSequenceRepositoryImpl implements OutboxSequenceRepositoryCustom {
+
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO outbox_sequences (company_id, last_sequence, updated_at) VALUES (?, ?, ?) ";
+
+    private static final String MYSQL_UPSERT = INSERT_COLUMNS +
+            "ON DUPLICATE KEY UPDATE last_sequence = last_sequence + ?, updated_at = VALUES(updated_at)";
+
+    private static final String POSTGRES_UPSERT = INSERT_COLUMNS +
+            "ON CONFLICT (company_id) DO UPDATE SET " +
+            "last_sequence = outbox_sequences.last_sequence + ?, updated_at = EXCLUDED.updated_at " +
+            "RETURNING last_sequence";
+
+    private static final String SELECT_LAST_SEQUENCE =
+            "SELECT last_sequence FROM outbox_sequences WHERE company_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public OutboxSequenceRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long advance(Long companyId, int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (isPostgres()) {
+            return jdbcTemplate.queryForObject(POSTGRES_UPSERT, Long.class, companyId, (long) count, now, count);
+        }
+        // MySQL は RETURNING が無いため、行ロックを保持したまま同じトランザクションで読み直す
+        jdbcTemplate.update(MYSQL_UPSERT, companyId, (long) count, now, count);
+        return jdbcTemplate.queryForObject(SELECT_LAST_SEQUENCE, Long.class, companyId);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = SqlDialects.isPostgres(jdbcTemplate);
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,47 @@
+package com.accounting.app.repository;
+
+import com.accounting.app.entity.RecurringJournal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 定期仕訳テンプレートリポジトリ
+ */
+@Repository
+public interface RecurringJournalRepository extends JpaRepository<RecurringJournal, Long> {
+
+    /**
+     * 会社IDで検索（名前順）
+     * @param companyId 会社ID
+     * @return テンプレートリスト
+     */
+    List<RecurringJournal> findByCompanyIdOrderByName(Long companyId);
+
+    /**
+     * 次回登録日が指定日以前の有効なテンプレートを行ロック付きで検索
+     * 同時に仕訳を作成した場合に同じ回を二重に登録しないよう、次回登録日の更新までロックを保持する
+     * @param companyId 会社ID
+     * @param date 指定日
+     * @return テンプレートリスト
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT rj FROM RecurringJournal rj WHERE rj.company.id = :companyId " +
+           "AND rj.active = true AND rj.nextRunDate <= :date ORDER BY rj.id")
+    List<RecurringJournal> findDueForUpdate(@Param("companyId") Long companyId, @Param("date") LocalDate date);
+
+    /**
+     * テンプレートの明細をまとめて読み込む（テンプレートごとの明細の読み込みを1回のクエリにまとめる）
+     * @param ids テンプレートID
+     * @return 明細を読み込んだテンプレートリスト
+     */
+    @Query("SELECT DISTINCT rj FROM RecurringJournal rj JOIN FETCH rj.details WHERE rj.id IN :ids")
+    List<RecurringJournal> fetchDetails(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,22 @@
+package com.accounting.app.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 接続先DBの方言判定（UPSERT構文の切り替え用）
+ */
+final class SqlDialects {
+
+    private SqlDialects() {
+    }
+
+    /**
+     * 接続先がPostgreSQLか判定（それ以外はMySQL互換として扱う）
+     */
+    static boolean isPostgres(JdbcTemplate jdbcTemplate) {
+        String productName = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return productName != null && productName.toLowerCase().contains("postgres");
+    }
+}
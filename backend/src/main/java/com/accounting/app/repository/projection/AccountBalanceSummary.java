@@ -0,0 +1,47 @@
+package com.accounting.app.repository.projection;
+
+import com.accounting.app.entity.Account;
+
+import java.math.BigDecimal;
+
+/**
+ * 勘定科目別の借方・貸方合計（集計クエリの射影）
+ */
+public class AccountBalanceSummary {
+    private final Long accountId;
+    private final String accountCode;
+    private final String accountName;
+    private final Account.AccountType accountType;
+    private final BigDecimal debitTotal;
+    private final BigDecimal creditTotal;
+
+    public AccountBalanceSummary(Long accountId, String accountCode, String accountName,
+                                 Account.AccountType accountType,
+                                 BigDecimal debitTotal, BigDecimal creditTotal) {
+        this.accountId = accountId;
+        this.accountCode = accountCode;
+        this.accountName = accountName;
+        this.accountType = accountType;
+        this.debitTotal = debitTotal != null ? debitTotal : BigDecimal.ZERO;
+        this.creditTotal = creditTotal != null ? creditTotal : BigDecimal.ZERO;
+    }
+
+    public Long getAccountId() { return accountId; }
+
+    public String getAccountCode() { return accountCode; }
+
+    public String getAccountName() { return accountName; }
+
+    public Account.AccountType getAccountType() { return accountType; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+
+    /**
+     * 借方残高（借方合計 - 貸方合計）
+     */
+    public BigDecimal getDebitBalance() {
+        return debitTotal.subtract(creditTotal);
+    }
+}
@@ -0,0 +1,38 @@
+package com.accounting.app.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 日付・勘定科目・補助科目・取引先別の借方・貸方合計（ロールアップ再構築用の射影）
+ */
+public class AccountDailyTotal {
+    private final LocalDate journalDate;
+    private final Long accountId;
+    private final Long subAccountId;
+    private final Long partnerId;
+    private final BigDecimal debitTotal;
+    private final BigDecimal creditTotal;
+
+    public AccountDailyTotal(LocalDate journalDate, Long accountId, Long subAccountId, Long partnerId,
+                             BigDecimal debitTotal, BigDecimal creditTotal) {
+        this.journalDate = journalDate;
+        this.accountId = accountId;
+        this.subAccountId = subAccountId;
+        this.partnerId = partnerId;
+        this.debitTotal = debitTotal != null ? debitTotal : BigDecimal.ZERO;
+        this.creditTotal = creditTotal != null ? creditTotal : BigDecimal.ZERO;
+    }
+
+    public LocalDate getJournalDate() { return journalDate; }
+
+    public Long getAccountId() { return accountId; }
+
+    public Long getSubAccountId() { return subAccountId; }
+
+    public Long getPartnerId() { return partnerId; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+}
@@ -0,0 +1,74 @@
+package com.accounting.app.repository.projection;
+
+import com.accounting.app.entity.Account;
+
+import java.math.BigDecimal;
+
+/**
+ * 勘定科目・補助科目・取引先別の借方・貸方合計（集計クエリの射影）
+ * 集計しない区分、または区分の無い明細の補助科目・取引先はnull
+ */
+public class AccountDrillDownTotal {
+    private final Long accountId;
+    private final String accountCode;
+    private final String accountName;
+    private final Account.AccountType accountType;
+    private final Long subAccountId;
+    private final String subAccountCode;
+    private final String subAccountName;
+    private final Long partnerId;
+    private final String partnerCode;
+    private final String partnerName;
+    private final BigDecimal debitTotal;
+    private final BigDecimal creditTotal;
+
+    public AccountDrillDownTotal(Long accountId, String accountCode, String accountName,
+                                 Account.AccountType accountType,
+                                 Long subAccountId, String subAccountCode, String subAccountName,
+                                 Long partnerId, String partnerCode, String partnerName,
+                                 BigDecimal debitTotal, BigDecimal creditTotal) {
+        this.accountId = accountId;
+        this.accountCode = accountCode;
+        this.accountName = accountName;
+        this.accountType = accountType;
+        this.subAccountId = subAccountId;
+        this.subAccountCode = subAccountCode;
+        this.subAccountName = subAccountName;
+        this.partnerId = partnerId;
+        this.partnerCode = partnerCode;
+        this.partnerName = partnerName;
+        this.debitTotal = debitTotal != null ? debitTotal : BigDecimal.ZERO;
+        this.creditTotal = creditTotal != null ? creditTotal : BigDecimal.ZERO;
+    }
+
+    public Long getAccountId() { return accountId; }
+
+    public String getAccountCode() { return accountCode; }
+
+    public String getAccountName() { return accountName; }
+
+    public Account.AccountType getAccountType() { return accountType; }
+
+    public Long getSubAccountId() { return subAccountId; }
+
+    public String getSubAccountCode() { return subAccountCode; }
+
+    public String getSubAccountName() { return subAccountName; }
+
+    public Long getPartnerId() { return partnerId; }
+
+    public String getPartnerCode() { return partnerCode; }
+
+    public String getPartnerName() { return partnerName; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+
+    /**
+     * 借方残高（借方合計 - 貸方合計）
+     */
+    public BigDecimal getDebitBalance() {
+        return debitTotal.subtract(creditTotal);
+    }
+}
@@ -0,0 +1,30 @@
+package com.accounting.app.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * 勘定科目・補助科目別の借方・貸方合計（集計クエリの射影）
+ * 補助科目が無い場合の補助科目IDは0
+ */
+public class AccountSubAccountTotal {
+    private final Long accountId;
+    private final Long subAccountId;
+    private final BigDecimal debitTotal;
+    private final BigDecimal creditTotal;
+
+    public AccountSubAccountTotal(Long accountId, Long subAccountId,
+                                  BigDecimal debitTotal, BigDecimal creditTotal) {
+        this.accountId = accountId;
+        this.subAccountId = subAccountId;
+        this.debitTotal = debitTotal != null ? debitTotal : BigDecimal.ZERO;
+        this.creditTotal = creditTotal != null ? creditTotal : BigDecimal.ZERO;
+    }
+
+    public Long getAccountId() { return accountId; }
+
+    public Long getSubAccountId() { return subAccountId; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+}
@@ -0,0 +1,37 @@
+package com.accounting.app.repository.projection;
+
+import com.accounting.app.entity.Account;
+
+import java.math.BigDecimal;
+
+/**
+ * 勘定科目タイプ別の借方・貸方合計（集計クエリの射影）
+ * 累計期間と、その内側の当期期間の合計を同時に保持する。
+ */
+public class AccountTypeTotals {
+    private final Account.AccountType accountType;
+    private final BigDecimal debitTotal;
+    private final BigDecimal creditTotal;
+    private final BigDecimal periodDebitTotal;
+    private final BigDecimal periodCreditTotal;
+
+    public AccountTypeTotals(Account.AccountType accountType,
+                             BigDecimal debitTotal, BigDecimal creditTotal,
+                             BigDecimal periodDebitTotal, BigDecimal periodCreditTotal) {
+        this.accountType = accountType;
+        this.debitTotal = debitTotal != null ? debitTotal : BigDecimal.ZERO;
+        this.creditTotal = creditTotal != null ? creditTotal : BigDecimal.ZERO;
+        this.periodDebitTotal = periodDebitTotal != null ? periodDebitTotal : BigDecimal.ZERO;
+        this.periodCreditTotal = periodCreditTotal != null ? periodCreditTotal : BigDecimal.ZERO;
+    }
+
+    public Account.AccountType getAccountType() { return accountType; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+
+    public BigDecimal getPeriodDebitTotal() { return periodDebitTotal; }
+
+    public BigDecimal getPeriodCreditTotal() { return periodCreditTotal; }
+}
@@ -0,0 +1,39 @@
+package com.accounting.app.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 総勘定元帳の明細行（ストリーミング出力用の射影）
+ * 残高は含まず、読み出し側で累計する
+ */
+public class GeneralLedgerLine {
+    private final Long accountId;
+    private final LocalDate journalDate;
+    private final String journalNumber;
+    private final String description;
+    private final BigDecimal debitAmount;
+    private final BigDecimal creditAmount;
+
+    public GeneralLedgerLine(Long accountId, LocalDate journalDate, String journalNumber, String description,
+                             BigDecimal debitAmount, BigDecimal creditAmount) {
+        this.accountId = accountId;
+        this.journalDate = journalDate;
+        this.journalNumber = journalNumber;
+        this.description = description;
+        this.debitAmount = debitAmount != null ? debitAmount : BigDecimal.ZERO;
+        this.creditAmount = creditAmount != null ? creditAmount : BigDecimal.ZERO;
+    }
+
+    public Long getAccountId() { return accountId; }
+
+    public LocalDate getJournalDate() { return journalDate; }
+
+    public String getJournalNumber() { return journalNumber; }
+
+    public String getDescription() { return description; }
+
+    public BigDecimal getDebitAmount() { return debitAmount; }
+
+    public BigDecimal getCreditAmount() { return creditAmount; }
+}
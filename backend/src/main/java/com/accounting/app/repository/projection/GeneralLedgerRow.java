@@ -0,0 +1,23 @@
+package com.accounting.app.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 総勘定元帳の明細行（ネイティブクエリの射影）
+ * 累計借方残高は期間開始からの借方合計 - 貸方合計（その行を含む）
+ */
+public interface GeneralLedgerRow {
+
+    LocalDate getJournalDate();
+
+    String getJournalNumber();
+
+    String getDescription();
+
+    BigDecimal getDebitAmount();
+
+    BigDecimal getCreditAmount();
+
+    BigDecimal getRunningDebitBalance();
+}
@@ -0,0 +1,28 @@
+package com.accounting.app.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * 仕訳ヘッダーの摘要（摘要検索のインデックス作成用の射影）
+ */
+public class JournalDescription {
+    private final Long journalId;
+    private final LocalDate journalDate;
+    private final String journalNumber;
+    private final String description;
+
+    public JournalDescription(Long journalId, LocalDate journalDate, String journalNumber, String description) {
+        this.journalId = journalId;
+        this.journalDate = journalDate;
+        this.journalNumber = journalNumber;
+        this.description = description;
+    }
+
+    public Long getJournalId() { return journalId; }
+
+    public LocalDate getJournalDate() { return journalDate; }
+
+    public String getJournalNumber() { return journalNumber; }
+
+    public String getDescription() { return description; }
+}
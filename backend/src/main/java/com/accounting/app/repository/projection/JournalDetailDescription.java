@@ -0,0 +1,18 @@
+package com.accounting.app.repository.projection;
+
+/**
+ * 仕訳明細の摘要（摘要検索のインデックス作成用の射影）
+ */
+public class JournalDetailDescription {
+    private final Long journalId;
+    private final String description;
+
+    public JournalDetailDescription(Long journalId, String description) {
+        this.journalId = journalId;
+        this.description = description;
+    }
+
+    public Long getJournalId() { return journalId; }
+
+    public String getDescription() { return description; }
+}
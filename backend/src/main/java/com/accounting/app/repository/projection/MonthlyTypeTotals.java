@@ -0,0 +1,32 @@
+package com.accounting.app.repository.projection;
+
+import com.accounting.app.entity.Account;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 月・勘定科目タイプ別の借方・貸方合計（集計クエリの射影）
+ */
+public class MonthlyTypeTotals {
+    private final LocalDate periodMonth;
+    private final Account.AccountType accountType;
+    private final BigDecimal debitTotal;
+    private final BigDecimal creditTotal;
+
+    public MonthlyTypeTotals(LocalDate periodMonth, Account.AccountType accountType,
+                             BigDecimal debitTotal, BigDecimal creditTotal) {
+        this.periodMonth = periodMonth;
+        this.accountType = accountType;
+        this.debitTotal = debitTotal != null ? debitTotal : BigDecimal.ZERO;
+        this.creditTotal = creditTotal != null ? creditTotal : BigDecimal.ZERO;
+    }
+
+    public LocalDate getPeriodMonth() { return periodMonth; }
+
+    public Account.AccountType getAccountType() { return accountType; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+}
@@ -0,0 +1,146 @@
+package com.accounting.app.service;
+
+import com.accounting.app.entity.AccountPeriodBalance;
+import com.accounting.app.entity.Journal;
+import com.accounting.app.entity.JournalDetail;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 勘定科目期間残高の増分
+ * 仕訳明細の追加・取消分を日付・勘定科目・補助科目・取引先ごとに集約し、
+ * 日次・月次のロールアップ行へ展開する。
+ */
+public class AccountBalanceDelta {
+
+    private final Long companyId;
+    private final Map<Key, BigDecimal[]> totals = new LinkedHashMap<>();
+
+    public AccountBalanceDelta(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    /**
+     * 仕訳の全明細を加算（sign = -1 で取消）
+     */
+    public AccountBalanceDelta add(Journal journal, int sign) {
+        for (JournalDetail detail : journal.getDetails()) {
+            add(journal.getJournalDate(),
+                    detail.getAccount().getId(),
+                    detail.getSubAccount() != null ? detail.getSubAccount().getId() : null,
+                    detail.getPartner() != null ? detail.getPartner().getId() : null,
+                    detail.getEntryType(),
+                    sign < 0 ? detail.getAmount().negate() : detail.getAmount());
+        }
+        return this;
+    }
+
+    /**
+     * 明細1行分を加算
+     */
+    public AccountBalanceDelta add(LocalDate date, Long accountId, Long subAccountId, Long partnerId,
+                                   JournalDetail.EntryType entryType, BigDecimal amount) {
+        Key key = new Key(date, accountId, toKeyId(subAccountId), toKeyId(partnerId));
+        BigDecimal[] total = totals.computeIfAbsent(key, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+        int index = entryType == JournalDetail.EntryType.DEBIT ? 0 : 1;
+        total[index] = total[index].add(amount);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return totals.isEmpty();
+    }
+
+    /**
+     * 日次・月次のロールアップ増分行へ展開（増減ゼロの行は除外）
+     */
+    public List<AccountPeriodBalance> toIncrements() {
+        Map<Key, BigDecimal[]> monthly = new LinkedHashMap<>();
+        List<AccountPeriodBalance> increments = new ArrayList<>();
+
+        for (Map.Entry<Key, BigDecimal[]> entry : totals.entrySet()) {
+            Key key = entry.getKey();
+            BigDecimal[] total = entry.getValue();
+            if (total[0].signum() == 0 && total[1].signum() == 0) {
+                continue;
+            }
+            increments.add(toIncrement(key, AccountPeriodBalance.Grain.DAY, key.date, total));
+
+            Key monthKey = new Key(key.date.withDayOfMonth(1), key.accountId, key.subAccountId, key.partnerId);
+            BigDecimal[] monthTotal = monthly.computeIfAbsent(monthKey,
+                    k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            monthTotal[0] = monthTotal[0].add(total[0]);
+            monthTotal[1] = monthTotal[1].add(total[1]);
+        }
+
+        for (Map.Entry<Key, BigDecimal[]> entry : monthly.entrySet()) {
+            BigDecimal[] total = entry.getValue();
+            if (total[0].signum() == 0 && total[1].signum() == 0) {
+                continue;
+            }
+            increments.add(toIncrement(entry.getKey(), AccountPeriodBalance.Grain.MONTH, entry.getKey().date, total));
+        }
+
+        return increments;
+    }
+
+    private AccountPeriodBalance toIncrement(Key key, AccountPeriodBalance.Grain grain, LocalDate periodDate,
+                                             BigDecimal[] total) {
+        AccountPeriodBalance increment = new AccountPeriodBalance();
+        increment.setCompanyId(companyId);
+        increment.setAccountId(key.accountId);
+        increment.setSubAccountId(key.subAccountId);
+        increment.setPartnerId(key.partnerId);
+        increment.setGrain(grain);
+        increment.setPeriodDate(periodDate);
+        increment.setPeriodMonth(periodDate.withDayOfMonth(1));
+        increment.setDebitTotal(total[0]);
+        increment.setCreditTotal(total[1]);
+        return increment;
+    }
+
+    private static Long toKeyId(Long id) {
+        return id != null ? id : 0L;
+    }
+
+    /**
+     * 集約キー
+     */
+    private static final class Key {
+        final LocalDate date;
+        final Long accountId;
+        final Long subAccountId;
+        final Long partnerId;
+
+        Key(LocalDate date, Long accountId, Long subAccountId, Long partnerId) {
+            this.date = date;
+            this.accountId = accountId;
+            this.subAccountId = subAccountId;
+            this.partnerId = partnerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return date.equals(key.date) && accountId.equals(key.accountId)
+                    && subAccountId.equals(key.subAccountId) && partnerId.equals(key.partnerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(date, accountId, subAccountId, partnerId);
+        }
+    }
+}
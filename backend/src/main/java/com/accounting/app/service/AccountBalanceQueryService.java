@@ -0,0 +1,117 @@
+package com.accounting.app.service;
+
+import com.accounting.app.repository.AccountClosingBalanceRepository;
+import com.accounting.app.repository.AccountPeriodBalanceRepository;
+import com.accounting.app.repository.projection.AccountBalanceSummary;
+import com.accounting.app.repository.projection.AccountDrillDownTotal;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 勘定科目残高照会サービス
+ * 基準日以前で最新の締め残高（スナップショット）を起点に、
+ * それ以降の期間を勘定科目期間残高（ロールアップ）から集計する
+ */
+@Service
+@Transactional(readOnly = true)
+public class AccountBalanceQueryService {
+
+    private final AccountPeriodBalanceRepository accountPeriodBalanceRepository;
+    private final AccountClosingBalanceRepository accountClosingBalanceRepository;
+
+    public AccountBalanceQueryService(
+            AccountPeriodBalanceRepository accountPeriodBalanceRepository,
+            AccountClosingBalanceRepository accountClosingBalanceRepository) {
+        this.accountPeriodBalanceRepository = accountPeriodBalanceRepository;
+        this.accountClosingBalanceRepository = accountClosingBalanceRepository;
+    }
+
+    /**
+     * 基準日までの勘定科目別累計
+     */
+    public List<AccountBalanceSummary> sumByAccountUpTo(Long companyId, LocalDate asOfDate) {
+        LocalDate closingDate = accountClosingBalanceRepository.findLatestClosingDate(companyId, asOfDate);
+        if (closingDate == null) {
+            return sumByAccount(companyId, BalanceRange.upTo(asOfDate));
+        }
+
+        List<AccountBalanceSummary> closingBalances = accountClosingBalanceRepository.sumByAccount(companyId, closingDate);
+        if (!closingDate.isBefore(asOfDate)) {
+            return closingBalances;
+        }
+        return merge(closingBalances, sumByAccount(companyId, BalanceRange.of(closingDate.plusDays(1), asOfDate)));
+    }
+
+    /**
+     * 指定日より前の勘定科目の借方残高（借方合計 - 貸方合計）
+     */
+    public BigDecimal debitBalanceBefore(Long companyId, Long accountId, LocalDate date) {
+        LocalDate asOfDate = date.minusDays(1);
+        LocalDate closingDate = accountClosingBalanceRepository.findLatestClosingDate(companyId, asOfDate);
+
+        BigDecimal balance = BigDecimal.ZERO;
+        BalanceRange range = BalanceRange.upTo(asOfDate);
+        if (closingDate != null) {
+            balance = debitBalanceOf(accountClosingBalanceRepository.sumForAccount(companyId, accountId, closingDate));
+            if (!closingDate.isBefore(asOfDate)) {
+                return balance;
+            }
+            range = BalanceRange.of(closingDate.plusDays(1), asOfDate);
+        }
+
+        return balance.add(debitBalanceOf(accountPeriodBalanceRepository.sumForAccount(
+                companyId, accountId,
+                range.getFromDate(), range.getToDate(),
+                range.getFromMonth(), range.getToMonth(), range.getSplitMonths())));
+    }
+
+    /**
+     * 基準日までの勘定科目・補助科目・取引先別累計
+     * 締め残高は取引先別に保持していないため、勘定科目期間残高のみから集計する
+     */
+    public List<AccountDrillDownTotal> sumByAccountDrillDownUpTo(Long companyId, LocalDate asOfDate,
+                                                                 boolean bySubAccount, boolean byPartner) {
+        BalanceRange range = BalanceRange.upTo(asOfDate);
+        return accountPeriodBalanceRepository.sumByAccountDrillDown(
+                companyId,
+                range.getFromDate(), range.getToDate(),
+                range.getFromMonth(), range.getToMonth(), range.getSplitMonths(),
+                bySubAccount, byPartner);
+    }
+
+    private List<AccountBalanceSummary> sumByAccount(Long companyId, BalanceRange range) {
+        return accountPeriodBalanceRepository.sumByAccount(
+                companyId,
+                range.getFromDate(), range.getToDate(),
+                range.getFromMonth(), range.getToMonth(), range.getSplitMonths());
+    }
+
+    private BigDecimal debitBalanceOf(List<AccountBalanceSummary> summaries) {
+        return summaries.isEmpty() ? BigDecimal.ZERO : summaries.get(0).getDebitBalance();
+    }
+
+    /**
+     * 締め残高と以降の期間の集計を勘定科目ごとに合算
+     */
+    private List<AccountBalanceSummary> merge(List<AccountBalanceSummary> closingBalances,
+                                              List<AccountBalanceSummary> movements) {
+        Map<Long, AccountBalanceSummary> merged = new LinkedHashMap<>();
+        for (AccountBalanceSummary summary : closingBalances) {
+            merged.put(summary.getAccountId(), summary);
+        }
+        for (AccountBalanceSummary movement : movements) {
+            merged.merge(movement.getAccountId(), movement, (base, added) -> new AccountBalanceSummary(
+                    base.getAccountId(), base.getAccountCode(), base.getAccountName(), base.getAccountType(),
+                    base.getDebitTotal().add(added.getDebitTotal()),
+                    base.getCreditTotal().add(added.getCreditTotal())));
+        }
+        return new ArrayList<>(merged.values());
+    }
+}
@@ -0,0 +1,171 @@
+package com.accounting.app.service;
+
+import com.accounting.app.dto.response.BalanceRebuildResponse;
+import com.accounting.app.entity.AccountPeriodBalance;
+import com.accounting.app.entity.Journal;
+import com.accounting.app.entity.JournalDetail;
+import com.accounting.app.repository.AccountPeriodBalanceRepository;
+import com.accounting.app.repository.JournalDetailRepository;
+import com.accounting.app.repository.JournalRepository;
+import com.accounting.app.repository.projection.AccountDailyTotal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 勘定科目期間残高（ロールアップ）更新サービス
+ * 仕訳の登録・更新・削除時に呼び出し、同一トランザクションで日次・月次の残高を増分更新する
+ */
+@Service
+@Transactional
+public class AccountBalanceRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountBalanceRollupService.class);
+
+    private final AccountPeriodBalanceRepository accountPeriodBalanceRepository;
+    private final JournalRepository journalRepository;
+    private final JournalDetailRepository journalDetailRepository;
+    private final LedgerVersionService ledgerVersionService;
+    private final ClosingBalanceService closingBalanceService;
+    private final ParallelAggregator parallelAggregator;
+
+    @Value("${app.rollup.rebuild-chunk-months:3}")
+    private int rebuildChunkMonths;
+
+    public AccountBalanceRollupService(
+            AccountPeriodBalanceRepository accountPeriodBalanceRepository,
+            JournalRepository journalRepository,
+            JournalDetailRepository journalDetailRepository,
+            LedgerVersionService ledgerVersionService,
+            ClosingBalanceService closingBalanceService,
+            ParallelAggregator parallelAggregator) {
+        this.accountPeriodBalanceRepository = accountPeriodBalanceRepository;
+        this.journalRepository = journalRepository;
+        this.journalDetailRepository = journalDetailRepository;
+        this.ledgerVersionService = ledgerVersionService;
+        this.closingBalanceService = closingBalanceService;
+        this.parallelAggregator = parallelAggregator;
+    }
+
+    /**
+     * 仕訳の登録分を加算
+     */
+    public void addJournal(Journal journal) {
+        apply(new AccountBalanceDelta(journal.getCompany().getId()).add(journal, 1));
+    }
+
+    /**
+     * 仕訳の削除分を減算
+     */
+    public void removeJournal(Journal journal) {
+        apply(new AccountBalanceDelta(journal.getCompany().getId()).add(journal, -1));
+    }
+
+    /**
+     * 増分を反映
+     */
+    public void apply(AccountBalanceDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        accountPeriodBalanceRepository.addTotals(delta.toIncrements());
+    }
+
+    /**
+     * 会社の勘定科目期間残高を仕訳明細から再構築
+     */
+    public BalanceRebuildResponse rebuild(Long companyId) {
+        // 先に元帳バージョンの行ロックを取得し、仕訳の登録と直列化してから削除する
+        // （削除後にロックを取ると、READ COMMITTED では削除時に見えなかった登録分の増分行が残り、
+        //  ワーカーの集計と二重に計上される）
+        ledgerVersionService.bump(companyId);
+        accountPeriodBalanceRepository.deleteByCompanyId(companyId);
+
+        BalanceRebuildResponse response = new BalanceRebuildResponse();
+        response.setCompanyId(companyId);
+
+        LocalDate minDate = journalRepository.findMinJournalDateByCompanyId(companyId);
+        LocalDate maxDate = journalRepository.findMaxJournalDateByCompanyId(companyId);
+        if (minDate == null || maxDate == null) {
+            closingBalanceService.rebuild(companyId);
+            return response;
+        }
+
+        // 月初に揃えた期間チャンクごとに日別集計を取得して増分行へ展開（チャンクは並列に集計）
+        // 並列集計時はワーカースレッドの別コネクションで読むため、確定済みの仕訳のみが対象となる
+        int chunkMonths = Math.max(1, rebuildChunkMonths);
+        List<LocalDate[]> chunks = new ArrayList<>();
+        for (LocalDate chunkStart = minDate.withDayOfMonth(1); !chunkStart.isAfter(maxDate);
+             chunkStart = chunkStart.plusMonths(chunkMonths)) {
+            chunks.add(new LocalDate[]{chunkStart, chunkStart.plusMonths(chunkMonths).minusDays(1)});
+        }
+
+        int[] rows = new int[2];
+        parallelAggregator.aggregate(chunks,
+                chunk -> aggregateChunk(companyId, chunk[0], chunk[1]),
+                increments -> {
+                    for (AccountPeriodBalance increment : increments) {
+                        rows[increment.getGrain() == AccountPeriodBalance.Grain.DAY ? 0 : 1]++;
+                    }
+                    accountPeriodBalanceRepository.addTotals(increments);
+                });
+        int dayRows = rows[0];
+        int monthRows = rows[1];
+
+        // 締め残高は再構築後の勘定科目期間残高から作り直す
+        closingBalanceService.rebuild(companyId);
+
+        logger.info("勘定科目期間残高を再構築しました: companyId={}, dayRows={}, monthRows={}",
+                companyId, dayRows, monthRows);
+
+        response.setDayRows(dayRows);
+        response.setMonthRows(monthRows);
+        return response;
+    }
+
+    /**
+     * 期間チャンクの日別集計を日次・月次の増分行へ展開
+     */
+    private List<AccountPeriodBalance> aggregateChunk(Long companyId, LocalDate startDate, LocalDate endDate) {
+        List<AccountDailyTotal> dailyTotals = journalDetailRepository
+                .sumDailyByCompanyIdAndJournalDateBetween(companyId, startDate, endDate);
+
+        AccountBalanceDelta delta = new AccountBalanceDelta(companyId);
+        for (AccountDailyTotal total : dailyTotals) {
+            delta.add(total.getJournalDate(), total.getAccountId(), total.getSubAccountId(), total.getPartnerId(),
+                    JournalDetail.EntryType.DEBIT, total.getDebitTotal());
+            delta.add(total.getJournalDate(), total.getAccountId(), total.getSubAccountId(), total.getPartnerId(),
+                    JournalDetail.EntryType.CREDIT, total.getCreditTotal());
+        }
+        return delta.toIncrements();
+    }
+
+    /**
+     * ロールアップ未作成の会社を再構築（起動時のバックフィル用）
+     * 元帳バージョンの行ロックを取得してから未作成であることを確認するため、
+     * 複数のノードが同時に起動しても同じ会社を重ねて再構築しない
+     * @return 再構築した場合はtrue（他のノードが作成済みの場合はfalse）
+     */
+    public boolean backfill(Long companyId) {
+        ledgerVersionService.bump(companyId);
+        if (accountPeriodBalanceRepository.existsByCompanyId(companyId)) {
+            return false;
+        }
+        rebuild(companyId);
+        return true;
+    }
+
+    /**
+     * ロールアップ未作成の会社IDを取得
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findCompaniesWithoutBalances() {
+        return accountPeriodBalanceRepository.findCompanyIdsWithoutBalances();
+    }
+}
@@ -24,11 +24,14 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final JournalDetailRepository journalDetailRepository;
+    private final LedgerVersionService ledgerVersionService;
 
     public AccountService(AccountRepository accountRepository,
-                         JournalDetailRepository journalDetailRepository) {
+                         JournalDetailRepository journalDetailRepository,
+                         LedgerVersionService ledgerVersionService) {
         this.accountRepository = accountRepository;
         this.journalDetailRepository = journalDetailRepository;
+        this.ledgerVersionService = ledgerVersionService;
     }
 
     /**
@@ -116,6 +119,9 @@ public class AccountService {
         account.setAccountType(AccountType.valueOf(request.getAccountType()));
 
         Account updatedAccount = accountRepository.save(account);
+
+        // コード・名称・タイプはレポートに表示されるため元帳バージョンを進める
+        ledgerVersionService.bump(updatedAccount.getCompany().getId());
         return AccountResponse.from(updatedAccount);
     }
 
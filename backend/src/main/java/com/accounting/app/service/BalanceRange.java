@@ -0,0 +1,77 @@
+package com.accounting.app.service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * ロールアップ集計用の期間
+ * 開始日・終了日と、日次行で集計する月（分割月）を保持する。
+ * 開始月・終了月と、追加で指定した境界日の月は常に分割月となる。
+ */
+final class BalanceRange {
+
+    /** 累計集計の開始日（これより前の仕訳は存在しない前提） */
+    static final LocalDate EPOCH = LocalDate.of(1900, 1, 1);
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final Set<LocalDate> splitMonths;
+
+    private BalanceRange(LocalDate fromDate, LocalDate toDate, Set<LocalDate> splitMonths) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.splitMonths = Collections.unmodifiableSet(splitMonths);
+    }
+
+    /**
+     * 期間を作成
+     * @param fromDate 開始日
+     * @param toDate 終了日
+     * @param boundaries 期間内で日単位の区切りが必要な日付
+     */
+    static BalanceRange of(LocalDate fromDate, LocalDate toDate, LocalDate... boundaries) {
+        Set<LocalDate> splitMonths = new TreeSet<>();
+        splitMonths.add(fromDate.withDayOfMonth(1));
+        splitMonths.add(toDate.withDayOfMonth(1));
+        for (LocalDate boundary : boundaries) {
+            splitMonths.add(boundary.withDayOfMonth(1));
+        }
+        return new BalanceRange(fromDate, toDate, splitMonths);
+    }
+
+    /**
+     * 基準日までの累計期間を作成
+     */
+    static BalanceRange upTo(LocalDate asOfDate, LocalDate... boundaries) {
+        return of(EPOCH, asOfDate, boundaries);
+    }
+
+    /**
+     * 指定日より前の累計期間を作成
+     */
+    static BalanceRange before(LocalDate date) {
+        return upTo(date.minusDays(1));
+    }
+
+    LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    LocalDate getToDate() {
+        return toDate;
+    }
+
+    LocalDate getFromMonth() {
+        return fromDate.withDayOfMonth(1);
+    }
+
+    LocalDate getToMonth() {
+        return toDate.withDayOfMonth(1);
+    }
+
+    Set<LocalDate> getSplitMonths() {
+        return splitMonths;
+    }
+}
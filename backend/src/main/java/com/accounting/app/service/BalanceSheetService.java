@@ -1,17 +1,16 @@
 package com.accounting.app.service;
 
 import com.accounting.app.dto.response.BalanceSheetReport;
-import com.accounting.app.dto.response.ProfitLossReport;
-import com.accounting.app.entity.Account;
-import com.accounting.app.entity.FiscalPeriod;
-import com.accounting.app.entity.JournalDetail;
-import com.accounting.app.repository.FiscalPeriodRepository;
-import com.accounting.app.repository.JournalDetailRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,69 +21,34 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class BalanceSheetService {
 
-    private final JournalDetailRepository journalDetailRepository;
-    private final FiscalPeriodRepository fiscalPeriodRepository;
-    private final ProfitLossService profitLossService;
+    private static final String TABLE_TITLE = "貸借対照表";
+    private static final List<ReportTable.Column> TABLE_COLUMNS = Arrays.asList(
+            ReportTable.Column.left("項目", 160),
+            ReportTable.Column.right("金額", 100));
+
+    private final FinancialStatementService financialStatementService;
+    private final FiscalPeriodIndex fiscalPeriodIndex;
+    private final ReportPdfRenderer reportPdfRenderer;
+    private final ReportExcelRenderer reportExcelRenderer;
 
     public BalanceSheetService(
-            JournalDetailRepository journalDetailRepository,
-            FiscalPeriodRepository fiscalPeriodRepository,
-            ProfitLossService profitLossService) {
-        this.journalDetailRepository = journalDetailRepository;
-        this.fiscalPeriodRepository = fiscalPeriodRepository;
-        this.profitLossService = profitLossService;
+            FinancialStatementService financialStatementService,
+            FiscalPeriodIndex fiscalPeriodIndex,
+            ReportPdfRenderer reportPdfRenderer,
+            ReportExcelRenderer reportExcelRenderer) {
+        this.financialStatementService = financialStatementService;
+        this.fiscalPeriodIndex = fiscalPeriodIndex;
+        this.reportPdfRenderer = reportPdfRenderer;
+        this.reportExcelRenderer = reportExcelRenderer;
     }
 
     /**
      * 貸借対照表を生成
      */
     public BalanceSheetReport generate(Long companyId, LocalDate asOfDate) {
-        // 基準日までの仕訳明細を取得
-        List<JournalDetail> details = journalDetailRepository
-                .findByCompanyIdAndJournalDateBeforeOrEqual(companyId, asOfDate);
-
-        BigDecimal assets = BigDecimal.ZERO;
-        BigDecimal liabilities = BigDecimal.ZERO;
-        BigDecimal equity = BigDecimal.ZERO;
-
-        for (JournalDetail detail : details) {
-            Account account = detail.getAccount();
-            Account.AccountType accountType = account.getAccountType();
-
-            BigDecimal amount = BigDecimal.ZERO;
-
-            if (accountType == Account.AccountType.ASSET) {
-                // 資産: 借方増加、貸方減少
-                if (detail.getEntryType() == JournalDetail.EntryType.DEBIT) {
-                    amount = detail.getAmount();
-                } else {
-                    amount = detail.getAmount().negate();
-                }
-                assets = assets.add(amount);
-            } else if (accountType == Account.AccountType.LIABILITY) {
-                // 負債: 貸方増加、借方減少
-                if (detail.getEntryType() == JournalDetail.EntryType.CREDIT) {
-                    amount = detail.getAmount();
-                } else {
-                    amount = detail.getAmount().negate();
-                }
-                liabilities = liabilities.add(amount);
-            } else if (accountType == Account.AccountType.EQUITY) {
-                // 純資産: 貸方増加、借方減少
-                if (detail.getEntryType() == JournalDetail.EntryType.CREDIT) {
-                    amount = detail.getAmount();
-                } else {
-                    amount = detail.getAmount().negate();
-                }
-                equity = equity.add(amount);
-            }
-        }
-
-        // 当期純利益を計算（会計期間の開始日から基準日まで）
+        // 当期純利益の集計開始日（会計期間の開始日）
         // 基準日が含まれる会計期間を検索
-        Optional<FiscalPeriod> fiscalPeriodOpt = fiscalPeriodRepository
-                .findByCompanyIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                        companyId, asOfDate, asOfDate);
+        Optional<FiscalPeriodIndex.Period> fiscalPeriodOpt = fiscalPeriodIndex.find(companyId, asOfDate);
 
         LocalDate fiscalYearStart;
         if (fiscalPeriodOpt.isPresent()) {
@@ -94,13 +58,16 @@ public class BalanceSheetService {
             fiscalYearStart = LocalDate.of(asOfDate.getYear(), 1, 1);
         }
 
-        ProfitLossReport plReport = profitLossService.generate(companyId, fiscalYearStart, asOfDate);
-        BigDecimal netProfit = plReport.getNetProfit();
+        // 基準日までの累計と会計期間開始日以降の損益を同時に集計（勘定科目期間残高から取得）
+        StatementTotals totals = financialStatementService.calculateAsOf(companyId, asOfDate, fiscalYearStart);
+        BigDecimal liabilities = totals.getLiabilities();
+        BigDecimal equity = totals.getEquity();
+        BigDecimal netProfit = totals.getNetProfit();
 
         // レポートの作成
         BalanceSheetReport report = new BalanceSheetReport();
         report.setAsOfDate(asOfDate);
-        report.setAssets(assets);
+        report.setAssets(totals.getAssets());
         report.setLiabilities(liabilities);
         report.setEquity(equity);
         report.setNetProfit(netProfit);
@@ -110,16 +77,46 @@ public class BalanceSheetService {
     }
 
     /**
-     * PDF出力（実装予定）
+     * PDF出力
      */
     public byte[] exportPdf(BalanceSheetReport report) {
-        throw new UnsupportedOperationException("PDF出力機能は未実装です");
+        try (ReportTable table = reportPdfRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeTable(table, report);
+            return table.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("PDFの作成に失敗しました", e);
+        }
     }
 
     /**
-     * Excel出力（実装予定）
+     * Excel出力
      */
     public byte[] exportExcel(BalanceSheetReport report) {
-        throw new UnsupportedOperationException("Excel出力機能は未実装です");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeExcel(report, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Excelの作成に失敗しました", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Excelを出力ストリームへ書き込む（出力ストリームはクローズしない）
+     */
+    public void writeExcel(BalanceSheetReport report, OutputStream out) throws IOException {
+        try (ReportTable table = reportExcelRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeTable(table, report);
+            table.writeTo(out);
+        }
+    }
+
+    private void writeTable(ReportTable table, BalanceSheetReport report) throws IOException {
+        table.section("基準日: " + report.getAsOfDate());
+        table.totalRow("資産合計", report.getAssets());
+        table.row("負債", report.getLiabilities());
+        table.row("純資産", report.getEquity());
+        table.row("当期純利益", report.getNetProfit());
+        table.totalRow("負債・純資産合計", report.getTotalLiabilitiesAndEquity());
     }
 }
@@ -0,0 +1,148 @@
+package com.accounting.app.service;
+
+import com.accounting.app.entity.AccountClosingBalance;
+import com.accounting.app.entity.FiscalPeriod;
+import com.accounting.app.repository.AccountClosingBalanceRepository;
+import com.accounting.app.repository.AccountPeriodBalanceRepository;
+import com.accounting.app.repository.FiscalPeriodRepository;
+import com.accounting.app.repository.projection.AccountSubAccountTotal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 勘定科目締め残高サービス
+ * 会計期間の締め時に勘定科目・補助科目別の累計残高をスナップショットとして保存する
+ */
+@Service
+@Transactional
+public class ClosingBalanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClosingBalanceService.class);
+
+    private final AccountClosingBalanceRepository accountClosingBalanceRepository;
+    private final AccountPeriodBalanceRepository accountPeriodBalanceRepository;
+    private final FiscalPeriodRepository fiscalPeriodRepository;
+
+    public ClosingBalanceService(
+            AccountClosingBalanceRepository accountClosingBalanceRepository,
+            AccountPeriodBalanceRepository accountPeriodBalanceRepository,
+            FiscalPeriodRepository fiscalPeriodRepository) {
+        this.accountClosingBalanceRepository = accountClosingBalanceRepository;
+        this.accountPeriodBalanceRepository = accountPeriodBalanceRepository;
+        this.fiscalPeriodRepository = fiscalPeriodRepository;
+    }
+
+    /**
+     * 会計期間の終了日時点の締め残高を作成
+     * 直前のスナップショットがあればそれを起点に、以降の期間のみを集計する
+     */
+    public void snapshot(FiscalPeriod period) {
+        Long companyId = period.getCompany().getId();
+        LocalDate closingDate = period.getEndDate();
+
+        accountClosingBalanceRepository.deleteByFiscalPeriodId(period.getId());
+
+        // 勘定科目・補助科目ごとの借方・貸方累計
+        Map<Key, BigDecimal[]> totals = new LinkedHashMap<>();
+
+        LocalDate baseDate = accountClosingBalanceRepository.findLatestClosingDate(companyId, closingDate.minusDays(1));
+        BalanceRange range;
+        if (baseDate != null) {
+            for (AccountClosingBalance base : accountClosingBalanceRepository.findByCompanyIdAndClosingDate(companyId, baseDate)) {
+                add(totals, base.getAccountId(), base.getSubAccountId(), base.getDebitTotal(), base.getCreditTotal());
+            }
+            range = BalanceRange.of(baseDate.plusDays(1), closingDate);
+        } else {
+            range = BalanceRange.upTo(closingDate);
+        }
+
+        List<AccountSubAccountTotal> rows = accountPeriodBalanceRepository.sumByAccountAndSubAccount(
+                companyId,
+                range.getFromDate(), range.getToDate(),
+                range.getFromMonth(), range.getToMonth(), range.getSplitMonths());
+        for (AccountSubAccountTotal row : rows) {
+            add(totals, row.getAccountId(), row.getSubAccountId(), row.getDebitTotal(), row.getCreditTotal());
+        }
+
+        List<AccountClosingBalance> balances = new ArrayList<>(totals.size());
+        for (Map.Entry<Key, BigDecimal[]> entry : totals.entrySet()) {
+            AccountClosingBalance balance = new AccountClosingBalance();
+            balance.setCompanyId(companyId);
+            balance.setFiscalPeriodId(period.getId());
+            balance.setClosingDate(closingDate);
+            balance.setAccountId(entry.getKey().accountId);
+            balance.setSubAccountId(entry.getKey().subAccountId);
+            balance.setDebitTotal(entry.getValue()[0]);
+            balance.setCreditTotal(entry.getValue()[1]);
+            balances.add(balance);
+        }
+        accountClosingBalanceRepository.saveAll(balances);
+
+        logger.info("締め残高を作成しました: companyId={}, fiscalPeriodId={}, closingDate={}, rows={}",
+                companyId, period.getId(), closingDate, balances.size());
+    }
+
+    /**
+     * 指定日以降を締め日とするスナップショットを破棄
+     * 締め日以前の仕訳が変更された場合や、会計期間を再開した場合に呼び出す
+     */
+    public void discardFrom(Long companyId, LocalDate date) {
+        accountClosingBalanceRepository.deleteByCompanyIdAndClosingDateOnOrAfter(companyId, date);
+    }
+
+    /**
+     * 締められた会計期間のスナップショットを作り直す
+     */
+    public void rebuild(Long companyId) {
+        discardFrom(companyId, BalanceRange.EPOCH);
+        for (FiscalPeriod period : fiscalPeriodRepository.findByCompanyIdOrderByStartDate(companyId)) {
+            if (period.getIsClosed()) {
+                snapshot(period);
+            }
+        }
+    }
+
+    private void add(Map<Key, BigDecimal[]> totals, Long accountId, Long subAccountId,
+                     BigDecimal debitTotal, BigDecimal creditTotal) {
+        BigDecimal[] total = totals.computeIfAbsent(new Key(accountId, subAccountId),
+                key -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+        total[0] = total[0].add(debitTotal);
+        total[1] = total[1].add(creditTotal);
+    }
+
+    /**
+     * 集約キー
+     */
+    private static final class Key {
+        final Long accountId;
+        final Long subAccountId;
+
+        Key(Long accountId, Long subAccountId) {
+            this.accountId = accountId;
+            this.subAccountId = subAccountId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return accountId.equals(key.accountId) && subAccountId.equals(key.subAccountId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, subAccountId);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.accounting.app.service;
+
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.exception.ResourceNotFoundException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 明細の差分更新での対応付け（仕訳・請求書共通）
+ *
+ * リクエストの明細を、IDが指定されていればIDで、なければ行番号で既存の明細に対応付ける。
+ * 対応付いた明細は値を上書きし（値が変わらない行は Hibernate の変更検知により UPDATE されない）、
+ * 対応のないリクエストは追加、対応のない既存の明細は削除する。
+ * 全行を削除して作り直す場合と比べ、書き込みを変更のあった行に限定できる。
+ */
+final class DetailMatcher {
+
+    private DetailMatcher() {
+    }
+
+    /**
+     * リクエストの明細と既存の明細を対応付ける
+     * @param resourceName 明細の種類（IDが見つからない場合の例外に使用）
+     * @return リクエストの明細 → 対応する既存の明細（追加する明細は含まない）
+     */
+    static <D, R> Map<R, D> match(List<D> details, List<R> requests,
+                                  Function<D, Long> detailId, Function<D, Integer> detailLineNumber,
+                                  Function<R, Long> requestId, Function<R, Integer> requestLineNumber,
+                                  String resourceName) {
+        Map<Long, D> byId = new HashMap<>();
+        Map<Integer, D> byLineNumber = new HashMap<>();
+        for (D detail : details) {
+            byId.put(detailId.apply(detail), detail);
+            byLineNumber.putIfAbsent(detailLineNumber.apply(detail), detail);
+        }
+
+        Map<R, D> matches = new IdentityHashMap<>();
+        Set<D> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        // IDの指定を優先して対応付ける
+        for (R request : requests) {
+            Long id = requestId.apply(request);
+            if (id == null) {
+                continue;
+            }
+            D detail = byId.get(id);
+            if (detail == null) {
+                throw new ResourceNotFoundException(resourceName, "id", id);
+            }
+            if (!matched.add(detail)) {
+                throw new BadRequestException("明細ID " + id + " が重複しています");
+            }
+            matches.put(request, detail);
+        }
+        for (R request : requests) {
+            if (requestId.apply(request) != null) {
+                continue;
+            }
+            D detail = byLineNumber.get(requestLineNumber.apply(request));
+            if (detail != null && matched.add(detail)) {
+                matches.put(request, detail);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * 対応付かなかった既存の明細をリストから除く（orphanRemoval により削除される）
+     */
+    static <D, R> void removeUnmatched(List<D> details, Map<R, D> matches) {
+        Set<D> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        matched.addAll(matches.values());
+        details.removeIf(detail -> !matched.contains(detail));
+    }
+}
@@ -0,0 +1,150 @@
+package com.accounting.app.service;
+
+import com.accounting.app.entity.FiscalPeriod;
+import com.accounting.app.repository.NumberSequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 伝票番号の採番サービス（仕訳番号・請求書番号）
+ * 会社・会計期間ごとの連番を書式に当てはめて番号を作成する。
+ *
+ * 連番は block-size 個ずつ採番テーブルの1行の更新で予約し、ブロック内はメモリ上で払い出す。
+ * 予約は別トランザクションで即時にコミットするため、行ロックを登録処理の間保持しない。
+ * 複数のアプリケーションはそれぞれ別のブロックを予約するため番号は重複しないが、
+ * 登録順と番号順は一致せず、未使用のまま破棄されたブロックや登録の失敗により欠番が生じる。
+ *
+ * 書式の置換文字: {fy} 会計年度、{fp} 期間番号（2桁）、{seq} 連番（seq-digits 桁で0埋め）
+ */
+@Service
+public class DocumentNumberService {
+
+    private static final int MAX_NUMBER_LENGTH = 50;
+
+    public enum SequenceType {
+        JOURNAL, // 仕訳番号
+        INVOICE  // 請求書番号
+    }
+
+    private final NumberSequenceRepository numberSequenceRepository;
+    private final TransactionTemplate newTransactionTemplate;
+    private final Map<Key, Block> blocks = new ConcurrentHashMap<>();
+    private final int blockSize;
+    private final int seqDigits;
+    private final String journalFormat;
+    private final String invoiceFormat;
+
+    public DocumentNumberService(
+            NumberSequenceRepository numberSequenceRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.numbering.block-size:20}") int blockSize,
+            @Value("${app.numbering.seq-digits:6}") int seqDigits,
+            @Value("${app.numbering.journal-format:J{fy}{fp}-{seq}}") String journalFormat,
+            @Value("${app.numbering.invoice-format:INV{fy}{fp}-{seq}}") String invoiceFormat) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("app.numbering.block-size must be positive");
+        }
+        if (!journalFormat.contains("{seq}") || !invoiceFormat.contains("{seq}")) {
+            throw new IllegalArgumentException("app.numbering formats must contain {seq}");
+        }
+        this.numberSequenceRepository = numberSequenceRepository;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.seqDigits = seqDigits;
+        this.journalFormat = journalFormat;
+        this.invoiceFormat = invoiceFormat;
+    }
+
+    /**
+     * 次の番号を採番
+     * 手入力などで既に使用されている番号は飛ばす
+     * @param type 番号種別
+     * @param companyId 会社ID
+     * @param fiscalPeriod 伝票日付の会計期間
+     * @param exists 番号が使用済みか判定する処理
+     * @return 番号
+     */
+    public String next(SequenceType type, Long companyId, FiscalPeriod fiscalPeriod, Predicate<String> exists) {
+        String format = type == SequenceType.JOURNAL ? journalFormat : invoiceFormat;
+        Key key = new Key(companyId, type, fiscalPeriod.getId());
+        while (true) {
+            String number = format(format, fiscalPeriod, nextValue(key));
+            if (!exists.test(number)) {
+                return number;
+            }
+        }
+    }
+
+    private long nextValue(Key key) {
+        Block block = blocks.computeIfAbsent(key, k -> new Block());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                // ブロックを使い切った場合のみ採番テーブルを更新する
+                long limit = newTransactionTemplate.execute(tx -> numberSequenceRepository.reserve(
+                        key.companyId, key.type.name(), key.fiscalPeriodId, blockSize));
+                block.next = limit - blockSize;
+                block.limit = limit;
+            }
+            return block.next++;
+        }
+    }
+
+    private String format(String format, FiscalPeriod fiscalPeriod, long value) {
+        String seq = String.valueOf(value);
+        if (seq.length() < seqDigits) {
+            seq = "0".repeat(seqDigits - seq.length()) + seq;
+        }
+        String number = format
+                .replace("{fy}", String.valueOf(fiscalPeriod.getPeriodYear()))
+                .replace("{fp}", String.format("%02d", fiscalPeriod.getPeriodNumber()))
+                .replace("{seq}", seq);
+        if (number.length() > MAX_NUMBER_LENGTH) {
+            throw new IllegalStateException("Generated number exceeds " + MAX_NUMBER_LENGTH + " characters: " + number);
+        }
+        return number;
+    }
+
+    /**
+     * メモリ上に保持する予約済みの連番 [next, limit)
+     */
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+
+    private static final class Key {
+        private final Long companyId;
+        private final SequenceType type;
+        private final Long fiscalPeriodId;
+
+        Key(Long companyId, SequenceType type, Long fiscalPeriodId) {
+            this.companyId = companyId;
+            this.type = type;
+            this.fiscalPeriodId = fiscalPeriodId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return companyId.equals(other.companyId)
+                    && type == other.type
+                    && fiscalPeriodId.equals(other.fiscalPeriodId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(companyId, type, fiscalPeriodId);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.accounting.app.service;
+
+import com.accounting.app.repository.AccountClosingBalanceRepository;
+import com.accounting.app.repository.AccountPeriodBalanceRepository;
+import com.accounting.app.repository.projection.AccountBalanceSummary;
+import com.accounting.app.repository.projection.AccountTypeTotals;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 財務諸表集計サービス
+ * 累計期間と当期期間の勘定科目タイプ別合計を1回の集計クエリで求める
+ * 累計は当期開始日より前の最新の締め残高を起点とし、それ以降のみを集計する
+ */
+@Service
+@Transactional(readOnly = true)
+public class FinancialStatementService {
+
+    private final AccountPeriodBalanceRepository accountPeriodBalanceRepository;
+    private final AccountClosingBalanceRepository accountClosingBalanceRepository;
+
+    public FinancialStatementService(
+            AccountPeriodBalanceRepository accountPeriodBalanceRepository,
+            AccountClosingBalanceRepository accountClosingBalanceRepository) {
+        this.accountPeriodBalanceRepository = accountPeriodBalanceRepository;
+        this.accountClosingBalanceRepository = accountClosingBalanceRepository;
+    }
+
+    /**
+     * 基準日時点の合計を集計
+     * 資産・負債・純資産は基準日までの累計、収益・費用は当期開始日から基準日まで
+     */
+    public StatementTotals calculateAsOf(Long companyId, LocalDate asOfDate, LocalDate periodStartDate) {
+        // 当期期間を含まない締め残高のみを起点にできる
+        LocalDate closingDate = accountClosingBalanceRepository
+                .findLatestClosingDate(companyId, periodStartDate.minusDays(1));
+        if (closingDate == null) {
+            return calculate(companyId, BalanceRange.upTo(asOfDate, periodStartDate), periodStartDate);
+        }
+
+        List<AccountTypeTotals> rows = new ArrayList<>(sumByAccountType(companyId,
+                BalanceRange.of(closingDate.plusDays(1), asOfDate, periodStartDate), periodStartDate));
+        for (AccountBalanceSummary summary : accountClosingBalanceRepository.sumByAccount(companyId, closingDate)) {
+            rows.add(new AccountTypeTotals(summary.getAccountType(),
+                    summary.getDebitTotal(), summary.getCreditTotal(), BigDecimal.ZERO, BigDecimal.ZERO));
+        }
+        return StatementTotals.from(rows);
+    }
+
+    /**
+     * 期間内の合計を集計
+     */
+    public StatementTotals calculateBetween(Long companyId, LocalDate startDate, LocalDate endDate) {
+        return calculate(companyId, BalanceRange.of(startDate, endDate), startDate);
+    }
+
+    private StatementTotals calculate(Long companyId, BalanceRange range, LocalDate periodStartDate) {
+        return StatementTotals.from(sumByAccountType(companyId, range, periodStartDate));
+    }
+
+    private List<AccountTypeTotals> sumByAccountType(Long companyId, BalanceRange range, LocalDate periodStartDate) {
+        return accountPeriodBalanceRepository.sumByAccountType(
+                companyId,
+                range.getFromDate(), range.getToDate(),
+                range.getFromMonth(), range.getToMonth(), range.getSplitMonths(),
+                periodStartDate);
+    }
+}
@@ -0,0 +1,244 @@
+package com.accounting.app.service;
+
+import com.accounting.app.entity.FiscalPeriod;
+import com.accounting.app.exception.BusinessException;
+import com.accounting.app.repository.FiscalPeriodRepository;
+import com.accounting.app.repository.LedgerVersionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 会計期間インデックス
+ * 会社ごとの会計期間（締め状態を含む）を開始日順の NavigableMap でメモリに保持し、日付から会計期間を検索する。
+ * 初回の検索時にDBから読み込み、{@link FiscalPeriodService} での変更はコミット後に反映する。
+ *
+ * 他のアプリケーションでの変更や FiscalPeriodService を経由しない作成に備えて、次のように確認する。
+ * ・見つからない、または締め済みの結果は、DBから読み直して確認してから返す
+ * ・仕訳の登録・変更・削除では、元帳バージョンの加算時に会計期間バージョンが読み込み時と同じことを確認する
+ *   （異なる場合は行ロックを取得した後に読み直し、使用した会計期間が変わらず締められていないことを確認する）
+ * 会計期間の変更（締めを含む）は同じ行をロックしてから行うため、確認後はコミットまで会計期間は締められない。
+ */
+@Service
+public class FiscalPeriodIndex {
+
+    private final FiscalPeriodRepository fiscalPeriodRepository;
+    private final LedgerVersionRepository ledgerVersionRepository;
+    private final LedgerVersionService ledgerVersionService;
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public FiscalPeriodIndex(
+            FiscalPeriodRepository fiscalPeriodRepository,
+            LedgerVersionRepository ledgerVersionRepository,
+            LedgerVersionService ledgerVersionService) {
+        this.fiscalPeriodRepository = fiscalPeriodRepository;
+        this.ledgerVersionRepository = ledgerVersionRepository;
+        this.ledgerVersionService = ledgerVersionService;
+    }
+
+    /**
+     * 日付が含まれる会計期間を検索
+     * @param companyId 会社ID
+     * @param date 日付
+     * @return 会計期間
+     */
+    public Optional<Period> find(Long companyId, LocalDate date) {
+        Period period = snapshot(companyId).find(date);
+        if (period == null || period.isClosed()) {
+            period = load(companyId, false).find(date);
+        }
+        return Optional.ofNullable(period);
+    }
+
+    /**
+     * IDで会計期間を検索
+     * @param companyId 会社ID
+     * @param fiscalPeriodId 会計期間ID
+     * @return 会計期間
+     */
+    public Optional<Period> findById(Long companyId, Long fiscalPeriodId) {
+        Period period = snapshot(companyId).byId.get(fiscalPeriodId);
+        if (period == null || period.isClosed()) {
+            period = load(companyId, false).byId.get(fiscalPeriodId);
+        }
+        return Optional.ofNullable(period);
+    }
+
+    /**
+     * 仕訳の登録・変更・削除の最後に呼び出し、元帳バージョンを1加算する
+     * 加算で取得した行ロックの下で、検証に使用した会計期間が変更されておらず締められていないことを確認する
+     * @param companyId 会社ID
+     * @param periods 検証に使用した会計期間
+     */
+    public void lockForPosting(Long companyId, Collection<Period> periods) {
+        Snapshot current = snapshot(companyId);
+        if (!ledgerVersionService.bumpIfPeriodVersion(companyId, current.version)) {
+            // 読み込み後に会計期間が変更された（または元帳バージョンの行が無い）場合は、ロック後に読み直す
+            ledgerVersionService.bump(companyId);
+            current = load(companyId, true);
+        }
+        for (Period used : periods) {
+            Period latest = current.byId.get(used.getId());
+            if (latest != null && latest.isClosed()) {
+                throw new BusinessException("FISCAL_PERIOD_CLOSED",
+                        "処理中に会計期間が締められたため、仕訳を登録・変更できません");
+            }
+            if (latest == null || !latest.hasSameRange(used)) {
+                throw new BusinessException("FISCAL_PERIOD_CHANGED",
+                        "処理中に会計期間が変更されたため、仕訳を登録・変更できません。再度実行してください");
+            }
+        }
+    }
+
+    /**
+     * 会計期間の変更をコミット後にインデックスへ反映
+     * 反映前の状態が直前のバージョンでない場合（他の変更を反映していない場合）は破棄し、次回の検索で読み込む
+     * @param companyId 会社ID
+     * @param fiscalPeriod 変更後の会計期間
+     * @param periodVersion 変更後の会計期間バージョン（{@link LedgerVersionService#bumpPeriods} の戻り値）
+     */
+    public void updateAfterCommit(Long companyId, FiscalPeriod fiscalPeriod, long periodVersion) {
+        Period period = new Period(fiscalPeriod);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(companyId, period, periodVersion);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(companyId, period, periodVersion);
+            }
+        });
+    }
+
+    private void apply(Long companyId, Period period, long periodVersion) {
+        snapshots.computeIfPresent(companyId, (id, snapshot) ->
+                snapshot.version == periodVersion - 1 ? snapshot.with(period, periodVersion) : null);
+    }
+
+    private Snapshot snapshot(Long companyId) {
+        Snapshot snapshot = snapshots.get(companyId);
+        return snapshot != null ? snapshot : load(companyId, false);
+    }
+
+    /**
+     * DBから読み込み、保持している状態より新しい場合は置き換える
+     * 会計期間バージョンを先に読むため、読み込み中に変更された場合は古いバージョンとして保持される（加算時の確認で検出する）
+     * @param locking ロック付きで読む（トランザクション開始後にコミットされた変更も読む）
+     */
+    private Snapshot load(Long companyId, boolean locking) {
+        long version = ledgerVersionRepository.findPeriodVersion(companyId);
+        List<FiscalPeriod> periods = locking
+                ? fiscalPeriodRepository.findByCompanyIdForShare(companyId)
+                : fiscalPeriodRepository.findByCompanyIdOrderByStartDate(companyId);
+        Snapshot loaded = new Snapshot(version, periods);
+        snapshots.merge(companyId, loaded, (old, latest) -> latest.version >= old.version ? latest : old);
+        return loaded;
+    }
+
+    /**
+     * 会社の会計期間（読み込み後は変更しない）
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final NavigableMap<LocalDate, Period> byStartDate;
+        private final Map<Long, Period> byId;
+
+        Snapshot(long version, List<FiscalPeriod> periods) {
+            this.version = version;
+            this.byStartDate = new TreeMap<>();
+            this.byId = new HashMap<>();
+            for (FiscalPeriod fiscalPeriod : periods) {
+                Period period = new Period(fiscalPeriod);
+                byStartDate.put(period.getStartDate(), period);
+                byId.put(period.getId(), period);
+            }
+        }
+
+        private Snapshot(long version, NavigableMap<LocalDate, Period> byStartDate, Map<Long, Period> byId) {
+            this.version = version;
+            this.byStartDate = byStartDate;
+            this.byId = byId;
+        }
+
+        Period find(LocalDate date) {
+            Map.Entry<LocalDate, Period> entry = byStartDate.floorEntry(date);
+            return entry != null && entry.getValue().contains(date) ? entry.getValue() : null;
+        }
+
+        Snapshot with(Period period, long newVersion) {
+            NavigableMap<LocalDate, Period> newByStartDate = new TreeMap<>(byStartDate);
+            Map<Long, Period> newById = new HashMap<>(byId);
+            Period previous = newById.put(period.getId(), period);
+            if (previous != null) {
+                newByStartDate.remove(previous.getStartDate());
+            }
+            newByStartDate.put(period.getStartDate(), period);
+            return new Snapshot(newVersion, newByStartDate, newById);
+        }
+    }
+
+    /**
+     * 会計期間（インデックスに保持する値）
+     */
+    public static final class Period {
+        private final Long id;
+        private final Integer periodYear;
+        private final Integer periodNumber;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final boolean closed;
+
+        Period(FiscalPeriod fiscalPeriod) {
+            this.id = fiscalPeriod.getId();
+            this.periodYear = fiscalPeriod.getPeriodYear();
+            this.periodNumber = fiscalPeriod.getPeriodNumber();
+            this.startDate = fiscalPeriod.getStartDate();
+            this.endDate = fiscalPeriod.getEndDate();
+            this.closed = Boolean.TRUE.equals(fiscalPeriod.getIsClosed());
+        }
+
+        public Long getId() { return id; }
+        public Integer getPeriodYear() { return periodYear; }
+        public Integer getPeriodNumber() { return periodNumber; }
+        public LocalDate getStartDate() { return startDate; }
+        public LocalDate getEndDate() { return endDate; }
+        public boolean isClosed() { return closed; }
+
+        public boolean contains(LocalDate date) {
+            return !date.isBefore(startDate) && !date.isAfter(endDate);
+        }
+
+        /**
+         * 仕訳・請求書に設定する会計期間（IDと番号の採番に使用する項目のみ設定した新しいインスタンス）
+         */
+        public FiscalPeriod toEntity() {
+            FiscalPeriod fiscalPeriod = new FiscalPeriod();
+            fiscalPeriod.setId(id);
+            fiscalPeriod.setPeriodYear(periodYear);
+            fiscalPeriod.setPeriodNumber(periodNumber);
+            fiscalPeriod.setStartDate(startDate);
+            fiscalPeriod.setEndDate(endDate);
+            fiscalPeriod.setIsClosed(closed);
+            return fiscalPeriod;
+        }
+
+        private boolean hasSameRange(Period other) {
+            return Objects.equals(periodYear, other.periodYear)
+                    && Objects.equals(periodNumber, other.periodNumber)
+                    && startDate.equals(other.startDate)
+                    && endDate.equals(other.endDate);
+        }
+    }
+}
@@ -10,13 +10,20 @@ import com.accounting.app.exception.ResourceNotFoundException;
 import com.accounting.app.repository.CompanyRepository;
 import com.accounting.app.repository.FiscalPeriodRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * 会計期間管理サービス
+ *
+ * 変更（作成・更新・締め・再開）は最初に元帳バージョンの行をロックして会計期間バージョンを進め、
+ * 仕訳の登録・変更・削除（{@link FiscalPeriodIndex#lockForPosting}）と直列化する。
+ * 変更はコミット後に {@link FiscalPeriodIndex} へ反映する。
  */
 @Service
 @Transactional
@@ -24,12 +31,25 @@ public class FiscalPeriodService {
 
     private final FiscalPeriodRepository fiscalPeriodRepository;
     private final CompanyRepository companyRepository;
+    private final LedgerVersionService ledgerVersionService;
+    private final ClosingBalanceService closingBalanceService;
+    private final FiscalPeriodIndex fiscalPeriodIndex;
+    private final TransactionTemplate newTransactionTemplate;
 
     public FiscalPeriodService(
             FiscalPeriodRepository fiscalPeriodRepository,
-            CompanyRepository companyRepository) {
+            CompanyRepository companyRepository,
+            LedgerVersionService ledgerVersionService,
+            ClosingBalanceService closingBalanceService,
+            FiscalPeriodIndex fiscalPeriodIndex,
+            PlatformTransactionManager transactionManager) {
         this.fiscalPeriodRepository = fiscalPeriodRepository;
         this.companyRepository = companyRepository;
+        this.ledgerVersionService = ledgerVersionService;
+        this.closingBalanceService = closingBalanceService;
+        this.fiscalPeriodIndex = fiscalPeriodIndex;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     /**
@@ -57,6 +77,9 @@ public class FiscalPeriodService {
      * 作成
      */
     public FiscalPeriodResponse create(Long companyId, FiscalPeriodRequest request) {
+        // 仕訳の登録と直列化（貸借対照表の当期純利益の集計開始日も変わるため元帳バージョンも進む）
+        long periodVersion = ledgerVersionService.bumpPeriods(companyId);
+
         // 会社の取得
         Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Company", "id", companyId));
@@ -91,6 +114,7 @@ public class FiscalPeriodService {
 
         // 保存
         FiscalPeriod savedPeriod = fiscalPeriodRepository.save(period);
+        fiscalPeriodIndex.updateAfterCommit(companyId, savedPeriod, periodVersion);
         return FiscalPeriodResponse.from(savedPeriod);
     }
 
@@ -98,6 +122,8 @@ public class FiscalPeriodService {
      * 更新
      */
     public FiscalPeriodResponse update(Long id, FiscalPeriodRequest request) {
+        Long companyId = findCompanyId(id);
+        long periodVersion = ledgerVersionService.bumpPeriods(companyId);
         FiscalPeriod period = fiscalPeriodRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("FiscalPeriod", "id", id));
 
@@ -137,6 +163,7 @@ public class FiscalPeriodService {
         period.setEndDate(request.getEndDate());
 
         FiscalPeriod updatedPeriod = fiscalPeriodRepository.save(period);
+        fiscalPeriodIndex.updateAfterCommit(companyId, updatedPeriod, periodVersion);
         return FiscalPeriodResponse.from(updatedPeriod);
     }
 
@@ -144,6 +171,8 @@ public class FiscalPeriodService {
      * 期間締め
      */
     public FiscalPeriodResponse closePeriod(Long id) {
+        Long companyId = findCompanyId(id);
+        long periodVersion = ledgerVersionService.bumpPeriods(companyId);
         FiscalPeriod period = fiscalPeriodRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("FiscalPeriod", "id", id));
 
@@ -156,6 +185,10 @@ public class FiscalPeriodService {
         // 期間を締める
         period.setIsClosed(true);
         FiscalPeriod closedPeriod = fiscalPeriodRepository.save(period);
+        fiscalPeriodIndex.updateAfterCommit(companyId, closedPeriod, periodVersion);
+
+        // 終了日時点の締め残高を保存（以降のレポートはここから集計する）
+        closingBalanceService.snapshot(closedPeriod);
         return FiscalPeriodResponse.from(closedPeriod);
     }
 
@@ -163,6 +196,8 @@ public class FiscalPeriodService {
      * 期間再開
      */
     public FiscalPeriodResponse reopenPeriod(Long id) {
+        Long companyId = findCompanyId(id);
+        long periodVersion = ledgerVersionService.bumpPeriods(companyId);
         FiscalPeriod period = fiscalPeriodRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("FiscalPeriod", "id", id));
 
@@ -175,6 +210,19 @@ public class FiscalPeriodService {
         // 期間を再開
         period.setIsClosed(false);
         FiscalPeriod reopenedPeriod = fiscalPeriodRepository.save(period);
+        fiscalPeriodIndex.updateAfterCommit(companyId, reopenedPeriod, periodVersion);
+
+        // この期間と以降の期間の締め残高を破棄
+        closingBalanceService.discardFrom(companyId, reopenedPeriod.getEndDate());
         return FiscalPeriodResponse.from(reopenedPeriod);
     }
+
+    /**
+     * 会計期間の会社IDを取得
+     * 別トランザクションで取得し、この後の読み取りが元帳バージョンの行ロック取得後の状態になるようにする
+     */
+    private Long findCompanyId(Long id) {
+        return newTransactionTemplate.execute(tx -> fiscalPeriodRepository.findCompanyIdById(id))
+                .orElseThrow(() -> new ResourceNotFoundException("FiscalPeriod", "id", id));
+    }
 }
@@ -0,0 +1,348 @@
+package com.accounting.app.service;
+
+import com.accounting.app.dto.response.GeneralLedgerEntry;
+import com.accounting.app.dto.response.GeneralLedgerReport;
+import com.accounting.app.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 総勘定元帳ストリーミング出力サービス
+ * 明細を1行ずつ読み出しながら JSON / NDJSON / PDF / Excel として出力ストリームへ書き込む
+ */
+@Service
+public class GeneralLedgerExportService {
+
+    private final GeneralLedgerService generalLedgerService;
+    private final ObjectMapper objectMapper;
+
+    public GeneralLedgerExportService(GeneralLedgerService generalLedgerService, ObjectMapper objectMapper) {
+        this.generalLedgerService = generalLedgerService;
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        JSON,   // 通常のAPIレスポンスと同じ形式（{"success":true,"data":{...}}）
+        NDJSON, // 1行1オブジェクト（header → entry... → footer）
+        PDF,    // 帳票PDF（ページを一時ファイルに退避しながら作成）
+        XLSX;   // Excel（行を一時ファイルに書き出しながら作成）
+
+        /**
+         * リクエストパラメータの出力形式を変換
+         */
+        public static Format of(String format) {
+            if ("json".equalsIgnoreCase(format)) {
+                return JSON;
+            } else if ("ndjson".equalsIgnoreCase(format)) {
+                return NDJSON;
+            } else if ("pdf".equalsIgnoreCase(format)) {
+                return PDF;
+            } else if ("xlsx".equalsIgnoreCase(format)) {
+                return XLSX;
+            }
+            throw new BadRequestException("format は json、ndjson、pdf または xlsx で指定してください");
+        }
+    }
+
+    /**
+     * 総勘定元帳を出力ストリームへ書き込む
+     * @param companyId 会社ID
+     * @param header GeneralLedgerService.generateHeader で生成した見出し
+     * @param accountId 勘定科目ID
+     * @param format 出力形式
+     * @param out 出力先
+     */
+    public void write(Long companyId, GeneralLedgerReport header, Long accountId, Format format,
+                      OutputStream out) throws IOException {
+        write(companyId, header, accountId, format, out, () -> { });
+    }
+
+    /**
+     * 総勘定元帳を出力ストリームへ書き込む（明細1行の書き込みごとに通知）
+     * @param onEntry 明細1行を書き込むごとに呼び出す処理（進捗の記録用）
+     */
+    public void write(Long companyId, GeneralLedgerReport header, Long accountId, Format format, OutputStream out,
+                      Runnable onEntry) throws IOException {
+        if (format == Format.PDF) {
+            generalLedgerService.writePdf(companyId, header, accountId, out, onEntry);
+            return;
+        } else if (format == Format.XLSX) {
+            generalLedgerService.writeExcel(companyId, header, accountId, out, onEntry);
+            return;
+        }
+        // 出力ストリームのクローズはサーブレットコンテナに任せる
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            if (format == Format.NDJSON) {
+                writeNdjson(generator, companyId, header, accountId, onEntry);
+            } else {
+                writeJson(generator, companyId, header, accountId, onEntry);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 複数勘定科目の総勘定元帳を出力ストリームへ書き込む
+     * JSON は data.ledgers に勘定科目ごとの元帳を、NDJSON は勘定科目ごとに header → entry... → footer を出力する
+     * PDF は勘定科目ごとに改ページし、Excel は勘定科目ごとに見出しを付けて1シートに続けて出力する
+     * @param companyId 会社ID
+     * @param headers GeneralLedgerService.generateBatchHeaders で生成した見出し
+     * @param accountIds 勘定科目IDリスト（全勘定科目の場合はnull）
+     * @param format 出力形式
+     * @param out 出力先
+     */
+    public void writeBatch(Long companyId, List<GeneralLedgerReport> headers, Collection<Long> accountIds,
+                           Format format, OutputStream out) throws IOException {
+        writeBatch(companyId, headers, accountIds, format, out, () -> { });
+    }
+
+    /**
+     * 複数勘定科目の総勘定元帳を出力ストリームへ書き込む（明細1行の書き込みごとに通知）
+     * @param onEntry 明細1行を書き込むごとに呼び出す処理（進捗の記録用）
+     */
+    public void writeBatch(Long companyId, List<GeneralLedgerReport> headers, Collection<Long> accountIds,
+                           Format format, OutputStream out, Runnable onEntry) throws IOException {
+        if (format == Format.PDF) {
+            generalLedgerService.writeBatchPdf(companyId, headers, accountIds, out, onEntry);
+            return;
+        } else if (format == Format.XLSX) {
+            generalLedgerService.writeBatchExcel(companyId, headers, accountIds, out, onEntry);
+            return;
+        }
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            if (format == Format.NDJSON) {
+                generator.setRootValueSeparator(null);
+                generalLedgerService.streamBatchEntries(companyId, headers, accountIds,
+                        new NdjsonBatchWriter(generator, onEntry));
+            } else {
+                writeBatchJson(generator, companyId, headers, accountIds, onEntry);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeBatchJson(JsonGenerator generator, Long companyId, List<GeneralLedgerReport> headers,
+                                Collection<Long> accountIds, Runnable onEntry) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField("success", true);
+        generator.writeFieldName("data");
+        generator.writeStartObject();
+        if (!headers.isEmpty()) {
+            generator.writeFieldName("startDate");
+            generator.writeObject(headers.get(0).getStartDate());
+            generator.writeFieldName("endDate");
+            generator.writeObject(headers.get(0).getEndDate());
+        }
+
+        generator.writeArrayFieldStart("ledgers");
+        generalLedgerService.streamBatchEntries(companyId, headers, accountIds, new GeneralLedgerService.LedgerHandler() {
+            @Override
+            public void startLedger(GeneralLedgerReport header) {
+                try {
+                    generator.writeStartObject();
+                    writeHeaderFields(generator, header);
+                    generator.writeArrayFieldStart("entries");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void entry(GeneralLedgerEntry entry) {
+                writeEntry(generator, entry);
+                onEntry.run();
+            }
+
+            @Override
+            public void endLedger(GeneralLedgerReport header, BigDecimal closingBalance) {
+                try {
+                    generator.writeEndArray();
+                    generator.writeFieldName("closingBalance");
+                    generator.writeObject(closingBalance);
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    /**
+     * 複数勘定科目の NDJSON 出力（entry・footer 行には勘定科目IDを付ける）
+     */
+    private class NdjsonBatchWriter implements GeneralLedgerService.LedgerHandler {
+
+        private final JsonGenerator generator;
+        private final Runnable onEntry;
+        private Long currentAccountId;
+
+        NdjsonBatchWriter(JsonGenerator generator, Runnable onEntry) {
+            this.generator = generator;
+            this.onEntry = onEntry;
+        }
+
+        @Override
+        public void startLedger(GeneralLedgerReport header) {
+            currentAccountId = header.getAccountId();
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("type", "header");
+                generator.writeFieldName("data");
+                generator.writeStartObject();
+                writeHeaderFields(generator, header);
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void entry(GeneralLedgerEntry entry) {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("type", "entry");
+                generator.writeNumberField("accountId", currentAccountId);
+                generator.writeFieldName("data");
+                generator.writeObject(entry);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            onEntry.run();
+        }
+
+        @Override
+        public void endLedger(GeneralLedgerReport header, BigDecimal closingBalance) {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("type", "footer");
+                generator.writeNumberField("accountId", header.getAccountId());
+                generator.writeFieldName("data");
+                generator.writeStartObject();
+                generator.writeFieldName("closingBalance");
+                generator.writeObject(closingBalance);
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void writeJson(JsonGenerator generator, Long companyId, GeneralLedgerReport header, Long accountId,
+                           Runnable onEntry) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField("success", true);
+        generator.writeFieldName("data");
+        generator.writeStartObject();
+        writeHeaderFields(generator, header);
+
+        generator.writeArrayFieldStart("entries");
+        BigDecimal closingBalance = generalLedgerService.streamEntries(companyId, header, accountId, entry -> {
+            writeEntry(generator, entry);
+            onEntry.run();
+        });
+        generator.writeEndArray();
+
+        generator.writeFieldName("closingBalance");
+        generator.writeObject(closingBalance);
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private void writeNdjson(JsonGenerator generator, Long companyId, GeneralLedgerReport header, Long accountId,
+                             Runnable onEntry) throws IOException {
+        // 行区切りは改行のみ（ルート値間の既定の空白を出力しない）
+        generator.setRootValueSeparator(null);
+
+        generator.writeStartObject();
+        generator.writeStringField("type", "header");
+        generator.writeFieldName("data");
+        generator.writeStartObject();
+        writeHeaderFields(generator, header);
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+
+        BigDecimal closingBalance = generalLedgerService.streamEntries(companyId, header, accountId, entry -> {
+            writeNdjsonEntry(generator, entry);
+            onEntry.run();
+        });
+
+        generator.writeStartObject();
+        generator.writeStringField("type", "footer");
+        generator.writeFieldName("data");
+        generator.writeStartObject();
+        generator.writeFieldName("closingBalance");
+        generator.writeObject(closingBalance);
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * 見出しの項目を書き込む（明細・期末残高・ページ情報を除く）
+     */
+    private void writeHeaderFields(JsonGenerator generator, GeneralLedgerReport header) throws IOException {
+        ObjectNode node = objectMapper.valueToTree(header);
+        node.remove("entries");
+        node.remove("closingBalance");
+        node.remove("page");
+        node.remove("size");
+        node.remove("totalEntries");
+        node.remove("totalPages");
+
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            generator.writeFieldName(field.getKey());
+            generator.writeTree(field.getValue());
+        }
+    }
+
+    private void writeNdjsonEntry(JsonGenerator generator, GeneralLedgerEntry entry) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "entry");
+            generator.writeFieldName("data");
+            generator.writeObject(entry);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeEntry(JsonGenerator generator, GeneralLedgerEntry entry) {
+        try {
+            generator.writeObject(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
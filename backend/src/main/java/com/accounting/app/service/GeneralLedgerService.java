@@ -5,13 +5,32 @@ import com.accounting.app.dto.response.GeneralLedgerReport;
 import com.accounting.app.entity.*;
 import com.accounting.app.exception.ResourceNotFoundException;
 import com.accounting.app.repository.*;
+import com.accounting.app.repository.projection.AccountBalanceSummary;
+import com.accounting.app.repository.projection.GeneralLedgerLine;
+import com.accounting.app.repository.projection.GeneralLedgerRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 総勘定元帳サービス
@@ -20,94 +39,270 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class GeneralLedgerService {
 
+    private static final String TABLE_TITLE = "総勘定元帳";
+    private static final List<ReportTable.Column> TABLE_COLUMNS = Arrays.asList(
+            ReportTable.Column.left("日付", 62),
+            ReportTable.Column.left("伝票番号", 70),
+            ReportTable.Column.left("摘要", 160),
+            ReportTable.Column.right("借方", 77),
+            ReportTable.Column.right("貸方", 77),
+            ReportTable.Column.right("残高", 85));
+
     private final JournalDetailRepository journalDetailRepository;
         private final AccountRepository accountRepository;
-        private final JournalRepository journalRepository;
+        private final AccountBalanceQueryService accountBalanceQueryService;
+        private final ReportPdfRenderer reportPdfRenderer;
+        private final ReportExcelRenderer reportExcelRenderer;
+
+    @Value("${app.report.stream-fetch-size:1000}")
+    private int streamFetchSize;
 
     public GeneralLedgerService(
             JournalDetailRepository journalDetailRepository,
             AccountRepository accountRepository,
-            JournalRepository journalRepository) {
+            AccountBalanceQueryService accountBalanceQueryService,
+            ReportPdfRenderer reportPdfRenderer,
+            ReportExcelRenderer reportExcelRenderer) {
         this.journalDetailRepository = journalDetailRepository;
         this.accountRepository = accountRepository;
-        this.journalRepository = journalRepository;
+        this.accountBalanceQueryService = accountBalanceQueryService;
+        this.reportPdfRenderer = reportPdfRenderer;
+        this.reportExcelRenderer = reportExcelRenderer;
     }
 
     /**
      * 総勘定元帳を生成
      */
     public GeneralLedgerReport generate(Long companyId, Long accountId, LocalDate startDate, LocalDate endDate) {
-        // 勘定科目の取得
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
+        return generate(companyId, accountId, startDate, endDate, Pageable.unpaged());
+    }
 
-        // レポートの初期化
-        GeneralLedgerReport report = new GeneralLedgerReport();
-        report.setAccountCode(account.getCode());
-        report.setAccountName(account.getName());
-        report.setAccountType(account.getAccountType().name());
-        report.setStartDate(startDate);
-        report.setEndDate(endDate);
+    /**
+     * 総勘定元帳を生成（ページ指定）
+     * 期首・期末残高は期間全体の値、明細はページ内の行のみを返す
+     */
+    public GeneralLedgerReport generate(Long companyId, Long accountId, LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        // 勘定科目の取得
+        Account account = findAccount(accountId);
 
-        // 期首残高の計算（startDateより前の取引の累積）
-        BigDecimal openingBalance = calculateOpeningBalance(accountId, startDate, account.getAccountType());
-        report.setOpeningBalance(openingBalance);
+        // レポートの初期化（期首残高まで）
+        GeneralLedgerReport report = createReport(companyId, account, startDate, endDate);
+        BigDecimal openingBalance = report.getOpeningBalance();
 
-        // 期間内の取引を取得
-        List<JournalDetail> details = journalDetailRepository
-                .findByAccountIdAndJournalDateBetweenOrderByJournalDate(accountId, startDate, endDate);
+        // 期間内の取引を取得（累計残高はSQLのウィンドウ関数で計算済み）
+        Page<GeneralLedgerRow> rows = journalDetailRepository
+                .findLedgerRows(companyId, accountId, startDate, endDate, pageable);
 
-        // エントリの作成と残高計算
+        // エントリの作成
         List<GeneralLedgerEntry> entries = new ArrayList<>();
         BigDecimal runningBalance = openingBalance;
 
-        for (JournalDetail detail : details) {
+        for (GeneralLedgerRow row : rows) {
             GeneralLedgerEntry entry = new GeneralLedgerEntry();
-            entry.setDate(detail.getJournal().getJournalDate());
-            entry.setJournalNumber(detail.getJournal().getJournalNumber());
-            entry.setDescription(detail.getDescription() != null ? detail.getDescription() : detail.getJournal().getDescription());
-
-            BigDecimal debitAmount = BigDecimal.ZERO;
-            BigDecimal creditAmount = BigDecimal.ZERO;
-
-            if (detail.getEntryType() == JournalDetail.EntryType.DEBIT) {
-                debitAmount = detail.getAmount();
-            } else {
-                creditAmount = detail.getAmount();
-            }
-
-            entry.setDebitAmount(debitAmount);
-            entry.setCreditAmount(creditAmount);
+            entry.setDate(row.getJournalDate());
+            entry.setJournalNumber(row.getJournalNumber());
+            entry.setDescription(row.getDescription());
+            entry.setDebitAmount(row.getDebitAmount());
+            entry.setCreditAmount(row.getCreditAmount());
 
             // 残高計算（勘定科目タイプに応じて計算方法が異なる）
-            runningBalance = calculateBalance(runningBalance, debitAmount, creditAmount, account.getAccountType());
+            runningBalance = calculateBalance(openingBalance, row.getRunningDebitBalance(), BigDecimal.ZERO, account.getAccountType());
             entry.setBalance(runningBalance);
 
             entries.add(entry);
         }
 
         report.setEntries(entries);
-        report.setClosingBalance(runningBalance);
+
+        if (pageable.isPaged()) {
+            // 期末残高はページに関係なく期間全体で集計
+            report.setClosingBalance(calculateOpeningBalance(companyId, accountId, endDate.plusDays(1), account.getAccountType()));
+            report.setPage(rows.getNumber());
+            report.setSize(rows.getSize());
+            report.setTotalEntries(rows.getTotalElements());
+            report.setTotalPages(rows.getTotalPages());
+        } else {
+            report.setClosingBalance(runningBalance);
+        }
 
         return report;
     }
 
     /**
-     * 期首残高を計算
+     * 総勘定元帳の見出し（勘定科目・期間・期首残高）を生成
+     * ストリーミング出力で明細を書き出す前に呼び出す
+     */
+    public GeneralLedgerReport generateHeader(Long companyId, Long accountId, LocalDate startDate, LocalDate endDate) {
+        return createReport(companyId, findAccount(accountId), startDate, endDate);
+    }
+
+    /**
+     * 期間内の明細を前方カーソルで読み出し、残高を累計しながら1行ずつ渡す
+     * 明細はリストに保持しないため、行数に関係なくメモリ使用量は一定
+     * @param companyId 会社ID
+     * @param header generateHeader で生成した見出し
+     * @param accountId 勘定科目ID
+     * @param consumer 明細の受け取り先
+     * @return 期末残高
+     */
+    public BigDecimal streamEntries(Long companyId, GeneralLedgerReport header, Long accountId,
+                                    Consumer<GeneralLedgerEntry> consumer) {
+        Account.AccountType accountType = Account.AccountType.valueOf(header.getAccountType());
+        BigDecimal runningBalance = header.getOpeningBalance();
+
+        try (Stream<GeneralLedgerLine> lines = journalDetailRepository.streamLedgerLines(
+                companyId, accountId, header.getStartDate(), header.getEndDate(), streamFetchSize)) {
+            Iterator<GeneralLedgerLine> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                GeneralLedgerLine line = iterator.next();
+
+                // 残高計算（勘定科目タイプに応じて計算方法が異なる）
+                runningBalance = calculateBalance(runningBalance, line.getDebitAmount(), line.getCreditAmount(), accountType);
+                consumer.accept(toEntry(line, runningBalance));
+            }
+        }
+
+        return runningBalance;
+    }
+
+    /**
+     * 複数勘定科目の総勘定元帳の見出しを生成
+     * 期首残高は全勘定科目分を1回の集計で求める
+     * @param companyId 会社ID
+     * @param accountIds 勘定科目IDリスト（全勘定科目の場合はnull）
+     * @param startDate 開始日
+     * @param endDate 終了日
+     * @return 勘定科目コード順の見出しリスト
+     */
+    public List<GeneralLedgerReport> generateBatchHeaders(Long companyId, Collection<Long> accountIds,
+                                                          LocalDate startDate, LocalDate endDate) {
+        List<Account> accounts = accountRepository.findByCompanyIdOrderByCode(companyId);
+        if (accountIds != null) {
+            Set<Long> selected = new HashSet<>(accountIds);
+            accounts = accounts.stream()
+                    .filter(account -> selected.contains(account.getId()))
+                    .collect(Collectors.toList());
+            if (accounts.size() != selected.size()) {
+                Set<Long> found = accounts.stream().map(Account::getId).collect(Collectors.toSet());
+                Long missingId = selected.stream().filter(id -> !found.contains(id)).findFirst().orElse(null);
+                throw new ResourceNotFoundException("Account", "id", missingId);
+            }
+        }
+
+        // 開始日前日までの勘定科目別累計（借方合計 - 貸方合計）
+        Map<Long, BigDecimal> debitBalances = new HashMap<>();
+        for (AccountBalanceSummary summary : accountBalanceQueryService.sumByAccountUpTo(companyId, startDate.minusDays(1))) {
+            debitBalances.put(summary.getAccountId(), summary.getDebitBalance());
+        }
+
+        List<GeneralLedgerReport> headers = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            GeneralLedgerReport header = newReport(account, startDate, endDate);
+            BigDecimal debitBalance = debitBalances.getOrDefault(account.getId(), BigDecimal.ZERO);
+            header.setOpeningBalance(calculateBalance(BigDecimal.ZERO, debitBalance, BigDecimal.ZERO, account.getAccountType()));
+            headers.add(header);
+        }
+        return headers;
+    }
+
+    /**
+     * 複数勘定科目の明細を1回の並び順付きクエリで読み出し、勘定科目ごとに渡す
+     * 明細の無い勘定科目も見出しと期末残高（＝期首残高）を渡す
+     * @param companyId 会社ID
+     * @param headers generateBatchHeaders で生成した見出し
+     * @param accountIds generateBatchHeaders に渡した勘定科目IDリスト（全勘定科目の場合はnull）
+     * @param handler 元帳の受け取り先
      */
-    private BigDecimal calculateOpeningBalance(Long accountId, LocalDate startDate, Account.AccountType accountType) {
-        List<JournalDetail> priorDetails = journalDetailRepository
-                .findByAccountIdAndJournalDateBeforeOrderByJournalDate(accountId, startDate);
+    public void streamBatchEntries(Long companyId, List<GeneralLedgerReport> headers,
+                                   Collection<Long> accountIds, LedgerHandler handler) {
+        if (headers.isEmpty()) {
+            return;
+        }
+        LocalDate startDate = headers.get(0).getStartDate();
+        LocalDate endDate = headers.get(0).getEndDate();
+
+        try (Stream<GeneralLedgerLine> lines = journalDetailRepository.streamCompanyLedgerLines(
+                companyId, accountIds, startDate, endDate, streamFetchSize)) {
+            Iterator<GeneralLedgerLine> iterator = lines.iterator();
+            GeneralLedgerLine line = iterator.hasNext() ? iterator.next() : null;
+
+            for (GeneralLedgerReport header : headers) {
+                Account.AccountType accountType = Account.AccountType.valueOf(header.getAccountType());
+                BigDecimal runningBalance = header.getOpeningBalance();
+                handler.startLedger(header);
 
-        BigDecimal balance = BigDecimal.ZERO;
+                while (line != null && line.getAccountId().equals(header.getAccountId())) {
+                    runningBalance = calculateBalance(runningBalance, line.getDebitAmount(), line.getCreditAmount(), accountType);
+                    handler.entry(toEntry(line, runningBalance));
+                    line = iterator.hasNext() ? iterator.next() : null;
+                }
 
-        for (JournalDetail detail : priorDetails) {
-            BigDecimal debitAmount = detail.getEntryType() == JournalDetail.EntryType.DEBIT ? detail.getAmount() : BigDecimal.ZERO;
-            BigDecimal creditAmount = detail.getEntryType() == JournalDetail.EntryType.CREDIT ? detail.getAmount() : BigDecimal.ZERO;
-            balance = calculateBalance(balance, debitAmount, creditAmount, accountType);
+                handler.endLedger(header, runningBalance);
+            }
+
+            if (line != null) {
+                throw new IllegalStateException("明細の並び順が勘定科目の並び順と一致しません: accountId=" + line.getAccountId());
+            }
         }
+    }
+
+    /**
+     * 総勘定元帳の受け取り先（複数勘定科目の一括出力用）
+     */
+    public interface LedgerHandler {
+
+        /** 勘定科目の元帳の開始 */
+        void startLedger(GeneralLedgerReport header);
+
+        /** 明細（残高計算済み） */
+        void entry(GeneralLedgerEntry entry);
+
+        /** 勘定科目の元帳の終了 */
+        void endLedger(GeneralLedgerReport header, BigDecimal closingBalance);
+    }
+
+    private GeneralLedgerEntry toEntry(GeneralLedgerLine line, BigDecimal balance) {
+        GeneralLedgerEntry entry = new GeneralLedgerEntry();
+        entry.setDate(line.getJournalDate());
+        entry.setJournalNumber(line.getJournalNumber());
+        entry.setDescription(line.getDescription());
+        entry.setDebitAmount(line.getDebitAmount());
+        entry.setCreditAmount(line.getCreditAmount());
+        entry.setBalance(balance);
+        return entry;
+    }
+
+    private Account findAccount(Long accountId) {
+        return accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
+    }
 
-        return balance;
+    private GeneralLedgerReport createReport(Long companyId, Account account, LocalDate startDate, LocalDate endDate) {
+        GeneralLedgerReport report = newReport(account, startDate, endDate);
+
+        // 期首残高の計算（startDateより前の取引の累積）
+        report.setOpeningBalance(calculateOpeningBalance(companyId, account.getId(), startDate, account.getAccountType()));
+        return report;
+    }
+
+    private GeneralLedgerReport newReport(Account account, LocalDate startDate, LocalDate endDate) {
+        GeneralLedgerReport report = new GeneralLedgerReport();
+        report.setAccountId(account.getId());
+        report.setAccountCode(account.getCode());
+        report.setAccountName(account.getName());
+        report.setAccountType(account.getAccountType().name());
+        report.setStartDate(startDate);
+        report.setEndDate(endDate);
+        return report;
+    }
+
+    /**
+     * 期首残高を計算（勘定科目期間残高から集計）
+     */
+    private BigDecimal calculateOpeningBalance(Long companyId, Long accountId, LocalDate startDate, Account.AccountType accountType) {
+        // 借方残高（借方合計 - 貸方合計）を勘定科目タイプに応じた残高に変換
+        BigDecimal debitBalance = accountBalanceQueryService.debitBalanceBefore(companyId, accountId, startDate);
+        return calculateBalance(BigDecimal.ZERO, debitBalance, BigDecimal.ZERO, accountType);
     }
 
     /**
@@ -126,20 +321,177 @@ public class GeneralLedgerService {
     }
 
     /**
-     * PDF出力（実装予定）
-     * TODO: Apache PDFBoxを使用してPDF生成を実装
+     * PDF出力（生成済みのレポートの明細を出力）
      */
     public byte[] exportPdf(GeneralLedgerReport report) {
-        // PDF生成ロジックをここに実装
-        throw new UnsupportedOperationException("PDF出力機能は未実装です");
+        try (ReportTable table = reportPdfRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeReport(table, report);
+            return table.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("PDFの作成に失敗しました", e);
+        }
+    }
+
+    /**
+     * PDFを出力ストリームへ書き込む
+     * 明細を前方カーソルで読み出しながらページを確定していくため、行数に関係なくメモリ使用量は一定
+     * @param companyId 会社ID
+     * @param header generateHeader で生成した見出し
+     * @param accountId 勘定科目ID
+     * @param out 出力先
+     * @param onEntry 明細1行を書き込むごとに呼び出す処理（進捗の記録用）
+     */
+    public void writePdf(Long companyId, GeneralLedgerReport header, Long accountId, OutputStream out,
+                         Runnable onEntry) throws IOException {
+        try (ReportTable table = reportPdfRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeTable(table, companyId, header, accountId, out, onEntry);
+        }
+    }
+
+    /**
+     * 複数勘定科目のPDFを出力ストリームへ書き込む（勘定科目ごとに改ページ）
+     * @param companyId 会社ID
+     * @param headers generateBatchHeaders で生成した見出し
+     * @param accountIds 勘定科目IDリスト（全勘定科目の場合はnull）
+     * @param out 出力先
+     * @param onEntry 明細1行を書き込むごとに呼び出す処理（進捗の記録用）
+     */
+    public void writeBatchPdf(Long companyId, List<GeneralLedgerReport> headers, Collection<Long> accountIds,
+                              OutputStream out, Runnable onEntry) throws IOException {
+        try (ReportTable table = reportPdfRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeBatchTable(table, companyId, headers, accountIds, out, onEntry);
+        }
     }
 
     /**
-     * Excel出力（実装予定）
-     * TODO: Apache POIを使用してExcel生成を実装
+     * Excel出力（生成済みのレポートの明細を出力）
      */
     public byte[] exportExcel(GeneralLedgerReport report) {
-        // Excel生成ロジックをここに実装
-        throw new UnsupportedOperationException("Excel出力機能は未実装です");
+        try (ReportTable table = reportExcelRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeReport(table, report);
+            return table.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Excelの作成に失敗しました", e);
+        }
+    }
+
+    /**
+     * Excelを出力ストリームへ書き込む
+     * 明細を前方カーソルで読み出しながら行を一時ファイルへ書き出すため、行数に関係なくメモリ使用量は一定
+     * @param companyId 会社ID
+     * @param header generateHeader で生成した見出し
+     * @param accountId 勘定科目ID
+     * @param out 出力先
+     * @param onEntry 明細1行を書き込むごとに呼び出す処理（進捗の記録用）
+     */
+    public void writeExcel(Long companyId, GeneralLedgerReport header, Long accountId, OutputStream out,
+                           Runnable onEntry) throws IOException {
+        try (ReportTable table = reportExcelRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeTable(table, companyId, header, accountId, out, onEntry);
+        }
+    }
+
+    /**
+     * 複数勘定科目のExcelを出力ストリームへ書き込む（勘定科目ごとに見出しを付けて続けて出力）
+     * @param companyId 会社ID
+     * @param headers generateBatchHeaders で生成した見出し
+     * @param accountIds 勘定科目IDリスト（全勘定科目の場合はnull）
+     * @param out 出力先
+     * @param onEntry 明細1行を書き込むごとに呼び出す処理（進捗の記録用）
+     */
+    public void writeBatchExcel(Long companyId, List<GeneralLedgerReport> headers, Collection<Long> accountIds,
+                                OutputStream out, Runnable onEntry) throws IOException {
+        try (ReportTable table = reportExcelRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeBatchTable(table, companyId, headers, accountIds, out, onEntry);
+        }
+    }
+
+    private void writeReport(ReportTable table, GeneralLedgerReport report) {
+        LedgerTableWriter writer = new LedgerTableWriter(table, () -> { });
+        writer.startLedger(report);
+        report.getEntries().forEach(writer::entry);
+        writer.endLedger(report, report.getClosingBalance());
+    }
+
+    private void writeTable(ReportTable table, Long companyId, GeneralLedgerReport header, Long accountId,
+                            OutputStream out, Runnable onEntry) throws IOException {
+        try {
+            LedgerTableWriter writer = new LedgerTableWriter(table, onEntry);
+            writer.startLedger(header);
+            BigDecimal closingBalance = streamEntries(companyId, header, accountId, writer::entry);
+            writer.endLedger(header, closingBalance);
+            table.writeTo(out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeBatchTable(ReportTable table, Long companyId, List<GeneralLedgerReport> headers,
+                                 Collection<Long> accountIds, OutputStream out, Runnable onEntry) throws IOException {
+        try {
+            streamBatchEntries(companyId, headers, accountIds, new LedgerTableWriter(table, onEntry));
+            table.writeTo(out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 元帳を帳票の表へ書き込む（前期繰越 → 明細... → 合計）
+     */
+    private static class LedgerTableWriter implements LedgerHandler {
+
+        private final ReportTable table;
+        private final Runnable onEntry;
+        private BigDecimal debitTotal;
+        private BigDecimal creditTotal;
+
+        LedgerTableWriter(ReportTable table, Runnable onEntry) {
+            this.table = table;
+            this.onEntry = onEntry;
+        }
+
+        @Override
+        public void startLedger(GeneralLedgerReport header) {
+            debitTotal = BigDecimal.ZERO;
+            creditTotal = BigDecimal.ZERO;
+            try {
+                table.section(
+                        "勘定科目: " + header.getAccountCode() + " " + header.getAccountName(),
+                        "期間: " + header.getStartDate() + " ～ " + header.getEndDate());
+                table.row(null, null, "前期繰越", null, null, header.getOpeningBalance());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void entry(GeneralLedgerEntry entry) {
+            debitTotal = debitTotal.add(entry.getDebitAmount());
+            creditTotal = creditTotal.add(entry.getCreditAmount());
+            try {
+                table.row(entry.getDate(), entry.getJournalNumber(), entry.getDescription(),
+                        nonZero(entry.getDebitAmount()), nonZero(entry.getCreditAmount()), entry.getBalance());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            onEntry.run();
+        }
+
+        @Override
+        public void endLedger(GeneralLedgerReport header, BigDecimal closingBalance) {
+            try {
+                table.totalRow(null, null, "合計", debitTotal, creditTotal, closingBalance);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * 借方・貸方の金額（ゼロの場合は空欄）
+         */
+        private static BigDecimal nonZero(BigDecimal amount) {
+            return amount == null || amount.signum() == 0 ? null : amount;
+        }
     }
 }
@@ -0,0 +1,349 @@
+package com.accounting.app.service;
+
+import com.accounting.app.cache.LruCache;
+import com.accounting.app.dto.common.ApiResponse;
+import com.accounting.app.entity.IdempotencyRecord;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.exception.BusinessException;
+import com.accounting.app.exception.ConflictException;
+import com.accounting.app.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 冪等キーサービス
+ * Idempotency-Key ヘッダ付きの登録リクエストを1回だけ実行し、再送には保存したレスポンスを返す。
+ *
+ * 1. キーを処理中として別トランザクションで登録する（一意制約により同時の再送は409とする）
+ * 2. 登録処理とレスポンスの保存を同じトランザクションで行う（失敗時はキーを削除し再送を受け付ける）
+ * 3. 再送はメモリのキャッシュ、無ければ冪等キーテーブルから応答し、業務テーブルは参照しない
+ *
+ * 同じキーで内容の異なるリクエストはエラーとする。処理中のまま残ったキー（プロセス停止など）は
+ * lock-timeout-seconds を過ぎると再実行を受け付ける。
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    /** 再送に対して保存済みのレスポンスを返したことを示すヘッダ */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    /** キー登録の試行回数の上限（期限切れのレコードが削除前に完了した場合に読み直す） */
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    public static final String JOURNAL_CREATE = "journals.create";
+    public static final String JOURNAL_CREATE_ASYNC = "journals.create-async";
+    public static final String INVOICE_CREATE = "invoices.create";
+    public static final String PAYMENT_CREATE = "payments.create";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final LruCache<Key, Completed> cache;
+    private final ScheduledExecutorService scheduler;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+
+    public IdempotencyService(
+            IdempotencyRecordRepository idempotencyRecordRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.idempotency.enabled:true}") boolean enabled,
+            @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${app.idempotency.lock-timeout-seconds:60}") long lockTimeoutSeconds,
+            @Value("${app.idempotency.cache.max-entries:1000}") int maxEntries,
+            @Value("${app.idempotency.purge-interval-minutes:10}") long purgeIntervalMinutes) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lockTimeout = Duration.ofSeconds(lockTimeoutSeconds);
+        this.cache = new LruCache<>(maxEntries, ttl);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::purgeExpired,
+                purgeIntervalMinutes, purgeIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 登録処理を冪等に実行
+     * キーが未指定の場合はそのまま実行する
+     * @param companyId 会社ID
+     * @param operation 対象の操作（キーはこの単位で区別する）
+     * @param idempotencyKey Idempotency-Key ヘッダの値
+     * @param request リクエスト本文（同じキーでの内容の一致を確認する）
+     * @param responseType レスポンスデータの型（再送時の復元に使用）
+     * @param status 成功時のHTTPステータス
+     * @param action 登録処理
+     * @return レスポンス
+     */
+    public <T> ResponseEntity<ApiResponse<T>> execute(Long companyId, String operation, String idempotencyKey,
+                                                      Object request, Class<T> responseType, HttpStatus status,
+                                                      Supplier<T> action) {
+        if (!enabled || idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return ResponseEntity.status(status).body(ApiResponse.success(action.get()));
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key は" + MAX_KEY_LENGTH + "文字以内で指定してください");
+        }
+
+        Key key = new Key(companyId, operation, idempotencyKey);
+        String requestHash = hash(request);
+
+        Completed cached = cache.get(key);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        IdempotencyRecord record = claim(key, requestHash);
+        if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+            Completed completed = new Completed(record.getRequestHash(), record.getResponseStatus(),
+                    record.getResponseBody());
+            cache.put(key, completed);
+            return replay(completed, requestHash, responseType);
+        }
+
+        Long recordId = record.getId();
+        AtomicReference<Completed> completed = new AtomicReference<>();
+        T data;
+        try {
+            data = transactionTemplate.execute(tx -> {
+                T result = action.get();
+                completed.set(new Completed(requestHash, status.value(), compress(result)));
+                // 登録処理と同じトランザクションで保存し、登録とレスポンスの保存を不可分にする
+                IdempotencyRecord saved = idempotencyRecordRepository.findById(recordId)
+                        .orElseThrow(() -> new ConflictException("Idempotency-Key の処理状態が失われました"));
+                saved.setStatus(IdempotencyRecord.Status.COMPLETED);
+                saved.setResponseStatus(status.value());
+                saved.setResponseBody(completed.get().body);
+                return result;
+            });
+        } catch (RuntimeException | Error e) {
+            release(recordId);
+            throw e;
+        }
+        cache.put(key, completed.get());
+        return ResponseEntity.status(status).body(ApiResponse.success(data));
+    }
+
+    /**
+     * キーを処理中として登録（別トランザクションで即時にコミット）
+     * @return 新たに登録した処理中のレコード、または完了済みのレコード
+     */
+    private IdempotencyRecord claim(Key key, String requestHash) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            IdempotencyRecord record = tryClaim(key, requestHash);
+            if (record != null) {
+                return record;
+            }
+        }
+        throw new ConflictException("同じ Idempotency-Key のリクエストを処理中です");
+    }
+
+    /**
+     * キーの登録を1回試行
+     * @return 登録または完了済みのレコード。期限切れと判断したレコードが削除前に更新されていた場合は null（読み直して再試行する）
+     */
+    private IdempotencyRecord tryClaim(Key key, String requestHash) {
+        try {
+            return newTransactionTemplate.execute(tx -> {
+                LocalDateTime now = LocalDateTime.now();
+                IdempotencyRecord existing = idempotencyRecordRepository
+                        .findByCompanyIdAndOperationAndIdempotencyKey(key.companyId, key.operation, key.idempotencyKey)
+                        .orElse(null);
+                if (existing != null) {
+                    boolean expired = existing.getExpiresAt().isBefore(now);
+                    boolean stale = existing.getStatus() == IdempotencyRecord.Status.IN_PROGRESS
+                            && existing.getCreatedAt().plus(lockTimeout).isBefore(now);
+                    if (!expired && !stale) {
+                        if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                            return existing;
+                        }
+                        throw new ConflictException("同じ Idempotency-Key のリクエストを処理中です");
+                    }
+                    // 処理中だったリクエストが読み込み後に完了させた場合は削除せず、読み直して再送として扱う
+                    int deleted = idempotencyRecordRepository.deleteIfUnchanged(
+                            existing.getId(), existing.getStatus(), existing.getCreatedAt());
+                    if (deleted == 0) {
+                        tx.setRollbackOnly();
+                        return null;
+                    }
+                }
+
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.setCompanyId(key.companyId);
+                record.setOperation(key.operation);
+                record.setIdempotencyKey(key.idempotencyKey);
+                record.setRequestHash(requestHash);
+                record.setStatus(IdempotencyRecord.Status.IN_PROGRESS);
+                record.setCreatedAt(now);
+                record.setExpiresAt(now.plus(ttl));
+                return idempotencyRecordRepository.saveAndFlush(record);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // 同じキーのリクエストが同時に登録した
+            throw new ConflictException("同じ Idempotency-Key のリクエストを処理中です");
+        }
+    }
+
+    /**
+     * 登録処理が失敗したキーを削除し、再送を受け付ける
+     */
+    private void release(Long recordId) {
+        try {
+            newTransactionTemplate.execute(tx -> {
+                idempotencyRecordRepository.findById(recordId).ifPresent(idempotencyRecordRepository::delete);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // 削除できなかったキーは lock-timeout-seconds 経過後に再実行を受け付ける
+            logger.warn("Failed to release idempotency key {}", recordId, e);
+        }
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> replay(Completed completed, String requestHash, Class<T> responseType) {
+        if (!completed.requestHash.equals(requestHash)) {
+            throw new BusinessException("IDEMPOTENCY_KEY_REUSED",
+                    "Idempotency-Key が異なる内容のリクエストで使用されています");
+        }
+        return ResponseEntity.status(completed.status)
+                .header(REPLAYED_HEADER, "true")
+                .body(ApiResponse.success(decompress(completed.body, responseType)));
+    }
+
+    /**
+     * 有効期限を過ぎたキーを削除
+     */
+    public void purgeExpired() {
+        try {
+            Integer deleted = newTransactionTemplate.execute(tx ->
+                    idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+            if (deleted != null && deleted > 0) {
+                logger.debug("Purged {} expired idempotency keys", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to purge expired idempotency keys", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(objectMapper.writeValueAsBytes(request));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] compress(Object data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private <T> T decompress(byte[] body, Class<T> type) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return objectMapper.readValue(in, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 完了済みのレスポンス
+     */
+    private static final class Completed {
+        private final String requestHash;
+        private final int status;
+        private final byte[] body;
+
+        Completed(String requestHash, int status, byte[] body) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static final class Key {
+        private final Long companyId;
+        private final String operation;
+        private final String idempotencyKey;
+
+        Key(Long companyId, String operation, String idempotencyKey) {
+            this.companyId = companyId;
+            this.operation = operation;
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Objects.equals(companyId, other.companyId)
+                    && operation.equals(other.operation)
+                    && idempotencyKey.equals(other.idempotencyKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(companyId, operation, idempotencyKey);
+        }
+    }
+}
@@ -8,42 +8,42 @@ import com.accounting.app.exception.BadRequestException;
 import com.accounting.app.exception.BusinessException;
 import com.accounting.app.exception.ResourceNotFoundException;
 import com.accounting.app.repository.CompanyRepository;
-import com.accounting.app.repository.InvoiceDetailRepository;
 import com.accounting.app.repository.InvoiceRepository;
-import com.accounting.app.repository.PartnerRepository;
-import com.accounting.app.repository.ItemRepository;
-import com.accounting.app.repository.TaxTypeRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
 
 @Service
 @Transactional
 public class InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
-    private final InvoiceDetailRepository invoiceDetailRepository;
-    private final PartnerRepository partnerRepository;
-    private final ItemRepository itemRepository;
-    private final TaxTypeRepository taxTypeRepository;
     private final CompanyRepository companyRepository;
+    private final MasterDataResolver masterDataResolver;
+    private final FiscalPeriodIndex fiscalPeriodIndex;
+    private final DocumentNumberService documentNumberService;
+    private final OutboxService outboxService;
 
     public InvoiceService(
             InvoiceRepository invoiceRepository,
-            InvoiceDetailRepository invoiceDetailRepository,
-            PartnerRepository partnerRepository,
-            ItemRepository itemRepository,
-            TaxTypeRepository taxTypeRepository,
-            CompanyRepository companyRepository) {
+            CompanyRepository companyRepository,
+            MasterDataResolver masterDataResolver,
+            FiscalPeriodIndex fiscalPeriodIndex,
+            DocumentNumberService documentNumberService,
+            OutboxService outboxService) {
         this.invoiceRepository = invoiceRepository;
-        this.invoiceDetailRepository = invoiceDetailRepository;
-        this.partnerRepository = partnerRepository;
-        this.itemRepository = itemRepository;
-        this.taxTypeRepository = taxTypeRepository;
         this.companyRepository = companyRepository;
+        this.masterDataResolver = masterDataResolver;
+        this.fiscalPeriodIndex = fiscalPeriodIndex;
+        this.documentNumberService = documentNumberService;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -54,12 +54,15 @@ public class InvoiceService {
         Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new ResourceNotFoundException("Company", "id", companyId));
 
-        // 取引先の取得
-        Partner partner = partnerRepository.findById(request.getPartnerId())
-                .orElseThrow(() -> new ResourceNotFoundException("Partner", "id", request.getPartnerId()));
+        // 取引先・品目・税区分の一括取得
+        MasterDataResolver.MasterData masters =
+                masterDataResolver.forInvoice(companyId, request.getPartnerId(), request.getDetails());
+        Partner partner = masters.partner(request.getPartnerId());
 
-        // 請求書番号の重複チェック
-        if (invoiceRepository.existsByCompanyIdAndInvoiceNumber(companyId, request.getInvoiceNumber())) {
+        // 請求書番号の重複チェック（未指定の場合は請求日の会計期間で採番する）
+        boolean numberSpecified = StringUtils.hasText(request.getInvoiceNumber());
+        if (numberSpecified
+                && invoiceRepository.existsByCompanyIdAndInvoiceNumber(companyId, request.getInvoiceNumber())) {
             throw new BadRequestException("請求書番号 '" + request.getInvoiceNumber() + "' は既に使用されています");
         }
 
@@ -71,7 +74,8 @@ public class InvoiceService {
         // 請求書エンティティの作成
         Invoice invoice = new Invoice();
         invoice.setCompany(company);
-        invoice.setInvoiceNumber(request.getInvoiceNumber());
+        invoice.setInvoiceNumber(numberSpecified ? request.getInvoiceNumber()
+                : nextInvoiceNumber(companyId, request.getInvoiceDate()));
         invoice.setPartner(partner);
         invoice.setInvoiceDate(request.getInvoiceDate());
         invoice.setDueDate(request.getDueDate());
@@ -83,7 +87,7 @@ public class InvoiceService {
         BigDecimal totalTax = BigDecimal.ZERO;
 
         for (InvoiceDetailRequest detailReq : request.getDetails()) {
-            InvoiceDetail detail = createInvoiceDetail(invoice, detailReq);
+            InvoiceDetail detail = createInvoiceDetail(invoice, detailReq, masters);
             invoice.addDetail(detail);
             subtotal = subtotal.add(detail.getAmount().subtract(detail.getTaxAmount()));
             totalTax = totalTax.add(detail.getTaxAmount());
@@ -95,34 +99,45 @@ public class InvoiceService {
 
         // 保存
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        outboxService.recordInvoice(OutboxEvent.EventType.CREATED, savedInvoice);
         return InvoiceResponse.from(savedInvoice);
     }
 
+    /**
+     * 請求書番号を採番（請求日の会計期間ごとの連番）
+     */
+    private String nextInvoiceNumber(Long companyId, LocalDate invoiceDate) {
+        FiscalPeriodIndex.Period fiscalPeriod = fiscalPeriodIndex.find(companyId, invoiceDate)
+                .orElseThrow(() -> new BusinessException("FISCAL_PERIOD_NOT_FOUND",
+                        "請求日に対応する会計期間が見つからないため、請求書番号を採番できません"));
+        return documentNumberService.next(DocumentNumberService.SequenceType.INVOICE, companyId, fiscalPeriod.toEntity(),
+                number -> invoiceRepository.existsByCompanyIdAndInvoiceNumber(companyId, number));
+    }
+
     /**
      * 請求書明細を作成
      */
-    private InvoiceDetail createInvoiceDetail(Invoice invoice, InvoiceDetailRequest request) {
+    private InvoiceDetail createInvoiceDetail(Invoice invoice, InvoiceDetailRequest request,
+                                              MasterDataResolver.MasterData masters) {
         InvoiceDetail detail = new InvoiceDetail();
         detail.setInvoice(invoice);
+        applyInvoiceDetail(detail, request, masters);
+        return detail;
+    }
+
+    /**
+     * 請求書明細にリクエストの値を設定（金額は再計算）
+     */
+    private void applyInvoiceDetail(InvoiceDetail detail, InvoiceDetailRequest request,
+                                    MasterDataResolver.MasterData masters) {
         detail.setLineNumber(request.getLineNumber());
         detail.setDescription(request.getDescription());
         detail.setQuantity(request.getQuantity());
         detail.setUnitPrice(request.getUnitPrice());
+        detail.setItem(masters.item(request.getItemId()));
 
-        // 品目が指定されている場合
-        if (request.getItemId() != null) {
-            Item item = itemRepository.findById(request.getItemId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Item", "id", request.getItemId()));
-            detail.setItem(item);
-        }
-
-        // 税区分が指定されている場合
-        TaxType taxType = null;
-        if (request.getTaxTypeId() != null) {
-            taxType = taxTypeRepository.findById(request.getTaxTypeId())
-                    .orElseThrow(() -> new ResourceNotFoundException("TaxType", "id", request.getTaxTypeId()));
-            detail.setTaxType(taxType);
-        }
+        TaxType taxType = masters.taxType(request.getTaxTypeId());
+        detail.setTaxType(taxType);
 
         // 金額計算
         BigDecimal lineAmount = request.getQuantity().multiply(request.getUnitPrice());
@@ -134,8 +149,6 @@ public class InvoiceService {
 
         detail.setTaxAmount(taxAmount);
         detail.setAmount(lineAmount.add(taxAmount));
-
-        return detail;
     }
 
     /**
@@ -151,16 +164,19 @@ public class InvoiceService {
                     "下書き状態の請求書のみ更新できます");
         }
 
-        // 取引先の取得
-        Partner partner = partnerRepository.findById(request.getPartnerId())
-                .orElseThrow(() -> new ResourceNotFoundException("Partner", "id", request.getPartnerId()));
+        // 取引先・品目・税区分の一括取得
+        MasterDataResolver.MasterData masters = masterDataResolver.forInvoice(
+                invoice.getCompany().getId(), request.getPartnerId(), request.getDetails());
+        Partner partner = masters.partner(request.getPartnerId());
 
-        // 請求書番号の重複チェック（自身以外）
+        // 請求書番号の重複チェック（自身以外、未指定の場合は変更しない）
+        String invoiceNumber = StringUtils.hasText(request.getInvoiceNumber())
+                ? request.getInvoiceNumber() : invoice.getInvoiceNumber();
         invoiceRepository.findByCompanyIdAndInvoiceNumber(
-                invoice.getCompany().getId(), request.getInvoiceNumber())
+                invoice.getCompany().getId(), invoiceNumber)
                 .ifPresent(existing -> {
                     if (!existing.getId().equals(id)) {
-                        throw new BadRequestException("請求書番号 '" + request.getInvoiceNumber() + "' は既に使用されています");
+                        throw new BadRequestException("請求書番号 '" + invoiceNumber + "' は既に使用されています");
                     }
                 });
 
@@ -170,33 +186,43 @@ public class InvoiceService {
         }
 
         // 請求書の更新
-        invoice.setInvoiceNumber(request.getInvoiceNumber());
+        invoice.setInvoiceNumber(invoiceNumber);
         invoice.setPartner(partner);
         invoice.setInvoiceDate(request.getInvoiceDate());
         invoice.setDueDate(request.getDueDate());
         invoice.setNotes(request.getNotes());
 
-        // 既存の明細を削除
-        invoice.getDetails().clear();
-        invoiceDetailRepository.flush();
+        // 明細の差分更新（ID・行番号で既存の明細と対応付け、変更・追加・削除された行のみ書き込む）
+        Map<InvoiceDetailRequest, InvoiceDetail> matches = DetailMatcher.match(
+                invoice.getDetails(), request.getDetails(),
+                InvoiceDetail::getId, InvoiceDetail::getLineNumber,
+                InvoiceDetailRequest::getId, InvoiceDetailRequest::getLineNumber, "InvoiceDetail");
+        DetailMatcher.removeUnmatched(invoice.getDetails(), matches);
 
-        // 新しい明細の追加と金額再計算
+        // 金額再計算
         BigDecimal subtotal = BigDecimal.ZERO;
         BigDecimal totalTax = BigDecimal.ZERO;
 
         for (InvoiceDetailRequest detailReq : request.getDetails()) {
-            InvoiceDetail detail = createInvoiceDetail(invoice, detailReq);
-            invoice.addDetail(detail);
+            InvoiceDetail detail = matches.get(detailReq);
+            if (detail != null) {
+                applyInvoiceDetail(detail, detailReq, masters);
+            } else {
+                detail = createInvoiceDetail(invoice, detailReq, masters);
+                invoice.addDetail(detail);
+            }
             subtotal = subtotal.add(detail.getAmount().subtract(detail.getTaxAmount()));
             totalTax = totalTax.add(detail.getTaxAmount());
         }
 
+        invoice.getDetails().sort(Comparator.comparing(InvoiceDetail::getLineNumber));
         invoice.setSubtotal(subtotal);
         invoice.setTaxAmount(totalTax);
         invoice.setTotalAmount(subtotal.add(totalTax));
 
         // 保存
         Invoice updatedInvoice = invoiceRepository.save(invoice);
+        outboxService.recordInvoice(OutboxEvent.EventType.UPDATED, updatedInvoice);
         return InvoiceResponse.from(updatedInvoice);
     }
 
@@ -215,6 +241,7 @@ public class InvoiceService {
 
             invoice.setStatus(newStatus);
             Invoice updatedInvoice = invoiceRepository.save(invoice);
+            outboxService.recordInvoice(OutboxEvent.EventType.STATUS_CHANGED, updatedInvoice);
             return InvoiceResponse.from(updatedInvoice);
         } catch (IllegalArgumentException e) {
             throw new BadRequestException("無効なステータス: " + status);
@@ -269,6 +296,7 @@ public class InvoiceService {
         }
 
         invoiceRepository.delete(invoice);
+        outboxService.recordInvoice(OutboxEvent.EventType.DELETED, invoice);
     }
 
     /**
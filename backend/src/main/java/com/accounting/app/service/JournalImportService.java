@@ -0,0 +1,581 @@
+package com.accounting.app.service;
+
+import com.accounting.app.csv.CsvFormatException;
+import com.accounting.app.csv.CsvReader;
+import com.accounting.app.dto.response.JournalImportError;
+import com.accounting.app.dto.response.JournalImportResponse;
+import com.accounting.app.entity.*;
+import com.accounting.app.entity.JournalDetail.EntryType;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * 仕訳CSVの一括取込
+ *
+ * CSVは1行が仕訳明細1行で、同じ仕訳番号の行を連続して並べる（仕訳日・摘要は先頭行の値を使う）。
+ * 勘定科目・補助科目・税区分・取引先はコードで指定し、取込開始時に読み込んだ辞書で解決する。
+ * 仕訳ごとに貸借一致と会計期間を検証し、一定件数ごとにJDBCバッチでまとめて登録する。
+ * エラーが1件でもあれば全件を取り消し（dryRun の場合は検証のみ）、行番号付きのエラーを返す。
+ */
+@Service
+public class JournalImportService {
+
+    private static final String JOURNAL_NUMBER = "journal_number";
+    private static final String JOURNAL_DATE = "journal_date";
+    private static final String DESCRIPTION = "description";
+    private static final String LINE_NUMBER = "line_number";
+    private static final String ENTRY_TYPE = "entry_type";
+    private static final String ACCOUNT_CODE = "account_code";
+    private static final String SUB_ACCOUNT_CODE = "sub_account_code";
+    private static final String TAX_TYPE_CODE = "tax_type_code";
+    private static final String PARTNER_CODE = "partner_code";
+    private static final String AMOUNT = "amount";
+    private static final String TAX_AMOUNT = "tax_amount";
+    private static final String LINE_DESCRIPTION = "line_description";
+
+    private static final List<String> REQUIRED_COLUMNS =
+            Arrays.asList(JOURNAL_NUMBER, JOURNAL_DATE, ENTRY_TYPE, ACCOUNT_CODE, AMOUNT);
+
+    private static final DateTimeFormatter SLASH_DATE = DateTimeFormatter.ofPattern("yyyy/M/d");
+    private static final int MAX_JOURNAL_NUMBER_LENGTH = 50;
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+    // 金額カラム precision = 15, scale = 2
+    private static final int MAX_INTEGER_DIGITS = 13;
+
+    private final int flushJournals;
+    private final int maxErrors;
+
+    private final JournalRepository journalRepository;
+    private final FiscalPeriodIndex fiscalPeriodIndex;
+    private final AccountRepository accountRepository;
+    private final SubAccountRepository subAccountRepository;
+    private final TaxTypeRepository taxTypeRepository;
+    private final PartnerRepository partnerRepository;
+    private final AccountBalanceRollupService accountBalanceRollupService;
+    private final ClosingBalanceService closingBalanceService;
+    private final OutboxService outboxService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JournalImportService(
+            @Value("${app.journal-import.flush-journals:500}") int flushJournals,
+            @Value("${app.journal-import.max-errors:1000}") int maxErrors,
+            JournalRepository journalRepository,
+            FiscalPeriodIndex fiscalPeriodIndex,
+            AccountRepository accountRepository,
+            SubAccountRepository subAccountRepository,
+            TaxTypeRepository taxTypeRepository,
+            PartnerRepository partnerRepository,
+            AccountBalanceRollupService accountBalanceRollupService,
+            ClosingBalanceService closingBalanceService,
+            OutboxService outboxService) {
+        this.flushJournals = Math.max(1, flushJournals);
+        this.maxErrors = Math.max(1, maxErrors);
+        this.journalRepository = journalRepository;
+        this.fiscalPeriodIndex = fiscalPeriodIndex;
+        this.accountRepository = accountRepository;
+        this.subAccountRepository = subAccountRepository;
+        this.taxTypeRepository = taxTypeRepository;
+        this.partnerRepository = partnerRepository;
+        this.accountBalanceRollupService = accountBalanceRollupService;
+        this.closingBalanceService = closingBalanceService;
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * 仕訳CSVを取り込む
+     * @param companyId 会社ID
+     * @param in CSV（1行目は列名）
+     * @param charsetName 文字コード（UTF-8、Windows-31J など）
+     * @param dryRun true の場合は検証のみ行い登録しない
+     * @return 取込結果
+     */
+    @Transactional
+    public JournalImportResponse importCsv(Long companyId, InputStream in, String charsetName, boolean dryRun)
+            throws IOException {
+        Charset charset = toCharset(charsetName);
+        Reader reader = new InputStreamReader(in, charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT));
+
+        ImportRun run = new ImportRun(companyId, dryRun);
+        try (CsvReader csv = new CsvReader(reader)) {
+            try {
+                List<String> header = csv.next();
+                if (header == null) {
+                    throw new BadRequestException("CSVにデータがありません");
+                }
+                Map<String, Integer> columns = toColumnIndex(header);
+                List<String> record;
+                while (!run.isErrorLimitReached() && (record = csv.next()) != null) {
+                    if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                        continue;
+                    }
+                    run.row(csv.getRecordLineNumber(), new Row(columns, record));
+                }
+            } catch (CsvFormatException e) {
+                run.error(e.getLineNumber(), null, e.getMessage());
+            } catch (CharacterCodingException e) {
+                // 読み込みはバッファ単位のため、正確な位置ではなく直前に読めた行を示す
+                run.error(Math.max(1, csv.getRecordLineNumber()), null,
+                        "文字コードが " + charset.name() + " ではありません（この行より後）");
+            }
+        }
+        run.finish();
+
+        JournalImportResponse response = run.response;
+        if (response.getErrorCount() > 0 && !dryRun) {
+            // 登録済みの仕訳も含めて取り消す
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            response.setImportedJournalCount(0);
+        } else if (!dryRun && run.minDate != null) {
+            accountBalanceRollupService.apply(run.delta);
+            closingBalanceService.discardFrom(companyId, run.minDate);
+            fiscalPeriodIndex.lockForPosting(companyId, run.usedPeriods.values());
+        }
+        return response;
+    }
+
+    private static Charset toCharset(String charsetName) {
+        try {
+            return Charset.forName(charsetName);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new BadRequestException("文字コード '" + charsetName + "' には対応していません");
+        }
+    }
+
+    private static Map<String, Integer> toColumnIndex(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = new ArrayList<>();
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("CSVに必須の列がありません: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    /**
+     * CSVの1行（列名で値を取得、空欄はnull）
+     */
+    private static final class Row {
+
+        private final Map<String, Integer> columns;
+        private final List<String> values;
+
+        private Row(Map<String, Integer> columns, List<String> values) {
+            this.columns = columns;
+            this.values = values;
+        }
+
+        private String get(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    /**
+     * 取込中の仕訳
+     */
+    private static final class PendingJournal {
+
+        private final Journal journal;
+        private final long lineNumber;
+        private boolean valid = true;
+        private BigDecimal debitTotal = BigDecimal.ZERO;
+        private BigDecimal creditTotal = BigDecimal.ZERO;
+
+        private PendingJournal(Journal journal, long lineNumber) {
+            this.journal = journal;
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    /**
+     * 1回の取込の状態（コード辞書・登録待ちの仕訳・残高の増分）
+     */
+    private final class ImportRun {
+
+        private final Long companyId;
+        private final boolean dryRun;
+        private final Company company = new Company();
+        private final JournalImportResponse response = new JournalImportResponse();
+
+        private final Map<String, Account> accounts = new HashMap<>();
+        private final Map<Long, Map<String, SubAccount>> subAccounts = new HashMap<>();
+        private final Map<String, TaxType> taxTypes = new HashMap<>();
+        private final Map<String, Partner> partners = new HashMap<>();
+        // 仕訳日ごとの会計期間（見つからない日付も記録し、インデックスの読み直しを繰り返さない）
+        private final Map<LocalDate, Optional<FiscalPeriodIndex.Period>> fiscalPeriods = new HashMap<>();
+        private final Map<Long, FiscalPeriod> fiscalPeriodEntities = new HashMap<>();
+        // 登録する仕訳が使用した会計期間（コミット前に締めの有無を再確認する）
+        private final Map<Long, FiscalPeriodIndex.Period> usedPeriods = new HashMap<>();
+        private FiscalPeriodIndex.Period lastFiscalPeriod;
+
+        // 仕訳番号の重複チェック（ファイル内）
+        private final Set<String> journalNumbers = new HashSet<>();
+        private final List<PendingJournal> pending = new ArrayList<>();
+        private PendingJournal current;
+
+        private final AccountBalanceDelta delta;
+        private LocalDate minDate;
+
+        private ImportRun(Long companyId, boolean dryRun) {
+            this.companyId = companyId;
+            this.dryRun = dryRun;
+            this.delta = new AccountBalanceDelta(companyId);
+            company.setId(companyId);
+            response.setDryRun(dryRun);
+
+            for (Account account : accountRepository.findByCompanyIdOrderByCode(companyId)) {
+                accounts.put(account.getCode(), account);
+            }
+            for (SubAccount subAccount : subAccountRepository.findByCompanyIdOrderByCode(companyId)) {
+                subAccounts.computeIfAbsent(subAccount.getAccount().getId(), id -> new HashMap<>())
+                        .put(subAccount.getCode(), subAccount);
+            }
+            for (TaxType taxType : taxTypeRepository.findByCompanyIdOrderByCode(companyId)) {
+                taxTypes.put(taxType.getCode(), taxType);
+            }
+            for (Partner partner : partnerRepository.findByCompanyIdOrderByCode(companyId)) {
+                partners.put(partner.getCode(), partner);
+            }
+        }
+
+        private boolean isErrorLimitReached() {
+            return response.isErrorsTruncated();
+        }
+
+        private void row(long lineNumber, Row row) {
+            response.setRowCount(response.getRowCount() + 1);
+
+            String journalNumber = row.get(JOURNAL_NUMBER);
+            if (journalNumber == null) {
+                error(lineNumber, null, "仕訳番号は必須です");
+                return;
+            }
+            if (current == null || !current.journal.getJournalNumber().equals(journalNumber)) {
+                completeCurrent();
+                startJournal(lineNumber, journalNumber, row);
+            } else {
+                LocalDate date = parseDate(row.get(JOURNAL_DATE));
+                LocalDate journalDate = current.journal.getJournalDate();
+                if (date != null && journalDate != null && !date.equals(journalDate)) {
+                    reject(lineNumber, "同じ仕訳番号の行で仕訳日が異なります");
+                }
+            }
+            addDetail(lineNumber, row);
+        }
+
+        private void startJournal(long lineNumber, String journalNumber, Row row) {
+            Journal journal = new Journal();
+            journal.setCompany(company);
+            journal.setJournalNumber(journalNumber);
+            journal.setDescription(row.get(DESCRIPTION));
+            current = new PendingJournal(journal, lineNumber);
+            response.setJournalCount(response.getJournalCount() + 1);
+
+            if (!journalNumbers.add(journalNumber)) {
+                reject(lineNumber, "仕訳番号 '" + journalNumber + "' がファイル内で重複しています（同じ仕訳の行は連続させてください）");
+            }
+            if (journalNumber.length() > MAX_JOURNAL_NUMBER_LENGTH) {
+                reject(lineNumber, "仕訳番号は" + MAX_JOURNAL_NUMBER_LENGTH + "文字以内で入力してください");
+            }
+            if (journal.getDescription() != null && journal.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+                reject(lineNumber, "摘要は" + MAX_DESCRIPTION_LENGTH + "文字以内で入力してください");
+            }
+
+            String dateValue = row.get(JOURNAL_DATE);
+            LocalDate date = parseDate(dateValue);
+            if (date == null) {
+                reject(lineNumber, dateValue == null ? "仕訳日は必須です" : "仕訳日 '" + dateValue + "' が不正です");
+                return;
+            }
+            journal.setJournalDate(date);
+
+            FiscalPeriodIndex.Period fiscalPeriod = findFiscalPeriod(date);
+            if (fiscalPeriod == null) {
+                reject(lineNumber, "仕訳日に対応する会計期間が見つかりません");
+            } else if (fiscalPeriod.isClosed()) {
+                reject(lineNumber, "締められた会計期間には仕訳を登録できません");
+            } else {
+                usedPeriods.put(fiscalPeriod.getId(), fiscalPeriod);
+                journal.setFiscalPeriod(fiscalPeriodEntities.computeIfAbsent(
+                        fiscalPeriod.getId(), id -> fiscalPeriod.toEntity()));
+            }
+        }
+
+        private void addDetail(long lineNumber, Row row) {
+            JournalDetail detail = new JournalDetail();
+            boolean valid = true;
+
+            String lineValue = row.get(LINE_NUMBER);
+            if (lineValue == null) {
+                detail.setLineNumber(current.journal.getDetails().size() + 1);
+            } else {
+                try {
+                    detail.setLineNumber(Integer.valueOf(lineValue));
+                } catch (NumberFormatException e) {
+                    detail.setLineNumber(0);
+                }
+                if (detail.getLineNumber() <= 0) {
+                    valid = reject(lineNumber, "行番号 '" + lineValue + "' は正の整数で入力してください");
+                }
+            }
+
+            String entryType = row.get(ENTRY_TYPE);
+            detail.setEntryType(parseEntryType(entryType));
+            if (detail.getEntryType() == null) {
+                valid = reject(lineNumber, entryType == null
+                        ? "借方/貸方区分は必須です"
+                        : "借方/貸方区分 '" + entryType + "' が不正です（DEBIT または CREDIT）");
+            }
+
+            String accountCode = row.get(ACCOUNT_CODE);
+            Account account = accountCode != null ? accounts.get(accountCode) : null;
+            if (account == null) {
+                valid = reject(lineNumber, accountCode == null
+                        ? "勘定科目コードは必須です"
+                        : "勘定科目コード '" + accountCode + "' が見つかりません");
+            }
+            detail.setAccount(account);
+
+            String subAccountCode = row.get(SUB_ACCOUNT_CODE);
+            if (subAccountCode != null && account != null) {
+                SubAccount subAccount = subAccounts.getOrDefault(account.getId(), Collections.emptyMap())
+                        .get(subAccountCode);
+                if (subAccount == null) {
+                    valid = reject(lineNumber, "補助科目コード '" + subAccountCode + "' が勘定科目 '" +
+                            accountCode + "' に見つかりません");
+                }
+                detail.setSubAccount(subAccount);
+            }
+
+            String taxTypeCode = row.get(TAX_TYPE_CODE);
+            if (taxTypeCode != null) {
+                detail.setTaxType(taxTypes.get(taxTypeCode));
+                if (detail.getTaxType() == null) {
+                    valid = reject(lineNumber, "税区分コード '" + taxTypeCode + "' が見つかりません");
+                }
+            }
+
+            String partnerCode = row.get(PARTNER_CODE);
+            if (partnerCode != null) {
+                detail.setPartner(partners.get(partnerCode));
+                if (detail.getPartner() == null) {
+                    valid = reject(lineNumber, "取引先コード '" + partnerCode + "' が見つかりません");
+                }
+            }
+
+            String amountValue = row.get(AMOUNT);
+            detail.setAmount(parseAmount(amountValue));
+            if (detail.getAmount() == null || detail.getAmount().signum() <= 0) {
+                valid = reject(lineNumber, amountValue == null
+                        ? "金額は必須です"
+                        : "金額 '" + amountValue + "' は小数2桁までの正の数で入力してください");
+            }
+
+            String taxAmountValue = row.get(TAX_AMOUNT);
+            if (taxAmountValue != null) {
+                detail.setTaxAmount(parseAmount(taxAmountValue));
+                if (detail.getTaxAmount() == null) {
+                    valid = reject(lineNumber, "税額 '" + taxAmountValue + "' は小数2桁までの数で入力してください");
+                }
+            }
+
+            detail.setDescription(row.get(LINE_DESCRIPTION));
+            if (detail.getDescription() != null && detail.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+                valid = reject(lineNumber, "明細の摘要は" + MAX_DESCRIPTION_LENGTH + "文字以内で入力してください");
+            }
+
+            if (!valid) {
+                return;
+            }
+            current.journal.addDetail(detail);
+            if (detail.getEntryType() == EntryType.DEBIT) {
+                current.debitTotal = current.debitTotal.add(detail.getAmount());
+            } else {
+                current.creditTotal = current.creditTotal.add(detail.getAmount());
+            }
+        }
+
+        /**
+         * 読み込み中の仕訳を検証して登録待ちに加える
+         */
+        private void completeCurrent() {
+            PendingJournal journal = current;
+            current = null;
+            if (journal == null || !journal.valid) {
+                return;
+            }
+            if (journal.debitTotal.compareTo(journal.creditTotal) != 0) {
+                error(journal.lineNumber, journal.journal.getJournalNumber(),
+                        "借方合計と貸方合計が一致しません (借方: " + journal.debitTotal +
+                        ", 貸方: " + journal.creditTotal + ")");
+                return;
+            }
+            pending.add(journal);
+            if (pending.size() >= flushJournals) {
+                flushPending();
+            }
+        }
+
+        /**
+         * 登録待ちの仕訳を登録済みの仕訳番号と照合し、まとめて登録する
+         * 登録後は永続化コンテキストをクリアしてメモリ使用量を一定に保つ
+         */
+        private void flushPending() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<String> numbers = new ArrayList<>(pending.size());
+            for (PendingJournal journal : pending) {
+                numbers.add(journal.journal.getJournalNumber());
+            }
+            Set<String> existing = new HashSet<>(journalRepository.findExistingJournalNumbers(companyId, numbers));
+            for (PendingJournal journal : pending) {
+                if (existing.contains(journal.journal.getJournalNumber())) {
+                    error(journal.lineNumber, journal.journal.getJournalNumber(),
+                            "仕訳番号 '" + journal.journal.getJournalNumber() + "' は既に使用されています");
+                }
+            }
+
+            // エラーがあれば全件取り消すため、以降は検証のみ行う
+            if (!dryRun && response.getErrorCount() == 0) {
+                for (PendingJournal journal : pending) {
+                    Journal saved = journal.journal;
+                    entityManager.persist(saved);
+                    outboxService.recordJournal(OutboxEvent.EventType.CREATED, saved, null);
+                    delta.add(saved, 1);
+                    if (minDate == null || saved.getJournalDate().isBefore(minDate)) {
+                        minDate = saved.getJournalDate();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                response.setImportedJournalCount(response.getImportedJournalCount() + pending.size());
+            }
+            pending.clear();
+        }
+
+        private void finish() {
+            completeCurrent();
+            flushPending();
+            // 登録済み番号との重複はまとめて照合するため、行番号順に並べ直す
+            response.getErrors().sort(Comparator.comparingLong(JournalImportError::getLineNumber));
+        }
+
+        private FiscalPeriodIndex.Period findFiscalPeriod(LocalDate date) {
+            if (lastFiscalPeriod != null && lastFiscalPeriod.contains(date)) {
+                return lastFiscalPeriod;
+            }
+            FiscalPeriodIndex.Period fiscalPeriod = fiscalPeriods
+                    .computeIfAbsent(date, d -> fiscalPeriodIndex.find(companyId, d))
+                    .orElse(null);
+            if (fiscalPeriod != null) {
+                lastFiscalPeriod = fiscalPeriod;
+            }
+            return fiscalPeriod;
+        }
+
+        /**
+         * 読み込み中の仕訳をエラーにする
+         * @return 常にfalse（明細の検証結果として使う）
+         */
+        private boolean reject(long lineNumber, String message) {
+            current.valid = false;
+            error(lineNumber, current.journal.getJournalNumber(), message);
+            return false;
+        }
+
+        private void error(long lineNumber, String journalNumber, String message) {
+            if (response.getErrors().size() >= maxErrors) {
+                response.setErrorsTruncated(true);
+                return;
+            }
+            response.setErrorCount(response.getErrorCount() + 1);
+            response.getErrors().add(new JournalImportError(lineNumber, journalNumber, message));
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.indexOf('/') >= 0 ? LocalDate.parse(value, SLASH_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static EntryType parseEntryType(String value) {
+        if (value == null) {
+            return null;
+        }
+        switch (value.toUpperCase(Locale.ROOT)) {
+            case "DEBIT":
+            case "借方":
+                return EntryType.DEBIT;
+            case "CREDIT":
+            case "貸方":
+                return EntryType.CREDIT;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 金額を解析（3桁区切りのカンマ可、小数2桁まで）
+     * @return 解析できない場合null
+     */
+    private static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            BigDecimal amount = new BigDecimal(value.replace(",", ""));
+            if (amount.scale() > 2 && amount.stripTrailingZeros().scale() > 2) {
+                return null;
+            }
+            if (amount.precision() - amount.scale() > MAX_INTEGER_DIGITS) {
+                return null;
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.accounting.app.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 仕訳の非同期登録の追記ログ（1行1レコード）
+ *
+ * 受付した仕訳をキューに入れる前に追記し、ディスクへの書き出し（fsync）を待ってから受付を返す。
+ * 同時に受付した仕訳の書き出しは1回の fsync にまとめる。
+ * 未完了のレコードが無くなった時点でファイルを切り詰めるため、ファイルは登録待ちの量までしか大きくならない。
+ * 同じファイルを複数のプロセスで使用しないよう、ファイルロックを取得する。
+ */
+final class JournalPostingLog implements Closeable {
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final Object syncLock = new Object();
+
+    /** 追記したレコード数（this で保護） */
+    private long written;
+    /** 書き出し済みのレコード数 */
+    private volatile long synced;
+    /** 完了していないレコード数（this で保護） */
+    private int outstanding;
+
+    JournalPostingLog(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock fileLock = channel.tryLock();
+        if (fileLock == null) {
+            channel.close();
+            throw new IllegalStateException("仕訳の非同期登録ログは他のプロセスが使用中です: " + file);
+        }
+        this.lock = fileLock;
+    }
+
+    /**
+     * 起動時にログの全レコードを読み込む
+     * 書き込み途中で停止した末尾の不完全な行（受付を返していない）は破棄する
+     */
+    synchronized List<String> recover() throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        channel.position(0);
+        while (channel.read(buffer) > 0) {
+            buffer.flip();
+            content.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+        }
+        byte[] bytes = content.toByteArray();
+        int validLength = bytes.length;
+        while (validLength > 0 && bytes[validLength - 1] != '\n') {
+            validLength--;
+        }
+        channel.truncate(validLength);
+        channel.position(validLength);
+
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(bytes, 0, validLength, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 起動時に読み込んだ未完了のレコード数を設定
+     */
+    synchronized void setOutstanding(int count) {
+        this.outstanding = count;
+    }
+
+    /**
+     * 受付したレコードを追記（書き出しは {@link #sync(long)} で待つ）
+     * @return 書き出しを待つための番号
+     */
+    synchronized long appendQueued(String line) throws IOException {
+        write(line);
+        outstanding++;
+        return ++written;
+    }
+
+    /**
+     * 完了（登録・失敗）を追記
+     * 書き出しはグループ単位でまとめて待つ（失われた場合でも、起動時に仕訳番号で登録済みか判定する）
+     * @return 書き出しを待つための番号
+     */
+    synchronized long appendCompleted(String line) throws IOException {
+        write(line);
+        outstanding--;
+        if (outstanding == 0) {
+            channel.truncate(0);
+            channel.position(0);
+        }
+        return ++written;
+    }
+
+    /**
+     * 指定した番号までのレコードがディスクに書き出されるまで待つ
+     * 待っている間に他のスレッドが fsync した場合はそれを共有する
+     */
+    void sync(long seq) throws IOException {
+        if (synced >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= seq) {
+                return;
+            }
+            long target;
+            synchronized (this) {
+                target = written;
+            }
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    private void write(String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            lock.release();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.accounting.app.service;
+
+import com.accounting.app.dto.request.JournalRequest;
+import com.accounting.app.dto.response.JournalPostingResponse;
+import com.accounting.app.dto.response.JournalResponse;
+import com.accounting.app.entity.Journal;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.exception.BusinessException;
+import com.accounting.app.exception.ResourceNotFoundException;
+import com.accounting.app.repository.JournalRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 仕訳の非同期登録サービス（月末などの大量登録向け）
+ *
+ * 受付時に仕訳を検証して仕訳番号を確定し、追記ログへの書き出し後に上限付きのキューに入れる。
+ * 専用スレッドがキューから最大 batch-size 件（または max-wait-millis 経過まで）をまとめ、
+ * 1トランザクションで登録する。コミットが仕訳ごとではなくグループごとになるため、登録の総量が増える。
+ * グループ内の仕訳が1件でも失敗した場合はグループを取り消し、1件ずつ登録し直して失敗した仕訳を特定する。
+ *
+ * 結果はチケットIDで照会する。停止時に登録されていない仕訳は、次回起動時に追記ログから登録し直す
+ * （仕訳番号が登録済みの場合は登録済みとして扱う）。同期の登録API（JournalService#create）は変更しない。
+ */
+@Service
+public class JournalPostingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalPostingService.class);
+
+    private static final String LOG_FILE_NAME = "journal-posting.log";
+    private static final String RECORD_QUEUED = "QUEUED";
+    private static final String RECORD_COMPLETED = "COMPLETED";
+    private static final long MAX_WAIT_SECONDS = 30;
+
+    public enum Status {
+        QUEUED, // 登録待ち
+        POSTED, // 登録済み
+        FAILED  // 失敗
+    }
+
+    private final JournalService journalService;
+    private final JournalRepository journalRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxWaitMillis;
+    private final Semaphore capacity;
+    private final Path logFile;
+    private final Duration retention;
+
+    private final BlockingQueue<PostingTicket> queue = new LinkedBlockingQueue<>();
+    private final Map<String, PostingTicket> tickets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile JournalPostingLog log;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JournalPostingService(
+            JournalService journalService,
+            JournalRepository journalRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.journal-posting.enabled:false}") boolean enabled,
+            @Value("${app.journal-posting.batch-size:100}") int batchSize,
+            @Value("${app.journal-posting.max-wait-millis:20}") long maxWaitMillis,
+            @Value("${app.journal-posting.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.journal-posting.log-dir:./data/journal-posting}") String logDir,
+            @Value("${app.journal-posting.retention-minutes:60}") long retentionMinutes) {
+        this.journalService = journalService;
+        this.journalRepository = journalRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.capacity = new Semaphore(queueCapacity);
+        this.logFile = Paths.get(logDir, LOG_FILE_NAME);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-posting-housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 追記ログから未登録の仕訳を復元し、登録スレッドを開始
+     * 採番テーブルの初期化などが終わった後（起動完了時）に実行する
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        log = new JournalPostingLog(logFile);
+        recover();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "journal-posting-writer");
+        writer.setDaemon(true);
+        writer.start();
+        scheduler.scheduleWithFixedDelay(this::purgeExpired, 1, 1, TimeUnit.MINUTES);
+        logger.info("仕訳の非同期登録を開始しました: log={}, batchSize={}, maxWaitMillis={}",
+                logFile.toAbsolutePath(), batchSize, maxWaitMillis);
+    }
+
+    /**
+     * 仕訳を非同期登録として受け付ける
+     * 検証エラーは受付時に返す。受付後は追記ログに書き出されているため、停止しても失われない
+     * @param companyId 会社ID
+     * @param request 仕訳リクエスト
+     * @return 受付状態（仕訳番号は確定済み）
+     */
+    public JournalPostingResponse submit(Long companyId, JournalRequest request) {
+        if (!enabled) {
+            throw new BusinessException("JOURNAL_POSTING_DISABLED", "仕訳の非同期登録は無効です");
+        }
+        if (!running) {
+            throw new BusinessException("JOURNAL_POSTING_UNAVAILABLE", "仕訳の非同期登録を受け付けていません");
+        }
+        if (!capacity.tryAcquire()) {
+            throw new BusinessException("JOURNAL_POSTING_QUEUE_FULL",
+                    "登録待ちの仕訳が上限に達しています。しばらくしてから再度お試しください");
+        }
+
+        try {
+            request.setJournalNumber(journalService.validateForCreate(companyId, request));
+            PostingTicket ticket = new PostingTicket(UUID.randomUUID().toString(), companyId, request,
+                    LocalDateTime.now(), true);
+            long seq = log.appendQueued(queuedRecord(ticket));
+            log.sync(seq);
+            tickets.put(ticket.id, ticket);
+            queue.add(ticket);
+            return toResponse(ticket);
+        } catch (IOException e) {
+            capacity.release();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 受付状態を取得
+     * @param waitSeconds 登録待ちの場合に完了を待つ秒数（0の場合は待たない、上限30秒）
+     */
+    public JournalPostingResponse get(Long companyId, String ticketId, long waitSeconds) {
+        PostingTicket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.companyId.equals(companyId)) {
+            throw new ResourceNotFoundException("JournalPosting", "id", ticketId);
+        }
+        if (waitSeconds > 0 && ticket.status == Status.QUEUED) {
+            try {
+                ticket.future.get(Math.min(waitSeconds, MAX_WAIT_SECONDS), TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // 状態は下で返す
+            }
+        }
+        return toResponse(ticket);
+    }
+
+    /**
+     * キューの仕訳をグループにまとめて登録する（専用スレッド）
+     */
+    private void writeLoop() {
+        List<PostingTicket> group = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PostingTicket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (group.size() < batchSize) {
+                    queue.drainTo(group, batchSize - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PostingTicket next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                post(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                // 登録されなかった仕訳は追記ログに残り、次回起動時に登録し直す
+                logger.error("仕訳の非同期登録が中断されました", e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * グループを1トランザクションで登録（失敗した場合は1件ずつ登録し直す）
+     */
+    private void post(List<PostingTicket> group) throws IOException {
+        List<JournalResponse> results;
+        try {
+            results = transactionTemplate.execute(tx -> {
+                List<JournalResponse> responses = new ArrayList<>(group.size());
+                for (PostingTicket ticket : group) {
+                    responses.add(journalService.create(ticket.companyId, ticket.request));
+                    // 永続化コンテキストが大きくなるとフラッシュのたびの変更検知が遅くなるため、仕訳ごとに解放する
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+                return responses;
+            });
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                fail(group.get(0), e);
+            } else {
+                for (PostingTicket ticket : group) {
+                    post(Collections.singletonList(ticket));
+                }
+            }
+            return;
+        }
+
+        long seq = 0;
+        for (int i = 0; i < group.size(); i++) {
+            seq = complete(group.get(i), Status.POSTED, results.get(i).getId(), null);
+        }
+        log.sync(seq);
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).future.complete(results.get(i));
+        }
+    }
+
+    private void fail(PostingTicket ticket, RuntimeException e) throws IOException {
+        String message;
+        if (e instanceof BadRequestException || e instanceof BusinessException || e instanceof ResourceNotFoundException) {
+            message = e.getMessage();
+        } else {
+            logger.error("仕訳の非同期登録に失敗しました: ticketId={}, journalNumber={}",
+                    ticket.id, ticket.request.getJournalNumber(), e);
+            message = "仕訳の登録に失敗しました";
+        }
+        log.sync(complete(ticket, Status.FAILED, null, message));
+        ticket.future.completeExceptionally(e);
+    }
+
+    /**
+     * 完了を記録してキューの枠を解放
+     * @return 追記ログの書き出しを待つための番号
+     */
+    private long complete(PostingTicket ticket, Status status, Long journalId, String errorMessage) throws IOException {
+        ticket.journalId = journalId;
+        ticket.errorMessage = errorMessage;
+        ticket.finishedAt = LocalDateTime.now();
+        ticket.status = status;
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("type", RECORD_COMPLETED);
+        record.put("ticketId", ticket.id);
+        long seq = log.appendCompleted(objectMapper.writeValueAsString(record));
+        if (ticket.holdsCapacity) {
+            capacity.release();
+        }
+        return seq;
+    }
+
+    /**
+     * 追記ログから未完了の仕訳を読み込み、キューに戻す
+     */
+    private void recover() throws IOException {
+        Map<String, JsonNode> pending = new LinkedHashMap<>();
+        for (String line : log.recover()) {
+            JsonNode record;
+            try {
+                record = objectMapper.readTree(line);
+            } catch (IOException e) {
+                logger.warn("仕訳の非同期登録ログの読み込めない行を無視しました: {}", line);
+                continue;
+            }
+            String ticketId = record.path("ticketId").asText();
+            if (RECORD_QUEUED.equals(record.path("type").asText())) {
+                pending.put(ticketId, record);
+            } else {
+                pending.remove(ticketId);
+            }
+        }
+        log.setOutstanding(pending.size());
+
+        int requeued = 0;
+        for (JsonNode record : pending.values()) {
+            JournalRequest request = objectMapper.treeToValue(record.get("request"), JournalRequest.class);
+            PostingTicket ticket = new PostingTicket(record.get("ticketId").asText(),
+                    record.get("companyId").asLong(), request,
+                    LocalDateTime.parse(record.get("queuedAt").asText()), false);
+            tickets.put(ticket.id, ticket);
+
+            // 停止前にコミット済みの仕訳は登録し直さない
+            Optional<Journal> posted = journalRepository.findByCompanyIdAndJournalNumber(
+                    ticket.companyId, request.getJournalNumber());
+            if (posted.isPresent()) {
+                log.sync(complete(ticket, Status.POSTED, posted.get().getId(), null));
+                ticket.future.complete(null);
+            } else {
+                queue.add(ticket);
+                requeued++;
+            }
+        }
+        if (!pending.isEmpty()) {
+            logger.info("仕訳の非同期登録ログから復元しました: 未完了={}, 再登録={}", pending.size(), requeued);
+        }
+    }
+
+    private String queuedRecord(PostingTicket ticket) throws IOException {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("type", RECORD_QUEUED);
+        record.put("ticketId", ticket.id);
+        record.put("companyId", ticket.companyId);
+        record.put("queuedAt", ticket.queuedAt.toString());
+        record.set("request", objectMapper.valueToTree(ticket.request));
+        return objectMapper.writeValueAsString(record);
+    }
+
+    /**
+     * 保持期間を過ぎた完了済みのチケットを削除
+     */
+    void purgeExpired() {
+        LocalDateTime threshold = LocalDateTime.now().minus(retention);
+        tickets.values().removeIf(ticket -> ticket.finishedAt != null && ticket.finishedAt.isBefore(threshold));
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        running = false;
+        scheduler.shutdownNow();
+        Thread thread = writer;
+        if (thread != null) {
+            // 登録中のグループは完了させる（キューに残った仕訳は次回起動時に登録する）
+            thread.join(TimeUnit.SECONDS.toMillis(MAX_WAIT_SECONDS));
+        }
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private JournalPostingResponse toResponse(PostingTicket ticket) {
+        JournalPostingResponse response = new JournalPostingResponse();
+        response.setTicketId(ticket.id);
+        response.setStatus(ticket.status.name());
+        response.setJournalNumber(ticket.request.getJournalNumber());
+        response.setJournalId(ticket.journalId);
+        response.setQueuedAt(ticket.queuedAt);
+        response.setFinishedAt(ticket.finishedAt);
+        response.setErrorMessage(ticket.errorMessage);
+        return response;
+    }
+
+    private static final class PostingTicket {
+        private final String id;
+        private final Long companyId;
+        private final JournalRequest request;
+        private final LocalDateTime queuedAt;
+        /** キューの枠を確保しているか（起動時に復元した仕訳は枠を確保しない） */
+        private final boolean holdsCapacity;
+        private final CompletableFuture<JournalResponse> future = new CompletableFuture<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile Long journalId;
+        private volatile LocalDateTime finishedAt;
+        private volatile String errorMessage;
+
+        PostingTicket(String id, Long companyId, JournalRequest request, LocalDateTime queuedAt,
+                      boolean holdsCapacity) {
+            this.id = id;
+            this.companyId = companyId;
+            this.request = request;
+            this.queuedAt = queuedAt;
+            this.holdsCapacity = holdsCapacity;
+        }
+    }
+}
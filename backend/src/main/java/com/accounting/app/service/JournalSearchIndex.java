@@ -0,0 +1,367 @@
+package com.accounting.app.service;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 仕訳の摘要の転置インデックス（1社分）
+ *
+ * 摘要（仕訳ヘッダーと明細）を正規化（NFKC・小文字化）し、文字・数字の連続ごとに
+ * 1文字と隣接する2文字（bigram）を索引語とする。単語の区切りが無い日本語でも検索できるよう、
+ * 検索語の索引語をすべて含む仕訳を候補とし、正規化した摘要に検索語が含まれることを確認して一致とする。
+ * 順位は BM25 で付ける。
+ *
+ * 仕訳ごとに内部番号を払い出し、索引語ごとの出現リスト（内部番号の昇順）に追記する。
+ * 変更・削除された仕訳の古い内部番号は無効として残し、無効の数が有効な仕訳の数を超えた時点で
+ * 保持している摘要から作り直す（DBは読まない）。
+ */
+final class JournalSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_COMPACT_REMOVED = 1000;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::getScore).reversed()
+            .thenComparing(hit -> hit.getDocument().getJournalDate(), Comparator.reverseOrder())
+            .thenComparing(hit -> hit.getDocument().getJournalId(), Comparator.reverseOrder());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Postings> postings = new HashMap<>();
+    /** 内部番号 → 仕訳（無効になった番号は null） */
+    private List<Document> documents = new ArrayList<>();
+    /** 仕訳ID → 内部番号 */
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long totalLength;
+    private int removedCount;
+
+    /** 反映済みの変更イベントの連番 */
+    private volatile long sequence;
+
+    JournalSearchIndex(long sequence) {
+        this.sequence = sequence;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 仕訳を追加・置き換え、削除された仕訳を除く
+     * @param documents 追加・置き換える仕訳
+     * @param removedJournalIds 削除された仕訳ID
+     * @param sequence 反映した変更イベントの連番
+     */
+    void update(Collection<Document> documents, Collection<Long> removedJournalIds, long sequence) {
+        lock.writeLock().lock();
+        try {
+            for (Long journalId : removedJournalIds) {
+                remove(journalId);
+            }
+            for (Document document : documents) {
+                remove(document.getJournalId());
+                add(document);
+            }
+            if (removedCount >= MIN_COMPACT_REMOVED && removedCount > ordinals.size()) {
+                compact();
+            }
+            this.sequence = sequence;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 検索
+     * @param query 検索語（空白区切りで複数指定した場合はすべてを含む仕訳）
+     * @param offset 取得開始位置
+     * @param limit 取得件数
+     */
+    SearchResult search(String query, int offset, int limit) {
+        List<String> terms = terms(normalize(query));
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String term : terms) {
+            tokens.addAll(queryTokens(term));
+        }
+        if (tokens.isEmpty()) {
+            return new SearchResult(0, new ArrayList<>());
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int live = ordinals.size();
+            Postings[] lists = new Postings[tokens.size()];
+            int i = 0;
+            for (String token : tokens) {
+                Postings list = postings.get(token);
+                if (list == null) {
+                    return new SearchResult(0, new ArrayList<>());
+                }
+                lists[i++] = list;
+            }
+            // 最も短い出現リストを走査し、他の索引語の出現は二分探索で確認する
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            double[] idf = new double[lists.length];
+            for (int j = 0; j < lists.length; j++) {
+                // 出現数は無効な内部番号を含むため、有効な仕訳の数を上限とする
+                int df = Math.min(lists[j].size, live);
+                idf[j] = Math.log(1 + (live - df + 0.5) / (df + 0.5));
+            }
+            double averageLength = live > 0 ? (double) totalLength / live : 1;
+
+            Postings shortest = lists[0];
+            for (int k = 0; k < shortest.size; k++) {
+                Document document = documents.get(shortest.ordinals[k]);
+                if (document == null) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * document.getLength() / averageLength);
+                double score = idf[0] * bm25(shortest.frequencies[k], norm);
+                boolean matched = true;
+                for (int j = 1; j < lists.length && matched; j++) {
+                    int index = Arrays.binarySearch(lists[j].ordinals, 0, lists[j].size, shortest.ordinals[k]);
+                    if (index < 0) {
+                        matched = false;
+                    } else {
+                        score += idf[j] * bm25(lists[j].frequencies[index], norm);
+                    }
+                }
+                if (matched && containsAll(document.getText(), terms)) {
+                    hits.add(new Hit(document, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(RANKING);
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        return new SearchResult(hits.size(), new ArrayList<>(hits.subList(from, to)));
+    }
+
+    private static double bm25(int frequency, double norm) {
+        return frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private static boolean containsAll(String text, List<String> terms) {
+        for (String term : terms) {
+            if (!text.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(Document document) {
+        int ordinal = documents.size();
+        documents.add(document);
+        ordinals.put(document.getJournalId(), ordinal);
+        totalLength += document.getLength();
+        for (Map.Entry<String, Integer> entry : tokenFrequencies(document.getText()).entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new Postings()).add(ordinal, entry.getValue());
+        }
+    }
+
+    private void remove(Long journalId) {
+        Integer ordinal = ordinals.remove(journalId);
+        if (ordinal != null) {
+            totalLength -= documents.get(ordinal).getLength();
+            documents.set(ordinal, null);
+            removedCount++;
+        }
+    }
+
+    /**
+     * 有効な仕訳のみで出現リストを作り直す
+     */
+    private void compact() {
+        List<Document> live = new ArrayList<>(ordinals.size());
+        for (Document document : documents) {
+            if (document != null) {
+                live.add(document);
+            }
+        }
+        postings = new HashMap<>();
+        documents = new ArrayList<>(live.size());
+        ordinals.clear();
+        totalLength = 0;
+        removedCount = 0;
+        for (Document document : live) {
+            add(document);
+        }
+    }
+
+    /**
+     * 摘要の正規化（全角英数字・半角カナの統一と小文字化）
+     */
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 正規化した文字列を文字・数字の連続に分割
+     */
+    static List<String> terms(String normalized) {
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                terms.add(normalized.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            terms.add(normalized.substring(start));
+        }
+        return terms;
+    }
+
+    /**
+     * 検索語の索引語（1文字の場合はその文字、2文字以上の場合は bigram）
+     */
+    private static List<String> queryTokens(String term) {
+        int[] codePoints = term.codePoints().toArray();
+        List<String> tokens = new ArrayList<>();
+        if (codePoints.length == 1) {
+            tokens.add(term);
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+        return tokens;
+    }
+
+    /**
+     * 正規化した摘要の索引語（1文字と bigram）ごとの出現数
+     */
+    private static Map<String, Integer> tokenFrequencies(String normalized) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : terms(normalized)) {
+            int[] codePoints = term.codePoints().toArray();
+            for (int i = 0; i < codePoints.length; i++) {
+                frequencies.merge(new String(codePoints, i, 1), 1, Integer::sum);
+                if (i + 1 < codePoints.length) {
+                    frequencies.merge(new String(codePoints, i, 2), 1, Integer::sum);
+                }
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * 索引語の出現リスト（内部番号の昇順）
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    /**
+     * インデックスに登録する仕訳（正規化した摘要と表示用の項目を保持する）
+     */
+    static final class Document {
+        private final Long journalId;
+        private final LocalDate journalDate;
+        private final String journalNumber;
+        private final String description;
+        private final String text;
+        private final int length;
+
+        /**
+         * @param description 仕訳ヘッダーの摘要
+         * @param detailDescriptions 明細の摘要
+         */
+        Document(Long journalId, LocalDate journalDate, String journalNumber, String description,
+                 List<String> detailDescriptions) {
+            this.journalId = journalId;
+            this.journalDate = journalDate;
+            this.journalNumber = journalNumber;
+            this.description = description;
+            StringBuilder text = new StringBuilder();
+            if (description != null) {
+                text.append(normalize(description));
+            }
+            for (String detailDescription : detailDescriptions) {
+                text.append('\n').append(normalize(detailDescription));
+            }
+            this.text = text.toString();
+            int length = 0;
+            for (String term : terms(this.text)) {
+                length += term.codePointCount(0, term.length());
+            }
+            this.length = length;
+        }
+
+        Long getJournalId() { return journalId; }
+        LocalDate getJournalDate() { return journalDate; }
+        String getJournalNumber() { return journalNumber; }
+        String getDescription() { return description; }
+        String getText() { return text; }
+        int getLength() { return length; }
+    }
+
+    static final class Hit {
+        private final Document document;
+        private final double score;
+
+        Hit(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        Document getDocument() { return document; }
+        double getScore() { return score; }
+    }
+
+    static final class SearchResult {
+        private final int total;
+        private final List<Hit> hits;
+
+        SearchResult(int total, List<Hit> hits) {
+            this.total = total;
+            this.hits = hits;
+        }
+
+        int getTotal() { return total; }
+        List<Hit> getHits() { return hits; }
+    }
+}
@@ -0,0 +1,258 @@
+package com.accounting.app.service;
+
+import com.accounting.app.cache.LruCache;
+import com.accounting.app.dto.response.JournalSearchHit;
+import com.accounting.app.dto.response.JournalSearchRebuildResponse;
+import com.accounting.app.entity.OutboxEvent;
+import com.accounting.app.entity.OutboxSequence;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.repository.JournalDetailRepository;
+import com.accounting.app.repository.JournalRepository;
+import com.accounting.app.repository.OutboxEventRepository;
+import com.accounting.app.repository.OutboxSequenceRepository;
+import com.accounting.app.repository.projection.JournalDescription;
+import com.accounting.app.repository.projection.JournalDetailDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 仕訳の摘要検索サービス
+ * 会社ごとの転置インデックスをメモリ上に保持し、検索のたびに変更イベント（アウトボックス）の
+ * 連番を確認して、インデックス作成後に変更・削除された仕訳だけを読み直して反映する。
+ * 変更イベントが保持期間を過ぎて削除されていた場合はインデックスを作り直す。
+ */
+@Service
+public class JournalSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalSearchService.class);
+
+    /** 検索語の最大文字数 */
+    private static final int MAX_QUERY_LENGTH = 100;
+    /** 1ページの最大件数 */
+    private static final int MAX_PAGE_SIZE = 100;
+    /** 変更イベント・仕訳を読み出す件数の単位 */
+    private static final int BATCH_SIZE = 500;
+
+    private final JournalRepository journalRepository;
+    private final JournalDetailRepository journalDetailRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSequenceRepository outboxSequenceRepository;
+    private final LruCache<Long, JournalSearchIndex> indexes;
+    /** インデックス作成中の会社ごとのロック（同じ会社の作成を重複させない） */
+    private final Map<Long, Object> buildLocks = new ConcurrentHashMap<>();
+
+    public JournalSearchService(
+            JournalRepository journalRepository,
+            JournalDetailRepository journalDetailRepository,
+            OutboxEventRepository outboxEventRepository,
+            OutboxSequenceRepository outboxSequenceRepository,
+            @Value("${app.journal-search.max-companies:50}") int maxCompanies,
+            @Value("${app.journal-search.ttl-minutes:1440}") long ttlMinutes) {
+        this.journalRepository = journalRepository;
+        this.journalDetailRepository = journalDetailRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSequenceRepository = outboxSequenceRepository;
+        this.indexes = new LruCache<>(maxCompanies, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * 仕訳ヘッダー・明細の摘要を検索（関連度の高い順、同じ場合は仕訳日付の新しい順）
+     * @param companyId 会社ID
+     * @param query 検索語（空白区切りで複数指定した場合はすべてを含む仕訳）
+     * @param pageable ページ指定（1ページの最大件数は100）
+     * @return 検索結果
+     */
+    @Transactional(readOnly = true)
+    public Page<JournalSearchHit> search(Long companyId, String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("検索語を指定してください");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("検索語は" + MAX_QUERY_LENGTH + "文字以内で指定してください");
+        }
+        if (JournalSearchIndex.terms(JournalSearchIndex.normalize(query)).isEmpty()) {
+            throw new BadRequestException("検索語に文字または数字を含めてください");
+        }
+        if (pageable.isPaged() && pageable.getPageSize() > MAX_PAGE_SIZE) {
+            pageable = PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort());
+        }
+        int offset = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE) : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : MAX_PAGE_SIZE;
+
+        JournalSearchIndex index = getIndex(companyId);
+        JournalSearchIndex.SearchResult result = index.search(query, offset, limit);
+
+        List<JournalSearchHit> hits = result.getHits().stream()
+                .map(hit -> new JournalSearchHit(
+                        hit.getDocument().getJournalId(),
+                        hit.getDocument().getJournalNumber(),
+                        hit.getDocument().getJournalDate(),
+                        hit.getDocument().getDescription(),
+                        hit.getScore()))
+                .collect(Collectors.toList());
+        return new PageImpl<>(hits, pageable.isPaged() ? pageable : PageRequest.of(0, limit), result.getTotal());
+    }
+
+    /**
+     * 会社のインデックスをDBから作り直す
+     * 変更イベントを経由しないDBの直接更新を反映する場合に使用する
+     * @param companyId 会社ID
+     * @return 作成結果
+     */
+    @Transactional(readOnly = true)
+    public JournalSearchRebuildResponse rebuild(Long companyId) {
+        synchronized (buildLock(companyId)) {
+            JournalSearchIndex index = build(companyId);
+            indexes.put(companyId, index);
+            return new JournalSearchRebuildResponse(companyId, index.size());
+        }
+    }
+
+    /**
+     * 会社のインデックスを取得し、未反映の変更を反映する（無い場合は作成）
+     */
+    private JournalSearchIndex getIndex(Long companyId) {
+        JournalSearchIndex index = indexes.get(companyId);
+        if (index == null) {
+            synchronized (buildLock(companyId)) {
+                index = indexes.get(companyId);
+                if (index == null) {
+                    index = build(companyId);
+                    indexes.put(companyId, index);
+                    return index;
+                }
+            }
+        }
+
+        long lastSequence = lastSequence(companyId);
+        if (lastSequence <= index.getSequence()) {
+            return index;
+        }
+        synchronized (index) {
+            if (!catchUp(companyId, index, lastSequence)) {
+                // 未反映の変更イベントが削除済みのため作り直す
+                synchronized (buildLock(companyId)) {
+                    index = build(companyId);
+                    indexes.put(companyId, index);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * インデックスの連番より後の変更イベントを反映
+     * @return 変更イベントが連続して残っていない場合は false
+     */
+    private boolean catchUp(Long companyId, JournalSearchIndex index, long lastSequence) {
+        while (index.getSequence() < lastSequence) {
+            long sequence = index.getSequence();
+            List<OutboxEvent> events = outboxEventRepository
+                    .findByCompanyIdAndSequenceNumberGreaterThanOrderBySequenceNumber(
+                            companyId, sequence, PageRequest.of(0, BATCH_SIZE));
+            if (events.isEmpty() || events.get(0).getSequenceNumber() != sequence + 1) {
+                return false;
+            }
+
+            Set<Long> journalIds = new LinkedHashSet<>();
+            for (OutboxEvent event : events) {
+                if (event.getAggregateType() == OutboxEvent.AggregateType.JOURNAL) {
+                    journalIds.add(event.getAggregateId());
+                }
+            }
+            List<JournalSearchIndex.Document> documents = load(companyId, journalIds);
+            Set<Long> removed = new HashSet<>(journalIds);
+            for (JournalSearchIndex.Document document : documents) {
+                removed.remove(document.getJournalId());
+            }
+            index.update(documents, removed, events.get(events.size() - 1).getSequenceNumber());
+        }
+        return true;
+    }
+
+    /**
+     * 会社の全仕訳からインデックスを作成
+     * 連番を先に読むため、読み込み中に登録された仕訳は次回の検索で変更イベントから再度反映される
+     */
+    private JournalSearchIndex build(Long companyId) {
+        long sequence = lastSequence(companyId);
+
+        List<JournalDescription> journals = journalRepository.findDescriptionsByCompanyId(companyId);
+        Map<Long, List<String>> detailDescriptions = new HashMap<>();
+        for (JournalDetailDescription detail : journalDetailRepository.findDescriptionsByCompanyId(companyId)) {
+            detailDescriptions.computeIfAbsent(detail.getJournalId(), key -> new ArrayList<>())
+                    .add(detail.getDescription());
+        }
+
+        List<JournalSearchIndex.Document> documents = new ArrayList<>(journals.size());
+        for (JournalDescription journal : journals) {
+            documents.add(toDocument(journal, detailDescriptions.getOrDefault(journal.getJournalId(), List.of())));
+        }
+
+        JournalSearchIndex index = new JournalSearchIndex(sequence);
+        index.update(documents, List.of(), sequence);
+        logger.info("仕訳の摘要検索インデックスを作成しました: companyId={}, journals={}", companyId, documents.size());
+        return index;
+    }
+
+    /**
+     * 指定した仕訳を読み込む（削除済みの仕訳は含まない）
+     */
+    private List<JournalSearchIndex.Document> load(Long companyId, Set<Long> journalIds) {
+        List<Long> ids = new ArrayList<>(journalIds);
+        List<JournalSearchIndex.Document> documents = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            List<JournalDescription> journals = journalRepository.findDescriptionsByIds(companyId, chunk);
+            if (journals.isEmpty()) {
+                continue;
+            }
+            Map<Long, List<String>> detailDescriptions = new HashMap<>();
+            List<Long> foundIds = journals.stream()
+                    .map(JournalDescription::getJournalId)
+                    .collect(Collectors.toList());
+            for (JournalDetailDescription detail : journalDetailRepository.findDescriptionsByJournalIds(foundIds)) {
+                detailDescriptions.computeIfAbsent(detail.getJournalId(), key -> new ArrayList<>())
+                        .add(detail.getDescription());
+            }
+            for (JournalDescription journal : journals) {
+                documents.add(toDocument(journal,
+                        detailDescriptions.getOrDefault(journal.getJournalId(), List.of())));
+            }
+        }
+        return documents;
+    }
+
+    private JournalSearchIndex.Document toDocument(JournalDescription journal, List<String> detailDescriptions) {
+        return new JournalSearchIndex.Document(journal.getJournalId(), journal.getJournalDate(),
+                journal.getJournalNumber(), journal.getDescription(), detailDescriptions);
+    }
+
+    private long lastSequence(Long companyId) {
+        return outboxSequenceRepository.findById(companyId)
+                .map(OutboxSequence::getLastSequence)
+                .orElse(0L);
+    }
+
+    private Object buildLock(Long companyId) {
+        return buildLocks.computeIfAbsent(companyId, key -> new Object());
+    }
+}
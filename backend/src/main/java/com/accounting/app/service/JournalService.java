@@ -11,10 +11,14 @@ import com.accounting.app.exception.ResourceNotFoundException;
 import com.accounting.app.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,26 +27,29 @@ public class JournalService {
 
     private final JournalRepository journalRepository;
     private final JournalDetailRepository journalDetailRepository;
-    private final FiscalPeriodRepository fiscalPeriodRepository;
-    private final AccountRepository accountRepository;
-    private final SubAccountRepository subAccountRepository;
-    private final TaxTypeRepository taxTypeRepository;
-    private final PartnerRepository partnerRepository;
+    private final FiscalPeriodIndex fiscalPeriodIndex;
+    private final AccountBalanceRollupService accountBalanceRollupService;
+    private final ClosingBalanceService closingBalanceService;
+    private final MasterDataResolver masterDataResolver;
+    private final DocumentNumberService documentNumberService;
+    private final OutboxService outboxService;
 
     public JournalService(JournalRepository journalRepository,
                          JournalDetailRepository journalDetailRepository,
-                         FiscalPeriodRepository fiscalPeriodRepository,
-                         AccountRepository accountRepository,
-                         SubAccountRepository subAccountRepository,
-                         TaxTypeRepository taxTypeRepository,
-                         PartnerRepository partnerRepository) {
+                         FiscalPeriodIndex fiscalPeriodIndex,
+                         AccountBalanceRollupService accountBalanceRollupService,
+                         ClosingBalanceService closingBalanceService,
+                         MasterDataResolver masterDataResolver,
+                         DocumentNumberService documentNumberService,
+                         OutboxService outboxService) {
         this.journalRepository = journalRepository;
         this.journalDetailRepository = journalDetailRepository;
-        this.fiscalPeriodRepository = fiscalPeriodRepository;
-        this.accountRepository = accountRepository;
-        this.subAccountRepository = subAccountRepository;
-        this.taxTypeRepository = taxTypeRepository;
-        this.partnerRepository = partnerRepository;
+        this.fiscalPeriodIndex = fiscalPeriodIndex;
+        this.accountBalanceRollupService = accountBalanceRollupService;
+        this.closingBalanceService = closingBalanceService;
+        this.masterDataResolver = masterDataResolver;
+        this.documentNumberService = documentNumberService;
+        this.outboxService = outboxService;
     }
 
     @Transactional(readOnly = true)
@@ -60,53 +67,72 @@ public class JournalService {
     }
 
     public JournalResponse create(Long companyId, JournalRequest request) {
-        // 仕訳番号の重複チェック
-        if (journalRepository.existsByCompanyIdAndJournalNumber(companyId, request.getJournalNumber())) {
-            throw new BadRequestException("仕訳番号 '" + request.getJournalNumber() + "' は既に使用されています");
+        // 仕訳番号の重複チェック（未指定の場合は会計期間の確定後に採番する）
+        boolean numberSpecified = StringUtils.hasText(request.getJournalNumber());
+        if (numberSpecified) {
+            validateJournalNumberNotUsed(companyId, request.getJournalNumber());
         }
 
         // 借方貸方バランスチェック
         validateDebitCreditBalance(request.getDetails());
 
         // 会計期間の取得と検証
-        FiscalPeriod fiscalPeriod = fiscalPeriodRepository
-                .findByCompanyIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                        companyId, request.getJournalDate(), request.getJournalDate())
-                .orElseThrow(() -> new BusinessException("FISCAL_PERIOD_NOT_FOUND",
-                        "仕訳日に対応する会計期間が見つかりません"));
-
-        if (fiscalPeriod.getIsClosed()) {
-            throw new BusinessException("FISCAL_PERIOD_CLOSED",
-                    "締められた会計期間には仕訳を登録できません");
-        }
+        FiscalPeriodIndex.Period fiscalPeriod = findOpenFiscalPeriod(companyId, request.getJournalDate());
 
         // Journal作成
         Journal journal = new Journal();
         journal.setJournalDate(request.getJournalDate());
-        journal.setJournalNumber(request.getJournalNumber());
+        journal.setJournalNumber(numberSpecified ? request.getJournalNumber()
+                : nextJournalNumber(companyId, fiscalPeriod));
         journal.setDescription(request.getDescription());
-        journal.setFiscalPeriod(fiscalPeriod);
+        journal.setFiscalPeriod(fiscalPeriod.toEntity());
 
         Company company = new Company();
         company.setId(companyId);
         journal.setCompany(company);
 
-        // JournalDetail作成
+        // JournalDetail作成（参照マスタは一括取得）
+        MasterDataResolver.MasterData masters = masterDataResolver.forJournal(companyId, request.getDetails());
         for (JournalDetailRequest detailReq : request.getDetails()) {
-            JournalDetail detail = createJournalDetail(detailReq);
+            JournalDetail detail = createJournalDetail(detailReq, masters);
             journal.addDetail(detail);
         }
 
         Journal saved = journalRepository.save(journal);
+
+        // 勘定科目期間残高の更新
+        accountBalanceRollupService.addJournal(saved);
+        closingBalanceService.discardFrom(companyId, saved.getJournalDate());
+        fiscalPeriodIndex.lockForPosting(companyId, Collections.singletonList(fiscalPeriod));
+        outboxService.recordJournal(OutboxEvent.EventType.CREATED, saved, null);
+
         return JournalResponse.from(saved);
     }
 
+    /**
+     * 仕訳を登録せずに検証し、仕訳番号を確定する（非同期登録の受付時に使用）
+     * 登録時にも同じ検証を行うため、受付から登録までの間のマスタ変更などは登録時にエラーとなる
+     * @return 仕訳番号（未指定の場合は採番した番号）
+     */
+    @Transactional(readOnly = true)
+    public String validateForCreate(Long companyId, JournalRequest request) {
+        boolean numberSpecified = StringUtils.hasText(request.getJournalNumber());
+        if (numberSpecified) {
+            validateJournalNumberNotUsed(companyId, request.getJournalNumber());
+        }
+        validateDebitCreditBalance(request.getDetails());
+        FiscalPeriodIndex.Period fiscalPeriod = findOpenFiscalPeriod(companyId, request.getJournalDate());
+        masterDataResolver.forJournal(companyId, request.getDetails());
+        return numberSpecified ? request.getJournalNumber() : nextJournalNumber(companyId, fiscalPeriod);
+    }
+
     public JournalResponse update(Long id, JournalRequest request) {
         Journal journal = journalRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Journal", "id", id));
 
         // 会計期間の締め状態チェック
-        if (journal.getFiscalPeriod().getIsClosed()) {
+        FiscalPeriodIndex.Period fiscalPeriod = findJournalFiscalPeriod(journal);
+        if (fiscalPeriod.isClosed()) {
             throw new BusinessException("FISCAL_PERIOD_CLOSED",
                     "締められた会計期間の仕訳は変更できません");
         }
@@ -114,26 +140,52 @@ public class JournalService {
         // 借方貸方バランスチェック
         validateDebitCreditBalance(request.getDetails());
 
-        // 仕訳番号変更時の重複チェック
-        if (!journal.getJournalNumber().equals(request.getJournalNumber())) {
+        // 仕訳番号変更時の重複チェック（未指定の場合は変更しない）
+        String journalNumber = StringUtils.hasText(request.getJournalNumber())
+                ? request.getJournalNumber() : journal.getJournalNumber();
+        if (!journal.getJournalNumber().equals(journalNumber)) {
             if (journalRepository.existsByCompanyIdAndJournalNumber(
-                    journal.getCompany().getId(), request.getJournalNumber())) {
-                throw new BadRequestException("仕訳番号 '" + request.getJournalNumber() + "' は既に使用されています");
+                    journal.getCompany().getId(), journalNumber)) {
+                throw new BadRequestException("仕訳番号 '" + journalNumber + "' は既に使用されています");
             }
         }
 
+        // 変更前の明細を勘定科目期間残高から減算
+        AccountBalanceDelta delta = new AccountBalanceDelta(journal.getCompany().getId()).add(journal, -1);
+        LocalDate previousDate = journal.getJournalDate();
+
         journal.setJournalDate(request.getJournalDate());
-        journal.setJournalNumber(request.getJournalNumber());
+        journal.setJournalNumber(journalNumber);
         journal.setDescription(request.getDescription());
 
-        // 既存の明細を削除して新規作成
-        journal.getDetails().clear();
+        // 明細の差分更新（ID・行番号で既存の明細と対応付け、変更・追加・削除された行のみ書き込む）
+        MasterDataResolver.MasterData masters = masterDataResolver.forJournal(
+                journal.getCompany().getId(), request.getDetails());
+        Map<JournalDetailRequest, JournalDetail> matches = DetailMatcher.match(
+                journal.getDetails(), request.getDetails(),
+                JournalDetail::getId, JournalDetail::getLineNumber,
+                JournalDetailRequest::getId, JournalDetailRequest::getLineNumber, "JournalDetail");
+        DetailMatcher.removeUnmatched(journal.getDetails(), matches);
         for (JournalDetailRequest detailReq : request.getDetails()) {
-            JournalDetail detail = createJournalDetail(detailReq);
-            journal.addDetail(detail);
+            JournalDetail detail = matches.get(detailReq);
+            if (detail != null) {
+                applyJournalDetail(detail, detailReq, masters);
+            } else {
+                journal.addDetail(createJournalDetail(detailReq, masters));
+            }
         }
+        journal.getDetails().sort(Comparator.comparing(JournalDetail::getLineNumber));
 
         Journal updated = journalRepository.save(journal);
+
+        // 変更後の明細を加算して勘定科目期間残高を更新
+        delta.add(updated, 1);
+        accountBalanceRollupService.apply(delta);
+        closingBalanceService.discardFrom(updated.getCompany().getId(),
+                previousDate.isBefore(updated.getJournalDate()) ? previousDate : updated.getJournalDate());
+        fiscalPeriodIndex.lockForPosting(updated.getCompany().getId(), Collections.singletonList(fiscalPeriod));
+        outboxService.recordJournal(OutboxEvent.EventType.UPDATED, updated, previousDate);
+
         return JournalResponse.from(updated);
     }
 
@@ -141,12 +193,19 @@ public class JournalService {
         Journal journal = journalRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Journal", "id", id));
 
-        if (journal.getFiscalPeriod().getIsClosed()) {
+        FiscalPeriodIndex.Period fiscalPeriod = findJournalFiscalPeriod(journal);
+        if (fiscalPeriod.isClosed()) {
             throw new BusinessException("FISCAL_PERIOD_CLOSED",
                     "締められた会計期間の仕訳は削除できません");
         }
 
-        journalRepository.deleteById(id);
+        // 勘定科目期間残高から減算
+        accountBalanceRollupService.removeJournal(journal);
+
+        journalRepository.delete(journal);
+        closingBalanceService.discardFrom(journal.getCompany().getId(), journal.getJournalDate());
+        fiscalPeriodIndex.lockForPosting(journal.getCompany().getId(), Collections.singletonList(fiscalPeriod));
+        outboxService.recordJournal(OutboxEvent.EventType.DELETED, journal, null);
     }
 
     @Transactional(readOnly = true)
@@ -157,7 +216,45 @@ public class JournalService {
                 .collect(Collectors.toList());
     }
 
-    private void validateDebitCreditBalance(List<JournalDetailRequest> details) {
+    private void validateJournalNumberNotUsed(Long companyId, String journalNumber) {
+        if (journalRepository.existsByCompanyIdAndJournalNumber(companyId, journalNumber)) {
+            throw new BadRequestException("仕訳番号 '" + journalNumber + "' は既に使用されています");
+        }
+    }
+
+    /**
+     * 仕訳日に対応する会計期間を取得（締め済みの場合はエラー）
+     */
+    private FiscalPeriodIndex.Period findOpenFiscalPeriod(Long companyId, LocalDate journalDate) {
+        FiscalPeriodIndex.Period fiscalPeriod = fiscalPeriodIndex.find(companyId, journalDate)
+                .orElseThrow(() -> new BusinessException("FISCAL_PERIOD_NOT_FOUND",
+                        "仕訳日に対応する会計期間が見つかりません"));
+
+        if (fiscalPeriod.isClosed()) {
+            throw new BusinessException("FISCAL_PERIOD_CLOSED",
+                    "締められた会計期間には仕訳を登録できません");
+        }
+        return fiscalPeriod;
+    }
+
+    /**
+     * 登録済みの仕訳の会計期間を取得
+     */
+    private FiscalPeriodIndex.Period findJournalFiscalPeriod(Journal journal) {
+        Long fiscalPeriodId = journal.getFiscalPeriod().getId();
+        return fiscalPeriodIndex.findById(journal.getCompany().getId(), fiscalPeriodId)
+                .orElseThrow(() -> new ResourceNotFoundException("FiscalPeriod", "id", fiscalPeriodId));
+    }
+
+    private String nextJournalNumber(Long companyId, FiscalPeriodIndex.Period fiscalPeriod) {
+        return documentNumberService.next(DocumentNumberService.SequenceType.JOURNAL, companyId, fiscalPeriod.toEntity(),
+                number -> journalRepository.existsByCompanyIdAndJournalNumber(companyId, number));
+    }
+
+    /**
+     * 借方合計と貸方合計の一致を確認（定期仕訳テンプレートの検証でも使用）
+     */
+    static void validateDebitCreditBalance(List<JournalDetailRequest> details) {
         BigDecimal debitTotal = BigDecimal.ZERO;
         BigDecimal creditTotal = BigDecimal.ZERO;
 
@@ -175,36 +272,22 @@ public class JournalService {
         }
     }
 
-    private JournalDetail createJournalDetail(JournalDetailRequest request) {
+    private JournalDetail createJournalDetail(JournalDetailRequest request, MasterDataResolver.MasterData masters) {
         JournalDetail detail = new JournalDetail();
+        applyJournalDetail(detail, request, masters);
+        return detail;
+    }
+
+    private void applyJournalDetail(JournalDetail detail, JournalDetailRequest request,
+                                    MasterDataResolver.MasterData masters) {
         detail.setLineNumber(request.getLineNumber());
         detail.setEntryType(EntryType.valueOf(request.getEntryType()));
         detail.setAmount(request.getAmount());
         detail.setTaxAmount(request.getTaxAmount());
         detail.setDescription(request.getDescription());
-
-        Account account = accountRepository.findById(request.getAccountId())
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", request.getAccountId()));
-        detail.setAccount(account);
-
-        if (request.getSubAccountId() != null) {
-            SubAccount subAccount = subAccountRepository.findById(request.getSubAccountId())
-                    .orElseThrow(() -> new ResourceNotFoundException("SubAccount", "id", request.getSubAccountId()));
-            detail.setSubAccount(subAccount);
-        }
-
-        if (request.getTaxTypeId() != null) {
-            TaxType taxType = taxTypeRepository.findById(request.getTaxTypeId())
-                    .orElseThrow(() -> new ResourceNotFoundException("TaxType", "id", request.getTaxTypeId()));
-            detail.setTaxType(taxType);
-        }
-
-        if (request.getPartnerId() != null) {
-            Partner partner = partnerRepository.findById(request.getPartnerId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Partner", "id", request.getPartnerId()));
-            detail.setPartner(partner);
-        }
-
-        return detail;
+        detail.setAccount(masters.account(request.getAccountId()));
+        detail.setSubAccount(masters.subAccount(request.getSubAccountId()));
+        detail.setTaxType(masters.taxType(request.getTaxTypeId()));
+        detail.setPartner(masters.partner(request.getPartnerId()));
     }
 }
@@ -0,0 +1,69 @@
+package com.accounting.app.service;
+
+import com.accounting.app.repository.LedgerVersionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 元帳バージョンサービス
+ * レポート結果に影響する更新と同一トランザクションで呼び出し、会社の元帳バージョンを進める
+ */
+@Service
+@Transactional
+public class LedgerVersionService {
+
+    private final LedgerVersionRepository ledgerVersionRepository;
+    private final ReportCacheService reportCacheService;
+
+    public LedgerVersionService(
+            LedgerVersionRepository ledgerVersionRepository,
+            ReportCacheService reportCacheService) {
+        this.ledgerVersionRepository = ledgerVersionRepository;
+        this.reportCacheService = reportCacheService;
+    }
+
+    /**
+     * 元帳バージョンを1加算
+     * コミット後に会社のレポートキャッシュを削除する（古いバージョンの結果を早期に解放するため）
+     */
+    public void bump(Long companyId) {
+        ledgerVersionRepository.increment(companyId);
+        invalidateCacheAfterCommit(companyId);
+    }
+
+    /**
+     * 会計期間バージョンが指定した値の場合のみ元帳バージョンを1加算
+     * @return 加算した場合はtrue（会計期間が変更されていた場合はfalse）
+     */
+    public boolean bumpIfPeriodVersion(Long companyId, long periodVersion) {
+        if (!ledgerVersionRepository.incrementIfPeriodVersion(companyId, periodVersion)) {
+            return false;
+        }
+        invalidateCacheAfterCommit(companyId);
+        return true;
+    }
+
+    /**
+     * 会計期間の変更時に元帳バージョンと会計期間バージョンを1加算
+     * 変更の前に呼び出し、仕訳の登録との排他に使用する行ロックを取得する
+     * @return 加算後の会計期間バージョン
+     */
+    public long bumpPeriods(Long companyId) {
+        ledgerVersionRepository.incrementWithPeriodVersion(companyId);
+        invalidateCacheAfterCommit(companyId);
+        return ledgerVersionRepository.findPeriodVersion(companyId);
+    }
+
+    private void invalidateCacheAfterCommit(Long companyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reportCacheService.invalidateCompany(companyId);
+                }
+            });
+        }
+    }
+}
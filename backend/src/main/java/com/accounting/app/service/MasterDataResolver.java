@@ -0,0 +1,170 @@
+package com.accounting.app.service;
+
+import com.accounting.app.dto.request.InvoiceDetailRequest;
+import com.accounting.app.dto.request.JournalDetailRequest;
+import com.accounting.app.entity.*;
+import com.accounting.app.exception.ResourceNotFoundException;
+import com.accounting.app.repository.*;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 仕訳・請求書の明細が参照するマスタの一括取得
+ *
+ * リクエスト内の全明細から参照IDを集め、マスタの種類ごとに1回の findAllById で読み込む。
+ * 明細行数によらずクエリ数は種類数までとなる。
+ * 存在しないID・他社のマスタを参照している場合は ResourceNotFoundException とする。
+ */
+@Component
+public class MasterDataResolver {
+
+    private final AccountRepository accountRepository;
+    private final SubAccountRepository subAccountRepository;
+    private final TaxTypeRepository taxTypeRepository;
+    private final PartnerRepository partnerRepository;
+    private final ItemRepository itemRepository;
+
+    public MasterDataResolver(AccountRepository accountRepository,
+                              SubAccountRepository subAccountRepository,
+                              TaxTypeRepository taxTypeRepository,
+                              PartnerRepository partnerRepository,
+                              ItemRepository itemRepository) {
+        this.accountRepository = accountRepository;
+        this.subAccountRepository = subAccountRepository;
+        this.taxTypeRepository = taxTypeRepository;
+        this.partnerRepository = partnerRepository;
+        this.itemRepository = itemRepository;
+    }
+
+    /**
+     * 仕訳明細が参照する勘定科目・補助科目・税区分・取引先を取得
+     * @param companyId 仕訳の会社ID
+     * @param details 仕訳明細リクエスト
+     */
+    public MasterData forJournal(Long companyId, List<JournalDetailRequest> details) {
+        Set<Long> accountIds = new LinkedHashSet<>();
+        Set<Long> subAccountIds = new LinkedHashSet<>();
+        Set<Long> taxTypeIds = new LinkedHashSet<>();
+        Set<Long> partnerIds = new LinkedHashSet<>();
+        for (JournalDetailRequest detail : details) {
+            addId(accountIds, detail.getAccountId());
+            addId(subAccountIds, detail.getSubAccountId());
+            addId(taxTypeIds, detail.getTaxTypeId());
+            addId(partnerIds, detail.getPartnerId());
+        }
+
+        MasterData data = new MasterData();
+        data.accounts = load("Account", accountRepository, accountIds, companyId,
+                Account::getId, Account::getCompany);
+        data.subAccounts = load("SubAccount", subAccountRepository, subAccountIds, companyId,
+                SubAccount::getId, SubAccount::getCompany);
+        data.taxTypes = load("TaxType", taxTypeRepository, taxTypeIds, companyId,
+                TaxType::getId, TaxType::getCompany);
+        data.partners = load("Partner", partnerRepository, partnerIds, companyId,
+                Partner::getId, Partner::getCompany);
+        return data;
+    }
+
+    /**
+     * 請求書の取引先と明細が参照する品目・税区分を取得
+     * @param companyId 請求書の会社ID
+     * @param partnerId 請求先の取引先ID
+     * @param details 請求書明細リクエスト
+     */
+    public MasterData forInvoice(Long companyId, Long partnerId, List<InvoiceDetailRequest> details) {
+        Set<Long> itemIds = new LinkedHashSet<>();
+        Set<Long> taxTypeIds = new LinkedHashSet<>();
+        for (InvoiceDetailRequest detail : details) {
+            addId(itemIds, detail.getItemId());
+            addId(taxTypeIds, detail.getTaxTypeId());
+        }
+        Set<Long> partnerIds = new LinkedHashSet<>();
+        addId(partnerIds, partnerId);
+
+        MasterData data = new MasterData();
+        data.partners = load("Partner", partnerRepository, partnerIds, companyId,
+                Partner::getId, Partner::getCompany);
+        data.items = load("Item", itemRepository, itemIds, companyId,
+                Item::getId, Item::getCompany);
+        data.taxTypes = load("TaxType", taxTypeRepository, taxTypeIds, companyId,
+                TaxType::getId, TaxType::getCompany);
+        return data;
+    }
+
+    private static void addId(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    /**
+     * IDの一覧を1回で読み込み、全IDが存在し指定した会社のものであることを確認する
+     */
+    private static <T> Map<Long, T> load(String resourceName, JpaRepository<T, Long> repository, Set<Long> ids,
+                                         Long companyId, Function<T, Long> idOf, Function<T, Company> companyOf) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, T> entities = new HashMap<>(ids.size() * 2);
+        for (T entity : repository.findAllById(ids)) {
+            // 会社は遅延読み込みのプロキシのため、IDの取得では追加のクエリは発生しない
+            if (Objects.equals(companyOf.apply(entity).getId(), companyId)) {
+                entities.put(idOf.apply(entity), entity);
+            }
+        }
+        for (Long id : ids) {
+            if (!entities.containsKey(id)) {
+                throw new ResourceNotFoundException(resourceName, "id", id);
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * 一括取得したマスタ（IDで参照、未指定のIDにはnullを返す）
+     */
+    public static final class MasterData {
+
+        private Map<Long, Account> accounts = Collections.emptyMap();
+        private Map<Long, SubAccount> subAccounts = Collections.emptyMap();
+        private Map<Long, TaxType> taxTypes = Collections.emptyMap();
+        private Map<Long, Partner> partners = Collections.emptyMap();
+        private Map<Long, Item> items = Collections.emptyMap();
+
+        private MasterData() {
+        }
+
+        public Account account(Long id) {
+            return get(accounts, id);
+        }
+
+        public SubAccount subAccount(Long id) {
+            return get(subAccounts, id);
+        }
+
+        public TaxType taxType(Long id) {
+            return get(taxTypes, id);
+        }
+
+        public Partner partner(Long id) {
+            return get(partners, id);
+        }
+
+        public Item item(Long id) {
+            return get(items, id);
+        }
+
+        private static <T> T get(Map<Long, T> entities, Long id) {
+            return id != null ? entities.get(id) : null;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.accounting.app.service;
+
+import com.accounting.app.entity.OutboxCursor;
+import com.accounting.app.entity.OutboxEvent;
+import com.accounting.app.entity.OutboxSequence;
+import com.accounting.app.repository.OutboxCursorRepository;
+import com.accounting.app.repository.OutboxEventRepository;
+import com.accounting.app.repository.OutboxSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 変更イベントの配信サービス
+ * 登録された {@link OutboxEventListener} へ、会社ごとに連番順で変更イベントを配信する。
+ *
+ * 配信は1スレッドで行い、コミット直後の通知と一定間隔の確認で起動する。
+ * リスナー・会社ごとの配信位置はDBに保存し、配信位置の行ロックを保持したまま配信するため、
+ * 複数のアプリケーションが同じイベントを同時に配信することはない。
+ * 保持期間を過ぎた変更イベントは定期的に削除する。
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSequenceRepository outboxSequenceRepository;
+    private final OutboxCursorRepository outboxCursorRepository;
+    private final List<OutboxEventListener> listeners;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private final boolean enabled;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final long retentionDays;
+    private volatile boolean started;
+
+    public OutboxDispatcher(
+            OutboxEventRepository outboxEventRepository,
+            OutboxSequenceRepository outboxSequenceRepository,
+            OutboxCursorRepository outboxCursorRepository,
+            ObjectProvider<OutboxEventListener> listeners,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.outbox.dispatcher.enabled:true}") boolean enabled,
+            @Value("${app.outbox.dispatcher.poll-interval-millis:5000}") long pollIntervalMillis,
+            @Value("${app.outbox.dispatcher.batch-size:500}") int batchSize,
+            @Value("${app.outbox.retention-days:7}") long retentionDays) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSequenceRepository = outboxSequenceRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.listeners = listeners.orderedStream().collect(Collectors.toList());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pollIntervalMillis = Math.max(100, pollIntervalMillis);
+        this.batchSize = Math.max(1, batchSize);
+        this.retentionDays = retentionDays;
+
+        Set<String> names = new HashSet<>();
+        for (OutboxEventListener listener : this.listeners) {
+            if (!names.add(listener.getName())) {
+                throw new IllegalStateException("Duplicate outbox listener name: " + listener.getName());
+            }
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 配信と削除を開始（起動完了時）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled && !listeners.isEmpty()) {
+            started = true;
+            executor.scheduleWithFixedDelay(this::dispatchAll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+            logger.info("変更イベントの配信を開始しました: listeners={}",
+                    listeners.stream().map(OutboxEventListener::getName).collect(Collectors.toList()));
+        }
+        if (retentionDays > 0) {
+            executor.scheduleWithFixedDelay(this::purgeExpired, 1, 60, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * 変更イベントのコミット後に呼び出され、配信を前倒しする
+     * 実行待ちの配信がある場合は追加しない
+     */
+    public void wakeUp() {
+        if (started && wakeUpPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                dispatchAll();
+            });
+        }
+    }
+
+    /**
+     * 全リスナー・全会社の未配信のイベントを配信
+     */
+    void dispatchAll() {
+        try {
+            List<OutboxSequence> sequences = outboxSequenceRepository.findAll();
+            for (OutboxEventListener listener : listeners) {
+                Map<Long, Long> cursors = new HashMap<>();
+                for (OutboxCursor cursor : outboxCursorRepository.findByListenerName(listener.getName())) {
+                    cursors.put(cursor.getCompanyId(), cursor.getLastSequence());
+                }
+                for (OutboxSequence sequence : sequences) {
+                    if (cursors.getOrDefault(sequence.getCompanyId(), 0L) < sequence.getLastSequence()) {
+                        dispatch(listener, sequence.getCompanyId());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("変更イベントの配信に失敗しました", e);
+        }
+    }
+
+    /**
+     * 1リスナー・1会社の未配信のイベントを batch-size 件ずつ配信
+     * リスナーが例外を送出した場合は配信位置を進めず、次回の配信で再試行する
+     */
+    private void dispatch(OutboxEventListener listener, Long companyId) {
+        try {
+            boolean more = true;
+            while (more) {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    long last = outboxCursorRepository.lock(listener.getName(), companyId);
+                    List<OutboxEvent> events = outboxEventRepository
+                            .findByCompanyIdAndSequenceNumberGreaterThanOrderBySequenceNumber(
+                                    companyId, last, PageRequest.of(0, batchSize));
+                    if (events.isEmpty()) {
+                        return false;
+                    }
+                    long first = events.get(0).getSequenceNumber();
+                    if (first != last + 1) {
+                        logger.warn("保持期間を過ぎて削除された変更イベントがあります: listener={}, companyId={}, sequence={}-{}",
+                                listener.getName(), companyId, last + 1, first - 1);
+                    }
+                    listener.onEvents(companyId, events);
+                    outboxCursorRepository.advance(listener.getName(), companyId,
+                            events.get(events.size() - 1).getSequenceNumber());
+                    return events.size() == batchSize;
+                }));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("変更イベントの配信に失敗しました（次回再試行します）: listener={}, companyId={}",
+                    listener.getName(), companyId, e);
+        }
+    }
+
+    private void purgeExpired() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                    outboxEventRepository.deleteCreatedBefore(LocalDateTime.now().minusDays(retentionDays)));
+            if (deleted != null && deleted > 0) {
+                logger.info("保持期間を過ぎた変更イベントを削除しました: count={}", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("変更イベントの削除に失敗しました", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
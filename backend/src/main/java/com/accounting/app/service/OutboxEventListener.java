@@ -0,0 +1,29 @@
+package com.accounting.app.service;
+
+import com.accounting.app.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * 変更イベントのリスナー
+ * Spring Bean として登録すると {@link OutboxDispatcher} が会社ごとに連番順で配信する。
+ *
+ * 配信は少なくとも1回（処理後・配信位置の更新前に停止した場合は再配信される）のため、
+ * 同じイベントを再度受け取っても結果が変わらないように処理すること。
+ * 処理中のDB更新は配信位置の更新と同じトランザクションで行われる。
+ */
+public interface OutboxEventListener {
+
+    /**
+     * リスナー名（配信位置の保存に使用するため、変更すると最初から配信される）
+     */
+    String getName();
+
+    /**
+     * 変更イベントを処理
+     * 例外を送出した場合は配信位置を進めず、次回の配信で同じイベントから再配信する
+     * @param companyId 会社ID
+     * @param events 連番順の変更イベント
+     */
+    void onEvents(Long companyId, List<OutboxEvent> events);
+}
@@ -0,0 +1,181 @@
+package com.accounting.app.service;
+
+import com.accounting.app.dto.response.ChangeEventResponse;
+import com.accounting.app.entity.Invoice;
+import com.accounting.app.entity.Journal;
+import com.accounting.app.entity.OutboxEvent;
+import com.accounting.app.entity.OutboxEvent.AggregateType;
+import com.accounting.app.entity.OutboxEvent.EventType;
+import com.accounting.app.entity.Payment;
+import com.accounting.app.repository.OutboxEventRepository;
+import com.accounting.app.repository.OutboxSequenceRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 変更イベント（アウトボックス）サービス
+ * 仕訳・請求書・入金の更新と同一トランザクションで呼び出し、変更イベントを記録する。
+ *
+ * イベントはトランザクション内でメモリに溜め、コミット直前に会社ごとの連番を付与してまとめて登録する。
+ * 連番の行ロックはコミットまで保持されるため、同じ会社の連番はコミット順に欠番なく付与される。
+ * コミット後に {@link OutboxDispatcher} へ配信を依頼する。
+ */
+@Service
+public class OutboxService {
+
+    private static final int MAX_FETCH_SIZE = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSequenceRepository outboxSequenceRepository;
+    private final OutboxDispatcher outboxDispatcher;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OutboxService(
+            OutboxEventRepository outboxEventRepository,
+            OutboxSequenceRepository outboxSequenceRepository,
+            OutboxDispatcher outboxDispatcher,
+            ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSequenceRepository = outboxSequenceRepository;
+        this.outboxDispatcher = outboxDispatcher;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 仕訳の変更イベントを記録
+     * @param previousJournalDate 更新前の仕訳日（更新で仕訳日が変わった場合のみ指定、それ以外はnull）
+     */
+    public void recordJournal(EventType eventType, Journal journal, LocalDate previousJournalDate) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("journalNumber", journal.getJournalNumber());
+        payload.put("journalDate", String.valueOf(journal.getJournalDate()));
+        if (previousJournalDate != null && !previousJournalDate.equals(journal.getJournalDate())) {
+            payload.put("previousJournalDate", String.valueOf(previousJournalDate));
+        }
+        record(journal.getCompany().getId(), AggregateType.JOURNAL, journal.getId(), eventType, payload);
+    }
+
+    /**
+     * 請求書の変更イベントを記録
+     */
+    public void recordInvoice(EventType eventType, Invoice invoice) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("invoiceNumber", invoice.getInvoiceNumber());
+        payload.put("status", invoice.getStatus().name());
+        record(invoice.getCompany().getId(), AggregateType.INVOICE, invoice.getId(), eventType, payload);
+    }
+
+    /**
+     * 入金の変更イベントを記録
+     */
+    public void recordPayment(EventType eventType, Payment payment) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("paymentDate", String.valueOf(payment.getPaymentDate()));
+        payload.put("amount", payment.getAmount());
+        payload.put("invoiceId", payment.getInvoice() != null ? payment.getInvoice().getId() : null);
+        record(payment.getCompany().getId(), AggregateType.PAYMENT, payment.getId(), eventType, payload);
+    }
+
+    /**
+     * 会社の変更イベントを連番順に取得（指定した連番より後）
+     * @param companyId 会社ID
+     * @param after 処理済みの連番（0の場合は最初から）
+     * @param limit 取得件数の上限
+     */
+    @Transactional(readOnly = true)
+    public List<ChangeEventResponse> findAfter(Long companyId, long after, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_FETCH_SIZE));
+        return outboxEventRepository.findByCompanyIdAndSequenceNumberGreaterThanOrderBySequenceNumber(
+                companyId, after, PageRequest.of(0, size)).stream()
+                .map(ChangeEventResponse::from)
+                .collect(Collectors.toList());
+    }
+
+    private void record(Long companyId, AggregateType aggregateType, Long aggregateId,
+                        EventType eventType, Map<String, Object> payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Outbox events must be recorded within a transaction");
+        }
+
+        OutboxEvent event = new OutboxEvent();
+        event.setCompanyId(companyId);
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setPayload(toJson(payload));
+
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+    }
+
+    /**
+     * トランザクション内で記録した変更イベント
+     */
+    private final class PendingEvents implements TransactionSynchronization {
+
+        private final List<OutboxEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // 業務テーブルの更新を先に書き込み、連番の行ロックは最後に取得する（ロック順序を揃えてデッドロックを防ぐ）
+            entityManager.flush();
+
+            // 会社IDの順に連番の行をロックする（複数の会社を含むトランザクション同士のデッドロックを防ぐ）
+            Map<Long, List<OutboxEvent>> byCompany = new TreeMap<>();
+            for (OutboxEvent event : events) {
+                byCompany.computeIfAbsent(event.getCompanyId(), id -> new ArrayList<>()).add(event);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (Map.Entry<Long, List<OutboxEvent>> entry : byCompany.entrySet()) {
+                List<OutboxEvent> companyEvents = entry.getValue();
+                long last = outboxSequenceRepository.advance(entry.getKey(), companyEvents.size());
+                long sequence = last - companyEvents.size();
+                for (OutboxEvent event : companyEvents) {
+                    event.setSequenceNumber(++sequence);
+                    event.setCreatedAt(now);
+                }
+            }
+            outboxEventRepository.insertAll(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OutboxService.this);
+            if (status == STATUS_COMMITTED) {
+                outboxDispatcher.wakeUp();
+            }
+        }
+    }
+}
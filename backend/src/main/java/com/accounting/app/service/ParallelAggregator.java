@@ -0,0 +1,142 @@
+package com.accounting.app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * チャンク単位の並列集計
+ *
+ * 集計対象を期間などのチャンクに分割し、固定数のワーカースレッドで各チャンクを集計する。
+ * 集計結果はチャンクの順に呼び出し元スレッドへ渡すため、書き込み（トランザクション）は呼び出し元で行える。
+ * 同時に保持する結果は並列数までに抑える。チャンク数が少ない場合は呼び出し元スレッドで順次集計する。
+ *
+ * ワーカーはそれぞれDB接続を使用するため、並列数はコネクションプールの上限から
+ * 呼び出し元と他のリクエストの分（2接続）を除いた数までに抑える。
+ * ワーカーは全呼び出し元で共有するため、同時に複数の集計を行っても使用する接続数は増えない。
+ */
+@Component
+public class ParallelAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelAggregator.class);
+
+    /** 集計の呼び出し元と他のリクエスト用に残すDB接続数 */
+    private static final int RESERVED_CONNECTIONS = 2;
+
+    private final ExecutorService pool;
+    private final int parallelism;
+    private final int minChunks;
+
+    public ParallelAggregator(
+            @Value("${app.aggregation.parallelism:0}") int parallelism,
+            @Value("${app.aggregation.min-chunks:4}") int minChunks,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        int requested = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.parallelism = Math.max(1, Math.min(requested, maximumPoolSize - RESERVED_CONNECTIONS));
+        if (this.parallelism < requested) {
+            logger.info("集計の並列数をコネクションプールの上限に合わせて制限しました: "
+                    + "requested={}, parallelism={}, maximumPoolSize={}", requested, this.parallelism, maximumPoolSize);
+        }
+        this.minChunks = minChunks;
+        if (this.parallelism > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.pool = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "aggregation-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        } else {
+            this.pool = null;
+        }
+    }
+
+    /**
+     * チャンクごとに集計し、結果をチャンクの順に受け取り先へ渡す
+     * @param chunks 集計対象のチャンク
+     * @param aggregator チャンクの集計処理（ワーカースレッドで実行される）
+     * @param consumer 集計結果の受け取り先（呼び出し元スレッドで実行される）
+     */
+    public <C, R> void aggregate(List<C> chunks, Function<C, R> aggregator, Consumer<R> consumer) {
+        if (!isParallel(chunks.size())) {
+            for (C chunk : chunks) {
+                consumer.accept(aggregator.apply(chunk));
+            }
+            return;
+        }
+
+        Deque<Future<R>> inFlight = new ArrayDeque<>();
+        Iterator<C> iterator = chunks.iterator();
+        try {
+            while (iterator.hasNext() || !inFlight.isEmpty()) {
+                while (iterator.hasNext() && inFlight.size() < parallelism) {
+                    C chunk = iterator.next();
+                    inFlight.addLast(pool.submit(() -> aggregator.apply(chunk)));
+                }
+                consumer.accept(await(inFlight.removeFirst()));
+            }
+        } finally {
+            for (Future<R> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 並列で集計するか
+     * @param chunkCount チャンク数
+     * @return 並列の場合true
+     */
+    public boolean isParallel(int chunkCount) {
+        return pool != null && chunkCount >= minChunks;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <R> R await(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("集計処理が中断されました", e);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("集計処理がキャンセルされました", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -26,15 +26,18 @@ public class PartnerService {
     private final JournalDetailRepository journalDetailRepository;
     private final InvoiceRepository invoiceRepository;
     private final PaymentRepository paymentRepository;
+    private final LedgerVersionService ledgerVersionService;
 
     public PartnerService(PartnerRepository partnerRepository,
                          JournalDetailRepository journalDetailRepository,
                          InvoiceRepository invoiceRepository,
-                         PaymentRepository paymentRepository) {
+                         PaymentRepository paymentRepository,
+                         LedgerVersionService ledgerVersionService) {
         this.partnerRepository = partnerRepository;
         this.journalDetailRepository = journalDetailRepository;
         this.invoiceRepository = invoiceRepository;
         this.paymentRepository = paymentRepository;
+        this.ledgerVersionService = ledgerVersionService;
     }
 
     @Transactional(readOnly = true)
@@ -91,7 +94,11 @@ public class PartnerService {
         partner.setEmail(request.getEmail());
         partner.setPartnerType(PartnerType.valueOf(request.getPartnerType()));
 
-        return PartnerResponse.from(partnerRepository.save(partner));
+        Partner updated = partnerRepository.save(partner);
+
+        // コード・名称は試算表（補助科目・取引先別）に表示されるため元帳バージョンを進める
+        ledgerVersionService.bump(updated.getCompany().getId());
+        return PartnerResponse.from(updated);
     }
 
     public void delete(Long id) {
@@ -108,6 +115,9 @@ public class PartnerService {
         }
 
         partnerRepository.deleteById(id);
+
+        // 削除した取引先がキャッシュ済みのレポートに残らないよう元帳バージョンを進める
+        ledgerVersionService.bump(partner.getCompany().getId());
     }
 
     @Transactional(readOnly = true)
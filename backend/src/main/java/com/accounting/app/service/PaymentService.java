@@ -23,16 +23,19 @@ public class PaymentService {
     private final InvoiceRepository invoiceRepository;
     private final PartnerRepository partnerRepository;
     private final CompanyRepository companyRepository;
+    private final OutboxService outboxService;
 
     public PaymentService(
             PaymentRepository paymentRepository,
             InvoiceRepository invoiceRepository,
             PartnerRepository partnerRepository,
-            CompanyRepository companyRepository) {
+            CompanyRepository companyRepository,
+            OutboxService outboxService) {
         this.paymentRepository = paymentRepository;
         this.invoiceRepository = invoiceRepository;
         this.partnerRepository = partnerRepository;
         this.companyRepository = companyRepository;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -99,11 +102,13 @@ public class PaymentService {
             if (newTotal.compareTo(invoice.getTotalAmount()) == 0) {
                 invoice.setStatus(Invoice.InvoiceStatus.PAID);
                 invoiceRepository.save(invoice);
+                outboxService.recordInvoice(OutboxEvent.EventType.STATUS_CHANGED, invoice);
             }
         }
 
         // 保存
         Payment savedPayment = paymentRepository.save(payment);
+        outboxService.recordPayment(OutboxEvent.EventType.CREATED, savedPayment);
         return PaymentResponse.from(savedPayment);
     }
 
@@ -178,6 +183,7 @@ public class PaymentService {
             // 請求額と同額になった場合、請求書のステータスを「支払済み」に更新
             if (newTotal.compareTo(newInvoice.getTotalAmount()) == 0) {
                 newInvoice.setStatus(Invoice.InvoiceStatus.PAID);
+                outboxService.recordInvoice(OutboxEvent.EventType.STATUS_CHANGED, newInvoice);
             }
         } else {
             payment.setInvoice(null);
@@ -188,11 +194,13 @@ public class PaymentService {
             if (oldInvoice.getStatus() == Invoice.InvoiceStatus.PAID) {
                 oldInvoice.setStatus(Invoice.InvoiceStatus.ISSUED);
                 invoiceRepository.save(oldInvoice);
+                outboxService.recordInvoice(OutboxEvent.EventType.STATUS_CHANGED, oldInvoice);
             }
         }
 
         // 保存
         Payment updatedPayment = paymentRepository.save(payment);
+        outboxService.recordPayment(OutboxEvent.EventType.UPDATED, updatedPayment);
         return PaymentResponse.from(updatedPayment);
     }
 
@@ -212,10 +220,12 @@ public class PaymentService {
                 // 入金削除後のステータスを「発行済み」に戻す
                 invoice.setStatus(Invoice.InvoiceStatus.ISSUED);
                 invoiceRepository.save(invoice);
+                outboxService.recordInvoice(OutboxEvent.EventType.STATUS_CHANGED, invoice);
             }
         }
 
         paymentRepository.delete(payment);
+        outboxService.recordPayment(OutboxEvent.EventType.DELETED, payment);
     }
 
     /**
@@ -1,14 +1,15 @@
 package com.accounting.app.service;
 
 import com.accounting.app.dto.response.ProfitLossReport;
-import com.accounting.app.entity.Account;
-import com.accounting.app.entity.JournalDetail;
-import com.accounting.app.repository.JournalDetailRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,66 +19,80 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class ProfitLossService {
 
-    private final JournalDetailRepository journalDetailRepository;
+    private static final String TABLE_TITLE = "損益計算書";
+    private static final List<ReportTable.Column> TABLE_COLUMNS = Arrays.asList(
+            ReportTable.Column.left("項目", 160),
+            ReportTable.Column.right("金額", 100));
 
-    public ProfitLossService(JournalDetailRepository journalDetailRepository) {
-        this.journalDetailRepository = journalDetailRepository;
+    private final FinancialStatementService financialStatementService;
+    private final ReportPdfRenderer reportPdfRenderer;
+    private final ReportExcelRenderer reportExcelRenderer;
+
+    public ProfitLossService(FinancialStatementService financialStatementService,
+                             ReportPdfRenderer reportPdfRenderer,
+                             ReportExcelRenderer reportExcelRenderer) {
+        this.financialStatementService = financialStatementService;
+        this.reportPdfRenderer = reportPdfRenderer;
+        this.reportExcelRenderer = reportExcelRenderer;
     }
 
     /**
      * 損益計算書を生成
      */
     public ProfitLossReport generate(Long companyId, LocalDate startDate, LocalDate endDate) {
-        // 期間内の仕訳明細を取得
-        List<JournalDetail> details = journalDetailRepository
-                .findByCompanyIdAndJournalDateBetween(companyId, startDate, endDate);
-
-        BigDecimal revenue = BigDecimal.ZERO;
-        BigDecimal expense = BigDecimal.ZERO;
-
-        for (JournalDetail detail : details) {
-            Account account = detail.getAccount();
-            Account.AccountType accountType = account.getAccountType();
-
-            if (accountType == Account.AccountType.REVENUE) {
-                // 収益: 貸方増加、借方減少
-                if (detail.getEntryType() == JournalDetail.EntryType.CREDIT) {
-                    revenue = revenue.add(detail.getAmount());
-                } else {
-                    revenue = revenue.subtract(detail.getAmount());
-                }
-            } else if (accountType == Account.AccountType.EXPENSE) {
-                // 費用: 借方増加、貸方減少
-                if (detail.getEntryType() == JournalDetail.EntryType.DEBIT) {
-                    expense = expense.add(detail.getAmount());
-                } else {
-                    expense = expense.subtract(detail.getAmount());
-                }
-            }
-        }
+        // 期間内の勘定科目タイプ別合計を集計（勘定科目期間残高から取得）
+        StatementTotals totals = financialStatementService.calculateBetween(companyId, startDate, endDate);
 
         // レポートの作成
         ProfitLossReport report = new ProfitLossReport();
         report.setStartDate(startDate);
         report.setEndDate(endDate);
-        report.setRevenue(revenue);
-        report.setExpense(expense);
-        report.setNetProfit(revenue.subtract(expense));
+        report.setRevenue(totals.getRevenue());
+        report.setExpense(totals.getExpense());
+        report.setNetProfit(totals.getNetProfit());
 
         return report;
     }
 
     /**
-     * PDF出力（実装予定）
+     * PDF出力
      */
     public byte[] exportPdf(ProfitLossReport report) {
-        throw new UnsupportedOperationException("PDF出力機能は未実装です");
+        try (ReportTable table = reportPdfRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeTable(table, report);
+            return table.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("PDFの作成に失敗しました", e);
+        }
     }
 
     /**
-     * Excel出力（実装予定）
+     * Excel出力
      */
     public byte[] exportExcel(ProfitLossReport report) {
-        throw new UnsupportedOperationException("Excel出力機能は未実装です");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeExcel(report, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Excelの作成に失敗しました", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Excelを出力ストリームへ書き込む（出力ストリームはクローズしない）
+     */
+    public void writeExcel(ProfitLossReport report, OutputStream out) throws IOException {
+        try (ReportTable table = reportExcelRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeTable(table, report);
+            table.writeTo(out);
+        }
+    }
+
+    private void writeTable(ReportTable table, ProfitLossReport report) throws IOException {
+        table.section("期間: " + report.getStartDate() + " ～ " + report.getEndDate());
+        table.row("売上", report.getRevenue());
+        table.row("費用", report.getExpense());
+        table.totalRow("当期純利益", report.getNetProfit());
     }
 }
@@ -0,0 +1,359 @@
+package com.accounting.app.service;
+
+import com.accounting.app.dto.request.JournalDetailRequest;
+import com.accounting.app.dto.request.RecurringJournalRequest;
+import com.accounting.app.dto.response.RecurringJournalGenerateResponse;
+import com.accounting.app.dto.response.RecurringJournalResponse;
+import com.accounting.app.entity.*;
+import com.accounting.app.entity.JournalDetail.EntryType;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.exception.BusinessException;
+import com.accounting.app.exception.ResourceNotFoundException;
+import com.accounting.app.repository.JournalRepository;
+import com.accounting.app.repository.RecurringJournalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 定期仕訳サービス
+ *
+ * テンプレートの管理と、登録日を迎えた仕訳の一括作成を行う。
+ * 一括作成は1トランザクションで行い、会計期間の解決・参照マスタの取得・仕訳番号の重複確認・
+ * 勘定科目期間残高の更新は、作成する仕訳の数によらず1回にまとめる。
+ */
+@Service
+@Transactional
+public class RecurringJournalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurringJournalService.class);
+
+    private final RecurringJournalRepository recurringJournalRepository;
+    private final JournalRepository journalRepository;
+    private final FiscalPeriodIndex fiscalPeriodIndex;
+    private final MasterDataResolver masterDataResolver;
+    private final DocumentNumberService documentNumberService;
+    private final AccountBalanceRollupService accountBalanceRollupService;
+    private final ClosingBalanceService closingBalanceService;
+    private final OutboxService outboxService;
+
+    public RecurringJournalService(
+            RecurringJournalRepository recurringJournalRepository,
+            JournalRepository journalRepository,
+            FiscalPeriodIndex fiscalPeriodIndex,
+            MasterDataResolver masterDataResolver,
+            DocumentNumberService documentNumberService,
+            AccountBalanceRollupService accountBalanceRollupService,
+            ClosingBalanceService closingBalanceService,
+            OutboxService outboxService) {
+        this.recurringJournalRepository = recurringJournalRepository;
+        this.journalRepository = journalRepository;
+        this.fiscalPeriodIndex = fiscalPeriodIndex;
+        this.masterDataResolver = masterDataResolver;
+        this.documentNumberService = documentNumberService;
+        this.accountBalanceRollupService = accountBalanceRollupService;
+        this.closingBalanceService = closingBalanceService;
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * 全件取得
+     */
+    @Transactional(readOnly = true)
+    public List<RecurringJournalResponse> findAll(Long companyId) {
+        return recurringJournalRepository.findByCompanyIdOrderByName(companyId).stream()
+                .map(RecurringJournalResponse::from)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * ID検索
+     */
+    @Transactional(readOnly = true)
+    public RecurringJournalResponse findById(Long companyId, Long id) {
+        return RecurringJournalResponse.from(findTemplate(companyId, id));
+    }
+
+    /**
+     * 作成
+     */
+    public RecurringJournalResponse create(Long companyId, RecurringJournalRequest request) {
+        validate(request);
+
+        RecurringJournal template = new RecurringJournal();
+        Company company = new Company();
+        company.setId(companyId);
+        template.setCompany(company);
+        applySchedule(template, request);
+
+        MasterDataResolver.MasterData masters = masterDataResolver.forJournal(companyId, request.getDetails());
+        for (JournalDetailRequest detailReq : request.getDetails()) {
+            RecurringJournalDetail detail = new RecurringJournalDetail();
+            applyDetail(detail, detailReq, masters);
+            template.addDetail(detail);
+        }
+        template.getDetails().sort(Comparator.comparing(RecurringJournalDetail::getLineNumber));
+
+        return RecurringJournalResponse.from(recurringJournalRepository.save(template));
+    }
+
+    /**
+     * 更新
+     * 作成済みの回は作成し直さず、次回登録日は前回登録日より後で再計算する
+     */
+    public RecurringJournalResponse update(Long companyId, Long id, RecurringJournalRequest request) {
+        RecurringJournal template = findTemplate(companyId, id);
+        validate(request);
+        applySchedule(template, request);
+
+        // 明細の差分更新（ID・行番号で既存の明細と対応付け、変更・追加・削除された行のみ書き込む）
+        MasterDataResolver.MasterData masters = masterDataResolver.forJournal(companyId, request.getDetails());
+        Map<JournalDetailRequest, RecurringJournalDetail> matches = DetailMatcher.match(
+                template.getDetails(), request.getDetails(),
+                RecurringJournalDetail::getId, RecurringJournalDetail::getLineNumber,
+                JournalDetailRequest::getId, JournalDetailRequest::getLineNumber, "RecurringJournalDetail");
+        DetailMatcher.removeUnmatched(template.getDetails(), matches);
+        for (JournalDetailRequest detailReq : request.getDetails()) {
+            RecurringJournalDetail detail = matches.get(detailReq);
+            if (detail == null) {
+                detail = new RecurringJournalDetail();
+                template.addDetail(detail);
+            }
+            applyDetail(detail, detailReq, masters);
+        }
+        template.getDetails().sort(Comparator.comparing(RecurringJournalDetail::getLineNumber));
+
+        return RecurringJournalResponse.from(recurringJournalRepository.save(template));
+    }
+
+    /**
+     * 削除（作成済みの仕訳は削除しない）
+     */
+    public void delete(Long companyId, Long id) {
+        recurringJournalRepository.delete(findTemplate(companyId, id));
+    }
+
+    /**
+     * 会計期間内で登録日を迎えた定期仕訳をまとめて作成
+     * 基準日（会計期間の終了日より前の場合）までの回を作成し、テンプレートの次回登録日を進める。
+     * 次回登録日が会計期間の開始日より前のテンプレートは、前の期間の回が未作成のため作成しない。
+     * @param companyId 会社ID
+     * @param fiscalPeriodId 会計期間ID
+     * @param asOfDate 基準日
+     */
+    public RecurringJournalGenerateResponse generate(Long companyId, Long fiscalPeriodId, LocalDate asOfDate) {
+        FiscalPeriodIndex.Period fiscalPeriod = fiscalPeriodIndex.findById(companyId, fiscalPeriodId)
+                .orElseThrow(() -> new ResourceNotFoundException("FiscalPeriod", "id", fiscalPeriodId));
+        if (fiscalPeriod.isClosed()) {
+            throw new BusinessException("FISCAL_PERIOD_CLOSED",
+                    "締められた会計期間には仕訳を登録できません");
+        }
+
+        RecurringJournalGenerateResponse response = new RecurringJournalGenerateResponse();
+        response.setFiscalPeriodId(fiscalPeriodId);
+        response.setAsOfDate(asOfDate);
+        LocalDate until = asOfDate.isBefore(fiscalPeriod.getEndDate()) ? asOfDate : fiscalPeriod.getEndDate();
+        if (until.isBefore(fiscalPeriod.getStartDate())) {
+            return response;
+        }
+
+        // 同時に実行した場合に同じ回を二重に登録しないよう、対象のテンプレートを行ロックする
+        List<RecurringJournal> templates = recurringJournalRepository.findDueForUpdate(companyId, until);
+        if (templates.isEmpty()) {
+            return response;
+        }
+        recurringJournalRepository.fetchDetails(
+                templates.stream().map(RecurringJournal::getId).collect(Collectors.toList()));
+
+        // 全テンプレートの明細が参照するマスタを一括取得（削除・他社のマスタはここでエラーとなる）
+        Map<Long, List<JournalDetailRequest>> detailsByTemplate = new HashMap<>();
+        List<JournalDetailRequest> allDetails = new ArrayList<>();
+        for (RecurringJournal template : templates) {
+            List<JournalDetailRequest> details = template.getDetails().stream()
+                    .map(RecurringJournalService::toRequest)
+                    .collect(Collectors.toList());
+            detailsByTemplate.put(template.getId(), details);
+            allDetails.addAll(details);
+        }
+        MasterDataResolver.MasterData masters = masterDataResolver.forJournal(companyId, allDetails);
+
+        FiscalPeriod fiscalPeriodRef = fiscalPeriod.toEntity();
+        Company company = new Company();
+        company.setId(companyId);
+        List<Journal> journals = new ArrayList<>();
+        for (RecurringJournal template : templates) {
+            if (template.getNextRunDate().isBefore(fiscalPeriod.getStartDate())) {
+                response.getSkippedTemplateIds().add(template.getId());
+                continue;
+            }
+            LocalDate date = template.getNextRunDate();
+            while (date != null && !date.isAfter(until)) {
+                Journal journal = new Journal();
+                journal.setCompany(company);
+                journal.setFiscalPeriod(fiscalPeriodRef);
+                journal.setJournalDate(date);
+                journal.setJournalNumber(nextJournalNumber(companyId, fiscalPeriodRef, number -> false));
+                journal.setDescription(template.getDescription());
+                for (JournalDetailRequest detailReq : detailsByTemplate.get(template.getId())) {
+                    journal.addDetail(toJournalDetail(detailReq, masters));
+                }
+                journals.add(journal);
+                template.setLastRunDate(date);
+                date = nextOccurrence(template, date.plusDays(1));
+            }
+            template.setNextRunDate(date);
+            response.setTemplateCount(response.getTemplateCount() + 1);
+        }
+        if (journals.isEmpty()) {
+            return response;
+        }
+
+        // 採番した番号のうち手入力などで使用済みのものは1回の照会でまとめて確認し、該当する仕訳のみ採番し直す
+        Set<String> used = new HashSet<>(journalRepository.findExistingJournalNumbers(companyId,
+                journals.stream().map(Journal::getJournalNumber).collect(Collectors.toList())));
+        for (Journal journal : journals) {
+            if (used.contains(journal.getJournalNumber())) {
+                journal.setJournalNumber(nextJournalNumber(companyId, fiscalPeriodRef,
+                        number -> journalRepository.existsByCompanyIdAndJournalNumber(companyId, number)));
+            }
+        }
+
+        AccountBalanceDelta delta = new AccountBalanceDelta(companyId);
+        LocalDate minDate = null;
+        for (Journal saved : journalRepository.saveAll(journals)) {
+            delta.add(saved, 1);
+            outboxService.recordJournal(OutboxEvent.EventType.CREATED, saved, null);
+            response.getJournalIds().add(saved.getId());
+            if (minDate == null || saved.getJournalDate().isBefore(minDate)) {
+                minDate = saved.getJournalDate();
+            }
+        }
+        accountBalanceRollupService.apply(delta);
+        closingBalanceService.discardFrom(companyId, minDate);
+        fiscalPeriodIndex.lockForPosting(companyId, Collections.singletonList(fiscalPeriod));
+
+        response.setGeneratedJournalCount(journals.size());
+        logger.info("定期仕訳を作成しました: companyId={}, fiscalPeriodId={}, templates={}, journals={}",
+                companyId, fiscalPeriodId, response.getTemplateCount(), journals.size());
+        return response;
+    }
+
+    private RecurringJournal findTemplate(Long companyId, Long id) {
+        RecurringJournal template = recurringJournalRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("RecurringJournal", "id", id));
+        if (!template.getCompany().getId().equals(companyId)) {
+            throw new ResourceNotFoundException("RecurringJournal", "id", id);
+        }
+        return template;
+    }
+
+    private static void validate(RecurringJournalRequest request) {
+        if (request.getEndDate() != null && request.getEndDate().isBefore(request.getStartDate())) {
+            throw new BadRequestException("終了日は開始日以降である必要があります");
+        }
+        JournalService.validateDebitCreditBalance(request.getDetails());
+    }
+
+    /**
+     * テンプレートにスケジュールを設定し、次回登録日を計算
+     */
+    private static void applySchedule(RecurringJournal template, RecurringJournalRequest request) {
+        template.setName(request.getName());
+        template.setDescription(request.getDescription());
+        template.setIntervalMonths(request.getIntervalMonths());
+        template.setDayOfMonth(request.getDayOfMonth());
+        template.setStartDate(request.getStartDate());
+        template.setEndDate(request.getEndDate());
+        template.setActive(request.getActive() == null || request.getActive());
+
+        LocalDate from = request.getStartDate();
+        if (template.getLastRunDate() != null && !template.getLastRunDate().isBefore(from)) {
+            from = template.getLastRunDate().plusDays(1);
+        }
+        template.setNextRunDate(nextOccurrence(template, from));
+    }
+
+    /**
+     * 指定日以降で最初の登録日（終了日を過ぎる場合は null）
+     */
+    static LocalDate nextOccurrence(RecurringJournal template, LocalDate from) {
+        int interval = template.getIntervalMonths();
+        YearMonth month = YearMonth.from(template.getStartDate());
+        if (from.isAfter(template.getStartDate())) {
+            long months = ChronoUnit.MONTHS.between(month, YearMonth.from(from));
+            month = month.plusMonths(months / interval * interval);
+        }
+        LocalDate date = dayOf(month, template.getDayOfMonth());
+        while (date.isBefore(from) || date.isBefore(template.getStartDate())) {
+            month = month.plusMonths(interval);
+            date = dayOf(month, template.getDayOfMonth());
+        }
+        return template.getEndDate() != null && date.isAfter(template.getEndDate()) ? null : date;
+    }
+
+    private static LocalDate dayOf(YearMonth month, int dayOfMonth) {
+        return month.atDay(Math.min(dayOfMonth, month.lengthOfMonth()));
+    }
+
+    private String nextJournalNumber(Long companyId, FiscalPeriod fiscalPeriod,
+                                     Predicate<String> exists) {
+        return documentNumberService.next(DocumentNumberService.SequenceType.JOURNAL, companyId, fiscalPeriod, exists);
+    }
+
+    private static void applyDetail(RecurringJournalDetail detail, JournalDetailRequest request,
+                                    MasterDataResolver.MasterData masters) {
+        detail.setLineNumber(request.getLineNumber());
+        detail.setEntryType(EntryType.valueOf(request.getEntryType()));
+        detail.setAmount(request.getAmount());
+        detail.setTaxAmount(request.getTaxAmount());
+        detail.setDescription(request.getDescription());
+        detail.setAccount(masters.account(request.getAccountId()));
+        detail.setSubAccount(masters.subAccount(request.getSubAccountId()));
+        detail.setTaxType(masters.taxType(request.getTaxTypeId()));
+        detail.setPartner(masters.partner(request.getPartnerId()));
+    }
+
+    private static JournalDetailRequest toRequest(RecurringJournalDetail detail) {
+        JournalDetailRequest request = new JournalDetailRequest();
+        request.setLineNumber(detail.getLineNumber());
+        request.setEntryType(detail.getEntryType().name());
+        request.setAccountId(detail.getAccount().getId());
+        request.setSubAccountId(detail.getSubAccount() != null ? detail.getSubAccount().getId() : null);
+        request.setTaxTypeId(detail.getTaxType() != null ? detail.getTaxType().getId() : null);
+        request.setPartnerId(detail.getPartner() != null ? detail.getPartner().getId() : null);
+        request.setAmount(detail.getAmount());
+        request.setTaxAmount(detail.getTaxAmount());
+        request.setDescription(detail.getDescription());
+        return request;
+    }
+
+    private static JournalDetail toJournalDetail(JournalDetailRequest request,
+                                                 MasterDataResolver.MasterData masters) {
+        JournalDetail detail = new JournalDetail();
+        detail.setLineNumber(request.getLineNumber());
+        detail.setEntryType(EntryType.valueOf(request.getEntryType()));
+        detail.setAmount(request.getAmount());
+        detail.setTaxAmount(request.getTaxAmount());
+        detail.setDescription(request.getDescription());
+        detail.setAccount(masters.account(request.getAccountId()));
+        detail.setSubAccount(masters.subAccount(request.getSubAccountId()));
+        detail.setTaxType(masters.taxType(request.getTaxTypeId()));
+        detail.setPartner(masters.partner(request.getPartnerId()));
+        return detail;
+    }
+}
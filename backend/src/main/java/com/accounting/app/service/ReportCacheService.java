@@ -0,0 +1,125 @@
+package com.accounting.app.service;
+
+import com.accounting.app.cache.CacheStats;
+import com.accounting.app.cache.LruCache;
+import com.accounting.app.repository.LedgerVersionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * レポート結果キャッシュサービス
+ * 会社・レポート種別・パラメータ・元帳バージョンをキーにレポート結果を保持する。
+ * 元帳バージョンが進むと古いキーは参照されなくなり、LRU・TTLで追い出される。
+ * キャッシュした結果は共有されるため、呼び出し側で変更しないこと。
+ */
+@Service
+public class ReportCacheService {
+
+    private final LedgerVersionRepository ledgerVersionRepository;
+    private final LruCache<Key, Object> cache;
+    private final boolean enabled;
+
+    public ReportCacheService(
+            LedgerVersionRepository ledgerVersionRepository,
+            @Value("${app.report.cache.enabled:true}") boolean enabled,
+            @Value("${app.report.cache.max-entries:500}") int maxEntries,
+            @Value("${app.report.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.ledgerVersionRepository = ledgerVersionRepository;
+        this.enabled = enabled;
+        this.cache = new LruCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public enum ReportType {
+        GENERAL_LEDGER,           // 総勘定元帳
+        TRIAL_BALANCE,            // 試算表
+        TRIAL_BALANCE_DRILL_DOWN, // 試算表（補助科目・取引先別）
+        PROFIT_LOSS,              // 損益計算書
+        BALANCE_SHEET,            // 貸借対照表
+        TREND                     // 月次推移
+    }
+
+    /**
+     * キャッシュからレポートを取得（無い場合は生成して登録）
+     * 元帳バージョンは生成前に読むため、生成中に更新があった場合は次回の参照で再生成される
+     * @param companyId 会社ID
+     * @param reportType レポート種別
+     * @param loader レポート生成処理
+     * @param params レポートのパラメータ（equals/hashCode を実装した値）
+     * @return レポート
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long companyId, ReportType reportType, Supplier<T> loader, Object... params) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Long version = ledgerVersionRepository.findVersionByCompanyId(companyId);
+        Key key = new Key(companyId, reportType, version != null ? version : 0L, Arrays.asList(params));
+
+        Object cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        T report = loader.get();
+        cache.put(key, report);
+        return report;
+    }
+
+    /**
+     * 会社のキャッシュをすべて削除
+     * @return 削除件数
+     */
+    public int invalidateCompany(Long companyId) {
+        return cache.removeIf(key -> key.companyId.equals(companyId));
+    }
+
+    /**
+     * キャッシュ全体の統計情報を取得
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private static final class Key {
+        private final Long companyId;
+        private final ReportType reportType;
+        private final long version;
+        private final List<Object> params;
+
+        private Key(Long companyId, ReportType reportType, long version, List<Object> params) {
+            this.companyId = companyId;
+            this.reportType = reportType;
+            this.version = version;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return version == other.version
+                    && companyId.equals(other.companyId)
+                    && reportType == other.reportType
+                    && params.equals(other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(companyId, reportType, version, params);
+        }
+    }
+}
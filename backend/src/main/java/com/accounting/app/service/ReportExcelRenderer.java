@@ -0,0 +1,260 @@
+package com.accounting.app.service;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 帳票Excel（xlsx）の作成
+ *
+ * POI のストリーミング形式（SXSSFWorkbook）で1行ずつ書き込み、メモリには直近の行（app.excel.row-access-window）のみ保持する。
+ * ウィンドウから外れた行は app.excel.temp-dir の一時ファイルへ書き出すため、明細行数が多くてもヒープ使用量は一定。
+ * セルの書式はブックごとに1回だけ作成して全セルで共有する。
+ * 1シートの最大行数を超える場合は続きのシートを追加する。
+ */
+@Component
+public class ReportExcelRenderer {
+
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    // 列幅（ポイント）を Excel の文字数単位に換算する係数
+    private static final float POINTS_PER_CHARACTER = 5f;
+
+    private final Path tempDir;
+    private final int rowAccessWindowSize;
+    private final boolean compressTempFiles;
+
+    public ReportExcelRenderer(
+            @Value("${app.excel.temp-dir}") String tempDir,
+            @Value("${app.excel.row-access-window:100}") int rowAccessWindowSize,
+            @Value("${app.excel.compress-temp-files:true}") boolean compressTempFiles) {
+        this.tempDir = Paths.get(tempDir);
+        this.rowAccessWindowSize = rowAccessWindowSize;
+        this.compressTempFiles = compressTempFiles;
+        // POI の一時ファイルの作成先（JVM全体の設定）
+        TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy(this.tempDir.toFile()));
+    }
+
+    /**
+     * 表形式の帳票を開く
+     * 書き込み後は writeTo で出力し、close で一時ファイルを削除すること
+     * @param title 帳票名（シート名・先頭行に出力）
+     * @param columns 列の定義
+     */
+    public Table open(String title, List<ReportTable.Column> columns) throws IOException {
+        Files.createDirectories(tempDir);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, rowAccessWindowSize, compressTempFiles);
+        try {
+            return new Table(workbook, title, columns);
+        } catch (RuntimeException e) {
+            workbook.dispose();
+            workbook.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 書き込み中の表形式帳票
+     * 金額は数値セル（3桁区切りの書式）、日付は日付セルとして出力する
+     */
+    public static final class Table implements ReportTable {
+
+        private final SXSSFWorkbook workbook;
+        private final String title;
+        private final List<Column> columns;
+
+        // ブック内で共有する書式
+        private final CellStyle titleStyle;
+        private final CellStyle headerStyle;
+        private final CellStyle headerRightStyle;
+        private final CellStyle textStyle;
+        private final CellStyle dateStyle;
+        private final CellStyle integerStyle;
+        private final CellStyle decimalStyle;
+        private final CellStyle totalTextStyle;
+        private final CellStyle totalIntegerStyle;
+        private final CellStyle totalDecimalStyle;
+
+        private List<String> headings = Collections.emptyList();
+        private SXSSFSheet sheet;
+        private int rowIndex;
+        private boolean closed;
+
+        private Table(SXSSFWorkbook workbook, String title, List<Column> columns) {
+            this.workbook = workbook;
+            this.title = title;
+            this.columns = new ArrayList<>(columns);
+
+            Font boldFont = workbook.createFont();
+            boldFont.setBold(true);
+            Font titleFont = workbook.createFont();
+            titleFont.setBold(true);
+            titleFont.setFontHeightInPoints((short) 14);
+
+            short integerFormat = workbook.createDataFormat().getFormat("#,##0");
+            short decimalFormat = workbook.createDataFormat().getFormat("#,##0.00");
+            short dateFormat = workbook.createDataFormat().getFormat("yyyy-mm-dd");
+
+            titleStyle = workbook.createCellStyle();
+            titleStyle.setFont(titleFont);
+            headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(boldFont);
+            headerStyle.setBorderBottom(BorderStyle.THIN);
+            headerRightStyle = workbook.createCellStyle();
+            headerRightStyle.cloneStyleFrom(headerStyle);
+            headerRightStyle.setAlignment(HorizontalAlignment.RIGHT);
+            textStyle = workbook.createCellStyle();
+            dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(dateFormat);
+            dateStyle.setAlignment(HorizontalAlignment.LEFT);
+            integerStyle = workbook.createCellStyle();
+            integerStyle.setDataFormat(integerFormat);
+            decimalStyle = workbook.createCellStyle();
+            decimalStyle.setDataFormat(decimalFormat);
+            totalTextStyle = workbook.createCellStyle();
+            totalTextStyle.setFont(boldFont);
+            totalTextStyle.setBorderTop(BorderStyle.THIN);
+            totalIntegerStyle = workbook.createCellStyle();
+            totalIntegerStyle.cloneStyleFrom(totalTextStyle);
+            totalIntegerStyle.setDataFormat(integerFormat);
+            totalDecimalStyle = workbook.createCellStyle();
+            totalDecimalStyle.cloneStyleFrom(totalTextStyle);
+            totalDecimalStyle.setDataFormat(decimalFormat);
+        }
+
+        /**
+         * 見出し行と列名を書き込む（書き込み済みの行がある場合は1行空ける）
+         */
+        @Override
+        public void section(String... headingLines) throws IOException {
+            headings = Arrays.asList(headingLines);
+            if (sheet == null || rowIndex + headings.size() + 2 > MAX_ROWS_PER_SHEET) {
+                startSheet();
+                return;
+            }
+            rowIndex++;
+            writeHeadings();
+        }
+
+        @Override
+        public void row(Object... cells) throws IOException {
+            writeRow(cells, false);
+        }
+
+        /**
+         * 合計行を書き込む（太字・上罫線）
+         */
+        @Override
+        public void totalRow(Object... cells) throws IOException {
+            writeRow(cells, true);
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (sheet == null) {
+                startSheet();
+            }
+            workbook.write(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                workbook.dispose();
+            } finally {
+                workbook.close();
+            }
+        }
+
+        private void writeRow(Object[] cells, boolean total) throws IOException {
+            if (sheet == null || rowIndex >= MAX_ROWS_PER_SHEET) {
+                startSheet();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = i < cells.length ? cells[i] : null;
+                if (value == null && !total) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                if (value instanceof BigDecimal) {
+                    BigDecimal amount = (BigDecimal) value;
+                    boolean integer = amount.signum() == 0 || amount.stripTrailingZeros().scale() <= 0;
+                    cell.setCellValue(amount.doubleValue());
+                    cell.setCellStyle(integer
+                            ? (total ? totalIntegerStyle : integerStyle)
+                            : (total ? totalDecimalStyle : decimalStyle));
+                } else if (value instanceof LocalDate) {
+                    cell.setCellValue((LocalDate) value);
+                    cell.setCellStyle(dateStyle);
+                } else {
+                    if (value != null) {
+                        cell.setCellValue(value.toString());
+                    }
+                    cell.setCellStyle(total ? totalTextStyle : textStyle);
+                }
+            }
+        }
+
+        /**
+         * シートを追加して帳票名・見出し行・列名を書き込む
+         */
+        private void startSheet() throws IOException {
+            if (sheet != null) {
+                // 書き出し済みの行をディスクへ移し、前のシートのウィンドウを解放する
+                sheet.flushRows();
+            }
+            int sheetNumber = workbook.getNumberOfSheets() + 1;
+            String sheetName = sheetNumber == 1 ? title : title + " (" + sheetNumber + ")";
+            sheet = workbook.createSheet(WorkbookUtil.createSafeSheetName(sheetName));
+            for (int i = 0; i < columns.size(); i++) {
+                int characters = Math.round(columns.get(i).getWidth() / POINTS_PER_CHARACTER);
+                sheet.setColumnWidth(i, Math.min(255, Math.max(4, characters)) * 256);
+            }
+
+            rowIndex = 0;
+            Cell titleCell = sheet.createRow(rowIndex++).createCell(0);
+            titleCell.setCellValue(title);
+            titleCell.setCellStyle(titleStyle);
+            writeHeadings();
+        }
+
+        private void writeHeadings() {
+            for (String heading : headings) {
+                sheet.createRow(rowIndex++).createCell(0).setCellValue(heading);
+            }
+            Row header = sheet.createRow(rowIndex++);
+            for (int i = 0; i < columns.size(); i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(columns.get(i).getLabel());
+                cell.setCellStyle(columns.get(i).isAlignRight() ? headerRightStyle : headerStyle);
+            }
+        }
+    }
+}
@@ -0,0 +1,605 @@
+package com.accounting.app.service;
+
+import com.accounting.app.dto.common.ApiResponse;
+import com.accounting.app.dto.request.ReportJobRequest;
+import com.accounting.app.dto.response.BalanceSheetReport;
+import com.accounting.app.dto.response.GeneralLedgerReport;
+import com.accounting.app.dto.response.ProfitLossReport;
+import com.accounting.app.dto.response.ReportJobResponse;
+import com.accounting.app.dto.response.TrialBalanceReport;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.exception.BusinessException;
+import com.accounting.app.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * レポートジョブサービス
+ *
+ * レポートの作成を専用の上限付きスレッドプールで実行し、結果を一時ファイルに保存する。
+ * 呼び出し元はジョブIDで進捗を確認し、完了後に結果をダウンロードする。
+ * 完了したジョブと結果ファイルは保持期間を過ぎると削除する。
+ *
+ * ジョブの状態はこのプロセスのメモリ上にのみ保持する。プロセスを再起動すると実行中・完了済みのジョブは失われ、
+ * 複数ノード構成では登録したノード以外への照会・ダウンロードは見つからない（404）。
+ * 複数ノードで使用する場合は、同じジョブの要求が同じノードに届くようにすること。
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final String PDF_CONTENT_TYPE = "application/pdf";
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+    public enum JobType {
+        TRIAL_BALANCE,            // 試算表
+        TRIAL_BALANCE_DRILL_DOWN, // 試算表（補助科目・取引先別）
+        PROFIT_LOSS,              // 損益計算書
+        BALANCE_SHEET,            // 貸借対照表
+        TREND,                    // 月次推移
+        GENERAL_LEDGER,           // 総勘定元帳（1勘定科目）
+        GENERAL_LEDGER_BATCH      // 総勘定元帳（複数勘定科目）
+    }
+
+    public enum Status {
+        QUEUED,    // 実行待ち
+        RUNNING,   // 実行中
+        SUCCEEDED, // 完了
+        FAILED,    // 失敗
+        CANCELLED  // 取消
+    }
+
+    private final GeneralLedgerService generalLedgerService;
+    private final GeneralLedgerExportService generalLedgerExportService;
+    private final TrialBalanceService trialBalanceService;
+    private final ProfitLossService profitLossService;
+    private final BalanceSheetService balanceSheetService;
+    private final TrendService trendService;
+    private final ReportCacheService reportCacheService;
+    private final ObjectMapper objectMapper;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Path resultDir;
+    private final Duration retention;
+
+    public ReportJobService(
+            GeneralLedgerService generalLedgerService,
+            GeneralLedgerExportService generalLedgerExportService,
+            TrialBalanceService trialBalanceService,
+            ProfitLossService profitLossService,
+            BalanceSheetService balanceSheetService,
+            TrendService trendService,
+            ReportCacheService reportCacheService,
+            ObjectMapper objectMapper,
+            @Value("${app.report.jobs.threads:2}") int threads,
+            @Value("${app.report.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${app.report.jobs.retention-minutes:60}") long retentionMinutes,
+            @Value("${app.report.jobs.result-dir:${java.io.tmpdir}/accounting-report-jobs}") String resultDir) {
+        this.generalLedgerService = generalLedgerService;
+        this.generalLedgerExportService = generalLedgerExportService;
+        this.trialBalanceService = trialBalanceService;
+        this.profitLossService = profitLossService;
+        this.balanceSheetService = balanceSheetService;
+        this.trendService = trendService;
+        this.reportCacheService = reportCacheService;
+        this.objectMapper = objectMapper;
+        this.resultDir = Paths.get(resultDir);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-job-housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::purgeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * レポートジョブを登録
+     * パラメータの検証は登録時に行い、レポートの作成は専用スレッドで実行する
+     * @param companyId 会社ID
+     * @param userId 登録したユーザーID
+     * @param request リクエスト
+     * @return ジョブの状態
+     */
+    public ReportJobResponse submit(Long companyId, Long userId, ReportJobRequest request) {
+        JobType type = parseType(request.getReportType());
+        ReportWriter writer = createWriter(companyId, type, request);
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), companyId, type, writer.format);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job, writer));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new BusinessException("REPORT_JOB_QUEUE_FULL",
+                    "実行待ちのレポートが上限に達しています。しばらくしてから再度お試しください");
+        }
+
+        logger.info("レポートジョブを登録しました: jobId={}, companyId={}, userId={}, type={}",
+                job.id, companyId, userId, type);
+        return toResponse(job);
+    }
+
+    /**
+     * ジョブの状態を取得
+     */
+    public ReportJobResponse get(Long companyId, String jobId) {
+        return toResponse(findJob(companyId, jobId));
+    }
+
+    /**
+     * 完了したジョブの結果を取得
+     * @throws BusinessException ジョブが完了していない場合
+     */
+    public Result getResult(Long companyId, String jobId) {
+        ReportJob job = findJob(companyId, jobId);
+        if (job.status != Status.SUCCEEDED) {
+            throw new BusinessException("REPORT_JOB_NOT_COMPLETED", "レポートの作成が完了していません（状態: " + job.status + "）");
+        }
+        String fileName = job.type.name().toLowerCase().replace('_', '-') + "-" + job.id + "." + job.format.extension;
+        return new Result(job.resultFile, job.format.contentType, fileName);
+    }
+
+    /**
+     * ジョブを取り消し、結果を削除
+     */
+    public void cancel(Long companyId, String jobId) {
+        ReportJob job = findJob(companyId, jobId);
+        synchronized (job) {
+            if (job.status == Status.QUEUED || job.status == Status.RUNNING) {
+                job.status = Status.CANCELLED;
+                job.finishedAt = LocalDateTime.now();
+            }
+        }
+        if (job.future != null) {
+            job.future.cancel(true);
+        }
+        remove(job);
+        logger.info("レポートジョブを取り消しました: jobId={}, companyId={}", jobId, companyId);
+    }
+
+    /**
+     * ジョブの進捗を Server-Sent Events で通知
+     * 一定間隔で状態を送信し、ジョブが終了した時点で完了する（タイムアウトは非同期リクエストの設定に従う）
+     */
+    public SseEmitter subscribe(Long companyId, String jobId) {
+        ReportJob job = findJob(companyId, jobId);
+        SseEmitter emitter = new SseEmitter();
+        AtomicReference<ScheduledFuture<?>> ticker = new AtomicReference<>();
+
+        Runnable stop = () -> {
+            ScheduledFuture<?> future = ticker.get();
+            if (future != null) {
+                future.cancel(false);
+            }
+        };
+        emitter.onCompletion(stop);
+        emitter.onTimeout(stop);
+        emitter.onError(error -> stop.run());
+
+        ticker.set(scheduler.scheduleAtFixedRate(() -> {
+            try {
+                ReportJobResponse response = toResponse(job);
+                emitter.send(SseEmitter.event().name("progress").data(response));
+                if (isFinished(job.status)) {
+                    stop.run();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // クライアントが切断した場合
+                stop.run();
+                emitter.completeWithError(e);
+            }
+        }, 0, PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        for (ReportJob job : jobs.values()) {
+            remove(job);
+        }
+    }
+
+    /**
+     * 保持期間を過ぎたジョブと結果ファイルを削除
+     */
+    void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ReportJob job : jobs.values()) {
+            LocalDateTime expiresAt = job.expiresAt();
+            if (expiresAt != null && expiresAt.isBefore(now)) {
+                remove(job);
+                logger.debug("保持期間を過ぎたレポートジョブを削除しました: jobId={}", job.id);
+            }
+        }
+    }
+
+    private void run(ReportJob job, ReportWriter writer) {
+        synchronized (job) {
+            if (job.status != Status.QUEUED) {
+                return;
+            }
+            job.status = Status.RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+
+        Path file = null;
+        try {
+            Files.createDirectories(resultDir);
+            file = Files.createTempFile(resultDir, "job-" + job.id + "-", "." + job.format.extension);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                writer.body.write(out, job);
+            }
+
+            synchronized (job) {
+                if (job.status == Status.RUNNING) {
+                    job.resultFile = file;
+                    job.resultSize = Files.size(file);
+                    job.status = Status.SUCCEEDED;
+                    job.finishedAt = LocalDateTime.now();
+                    file = null;
+                }
+            }
+            logger.info("レポートジョブが完了しました: jobId={}, processed={}", job.id, job.processed.get());
+        } catch (CancellationException e) {
+            logger.info("レポートジョブが中断されました: jobId={}", job.id);
+        } catch (BadRequestException | BusinessException | ResourceNotFoundException e) {
+            fail(job, e.getMessage());
+        } catch (Exception e) {
+            logger.error("レポートジョブが失敗しました: jobId={}", job.id, e);
+            fail(job, "レポートの作成に失敗しました");
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private void fail(ReportJob job, String message) {
+        synchronized (job) {
+            if (job.status == Status.RUNNING) {
+                job.status = Status.FAILED;
+                job.errorMessage = message;
+                job.finishedAt = LocalDateTime.now();
+            }
+        }
+    }
+
+    /**
+     * レポート種別とパラメータから書き込み処理を作成（パラメータを検証）
+     */
+    private ReportWriter createWriter(Long companyId, JobType type, ReportJobRequest request) {
+        switch (type) {
+            case TRIAL_BALANCE: {
+                LocalDate asOfDate = require(request.getAsOfDate(), "asOfDate");
+                Supplier<TrialBalanceReport> report = () -> reportCacheService.get(companyId,
+                        ReportCacheService.ReportType.TRIAL_BALANCE, () -> trialBalanceService.generate(companyId, asOfDate), asOfDate);
+                return statement(request.getFormat(), report, trialBalanceService::exportPdf, trialBalanceService::writeExcel);
+            }
+            case TRIAL_BALANCE_DRILL_DOWN: {
+                LocalDate asOfDate = require(request.getAsOfDate(), "asOfDate");
+                Set<TrialBalanceService.DrillDownGroup> groups =
+                        TrialBalanceService.DrillDownGroup.parse(require(request.getGroupBy(), "groupBy"));
+                boolean bySubAccount = groups.contains(TrialBalanceService.DrillDownGroup.SUB_ACCOUNT);
+                boolean byPartner = groups.contains(TrialBalanceService.DrillDownGroup.PARTNER);
+                boolean subtotals = request.getSubtotals() == null || request.getSubtotals();
+                return json(() -> reportCacheService.get(companyId, ReportCacheService.ReportType.TRIAL_BALANCE_DRILL_DOWN,
+                        () -> trialBalanceService.generateDrillDown(companyId, asOfDate, bySubAccount, byPartner, subtotals),
+                        asOfDate, bySubAccount, byPartner, subtotals));
+            }
+            case PROFIT_LOSS: {
+                LocalDate startDate = require(request.getStartDate(), "startDate");
+                LocalDate endDate = require(request.getEndDate(), "endDate");
+                Supplier<ProfitLossReport> report = () -> reportCacheService.get(companyId,
+                        ReportCacheService.ReportType.PROFIT_LOSS, () -> profitLossService.generate(companyId, startDate, endDate),
+                        startDate, endDate);
+                return statement(request.getFormat(), report, profitLossService::exportPdf, profitLossService::writeExcel);
+            }
+            case BALANCE_SHEET: {
+                LocalDate asOfDate = require(request.getAsOfDate(), "asOfDate");
+                Supplier<BalanceSheetReport> report = () -> reportCacheService.get(companyId,
+                        ReportCacheService.ReportType.BALANCE_SHEET, () -> balanceSheetService.generate(companyId, asOfDate), asOfDate);
+                return statement(request.getFormat(), report, balanceSheetService::exportPdf, balanceSheetService::writeExcel);
+            }
+            case TREND: {
+                YearMonth fromMonth = require(request.getFromMonth(), "fromMonth");
+                YearMonth toMonth = require(request.getToMonth(), "toMonth");
+                boolean includePriorYear = request.getIncludePriorYear() != null && request.getIncludePriorYear();
+                return json(() -> reportCacheService.get(companyId, ReportCacheService.ReportType.TREND,
+                        () -> trendService.generate(companyId, fromMonth, toMonth, includePriorYear),
+                        fromMonth, toMonth, includePriorYear));
+            }
+            case GENERAL_LEDGER: {
+                Long accountId = require(request.getAccountId(), "accountId");
+                LocalDate startDate = require(request.getStartDate(), "startDate");
+                LocalDate endDate = require(request.getEndDate(), "endDate");
+                GeneralLedgerExportService.Format format = ledgerFormat(request.getFormat());
+                return new ReportWriter(toResultFormat(format), (out, job) -> {
+                    GeneralLedgerReport header = generalLedgerService.generateHeader(companyId, accountId, startDate, endDate);
+                    generalLedgerExportService.write(companyId, header, accountId, format, out, job::entryWritten);
+                });
+            }
+            case GENERAL_LEDGER_BATCH: {
+                LocalDate startDate = require(request.getStartDate(), "startDate");
+                LocalDate endDate = require(request.getEndDate(), "endDate");
+                List<Long> accountIds = request.getAccountIds() != null && !request.getAccountIds().isEmpty()
+                        ? request.getAccountIds() : null;
+                GeneralLedgerExportService.Format format = ledgerFormat(request.getFormat());
+                return new ReportWriter(toResultFormat(format), (out, job) -> {
+                    List<GeneralLedgerReport> headers = generalLedgerService.generateBatchHeaders(
+                            companyId, accountIds, startDate, endDate);
+                    generalLedgerExportService.writeBatch(companyId, headers, accountIds, format, out, job::entryWritten);
+                });
+            }
+            default:
+                throw new BadRequestException("未対応のレポート種別です: " + type);
+        }
+    }
+
+    /**
+     * 通常のAPIレスポンスと同じ形式（{"success":true,"data":{...}}）で書き込む
+     */
+    private ReportWriter json(Supplier<Object> report) {
+        return new ReportWriter(ResultFormat.JSON, (out, job) -> {
+            Object data = report.get();
+            objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .writeValue(out, ApiResponse.success(data));
+        });
+    }
+
+    /**
+     * 試算表・損益計算書・貸借対照表を指定の形式（json・pdf・xlsx、省略時は json）で書き込む
+     */
+    private <T> ReportWriter statement(String format, Supplier<T> report,
+                                       Function<T, byte[]> pdf, StatementWriter<T> excel) {
+        if (format == null || "json".equalsIgnoreCase(format)) {
+            return json(report::get);
+        } else if ("pdf".equalsIgnoreCase(format)) {
+            return new ReportWriter(ResultFormat.PDF, (out, job) -> out.write(pdf.apply(report.get())));
+        } else if ("xlsx".equalsIgnoreCase(format)) {
+            return new ReportWriter(ResultFormat.XLSX, (out, job) -> excel.write(report.get(), out));
+        }
+        throw new BadRequestException("format は json、pdf または xlsx で指定してください");
+    }
+
+    private GeneralLedgerExportService.Format ledgerFormat(String format) {
+        return format != null ? GeneralLedgerExportService.Format.of(format) : GeneralLedgerExportService.Format.JSON;
+    }
+
+    private ResultFormat toResultFormat(GeneralLedgerExportService.Format format) {
+        switch (format) {
+            case NDJSON:
+                return ResultFormat.NDJSON;
+            case PDF:
+                return ResultFormat.PDF;
+            case XLSX:
+                return ResultFormat.XLSX;
+            default:
+                return ResultFormat.JSON;
+        }
+    }
+
+    private JobType parseType(String reportType) {
+        for (JobType type : JobType.values()) {
+            if (type.name().equalsIgnoreCase(reportType)) {
+                return type;
+            }
+        }
+        throw new BadRequestException("未対応のレポート種別です: " + reportType);
+    }
+
+    private static <T> T require(T value, String name) {
+        if (value == null) {
+            throw new BadRequestException(name + " は必須です");
+        }
+        return value;
+    }
+
+    private ReportJob findJob(Long companyId, String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null || !job.companyId.equals(companyId)) {
+            throw new ResourceNotFoundException("ReportJob", "id", jobId);
+        }
+        return job;
+    }
+
+    private void remove(ReportJob job) {
+        jobs.remove(job.id);
+        Path file;
+        synchronized (job) {
+            file = job.resultFile;
+            job.resultFile = null;
+        }
+        deleteQuietly(file);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("レポート結果ファイルを削除できませんでした: {}", file, e);
+        }
+    }
+
+    private static boolean isFinished(Status status) {
+        return status == Status.SUCCEEDED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    private ReportJobResponse toResponse(ReportJob job) {
+        ReportJobResponse response = new ReportJobResponse();
+        synchronized (job) {
+            response.setJobId(job.id);
+            response.setReportType(job.type.name());
+            response.setFormat(job.format.name());
+            response.setStatus(job.status.name());
+            response.setProcessed(job.processed.get());
+            response.setCreatedAt(job.createdAt);
+            response.setStartedAt(job.startedAt);
+            response.setFinishedAt(job.finishedAt);
+            response.setExpiresAt(job.expiresAt());
+            response.setResultSize(job.resultSize);
+            response.setErrorMessage(job.errorMessage);
+        }
+        return response;
+    }
+
+    /**
+     * ジョブ結果の出力形式
+     */
+    enum ResultFormat {
+        JSON(JSON_CONTENT_TYPE, "json"),
+        NDJSON(NDJSON_CONTENT_TYPE, "ndjson"),
+        PDF(PDF_CONTENT_TYPE, "pdf"),
+        XLSX(XLSX_CONTENT_TYPE, "xlsx");
+
+        final String contentType;
+        final String extension;
+
+        ResultFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    /**
+     * レポートの書き込み処理
+     */
+    @FunctionalInterface
+    interface ReportBody {
+        void write(OutputStream out, ReportJob job) throws IOException;
+    }
+
+    /**
+     * 生成済みのレポートの書き込み処理
+     */
+    @FunctionalInterface
+    interface StatementWriter<T> {
+        void write(T report, OutputStream out) throws IOException;
+    }
+
+    private static final class ReportWriter {
+        final ResultFormat format;
+        final ReportBody body;
+
+        ReportWriter(ResultFormat format, ReportBody body) {
+            this.format = format;
+            this.body = body;
+        }
+    }
+
+    /**
+     * ジョブ結果（ダウンロード用）
+     */
+    public static final class Result {
+        private final Path file;
+        private final String contentType;
+        private final String fileName;
+
+        Result(Path file, String contentType, String fileName) {
+            this.file = file;
+            this.contentType = contentType;
+            this.fileName = fileName;
+        }
+
+        public Path getFile() { return file; }
+
+        public String getContentType() { return contentType; }
+
+        public String getFileName() { return fileName; }
+    }
+
+    /**
+     * ジョブ（状態の更新はジョブ単位で同期する）
+     */
+    final class ReportJob {
+        final String id;
+        final Long companyId;
+        final JobType type;
+        final ResultFormat format;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicLong processed = new AtomicLong();
+        volatile Status status = Status.QUEUED;
+        volatile Future<?> future;
+        LocalDateTime startedAt;
+        LocalDateTime finishedAt;
+        Path resultFile;
+        Long resultSize;
+        String errorMessage;
+
+        ReportJob(String id, Long companyId, JobType type, ResultFormat format) {
+            this.id = id;
+            this.companyId = companyId;
+            this.type = type;
+            this.format = format;
+        }
+
+        /**
+         * 明細1行の書き込みを記録（取消済みの場合は中断）
+         */
+        void entryWritten() {
+            processed.incrementAndGet();
+            if (status == Status.CANCELLED || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+        }
+
+        synchronized LocalDateTime expiresAt() {
+            return finishedAt != null ? finishedAt.plus(retention) : null;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.accounting.app.service;
+
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 帳票PDFの作成
+ *
+ * 表形式の帳票を1行ずつ書き込み、ページが埋まるごとにページのコンテンツを確定する。
+ * 確定したページは app.pdf.temp-dir の一時ファイルに退避するため、明細行数が多くてもヒープ使用量は一定。
+ * 日本語フォント（app.pdf.font-path の TrueType フォント）は解析済みのものをプールして再利用し、
+ * 文書内では全ページで1つのフォントを共有する（出力時に使用文字のみ埋め込む）。
+ * フォント未設定時は標準フォントで出力し、表示できない文字は「?」に置き換える。
+ */
+@Component
+public class ReportPdfRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportPdfRenderer.class);
+
+    private static final PDRectangle PAGE_SIZE = PDRectangle.A4;
+    private static final float MARGIN = 36f;
+    private static final float TITLE_FONT_SIZE = 14f;
+    private static final float FONT_SIZE = 9f;
+    private static final float LINE_HEIGHT = 14f;
+    private static final float CELL_PADDING = 3f;
+
+    private final Path tempDir;
+    private final File fontFile;
+    private final long maxMainMemoryBytes;
+    private final BlockingQueue<TrueTypeFont> fontPool;
+
+    public ReportPdfRenderer(
+            @Value("${app.pdf.temp-dir}") String tempDir,
+            @Value("${app.pdf.font-path:}") String fontPath,
+            @Value("${app.pdf.max-main-memory-bytes:1048576}") long maxMainMemoryBytes,
+            @Value("${app.pdf.font-pool-size:4}") int fontPoolSize) {
+        this.tempDir = Paths.get(tempDir);
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
+        this.fontPool = new ArrayBlockingQueue<>(Math.max(1, fontPoolSize));
+
+        File file = fontPath.isEmpty() ? null : new File(fontPath);
+        if (file != null && !file.isFile()) {
+            logger.warn("PDF用フォントが見つかりません（標準フォントで出力します）: {}", fontPath);
+            file = null;
+        } else if (file == null) {
+            logger.warn("PDF用フォントが未設定です（日本語は表示されません）: app.pdf.font-path");
+        }
+        this.fontFile = file;
+    }
+
+    /**
+     * 表形式の帳票を開く
+     * 書き込み後は writeTo で出力し、close で一時ファイルとフォントを解放すること
+     * 金額のセルは amount の形式で表示する
+     * @param title 帳票名（各ページの先頭に出力）
+     * @param columns 列の定義
+     */
+    public Table open(String title, List<ReportTable.Column> columns) throws IOException {
+        Files.createDirectories(tempDir);
+        PDDocument document = new PDDocument(
+                MemoryUsageSetting.setupMixed(maxMainMemoryBytes).setTempDir(tempDir.toFile()));
+        TrueTypeFont trueTypeFont = null;
+        try {
+            PDFont font;
+            if (fontFile != null) {
+                trueTypeFont = borrowFont();
+                font = PDType0Font.load(document, trueTypeFont, true);
+            } else {
+                font = PDType1Font.HELVETICA;
+            }
+            return new Table(document, font, trueTypeFont, title, columns);
+        } catch (IOException | RuntimeException e) {
+            document.close();
+            if (trueTypeFont != null) {
+                releaseFont(trueTypeFont);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 金額の表示文字列（3桁区切り、小数部がある場合のみ小数2桁）
+     */
+    public static String amount(BigDecimal value) {
+        if (value == null) {
+            return "";
+        }
+        BigDecimal rounded = value.stripTrailingZeros().scale() <= 0
+                ? value.setScale(0, RoundingMode.UNNECESSARY)
+                : value.setScale(2, RoundingMode.HALF_UP);
+        String plain = rounded.abs().toPlainString();
+        int point = plain.indexOf('.');
+        int integerDigits = point >= 0 ? point : plain.length();
+
+        StringBuilder text = new StringBuilder(plain.length() + integerDigits / 3 + 1);
+        if (rounded.signum() < 0) {
+            text.append('-');
+        }
+        for (int i = 0; i < integerDigits; i++) {
+            if (i > 0 && (integerDigits - i) % 3 == 0) {
+                text.append(',');
+            }
+            text.append(plain.charAt(i));
+        }
+        return text.append(plain, integerDigits, plain.length()).toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        TrueTypeFont font;
+        while ((font = fontPool.poll()) != null) {
+            closeQuietly(font);
+        }
+    }
+
+    /**
+     * 解析済みフォントを取得（プールが空の場合は新たに解析）
+     * TrueTypeFont は複数スレッドから同時に使えないため、文書の出力が終わるまで1つの文書で占有する
+     */
+    private TrueTypeFont borrowFont() throws IOException {
+        TrueTypeFont font = fontPool.poll();
+        return font != null ? font : new TTFParser().parse(fontFile);
+    }
+
+    private void releaseFont(TrueTypeFont font) {
+        if (!fontPool.offer(font)) {
+            closeQuietly(font);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.warn("PDF用リソースのクローズに失敗しました", e);
+        }
+    }
+
+    /**
+     * 書き込み中の表形式帳票
+     * 見出し（帳票名・見出し行・列名）はページごとに出力する
+     */
+    public final class Table implements ReportTable {
+
+        private final PDDocument document;
+        private final PDFont font;
+        private final TrueTypeFont trueTypeFont;
+        private final String title;
+        private final List<Column> columns;
+        private final float[] columnWidths;
+
+        private List<String> headings = Collections.emptyList();
+        private PDPageContentStream content;
+        private float y;
+        private int pageNumber;
+        private boolean closed;
+
+        private Table(PDDocument document, PDFont font, TrueTypeFont trueTypeFont,
+                      String title, List<Column> columns) {
+            this.document = document;
+            this.font = font;
+            this.trueTypeFont = trueTypeFont;
+            this.title = title;
+            this.columns = new ArrayList<>(columns);
+
+            float totalWidth = 0f;
+            for (Column column : columns) {
+                totalWidth += column.getWidth();
+            }
+            float usableWidth = PAGE_SIZE.getWidth() - MARGIN * 2;
+            this.columnWidths = new float[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                columnWidths[i] = usableWidth * columns.get(i).getWidth() / totalWidth;
+            }
+        }
+
+        /**
+         * 見出し行を設定（書き込み済みの行がある場合は改ページ）
+         * 総勘定元帳の勘定科目など、以降のページの見出しに出力する
+         */
+        @Override
+        public void section(String... headingLines) throws IOException {
+            headings = Arrays.asList(headingLines);
+            if (content != null) {
+                finishPage();
+            }
+        }
+
+        @Override
+        public void row(Object... cells) throws IOException {
+            writeRow(cells, false);
+        }
+
+        /**
+         * 合計行を書き込む（上に罫線を引く）
+         */
+        @Override
+        public void totalRow(Object... cells) throws IOException {
+            writeRow(cells, true);
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (content == null && pageNumber == 0) {
+                startPage();
+            }
+            if (content != null) {
+                finishPage();
+            }
+            document.save(out);
+        }
+
+        public int getPageCount() {
+            return pageNumber;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (content != null) {
+                    content.close();
+                    content = null;
+                }
+            } finally {
+                try {
+                    document.close();
+                } finally {
+                    if (trueTypeFont != null) {
+                        releaseFont(trueTypeFont);
+                    }
+                }
+            }
+        }
+
+        private void writeRow(Object[] cells, boolean total) throws IOException {
+            if (content == null || y - LINE_HEIGHT < MARGIN + LINE_HEIGHT) {
+                if (content != null) {
+                    finishPage();
+                }
+                startPage();
+            }
+            if (total) {
+                rule(y);
+            }
+            drawCells(cells, y - LINE_HEIGHT + (LINE_HEIGHT - FONT_SIZE) / 2);
+            y -= LINE_HEIGHT;
+        }
+
+        private void startPage() throws IOException {
+            PDPage page = new PDPage(PAGE_SIZE);
+            document.addPage(page);
+            content = new PDPageContentStream(document, page);
+            pageNumber++;
+            content.setLineWidth(0.5f);
+
+            float top = PAGE_SIZE.getHeight() - MARGIN;
+            drawText(printable(title), TITLE_FONT_SIZE, MARGIN, top - TITLE_FONT_SIZE);
+            y = top - TITLE_FONT_SIZE - LINE_HEIGHT / 2;
+            for (String heading : headings) {
+                drawText(fit(heading, FONT_SIZE, PAGE_SIZE.getWidth() - MARGIN * 2), FONT_SIZE, MARGIN, y - FONT_SIZE);
+                y -= LINE_HEIGHT;
+            }
+
+            y -= LINE_HEIGHT / 2;
+            String[] labels = new String[columns.size()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = columns.get(i).getLabel();
+            }
+            rule(y);
+            drawCells(labels, y - LINE_HEIGHT + (LINE_HEIGHT - FONT_SIZE) / 2);
+            y -= LINE_HEIGHT;
+            rule(y);
+        }
+
+        /**
+         * ページ番号を書き込んでページを確定（コンテンツは一時ファイルへ退避される）
+         */
+        private void finishPage() throws IOException {
+            String number = "- " + pageNumber + " -";
+            float width = width(number, FONT_SIZE);
+            drawText(number, FONT_SIZE, (PAGE_SIZE.getWidth() - width) / 2, MARGIN / 2);
+            content.close();
+            content = null;
+        }
+
+        private void drawCells(Object[] cells, float baseline) throws IOException {
+            float x = MARGIN;
+            for (int i = 0; i < columnWidths.length; i++) {
+                String cell = i < cells.length ? cellText(cells[i]) : "";
+                float cellWidth = columnWidths[i] - CELL_PADDING * 2;
+                String text = fit(cell, FONT_SIZE, cellWidth);
+                if (!text.isEmpty()) {
+                    float textX = columns.get(i).isAlignRight()
+                            ? x + columnWidths[i] - CELL_PADDING - width(text, FONT_SIZE)
+                            : x + CELL_PADDING;
+                    drawText(text, FONT_SIZE, textX, baseline);
+                }
+                x += columnWidths[i];
+            }
+        }
+
+        private String cellText(Object value) {
+            if (value == null) {
+                return "";
+            }
+            return value instanceof BigDecimal ? amount((BigDecimal) value) : value.toString();
+        }
+
+        private void drawText(String text, float fontSize, float x, float baseline) throws IOException {
+            content.beginText();
+            content.setFont(font, fontSize);
+            content.newLineAtOffset(x, baseline);
+            content.showText(text);
+            content.endText();
+        }
+
+        private void rule(float lineY) throws IOException {
+            content.moveTo(MARGIN, lineY);
+            content.lineTo(PAGE_SIZE.getWidth() - MARGIN, lineY);
+            content.stroke();
+        }
+
+        /**
+         * 表示できない文字を置き換え、幅に収まるよう末尾を切り詰める
+         */
+        private String fit(String text, float fontSize, float maxWidth) throws IOException {
+            String printable = printable(text);
+            if (width(printable, fontSize) <= maxWidth) {
+                return printable;
+            }
+            int end = printable.length();
+            while (end > 0 && width(printable.substring(0, end), fontSize) > maxWidth) {
+                end = printable.offsetByCodePoints(end, -1);
+            }
+            return printable.substring(0, end);
+        }
+
+        private float width(String printableText, float fontSize) throws IOException {
+            return font.getStringWidth(printableText) / 1000f * fontSize;
+        }
+
+        /**
+         * フォントで表示できない文字と制御文字を置き換える
+         */
+        private String printable(String text) throws IOException {
+            if (isEncodable(text)) {
+                return text;
+            }
+            StringBuilder result = new StringBuilder(text.length());
+            text.codePoints().forEach(codePoint -> {
+                String character = Character.isISOControl(codePoint) ? " " : new String(Character.toChars(codePoint));
+                result.append(isEncodable(character) ? character : "?");
+            });
+            return result.toString();
+        }
+
+        private boolean isEncodable(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (Character.isISOControl(text.charAt(i))) {
+                    return false;
+                }
+            }
+            try {
+                font.encode(text);
+                return true;
+            } catch (IllegalArgumentException | IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.accounting.app.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 表形式の帳票（PDF・Excel 共通の書き込み先）
+ *
+ * 行は書き込んだ順に確定していくため、書き込み済みの行を変更することはできない。
+ * セルの値は String・BigDecimal（金額）・LocalDate・null（空欄）で指定する。
+ * 出力後は close で一時ファイルなどを解放すること。
+ */
+public interface ReportTable extends Closeable {
+
+    /**
+     * 見出し行を設定（勘定科目ごとの元帳など、表の区切り）
+     */
+    void section(String... headingLines) throws IOException;
+
+    /**
+     * 明細行を書き込む
+     */
+    void row(Object... cells) throws IOException;
+
+    /**
+     * 合計行を書き込む
+     */
+    void totalRow(Object... cells) throws IOException;
+
+    /**
+     * 帳票を出力ストリームへ書き込む（出力ストリームはクローズしない）
+     */
+    void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * 帳票をバイト配列で取得
+     */
+    default byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 列の定義
+     */
+    final class Column {
+
+        private final String label;
+        private final float width;
+        private final boolean alignRight;
+
+        private Column(String label, float width, boolean alignRight) {
+            this.label = label;
+            this.width = width;
+            this.alignRight = alignRight;
+        }
+
+        /**
+         * 左寄せの列（幅はポイント単位の目安、PDFでは他の列との比率で配分する）
+         */
+        public static Column left(String label, float width) {
+            return new Column(label, width, false);
+        }
+
+        /**
+         * 右寄せの列（金額など）
+         */
+        public static Column right(String label, float width) {
+            return new Column(label, width, true);
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public float getWidth() {
+            return width;
+        }
+
+        public boolean isAlignRight() {
+            return alignRight;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.accounting.app.service;
+
+import com.accounting.app.entity.Account;
+import com.accounting.app.repository.projection.AccountTypeTotals;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 財務諸表の勘定科目タイプ別合計
+ * 資産・負債・純資産は累計期間、収益・費用は当期期間の残高を保持する。
+ */
+public class StatementTotals {
+    private BigDecimal assets = BigDecimal.ZERO;
+    private BigDecimal liabilities = BigDecimal.ZERO;
+    private BigDecimal equity = BigDecimal.ZERO;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private BigDecimal expense = BigDecimal.ZERO;
+
+    /**
+     * 勘定科目タイプ別集計から作成
+     */
+    static StatementTotals from(List<AccountTypeTotals> rows) {
+        StatementTotals totals = new StatementTotals();
+        for (AccountTypeTotals row : rows) {
+            Account.AccountType accountType = row.getAccountType();
+
+            if (accountType == Account.AccountType.ASSET) {
+                // 資産: 借方増加、貸方減少
+                totals.assets = totals.assets.add(row.getDebitTotal()).subtract(row.getCreditTotal());
+            } else if (accountType == Account.AccountType.LIABILITY) {
+                // 負債: 貸方増加、借方減少
+                totals.liabilities = totals.liabilities.add(row.getCreditTotal()).subtract(row.getDebitTotal());
+            } else if (accountType == Account.AccountType.EQUITY) {
+                // 純資産: 貸方増加、借方減少
+                totals.equity = totals.equity.add(row.getCreditTotal()).subtract(row.getDebitTotal());
+            } else if (accountType == Account.AccountType.REVENUE) {
+                // 収益: 貸方増加、借方減少
+                totals.revenue = totals.revenue.add(row.getPeriodCreditTotal()).subtract(row.getPeriodDebitTotal());
+            } else if (accountType == Account.AccountType.EXPENSE) {
+                // 費用: 借方増加、貸方減少
+                totals.expense = totals.expense.add(row.getPeriodDebitTotal()).subtract(row.getPeriodCreditTotal());
+            }
+        }
+        return totals;
+    }
+
+    public BigDecimal getAssets() { return assets; }
+
+    public BigDecimal getLiabilities() { return liabilities; }
+
+    public BigDecimal getEquity() { return equity; }
+
+    public BigDecimal getRevenue() { return revenue; }
+
+    public BigDecimal getExpense() { return expense; }
+
+    /**
+     * 当期純利益（収益 - 費用）
+     */
+    public BigDecimal getNetProfit() {
+        return revenue.subtract(expense);
+    }
+}
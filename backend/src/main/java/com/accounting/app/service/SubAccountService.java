@@ -27,13 +27,16 @@ public class SubAccountService {
     private final SubAccountRepository subAccountRepository;
     private final AccountRepository accountRepository;
     private final JournalDetailRepository journalDetailRepository;
+    private final LedgerVersionService ledgerVersionService;
 
     public SubAccountService(SubAccountRepository subAccountRepository,
                             AccountRepository accountRepository,
-                            JournalDetailRepository journalDetailRepository) {
+                            JournalDetailRepository journalDetailRepository,
+                            LedgerVersionService ledgerVersionService) {
         this.subAccountRepository = subAccountRepository;
         this.accountRepository = accountRepository;
         this.journalDetailRepository = journalDetailRepository;
+        this.ledgerVersionService = ledgerVersionService;
     }
 
     @Transactional(readOnly = true)
@@ -95,6 +98,9 @@ public class SubAccountService {
         subAccount.setAccount(account);
 
         SubAccount updated = subAccountRepository.save(subAccount);
+
+        // コード・名称は試算表（補助科目・取引先別）に表示されるため元帳バージョンを進める
+        ledgerVersionService.bump(updated.getCompany().getId());
         return SubAccountResponse.from(updated);
     }
 
@@ -109,6 +115,9 @@ public class SubAccountService {
         }
 
         subAccountRepository.deleteById(id);
+
+        // 削除した補助科目がキャッシュ済みのレポートに残らないよう元帳バージョンを進める
+        ledgerVersionService.bump(subAccount.getCompany().getId());
     }
 
     @Transactional(readOnly = true)
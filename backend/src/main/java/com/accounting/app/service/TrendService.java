@@ -0,0 +1,137 @@
+package com.accounting.app.service;
+
+import com.accounting.app.dto.response.TrendEntry;
+import com.accounting.app.dto.response.TrendReport;
+import com.accounting.app.entity.Account;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.repository.AccountClosingBalanceRepository;
+import com.accounting.app.repository.AccountPeriodBalanceRepository;
+import com.accounting.app.repository.projection.AccountBalanceSummary;
+import com.accounting.app.repository.projection.MonthlyTypeTotals;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 月次推移サービス
+ * 指定範囲の月ごとの損益と月末残高を、月次の勘定科目期間残高の1回の集計で求める
+ */
+@Service
+@Transactional(readOnly = true)
+public class TrendService {
+
+    /** 1回に取得できる最大月数 */
+    static final int MAX_MONTHS = 120;
+
+    private final AccountPeriodBalanceRepository accountPeriodBalanceRepository;
+    private final AccountClosingBalanceRepository accountClosingBalanceRepository;
+
+    public TrendService(
+            AccountPeriodBalanceRepository accountPeriodBalanceRepository,
+            AccountClosingBalanceRepository accountClosingBalanceRepository) {
+        this.accountPeriodBalanceRepository = accountPeriodBalanceRepository;
+        this.accountClosingBalanceRepository = accountClosingBalanceRepository;
+    }
+
+    /**
+     * 月次推移レポートを生成
+     * @param companyId 会社ID
+     * @param fromMonth 開始月
+     * @param toMonth 終了月
+     * @param includePriorYear 前年同月の損益を含めるか
+     */
+    public TrendReport generate(Long companyId, YearMonth fromMonth, YearMonth toMonth, boolean includePriorYear) {
+        if (toMonth.isBefore(fromMonth)) {
+            throw new BadRequestException("終了月は開始月以降である必要があります");
+        }
+        if (ChronoUnit.MONTHS.between(fromMonth, toMonth) >= MAX_MONTHS) {
+            throw new BadRequestException("期間は" + MAX_MONTHS + "か月以内で指定してください");
+        }
+
+        // 月末残高の起点: 開始月より前の最新の締め残高（月末締めの場合のみ使用）
+        Map<Account.AccountType, BigDecimal> balances = new EnumMap<>(Account.AccountType.class);
+        YearMonth closingMonth = null;
+        LocalDate closingDate = accountClosingBalanceRepository
+                .findLatestClosingDate(companyId, fromMonth.atDay(1).minusDays(1));
+        if (closingDate != null && closingDate.equals(YearMonth.from(closingDate).atEndOfMonth())) {
+            closingMonth = YearMonth.from(closingDate);
+            for (AccountBalanceSummary summary : accountClosingBalanceRepository.sumByAccount(companyId, closingDate)) {
+                balances.merge(summary.getAccountType(), summary.getDebitBalance(), BigDecimal::add);
+            }
+        }
+
+        // 月残高の累計開始月と、前年同月の損益に必要な月のうち早い方から集計
+        YearMonth profitFromMonth = includePriorYear ? fromMonth.minusYears(1) : fromMonth;
+        LocalDate scanFrom = closingMonth != null ? closingMonth.plusMonths(1).atDay(1) : BalanceRange.EPOCH;
+        if (profitFromMonth.atDay(1).isBefore(scanFrom)) {
+            scanFrom = profitFromMonth.atDay(1);
+        }
+
+        // 月ごとの勘定科目タイプ別の借方残高（借方 - 貸方）
+        Map<YearMonth, Map<Account.AccountType, BigDecimal>> movements = new TreeMap<>();
+        List<MonthlyTypeTotals> rows = accountPeriodBalanceRepository
+                .sumMonthlyByAccountType(companyId, scanFrom, toMonth.atDay(1));
+        for (MonthlyTypeTotals row : rows) {
+            movements.computeIfAbsent(YearMonth.from(row.getPeriodMonth()),
+                            month -> new EnumMap<>(Account.AccountType.class))
+                    .merge(row.getAccountType(), row.getDebitTotal().subtract(row.getCreditTotal()), BigDecimal::add);
+        }
+
+        // 開始月の前月末までの残高
+        for (Map.Entry<YearMonth, Map<Account.AccountType, BigDecimal>> movement : movements.entrySet()) {
+            YearMonth month = movement.getKey();
+            if (!month.isBefore(fromMonth)) {
+                break;
+            }
+            if (closingMonth == null || month.isAfter(closingMonth)) {
+                movement.getValue().forEach((type, amount) -> balances.merge(type, amount, BigDecimal::add));
+            }
+        }
+
+        TrendReport report = new TrendReport();
+        report.setFromMonth(fromMonth);
+        report.setToMonth(toMonth);
+        report.setIncludePriorYear(includePriorYear);
+
+        for (YearMonth month = fromMonth; !month.isAfter(toMonth); month = month.plusMonths(1)) {
+            Map<Account.AccountType, BigDecimal> movement = movements.getOrDefault(month, Map.of());
+            movement.forEach((type, amount) -> balances.merge(type, amount, BigDecimal::add));
+
+            TrendEntry entry = new TrendEntry();
+            entry.setMonth(month);
+
+            // 収益: 貸方増加、費用: 借方増加
+            entry.setRevenue(debitBalance(movement, Account.AccountType.REVENUE).negate());
+            entry.setExpense(debitBalance(movement, Account.AccountType.EXPENSE));
+            entry.setNetProfit(entry.getRevenue().subtract(entry.getExpense()));
+
+            // 資産: 借方増加、負債・純資産: 貸方増加
+            entry.setAssets(debitBalance(balances, Account.AccountType.ASSET));
+            entry.setLiabilities(debitBalance(balances, Account.AccountType.LIABILITY).negate());
+            entry.setEquity(debitBalance(balances, Account.AccountType.EQUITY).negate());
+
+            if (includePriorYear) {
+                Map<Account.AccountType, BigDecimal> prior = movements.getOrDefault(month.minusYears(1), Map.of());
+                entry.setPriorRevenue(debitBalance(prior, Account.AccountType.REVENUE).negate());
+                entry.setPriorExpense(debitBalance(prior, Account.AccountType.EXPENSE));
+                entry.setPriorNetProfit(entry.getPriorRevenue().subtract(entry.getPriorExpense()));
+            }
+
+            report.getEntries().add(entry);
+        }
+
+        return report;
+    }
+
+    private BigDecimal debitBalance(Map<Account.AccountType, BigDecimal> totals, Account.AccountType accountType) {
+        return totals.getOrDefault(accountType, BigDecimal.ZERO);
+    }
+}
@@ -1,18 +1,28 @@
 package com.accounting.app.service;
 
+import com.accounting.app.dto.response.TrialBalanceDrillDownEntry;
+import com.accounting.app.dto.response.TrialBalanceDrillDownReport;
 import com.accounting.app.dto.response.TrialBalanceEntry;
 import com.accounting.app.dto.response.TrialBalanceReport;
-import com.accounting.app.entity.Account;
-import com.accounting.app.entity.JournalDetail;
-import com.accounting.app.repository.AccountRepository;
-import com.accounting.app.repository.JournalDetailRepository;
+import com.accounting.app.exception.BadRequestException;
+import com.accounting.app.repository.projection.AccountBalanceSummary;
+import com.accounting.app.repository.projection.AccountDrillDownTotal;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * 試算表サービス
@@ -21,54 +31,74 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class TrialBalanceService {
 
-    private final JournalDetailRepository journalDetailRepository;
-    private final AccountRepository accountRepository;
+    private static final String TABLE_TITLE = "試算表";
+    private static final List<ReportTable.Column> TABLE_COLUMNS = Arrays.asList(
+            ReportTable.Column.left("科目コード", 70),
+            ReportTable.Column.left("勘定科目", 200),
+            ReportTable.Column.right("借方残高", 110),
+            ReportTable.Column.right("貸方残高", 110));
 
-    public TrialBalanceService(
-            JournalDetailRepository journalDetailRepository,
-            AccountRepository accountRepository) {
-        this.journalDetailRepository = journalDetailRepository;
-        this.accountRepository = accountRepository;
+    private final AccountBalanceQueryService accountBalanceQueryService;
+    private final ReportPdfRenderer reportPdfRenderer;
+    private final ReportExcelRenderer reportExcelRenderer;
+
+    public TrialBalanceService(AccountBalanceQueryService accountBalanceQueryService,
+                               ReportPdfRenderer reportPdfRenderer,
+                               ReportExcelRenderer reportExcelRenderer) {
+        this.accountBalanceQueryService = accountBalanceQueryService;
+        this.reportPdfRenderer = reportPdfRenderer;
+        this.reportExcelRenderer = reportExcelRenderer;
     }
 
     /**
-     * 試算表を生成
+     * 試算表の集計区分（補助科目・取引先別）
      */
-    public TrialBalanceReport generate(Long companyId, LocalDate asOfDate) {
-        // 基準日までの全仕訳明細を取得
-        List<JournalDetail> details = journalDetailRepository
-                .findByCompanyIdAndJournalDateBeforeOrEqual(companyId, asOfDate);
-
-        // 勘定科目ごとに集計
-        Map<Long, AccountBalance> balanceMap = new HashMap<>();
-
-        for (JournalDetail detail : details) {
-            Account account = detail.getAccount();
-            AccountBalance balance = balanceMap.computeIfAbsent(
-                    account.getId(),
-                    k -> new AccountBalance(account)
-            );
-
-            if (detail.getEntryType() == JournalDetail.EntryType.DEBIT) {
-                balance.debitTotal = balance.debitTotal.add(detail.getAmount());
-            } else {
-                balance.creditTotal = balance.creditTotal.add(detail.getAmount());
+    public enum DrillDownGroup {
+        SUB_ACCOUNT("subAccount"),
+        PARTNER("partner");
+
+        private final String parameterName;
+
+        DrillDownGroup(String parameterName) {
+            this.parameterName = parameterName;
+        }
+
+        /**
+         * リクエストパラメータの集計区分を変換
+         */
+        public static Set<DrillDownGroup> parse(Collection<String> groupBy) {
+            Set<DrillDownGroup> groups = EnumSet.noneOf(DrillDownGroup.class);
+            for (String name : groupBy) {
+                groups.add(Arrays.stream(values())
+                        .filter(group -> group.parameterName.equalsIgnoreCase(name))
+                        .findFirst()
+                        .orElseThrow(() -> new BadRequestException("groupBy は subAccount または partner で指定してください")));
             }
+            return groups;
         }
+    }
+
+    /**
+     * 試算表を生成
+     */
+    public TrialBalanceReport generate(Long companyId, LocalDate asOfDate) {
+        // 基準日までの仕訳明細を勘定科目ごとに集計（勘定科目期間残高から取得）
+        List<AccountBalanceSummary> summaries = accountBalanceQueryService
+                .sumByAccountUpTo(companyId, asOfDate);
 
         // エントリの作成
         List<TrialBalanceEntry> entries = new ArrayList<>();
         BigDecimal totalDebit = BigDecimal.ZERO;
         BigDecimal totalCredit = BigDecimal.ZERO;
 
-        for (AccountBalance balance : balanceMap.values()) {
+        for (AccountBalanceSummary summary : summaries) {
             TrialBalanceEntry entry = new TrialBalanceEntry();
-            entry.setAccountCode(balance.account.getCode());
-            entry.setAccountName(balance.account.getName());
-            entry.setAccountType(balance.account.getAccountType().name());
+            entry.setAccountCode(summary.getAccountCode());
+            entry.setAccountName(summary.getAccountName());
+            entry.setAccountType(summary.getAccountType().name());
 
             // 借方残高と貸方残高の計算
-            BigDecimal diff = balance.debitTotal.subtract(balance.creditTotal);
+            BigDecimal diff = summary.getDebitBalance();
             if (diff.compareTo(BigDecimal.ZERO) > 0) {
                 // 借方残高
                 entry.setDebitBalance(diff);
@@ -103,29 +133,135 @@ public class TrialBalanceService {
     }
 
     /**
-     * 勘定科目残高の内部クラス
+     * 補助科目・取引先別の試算表を生成
+     * @param companyId 会社ID
+     * @param asOfDate 基準日
+     * @param bySubAccount 補助科目別に集計する場合true
+     * @param byPartner 取引先別に集計する場合true
+     * @param includeSubtotals 勘定科目ごとの小計行を含める場合true
      */
-    private static class AccountBalance {
-        Account account;
-        BigDecimal debitTotal = BigDecimal.ZERO;
-        BigDecimal creditTotal = BigDecimal.ZERO;
+    public TrialBalanceDrillDownReport generateDrillDown(Long companyId, LocalDate asOfDate,
+                                                         boolean bySubAccount, boolean byPartner,
+                                                         boolean includeSubtotals) {
+        if (!bySubAccount && !byPartner) {
+            throw new BadRequestException("補助科目・取引先の少なくとも一方を集計区分に指定してください");
+        }
+
+        // 基準日までの明細を勘定科目・補助科目・取引先ごとに1回の集計で取得
+        List<AccountDrillDownTotal> rows = new ArrayList<>(accountBalanceQueryService
+                .sumByAccountDrillDownUpTo(companyId, asOfDate, bySubAccount, byPartner));
+        rows.sort(Comparator.comparing(AccountDrillDownTotal::getAccountCode)
+                .thenComparing(AccountDrillDownTotal::getSubAccountCode, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(AccountDrillDownTotal::getPartnerCode, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        List<TrialBalanceDrillDownEntry> entries = new ArrayList<>();
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        BigDecimal totalCredit = BigDecimal.ZERO;
+
+        int index = 0;
+        while (index < rows.size()) {
+            AccountDrillDownTotal first = rows.get(index);
+            BigDecimal accountBalance = BigDecimal.ZERO;
+
+            for (; index < rows.size() && rows.get(index).getAccountId().equals(first.getAccountId()); index++) {
+                AccountDrillDownTotal row = rows.get(index);
+                BigDecimal diff = row.getDebitBalance();
+                accountBalance = accountBalance.add(diff);
+
+                TrialBalanceDrillDownEntry entry = newDrillDownEntry(row, diff);
+                entry.setSubAccountId(row.getSubAccountId());
+                entry.setSubAccountCode(row.getSubAccountCode());
+                entry.setSubAccountName(row.getSubAccountName());
+                entry.setPartnerId(row.getPartnerId());
+                entry.setPartnerCode(row.getPartnerCode());
+                entry.setPartnerName(row.getPartnerName());
+                entries.add(entry);
+            }
+
+            // 合計は勘定科目単位の残高で集計（通常の試算表と一致させる）
+            BigDecimal diff = accountBalance;
+            if (diff.signum() > 0) {
+                totalDebit = totalDebit.add(diff);
+            } else {
+                totalCredit = totalCredit.subtract(diff);
+            }
 
-        AccountBalance(Account account) {
-            this.account = account;
+            if (includeSubtotals) {
+                TrialBalanceDrillDownEntry subtotal = newDrillDownEntry(first, diff);
+                subtotal.setSubtotal(true);
+                entries.add(subtotal);
+            }
         }
+
+        TrialBalanceDrillDownReport report = new TrialBalanceDrillDownReport();
+        report.setAsOfDate(asOfDate);
+        report.setBySubAccount(bySubAccount);
+        report.setByPartner(byPartner);
+        report.setEntries(entries);
+        report.setTotalDebit(totalDebit);
+        report.setTotalCredit(totalCredit);
+        report.setDifference(totalDebit.subtract(totalCredit));
+
+        return report;
+    }
+
+    private TrialBalanceDrillDownEntry newDrillDownEntry(AccountDrillDownTotal row, BigDecimal diff) {
+        TrialBalanceDrillDownEntry entry = new TrialBalanceDrillDownEntry();
+        entry.setAccountCode(row.getAccountCode());
+        entry.setAccountName(row.getAccountName());
+        entry.setAccountType(row.getAccountType().name());
+
+        // 借方残高と貸方残高の計算
+        if (diff.signum() >= 0) {
+            entry.setDebitBalance(diff);
+            entry.setCreditBalance(BigDecimal.ZERO);
+        } else {
+            entry.setDebitBalance(BigDecimal.ZERO);
+            entry.setCreditBalance(diff.negate());
+        }
+        return entry;
     }
 
     /**
-     * PDF出力（実装予定）
+     * PDF出力
      */
     public byte[] exportPdf(TrialBalanceReport report) {
-        throw new UnsupportedOperationException("PDF出力機能は未実装です");
+        try (ReportTable table = reportPdfRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeTable(table, report);
+            return table.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("PDFの作成に失敗しました", e);
+        }
     }
 
     /**
-     * Excel出力（実装予定）
+     * Excel出力
      */
     public byte[] exportExcel(TrialBalanceReport report) {
-        throw new UnsupportedOperationException("Excel出力機能は未実装です");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeExcel(report, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Excelの作成に失敗しました", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Excelを出力ストリームへ書き込む（出力ストリームはクローズしない）
+     */
+    public void writeExcel(TrialBalanceReport report, OutputStream out) throws IOException {
+        try (ReportTable table = reportExcelRenderer.open(TABLE_TITLE, TABLE_COLUMNS)) {
+            writeTable(table, report);
+            table.writeTo(out);
+        }
+    }
+
+    private void writeTable(ReportTable table, TrialBalanceReport report) throws IOException {
+        table.section("基準日: " + report.getAsOfDate());
+        for (TrialBalanceEntry entry : report.getEntries()) {
+            table.row(entry.getAccountCode(), entry.getAccountName(), entry.getDebitBalance(), entry.getCreditBalance());
+        }
+        table.totalRow(null, "合計", report.getTotalDebit(), report.getTotalCredit());
     }
 }